@@ -20,6 +20,8 @@ package inet.ipaddr;
 
 import java.math.BigInteger;
 import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.stream.Stream;
 
 import inet.ipaddr.AddressComparator.CountComparator;
 import inet.ipaddr.format.AddressDivision;
@@ -148,6 +150,20 @@ public abstract class Address implements AddressSegmentSeries, Comparable<Addres
 		return getSection().segmentsIterator();
 	}
 	
+	@Override
+	public abstract Spliterator<? extends Address> spliterator();
+	
+	@Override
+	public abstract Stream<? extends Address> stream();
+	
+	@Override
+	public abstract Stream<? extends Address> parallelStream();
+	
+	@Override
+	public Spliterator<? extends AddressSegment[]> segmentsSpliterator() {
+		return getSection().segmentsSpliterator();
+	}
+	
 	@Override
 	public abstract Address getLower();
 	
@@ -226,6 +242,11 @@ public abstract class Address implements AddressSegmentSeries, Comparable<Addres
 		return addressSection.getCount();
 	}
 	
+	@Override
+	public long getLongCount() {
+		return addressSection.getLongCount();
+	}
+	
 	@Override
 	public int isMore(AddressDivisionSeries other) {
 		return addressSection.isMore(other);
@@ -19,6 +19,8 @@
 package inet.ipaddr;
 
 import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.stream.Stream;
 
 /**
  * @custom.core
@@ -83,4 +85,13 @@ public interface AddressSection extends AddressSegmentSeries {
 	
 	@Override
 	Iterator<? extends AddressSection> iterator();
+	
+	@Override
+	Spliterator<? extends AddressSection> spliterator();
+	
+	@Override
+	Stream<? extends AddressSection> stream();
+	
+	@Override
+	Stream<? extends AddressSection> parallelStream();
 }
@@ -19,6 +19,8 @@
 package inet.ipaddr;
 
 import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.stream.Stream;
 
 import inet.ipaddr.format.AddressDivisionSeries;
 
@@ -86,6 +88,33 @@ public interface AddressSegmentSeries extends AddressDivisionSeries, AddressComp
 	Iterator<? extends AddressSegmentSeries> iterator();
 	
 	Iterator<? extends AddressSegment[]> segmentsIterator();
+	
+	/**
+	 * Partitions and traverses the individual elements, in the same order as {@link #iterator()}.
+	 * <p>
+	 * Splitting divides the range of values of a segment into two halves, so that the elements can be traversed in parallel.
+	 * The spliterator reports its exact size when the number of elements fits in a long.
+	 * 
+	 * @return
+	 */
+	Spliterator<? extends AddressSegmentSeries> spliterator();
+	
+	/**
+	 * @return a sequential stream of the individual elements, using {@link #spliterator()}
+	 */
+	Stream<? extends AddressSegmentSeries> stream();
+	
+	/**
+	 * @return a parallel stream of the individual elements, using {@link #spliterator()}
+	 */
+	Stream<? extends AddressSegmentSeries> parallelStream();
+	
+	/**
+	 * Partitions and traverses the segment arrays of the individual elements, in the same order as {@link #segmentsIterator()}.
+	 * 
+	 * @return
+	 */
+	Spliterator<? extends AddressSegment[]> segmentsSpliterator();
 
 	/**
 	 * Produces the canonical representation of the address
@@ -21,6 +21,7 @@ package inet.ipaddr;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 import inet.ipaddr.IPAddress.IPVersion;
 import inet.ipaddr.IPAddressTypeNetwork.IPAddressCreator;
@@ -64,9 +65,12 @@ public class HostName implements HostIdentifierString, Comparable<HostName> {
 	private transient String normalizedString, normalizedWildcardString;
 
 	/* the host broken into its parsed components */
-	private ParsedHost parsedHost;
+	private volatile ParsedHost parsedHost;
 
-	private HostNameException validationException;
+	private volatile HostNameException validationException;
+	
+	private static final AtomicReferenceFieldUpdater<HostName, ParsedHost> parsedHostUpdater = 
+			AtomicReferenceFieldUpdater.newUpdater(HostName.class, ParsedHost.class, "parsedHost");
 
 	/* The address if this host represents an ip address, or the address obtained when this host is resolved. */
 	IPAddress resolvedAddress;
@@ -121,22 +125,16 @@ public class HostName implements HostIdentifierString, Comparable<HostName> {
 		if(parsedHost != null) {
 			return;
 		}
-		if(validationException != null) {
-			throw validationException;
+		HostNameException exception = validationException;
+		if(exception != null) {
+			throw exception;
 		}
-		synchronized(this) {
-			if(parsedHost != null) {
-				return;
-			}
-			if(validationException != null) {
-				throw validationException;
-			}
-			try {
-				parsedHost = getValidator().validateHost(this);
-			} catch(HostNameException e) {
-				validationException = e;
-				throw e;
-			}
+		//validation is done without locking, and if threads validate concurrently, they all use the first parsed host published
+		try {
+			parsedHostUpdater.compareAndSet(this, null, getValidator().validateHost(this));
+		} catch(HostNameException e) {
+			validationException = e;
+			throw e;
 		}
 	}
 	
@@ -24,6 +24,8 @@ import java.net.NetworkInterface;
 import java.net.UnknownHostException;
 import java.util.Iterator;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.stream.Stream;
 
 import inet.ipaddr.IPAddressConverter.DefaultAddressConverter;
 import inet.ipaddr.IPAddressSection.IPStringBuilderOptions;
@@ -565,6 +567,37 @@ public abstract class IPAddress extends Address {
 		return getSection().segmentsIterator();
 	}
 	
+	@Override
+	public abstract Spliterator<? extends IPAddress> spliterator();
+	
+	@Override
+	public abstract Stream<? extends IPAddress> stream();
+	
+	@Override
+	public abstract Stream<? extends IPAddress> parallelStream();
+	
+	@Override
+	public Spliterator<? extends IPAddressSegment[]> segmentsSpliterator() {
+		return getSection().segmentsSpliterator();
+	}
+	
+	/**
+	 * Iterates through the prefix blocks of the given prefix length that contain addresses of this subnet, in increasing order,
+	 * such as each /24 block within a /12 subnet, or each /64 block within a /48 subnet.
+	 * <p>
+	 * Each block is produced directly with the given prefix length, without iterating through the individual addresses within the block,
+	 * so the number of iterations is the number of blocks.
+	 * <p>
+	 * Every block contains at least one address of this subnet.  
+	 * When the given prefix length is shorter than the prefix length of this subnet, or when this subnet is a range of values 
+	 * not aligned to the block boundaries such as 1.2.3.1-6 with prefix length 30, the blocks at the edges extend beyond this subnet.
+	 * 
+	 * @param prefixLength the prefix length of the blocks
+	 * @throws AddressTypeException if the prefix length is negative or exceeds the bit count
+	 * @return
+	 */
+	public abstract Iterator<? extends IPAddress> prefixBlockIterator(int prefixLength) throws AddressTypeException;
+	
 	/**
 	 * @return an object to iterate over the individual addresses represented by this object.
 	 */
@@ -726,6 +759,52 @@ public abstract class IPAddress extends Address {
 	 * @return the difference
 	 */
 	public abstract IPAddress[] subtract(IPAddress other);
+	
+	/**
+	 * Merges this address or subnet with the given addresses and subnets into the minimal list of CIDR prefix blocks covering the same addresses, in increasing order.
+	 * <p>
+	 * The arguments can be single addresses, prefix blocks, or subnets with ranges of segment values like 1.2.3-7.*, and can overlap.
+	 * Each of the resulting addresses has a prefix length, so single addresses have a prefix length of the bit count, as produced by {@link #toPrefixLengthString()}.
+	 * The time taken is O(n log n) for n addresses.
+	 * <p>
+	 * If an address is not the same version, the default conversion will be applied, and it that fails, AddressTypeException will be thrown.
+	 * 
+	 * @param addresses
+	 * @throws AddressTypeException if an address cannot be converted to the version of this address
+	 * @return the prefix blocks
+	 */
+	public abstract IPAddress[] mergeToPrefixBlocks(IPAddress... addresses) throws AddressTypeException;
+	
+	/**
+	 * Produces the minimal list of CIDR prefix blocks that span from the lowest address of this and the given subnet to the highest address of the two, in increasing order.
+	 * <p>
+	 * For instance, the range 1.0.0.0 to 1.0.1.5 is spanned by 1.0.0.0/24, 1.0.1.0/30 and 1.0.1.4/31.
+	 * Each of the resulting addresses has a prefix length, so single addresses have a prefix length of the bit count.
+	 * The values are computed with primitive arithmetic, not BigInteger.
+	 * <p>
+	 * If the given address is not the same version, the default conversion will be applied, and it that fails, AddressTypeException will be thrown.
+	 * 
+	 * @param other
+	 * @throws AddressTypeException if the other address cannot be converted to the version of this address
+	 * @return the prefix blocks
+	 */
+	public abstract IPAddress[] spanWithPrefixBlocks(IPAddress other) throws AddressTypeException;
+	
+	/**
+	 * Produces the minimal list of sequential subnets that span from the lowest address of this and the given subnet to the highest address of the two, in increasing order.
+	 * <p>
+	 * A sequential subnet is one in which the segments following a segment with a range of values all cover the full range of values, like 1.2.3-5.*,
+	 * so that the subnet is a single range of consecutive addresses.
+	 * For instance, the range 1.2.3.250 to 1.2.6.5 is spanned by 1.2.3.250-255, 1.2.4-5.* and 1.2.6.0-5.
+	 * The resulting subnets have no prefix length.
+	 * <p>
+	 * If the given address is not the same version, the default conversion will be applied, and it that fails, AddressTypeException will be thrown.
+	 * 
+	 * @param other
+	 * @throws AddressTypeException if the other address cannot be converted to the version of this address
+	 * @return the sequential subnets
+	 */
+	public abstract IPAddress[] spanWithSequentialBlocks(IPAddress other) throws AddressTypeException;
 
 	public static IPAddress from(InetAddress inetAddress) {
 		byte bytes[] = inetAddress.getAddress();
@@ -877,6 +956,38 @@ public abstract class IPAddress extends Address {
 		return getSection().toNormalizedString(params);
 	}
 	
+	/**
+	 * Appends the string produced by {@link #toNormalizedString(IPStringOptions)} to the given builder, without creating or caching the string.
+	 * 
+	 * @param params the parameters for the address string
+	 * @param builder
+	 * @return the given builder
+	 */
+	public StringBuilder appendNormalizedString(IPStringOptions params, StringBuilder builder) {
+		return getSection().appendNormalizedString(params, builder);
+	}
+	
+	/**
+	 * Appends the string produced by {@link #toCanonicalString()} to the given builder.
+	 * If the string has not already been produced and cached, it is written directly to the builder without being created or cached.
+	 * 
+	 * @param builder
+	 * @return the given builder
+	 */
+	public StringBuilder appendCanonicalString(StringBuilder builder) {
+		return getSection().appendCanonicalString(builder);
+	}
+	
+	/**
+	 * Appends the string produced by {@link #toCompressedString()} to the given builder, as with {@link #appendCanonicalString(StringBuilder)}.
+	 * 
+	 * @param builder
+	 * @return the given builder
+	 */
+	public StringBuilder appendCompressedString(StringBuilder builder) {
+		return getSection().appendCompressedString(builder);
+	}
+	
 	/**
 	 * Returns at most a few dozen string representations:
 	 * 
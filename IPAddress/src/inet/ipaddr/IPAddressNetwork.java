@@ -19,10 +19,17 @@
 package inet.ipaddr;
 
 import java.io.Serializable;
+import java.lang.management.ManagementFactory;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 import inet.ipaddr.Address.SegmentValueProvider;
 import inet.ipaddr.IPAddress.IPVersion;
+import inet.ipaddr.format.util.BoundedCacheMap;
 import inet.ipaddr.format.validate.HostIdentifierStringValidator;
 import inet.ipaddr.ipv4.IPv4Address;
 
@@ -108,6 +115,8 @@ public abstract class IPAddressNetwork extends AddressNetwork {
 	 * You choose the map of your choice to be the backing map for the cache.
 	 * For example, for thread-safe access to the cache, ConcurrentHashMap is a good choice.
 	 * For maps of bounded size, LinkedHashMap provides the removeEldestEntry method to override to implement LRU or other eviction mechanisms.
+	 * For a map that is both thread-safe and bounded in size or weight, with LRU eviction and optionally admission by frequency of use, 
+	 * {@link inet.ipaddr.format.util.BoundedCacheMap} is a good choice, keeping the heap usage of the cache predictable as the addresses in use change over time.
 	 * 
 	 * @author sfoley
 	 *
@@ -116,8 +125,132 @@ public abstract class IPAddressNetwork extends AddressNetwork {
 	public static abstract class HostIdentifierStringCache<T extends HostIdentifierString> implements Serializable {
 		private static final long serialVersionUID = 1L;
 		
+		/**
+		 * An immutable snapshot of the statistics of a cache.
+		 * 
+		 * @author sfoley
+		 *
+		 */
+		public static class CacheStatistics implements Serializable {
+			
+			private static final long serialVersionUID = 1L;
+			
+			private final long hitCount, missCount, creationCount, evictionCount, totalLoadTime;
+			private final int size;
+			
+			CacheStatistics(long hitCount, long missCount, long creationCount, long evictionCount, long totalLoadTime, int size) {
+				this.hitCount = hitCount;
+				this.missCount = missCount;
+				this.creationCount = creationCount;
+				this.evictionCount = evictionCount;
+				this.totalLoadTime = totalLoadTime;
+				this.size = size;
+			}
+			
+			/**
+			 * @return the number of lookups that found an existing entry
+			 */
+			public long getHitCount() {
+				return hitCount;
+			}
+			
+			/**
+			 * @return the number of lookups that found no existing entry
+			 */
+			public long getMissCount() {
+				return missCount;
+			}
+			
+			/**
+			 * @return the number of objects created and added to the cache, which can be fewer than the misses when threads race to add the same entry
+			 */
+			public long getCreationCount() {
+				return creationCount;
+			}
+			
+			/**
+			 * @return the number of entries evicted or not admitted by the backing map, which is counted when the backing map is a {@link BoundedCacheMap}, and is otherwise zero
+			 */
+			public long getEvictionCount() {
+				return evictionCount;
+			}
+			
+			/**
+			 * @return the total time in nanoseconds spent creating objects for lookups that found no existing entry
+			 */
+			public long getTotalLoadTime() {
+				return totalLoadTime;
+			}
+			
+			/**
+			 * @return the size of the backing map
+			 */
+			public int getSize() {
+				return size;
+			}
+			
+			/**
+			 * @return the proportion of lookups that found an existing entry, or 1 if there have been no lookups
+			 */
+			public double getHitRate() {
+				long lookups = hitCount + missCount;
+				return lookups == 0 ? 1.0 : ((double) hitCount) / lookups;
+			}
+			
+			/**
+			 * @return the average time in nanoseconds spent creating objects for a lookup that found no existing entry
+			 */
+			public double getAverageLoadTime() {
+				return missCount == 0 ? 0.0 : ((double) totalLoadTime) / missCount;
+			}
+			
+			@Override
+			public String toString() {
+				return "hits: " + hitCount + ", misses: " + missCount + ", creations: " + creationCount + 
+						", evictions: " + evictionCount + ", load time: " + totalLoadTime + "ns, size: " + size;
+			}
+		}
+		
+		/**
+		 * The management interface of the statistics of a cache, registered by {@link HostIdentifierStringCache#registerStatisticsMBean(String)}.
+		 * 
+		 * @author sfoley
+		 *
+		 */
+		public interface CacheStatisticsMXBean {
+			
+			long getHitCount();
+			
+			long getMissCount();
+			
+			long getCreationCount();
+			
+			long getEvictionCount();
+			
+			long getTotalLoadTime();
+			
+			int getSize();
+			
+			double getHitRate();
+			
+			double getAverageLoadTime();
+			
+			boolean isRecordingStatistics();
+			
+			void setRecordingStatistics(boolean record);
+		}
+		
+		private static class StatisticsCounter implements Serializable {
+			
+			private static final long serialVersionUID = 1L;
+			
+			final LongAdder hits = new LongAdder(), misses = new LongAdder(), creations = new LongAdder(), loadTime = new LongAdder();
+		}
+		
 		protected Map<String, T> backingMap;
 		
+		private volatile StatisticsCounter statistics;
+		
 		public HostIdentifierStringCache(Map<String, T> backingMap) {
 			this.backingMap = backingMap;
 		}
@@ -126,6 +259,109 @@ public abstract class IPAddressNetwork extends AddressNetwork {
 			return backingMap;
 		}
 		
+		/**
+		 * Starts or stops recording the statistics available from {@link #getStatistics()}.  
+		 * Starting resets the statistics to zero.  Statistics are not recorded by default.
+		 * 
+		 * @param record
+		 */
+		public void setRecordingStatistics(boolean record) {
+			statistics = record ? new StatisticsCounter() : null;
+		}
+		
+		public boolean isRecordingStatistics() {
+			return statistics != null;
+		}
+		
+		/**
+		 * @return a snapshot of the statistics recorded since recording started, all zero except for the evictions and size when not recording
+		 */
+		public CacheStatistics getStatistics() {
+			long evictions = (backingMap instanceof BoundedCacheMap) ? ((BoundedCacheMap<?, ?>) backingMap).getEvictionCount() : 0;
+			StatisticsCounter counter = statistics;
+			if(counter == null) {
+				return new CacheStatistics(0, 0, 0, evictions, 0, backingMap.size());
+			}
+			return new CacheStatistics(counter.hits.sum(), counter.misses.sum(), counter.creations.sum(), evictions, counter.loadTime.sum(), backingMap.size());
+		}
+		
+		/**
+		 * Registers an MXBean with the platform MBean server, with attributes for the current statistics of this cache, 
+		 * and with the RecordingStatistics attribute to start and stop recording.
+		 * <p>
+		 * Unregister the bean with the returned name when the cache is no longer in use, so that the cache can be reclaimed.
+		 * 
+		 * @param name the name property of the bean, distinguishing this cache from others of the same type
+		 * @return the name of the registered bean
+		 * @throws JMException if the bean could not be registered, such as when the name is already in use
+		 */
+		public ObjectName registerStatisticsMBean(String name) throws JMException {
+			return registerStatisticsMBean(name, ManagementFactory.getPlatformMBeanServer());
+		}
+		
+		/**
+		 * Registers the statistics bean with the given MBean server.
+		 * 
+		 * @see #registerStatisticsMBean(String)
+		 */
+		public ObjectName registerStatisticsMBean(String name, MBeanServer server) throws JMException {
+			HostIdentifierStringCache<T> cache = this;
+			CacheStatisticsMXBean bean = new CacheStatisticsMXBean() {
+				
+				@Override
+				public long getHitCount() {
+					return getStatistics().getHitCount();
+				}
+				
+				@Override
+				public long getMissCount() {
+					return getStatistics().getMissCount();
+				}
+				
+				@Override
+				public long getCreationCount() {
+					return getStatistics().getCreationCount();
+				}
+				
+				@Override
+				public long getEvictionCount() {
+					return getStatistics().getEvictionCount();
+				}
+				
+				@Override
+				public long getTotalLoadTime() {
+					return getStatistics().getTotalLoadTime();
+				}
+				
+				@Override
+				public int getSize() {
+					return backingMap.size();
+				}
+				
+				@Override
+				public double getHitRate() {
+					return getStatistics().getHitRate();
+				}
+				
+				@Override
+				public double getAverageLoadTime() {
+					return getStatistics().getAverageLoadTime();
+				}
+				
+				@Override
+				public boolean isRecordingStatistics() {
+					return cache.isRecordingStatistics();
+				}
+				
+				@Override
+				public void setRecordingStatistics(boolean record) {
+					cache.setRecordingStatistics(record);
+				}
+			};
+			ObjectName objectName = new ObjectName("inet.ipaddr:type=" + getClass().getSimpleName() + ",name=" + ObjectName.quote(name));
+			return server.registerMBean(bean, objectName).getObjectName();
+		}
+		
 		/*
 		 * If you wish to maintain a count of added addresses, or a log, then override this method
 		 */
@@ -148,23 +384,34 @@ public abstract class IPAddressNetwork extends AddressNetwork {
 		 */
 		public T get(String key) {
 			T result = backingMap.get(key);
+			StatisticsCounter counter = statistics;
 			if(result == null) {
+				long start = (counter == null) ? 0 : System.nanoTime();
 				result = create(key);
 				
 				String normalizedKey = result.toNormalizedString();
 				
 				//we want to save the IPAddressString or HostName that was created from the normalized string for things like getHostAddress to have predictable behaviour
 				result = create(normalizedKey);
+				if(counter != null) {
+					counter.loadTime.add(System.nanoTime() - start);
+					counter.misses.increment();
+				}
 				
 				T existing = backingMap.putIfAbsent(normalizedKey, result);
 				if(existing == null) {
 					added(result);
+					if(counter != null) {
+						counter.creations.increment();
+					}
 				} else {
 					result = existing;
 				}
 				if(!normalizedKey.equals(key)) {
 					backingMap.put(key, result);
 				}
+			} else if(counter != null) {
+				counter.hits.increment();
 			}
 			return result;
 		}
@@ -190,20 +437,31 @@ public abstract class IPAddressNetwork extends AddressNetwork {
 		public T get(IPVersion version, SegmentValueProvider lowerValueProvider, SegmentValueProvider upperValueProvider, Integer prefixLength, CharSequence zone) {
 			String key = IPAddress.toNormalizedString(version, lowerValueProvider, upperValueProvider, prefixLength, zone);
 			T result = backingMap.get(key);
+			StatisticsCounter counter = statistics;
 			if(result == null) {
+				long start = (counter == null) ? 0 : System.nanoTime();
 				IPAddress addr = IPAddress.from(version, lowerValueProvider, upperValueProvider, prefixLength, zone);
 				addr.cacheNormalizedString(key);
 				
 				//get the object that wraps the address, either HostName or IPAddressString or other
 				result = create(addr);
+				if(counter != null) {
+					counter.loadTime.add(System.nanoTime() - start);
+					counter.misses.increment();
+				}
 				T existing = backingMap.putIfAbsent(key, result);
 				if(existing == null) {
 					added(result);
+					if(counter != null) {
+						counter.creations.increment();
+					}
 				} else {
 					result = existing;
 					//Since we have the address, we can make the existing host identifier string entry wrap the address
 					cache(result, addr);
 				}
+			} else if(counter != null) {
+				counter.hits.increment();
 			}
 			return result;
 		}
@@ -220,7 +478,7 @@ public abstract class IPAddressNetwork extends AddressNetwork {
 	 * 
 	 * The map will map string representations of the address to IPAddressString objects, which in turn cache any resulting IPAddress objects.
 	 * 
-	 * Those objects are all themselves thread-safe, but the cache will only be thread-safe if you choose a thread-safe map such as ConcurrentHashMap.
+	 * Those objects are all themselves thread-safe, but the cache will only be thread-safe if you choose a thread-safe map such as ConcurrentHashMap or {@link inet.ipaddr.format.util.BoundedCacheMap}.
 	 *
 	 * @author sfoley
 	 *
@@ -284,7 +542,7 @@ public abstract class IPAddressNetwork extends AddressNetwork {
 	 * Those HostName objects in turn cache any resulting IPAddressString objects if the string represents an address, 
 	 * or any IPAddress objects obtained from resolving the HostName.
 	 * 
-	 * Those objects are all themselves thread-safe, but the cache will only be thread-safe if you choose a thread-safe map such as ConcurrentHashMap.
+	 * Those objects are all themselves thread-safe, but the cache will only be thread-safe if you choose a thread-safe map such as ConcurrentHashMap or {@link inet.ipaddr.format.util.BoundedCacheMap}.
 	 *
 	 * @author sfoley
 	 *
@@ -22,12 +22,19 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
 import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.function.BiFunction;
 import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
+import inet.ipaddr.AddressNetwork.AddressSegmentCreator;
 import inet.ipaddr.IPAddress.IPVersion;
 import inet.ipaddr.IPAddressSection.WildcardOptions.WildcardOption;
 import inet.ipaddr.IPAddressTypeNetwork.IPAddressCreator;
@@ -38,6 +45,8 @@ import inet.ipaddr.format.IPAddressDivisionGrouping;
 import inet.ipaddr.format.IPAddressStringDivisionSeries;
 import inet.ipaddr.format.util.IPAddressPartConfiguredString;
 import inet.ipaddr.format.util.IPAddressPartStringCollection;
+import inet.ipaddr.format.util.SequentialRanges;
+import inet.ipaddr.format.util.SequentialRanges.RangeConsumer;
 import inet.ipaddr.format.util.sql.IPAddressSQLTranslator;
 import inet.ipaddr.format.util.sql.MySQLTranslator;
 import inet.ipaddr.format.util.sql.SQLStringMatcher;
@@ -71,7 +80,10 @@ public abstract class IPAddressSection extends IPAddressDivisionGrouping impleme
 		private Integer cachedEquivalentPrefix; //null indicates this field not initialized, -1 indicates the prefix len is null
 	}
 	
-	protected transient PrefixCache prefixCache;
+	protected transient volatile PrefixCache prefixCache;
+	
+	private static final AtomicReferenceFieldUpdater<IPAddressSection, PrefixCache> prefixCacheUpdater = 
+			AtomicReferenceFieldUpdater.newUpdater(IPAddressSection.class, PrefixCache.class, "prefixCache");
 	
 	protected IPAddressSection(IPAddressSegment segments[], byte bytes[], boolean cloneSegments, boolean cloneBytes) {
 		super(cloneSegments ? segments.clone() : segments);
@@ -757,6 +769,227 @@ public abstract class IPAddressSection extends IPAddressDivisionGrouping impleme
 		return section;
 	}
 
+	/**
+	 * Merges the given sections into the minimal list of prefix blocks that cover the same values, in increasing order.
+	 * <p>
+	 * The sequential ranges covered by the sections are sorted and coalesced, and then each range is divided into the largest prefix blocks that fit,
+	 * so the time taken is O(n log n) for n sections, regardless of how the sections overlap.
+	 * 
+	 * @param first
+	 * @param others
+	 * @param addrCreator
+	 * @throws AddressTypeException if the sections do not have the same number of segments
+	 * @return the prefix blocks, each with a prefix length, including single values which have a prefix length of the bit count
+	 */
+	protected static <T extends IPAddress, R extends IPAddressSection, S extends IPAddressSegment> R[] 
+			mergeToPrefixBlocks(R first, R others[], IPAddressCreator<T, R, ?, S> addrCreator) {
+		int segCount = first.getSegmentCount();
+		ArrayList<long[]> ranges = new ArrayList<long[]>(others.length + 1);
+		RangeConsumer adder = (lowerHigh, lowerLow, upperHigh, upperLow) -> ranges.add(new long[] {lowerHigh, lowerLow, upperHigh, upperLow});
+		SequentialRanges.forEachRange(first, adder);
+		for(R other : others) {
+			if(other.getSegmentCount() != segCount) {
+				throw new AddressTypeException(first, other, "ipaddress.error.sizeMismatch");
+			}
+			SequentialRanges.forEachRange(other, adder);
+		}
+		ranges.sort((one, two) -> {
+			int result = Long.compareUnsigned(one[0], two[0]);
+			return result == 0 ? Long.compareUnsigned(one[1], two[1]) : result;
+		});
+		
+		int bitsPerSegment = first.getBitsPerSegment();
+		int bitCount = first.getBitCount();
+		ArrayList<R> blocks = new ArrayList<R>();
+		long range[] = null;
+		for(long next[] : ranges) {
+			if(range != null) {
+				//merge when the next range starts no more than one past the end of the current range
+				long upperLowIncremented = range[3] + 1;
+				long upperHighIncremented = upperLowIncremented == 0 ? range[2] + 1 : range[2];
+				boolean isMax = upperHighIncremented == 0 && upperLowIncremented == 0 && bitCount == (Long.SIZE << 1);
+				if(isMax || SequentialRanges.compareUnsigned(next[0], next[1], upperHighIncremented, upperLowIncremented) <= 0) {
+					if(SequentialRanges.compareUnsigned(next[2], next[3], range[2], range[3]) > 0) {
+						range[2] = next[2];
+						range[3] = next[3];
+					}
+					continue;
+				}
+				addPrefixBlocks(range, bitCount, bitsPerSegment, segCount, addrCreator, blocks);
+			}
+			range = next;
+		}
+		addPrefixBlocks(range, bitCount, bitsPerSegment, segCount, addrCreator, blocks);
+		R result[] = addrCreator.createSectionArray(blocks.size());
+		blocks.toArray(result);
+		return result;
+	}
+	
+	/**
+	 * Returns the lowest value of the two sections followed by the highest value of the two sections, each held in two longs.
+	 */
+	private static long[] getSpanningRange(IPAddressSection first, IPAddressSection other) {
+		if(first.getSegmentCount() != other.getSegmentCount()) {
+			throw new AddressTypeException(first, other, "ipaddress.error.sizeMismatch");
+		}
+		long lower[] = SequentialRanges.getValue(first, false), otherLower[] = SequentialRanges.getValue(other, false);
+		long upper[] = SequentialRanges.getValue(first, true), otherUpper[] = SequentialRanges.getValue(other, true);
+		if(SequentialRanges.compareUnsigned(otherLower[0], otherLower[1], lower[0], lower[1]) < 0) {
+			lower = otherLower;
+		}
+		if(SequentialRanges.compareUnsigned(otherUpper[0], otherUpper[1], upper[0], upper[1]) > 0) {
+			upper = otherUpper;
+		}
+		return new long[] {lower[0], lower[1], upper[0], upper[1]};
+	}
+	
+	/**
+	 * Produces the minimal list of prefix blocks that span from the lowest value of the two sections to the highest value of the two sections, in increasing order.
+	 * The values are held in two longs, so no BigInteger arithmetic is needed.
+	 * 
+	 * @param first
+	 * @param other
+	 * @param addrCreator
+	 * @throws AddressTypeException if the sections do not have the same number of segments
+	 * @return the prefix blocks, each with a prefix length, including single values which have a prefix length of the bit count
+	 */
+	protected static <T extends IPAddress, R extends IPAddressSection, S extends IPAddressSegment> R[] 
+			spanWithPrefixBlocks(R first, R other, IPAddressCreator<T, R, ?, S> addrCreator) {
+		long range[] = getSpanningRange(first, other);
+		ArrayList<R> blocks = new ArrayList<R>();
+		addPrefixBlocks(range, first.getBitCount(), first.getBitsPerSegment(), first.getSegmentCount(), addrCreator, blocks);
+		R result[] = addrCreator.createSectionArray(blocks.size());
+		blocks.toArray(result);
+		return result;
+	}
+	
+	/**
+	 * Produces the minimal list of sequential blocks that span from the lowest value of the two sections to the highest value of the two sections, in increasing order.
+	 * A sequential block is a series of segments in which the segments following a segment with a range of values are full ranges, such as 1.2.3-5.*.
+	 * 
+	 * @param first
+	 * @param other
+	 * @param addrCreator
+	 * @throws AddressTypeException if the sections do not have the same number of segments
+	 * @return the sequential blocks, with no prefix lengths
+	 */
+	protected static <T extends IPAddress, R extends IPAddressSection, S extends IPAddressSegment> R[] 
+			spanWithSequentialBlocks(R first, R other, IPAddressCreator<T, R, ?, S> addrCreator) {
+		long range[] = getSpanningRange(first, other);
+		int segCount = first.getSegmentCount();
+		int bitsPerSegment = first.getBitsPerSegment();
+		int lower[] = new int[segCount], upper[] = new int[segCount];
+		for(int i = 0; i < segCount; i++) {
+			int shift = (segCount - i - 1) * bitsPerSegment;
+			lower[i] = (int) (shift >= Long.SIZE ? range[0] >>> (shift - Long.SIZE) : range[1] >>> shift) & ~(-1 << bitsPerSegment);
+			upper[i] = (int) (shift >= Long.SIZE ? range[2] >>> (shift - Long.SIZE) : range[3] >>> shift) & ~(-1 << bitsPerSegment);
+		}
+		ArrayList<R> blocks = new ArrayList<R>();
+		addSequentialBlocks(lower, upper, ~(-1 << bitsPerSegment), addrCreator, blocks);
+		R result[] = addrCreator.createSectionArray(blocks.size());
+		blocks.toArray(result);
+		return result;
+	}
+	
+	/**
+	 * Adds the minimal list of sequential blocks spanning the given segment values, in increasing order.
+	 * At the first segment where the lower and upper values differ, the block is split into a lower part that ends with the lower value in that segment, 
+	 * a middle part that is a single sequential block, and an upper part that starts with the upper value in that segment.
+	 */
+	private static <T extends IPAddress, R extends IPAddressSection, S extends IPAddressSegment> void 
+			addSequentialBlocks(int lower[], int upper[], int maxSegmentValue, IPAddressCreator<T, R, ?, S> addrCreator, ArrayList<R> blocks) {
+		int segCount = lower.length;
+		int i = 0;
+		while(i < segCount && lower[i] == upper[i]) {
+			i++;
+		}
+		boolean lowerIsStart = true, upperIsEnd = true;
+		for(int j = i + 1; j < segCount; j++) {
+			lowerIsStart &= lower[j] == 0;
+			upperIsEnd &= upper[j] == maxSegmentValue;
+		}
+		if(lowerIsStart && upperIsEnd) {
+			blocks.add(createSequentialBlock(lower, upper, addrCreator));
+			return;
+		}
+		int middleLower = lower[i], middleUpper = upper[i];
+		if(!lowerIsStart) {
+			int blockUpper[] = lower.clone();
+			Arrays.fill(blockUpper, i + 1, segCount, maxSegmentValue);
+			addSequentialBlocks(lower, blockUpper, maxSegmentValue, addrCreator, blocks);
+			middleLower++;
+		}
+		if(!upperIsEnd) {
+			middleUpper--;
+		}
+		if(middleLower <= middleUpper) {
+			int blockLower[] = lower.clone(), blockUpper[] = upper.clone();
+			blockLower[i] = middleLower;
+			blockUpper[i] = middleUpper;
+			Arrays.fill(blockLower, i + 1, segCount, 0);
+			Arrays.fill(blockUpper, i + 1, segCount, maxSegmentValue);
+			blocks.add(createSequentialBlock(blockLower, blockUpper, addrCreator));
+		}
+		if(!upperIsEnd) {
+			int blockLower[] = upper.clone();
+			Arrays.fill(blockLower, i + 1, segCount, 0);
+			addSequentialBlocks(blockLower, upper, maxSegmentValue, addrCreator, blocks);
+		}
+	}
+	
+	private static <T extends IPAddress, R extends IPAddressSection, S extends IPAddressSegment> R 
+			createSequentialBlock(int lower[], int upper[], IPAddressCreator<T, R, ?, S> addrCreator) {
+		S segments[] = addrCreator.createSegmentArray(lower.length);
+		for(int i = 0; i < segments.length; i++) {
+			segments[i] = addrCreator.createSegment(lower[i], upper[i], null);
+		}
+		return addrCreator.createSectionInternal(segments);
+	}
+	
+	/**
+	 * Divides the range into the largest prefix blocks that fit, starting from the lower value.
+	 * Each block is as large as the alignment of its lower value allows, and no larger than the remainder of the range.
+	 */
+	private static <T extends IPAddress, R extends IPAddressSection, S extends IPAddressSegment> void 
+			addPrefixBlocks(long range[], int bitCount, int bitsPerSegment, int segCount, IPAddressCreator<T, R, ?, S> addrCreator, ArrayList<R> blocks) {
+		long lowerHigh = range[0], lowerLow = range[1];
+		long upperHigh = range[2], upperLow = range[3];
+		while(true) {
+			int hostBits;
+			if(lowerLow != 0) {
+				hostBits = Long.numberOfTrailingZeros(lowerLow);
+			} else if(lowerHigh != 0) {
+				hostBits = Long.SIZE + Long.numberOfTrailingZeros(lowerHigh);
+			} else {
+				hostBits = bitCount;
+			}
+			hostBits = Math.min(hostBits, bitCount);
+			long blockUpperHigh, blockUpperLow;
+			while(true) {
+				blockUpperLow = lowerLow | (hostBits >= Long.SIZE ? -1L : ~(-1L << hostBits));
+				blockUpperHigh = lowerHigh | (hostBits <= Long.SIZE ? 0 : -1L >>> ((Long.SIZE << 1) - hostBits));
+				if(SequentialRanges.compareUnsigned(blockUpperHigh, blockUpperLow, upperHigh, upperLow) <= 0) {
+					break;
+				}
+				hostBits--;
+			}
+			int prefix = bitCount - hostBits;
+			S segments[] = addrCreator.createSegmentArray(segCount);
+			for(int i = 0; i < segCount; i++) {
+				int shift = (segCount - i - 1) * bitsPerSegment;
+				long bits = shift >= Long.SIZE ? lowerHigh >>> (shift - Long.SIZE) : lowerLow >>> shift;
+				int value = (int) bits & ~(-1 << bitsPerSegment);
+				segments[i] = addrCreator.createSegment(value, getSegmentPrefixLength(bitsPerSegment, prefix, i));
+			}
+			blocks.add(addrCreator.createSectionInternal(segments));
+			if(blockUpperHigh == upperHigh && blockUpperLow == upperLow) {
+				break;
+			}
+			lowerLow = blockUpperLow + 1;
+			lowerHigh = lowerLow == 0 ? blockUpperHigh + 1 : blockUpperHigh;
+		}
+	}
+
 	/**
 	 * Returns whether the given mask and prefix combination can be used to generate a subnet.
 	 * See {@link IPAddress#isMaskCompatibleWithRange(IPAddress, Integer)}
@@ -916,12 +1149,7 @@ public abstract class IPAddressSection extends IPAddressDivisionGrouping impleme
 
 	private boolean hasNoPrefixCache() {
 		if(prefixCache == null) {
-			synchronized(this) {
-				if(prefixCache == null) {
-					prefixCache = new PrefixCache();
-					return true;
-				}
-			}
+			return prefixCacheUpdater.compareAndSet(this, null, new PrefixCache());
 		}
 		return false;
 	}
@@ -1036,6 +1264,75 @@ public abstract class IPAddressSection extends IPAddressDivisionGrouping impleme
 	@Override
 	public abstract Iterator<? extends IPAddressSegment[]> segmentsIterator();
 	
+	@Override
+	public abstract Spliterator<? extends IPAddressSection> spliterator();
+	
+	@Override
+	public abstract Stream<? extends IPAddressSection> stream();
+	
+	@Override
+	public abstract Stream<? extends IPAddressSection> parallelStream();
+	
+	@Override
+	public abstract Spliterator<? extends IPAddressSegment[]> segmentsSpliterator();
+	
+	/**
+	 * Iterates through the prefix blocks of the given prefix length that contain values of this section, in increasing order.
+	 * <p>
+	 * See {@link IPAddress#prefixBlockIterator(int)}.
+	 * 
+	 * @param prefixLength
+	 * @throws AddressTypeException if the prefix length is negative or exceeds the bit count
+	 * @return
+	 */
+	public abstract Iterator<? extends IPAddressSection> prefixBlockIterator(int prefixLength) throws AddressTypeException;
+	
+	protected <S extends IPAddressSegment> Iterator<S[]> prefixBlockSegmentsIterator(int prefixLength, AddressSegmentCreator<S> segmentCreator) throws AddressTypeException {
+		checkSubnet(prefixLength);
+		int bitsPerSegment = getBitsPerSegment();
+		IntFunction<Iterator<S>> segIteratorProducer = index -> {
+			//each segment iterates through the distinct values of its prefix bits, with the host bits spanning all values
+			IPAddressSegment seg = getSegment(index);
+			Integer segmentPrefix = getSegmentPrefixLength(bitsPerSegment, prefixLength, index);
+			int shift = (segmentPrefix == null) ? 0 : bitsPerSegment - segmentPrefix;
+			int hostMask = ~(~0 << shift);
+			int upper = seg.getUpperSegmentValue() >>> shift;
+			return new Iterator<S>() {
+				int current = seg.getLowerSegmentValue() >>> shift;
+				
+				@Override
+				public boolean hasNext() {
+					return current <= upper;
+				}
+				
+				@Override
+				public S next() {
+					if(current > upper) {
+						throw new NoSuchElementException();
+					}
+					int value = current++ << shift;
+					if(segmentPrefix == null) {
+						return segmentCreator.createSegment(value);
+					}
+					return segmentCreator.createSegment(value, value | hostMask, segmentPrefix);
+				}
+				
+				@Override
+				public void remove() {
+					throw new UnsupportedOperationException();
+				}
+			};
+		};
+		Supplier<S[]> segSupplier = () -> {
+			S segs[] = segmentCreator.createSegmentArray(getSegmentCount());
+			for(int i = 0; i < segs.length; i++) {
+				segs[i] = segIteratorProducer.apply(i).next();
+			}
+			return segs;
+		};
+		return iterator(segmentCreator, segSupplier, segIteratorProducer);
+	}
+	
 	public boolean isEntireAddress() {
 		return getSegmentCount() == IPAddress.segmentCount(getIPVersion());
 	}
@@ -1240,6 +1537,37 @@ public abstract class IPAddressSection extends IPAddressDivisionGrouping impleme
 		return toNormalizedString(stringOptions, this);
 	}
 
+	/**
+	 * Appends the string produced by {@link #toNormalizedString(IPStringOptions)} to the given builder.
+	 * <p>
+	 * No string is created, and nothing is cached, so this suits writing large numbers of addresses to a single builder.
+	 * 
+	 * @param stringOptions
+	 * @param builder
+	 * @return the given builder
+	 */
+	public StringBuilder appendNormalizedString(IPStringOptions stringOptions, StringBuilder builder) {
+		return toIPParams(stringOptions).append(builder, this, null);
+	}
+	
+	/**
+	 * Appends the string produced by {@link #toCanonicalString()} to the given builder.
+	 * <p>
+	 * When the string has already been produced it is appended from the cache, otherwise it is written directly to the builder without being created or cached.
+	 * 
+	 * @param builder
+	 * @return the given builder
+	 */
+	public abstract StringBuilder appendCanonicalString(StringBuilder builder);
+	
+	/**
+	 * Appends the string produced by {@link #toCompressedString()} to the given builder, as with {@link #appendCanonicalString(StringBuilder)}.
+	 * 
+	 * @param builder
+	 * @return the given builder
+	 */
+	public abstract StringBuilder appendCompressedString(StringBuilder builder);
+
 	public static String toNormalizedString(IPStringOptions opts, IPAddressStringDivisionSeries section) {
 		return toIPParams(opts).toString(section);
 	}
@@ -18,6 +18,7 @@
 
 package inet.ipaddr;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
@@ -25,7 +26,9 @@ import java.util.List;
 import java.util.NoSuchElementException;
 
 import inet.ipaddr.IPAddress.IPVersion;
+import inet.ipaddr.format.validate.ByteCharSequence;
 import inet.ipaddr.format.validate.HostIdentifierStringValidator;
+import inet.ipaddr.format.validate.IPAddressParser;
 import inet.ipaddr.format.validate.IPAddressProvider;
 import inet.ipaddr.format.validate.Validator;
 import inet.ipaddr.ipv4.IPv4Address;
@@ -468,6 +471,43 @@ public class IPAddressString implements HostIdentifierString, Comparable<IPAddre
 		}
 	}
 	
+	/**
+	 * Parses the given characters to produce the same {@link IPAddress} as {@link #toAddress()} would for an IPAddressString constructed from the same characters and options,
+	 * but without constructing an IPAddressString.
+	 * Leading and trailing whitespace is skipped, just as it is trimmed by the IPAddressString constructor.
+	 * <p>
+	 * The address is created before this method returns, so the character sequence is not retained by the address.
+	 * The parse data is not retained either, and is reused by subsequent calls from the same thread, see {@link IPAddressParser}.
+	 * 
+	 * @param str
+	 * @param validationOptions
+	 * @return the address, or null if the string does not represent a specific IPAddress or a ranged IPAddress, such as the empty string or a prefix alone
+	 * @throws AddressStringException if the address format is invalid
+	 * @throws AddressTypeException if the address string cannot be represented by an IPAddress, as described in {@link #toAddress()}
+	 */
+	public static IPAddress parseAddress(CharSequence str, IPAddressStringParameters validationOptions) throws AddressStringException, AddressTypeException {
+		return IPAddressParser.getThreadParser().parseAddress(str, validationOptions);
+	}
+	
+	/**
+	 * Parses an address from the ASCII characters in the given range of a byte array, without copying the bytes into a String.
+	 * 
+	 * @see #parseAddress(CharSequence, IPAddressStringParameters)
+	 */
+	public static IPAddress parseAddress(byte bytes[], int offset, int length, IPAddressStringParameters validationOptions) throws AddressStringException, AddressTypeException {
+		return parseAddress(new ByteCharSequence(bytes, offset, length), validationOptions);
+	}
+	
+	/**
+	 * Parses an address from the ASCII characters in the given range of a byte buffer, without copying the bytes into a String.
+	 * The offset is an absolute index into the buffer, and the position and limit of the buffer are not used or changed.
+	 * 
+	 * @see #parseAddress(CharSequence, IPAddressStringParameters)
+	 */
+	public static IPAddress parseAddress(ByteBuffer buffer, int offset, int length, IPAddressStringParameters validationOptions) throws AddressStringException, AddressTypeException {
+		return parseAddress(new ByteCharSequence(buffer, offset, length), validationOptions);
+	}
+	
 	public static void validateNetworkPrefix(IPVersion ipVersion, int networkPrefixLength, boolean allowPrefixesBeyondAddressSize) throws AddressTypeException {
 		boolean asIPv4 = (ipVersion != null && ipVersion.isIPv4());
 		if(networkPrefixLength > (asIPv4 ? IPv4Address.BIT_COUNT : IPv6Address.BIT_COUNT)) {
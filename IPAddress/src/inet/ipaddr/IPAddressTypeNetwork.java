@@ -18,10 +18,10 @@
 
 package inet.ipaddr;
 
-import java.lang.reflect.Array;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
@@ -38,13 +38,13 @@ import inet.ipaddr.format.IPAddressDivisionGrouping.RangeList;
  * @param <T> the address class
  */
 public abstract class IPAddressTypeNetwork<T extends IPAddress, R extends IPAddressSection, S extends IPAddressSegment> extends IPAddressNetwork {
-	private final T subnets[];
-	private final T subnetMasks[];
-	private final T hostMasks[];
+	private final AtomicReferenceArray<T> subnets;
+	private final AtomicReferenceArray<T> subnetMasks;
+	private final AtomicReferenceArray<T> hostMasks;
 	private final long networkSegmentMasks[][];
 	private final long hostSegmentMasks[][];
-	private T loopback;
-	private String loopbackStrings[];
+	private volatile T loopback;
+	private volatile String loopbackStrings[];
 
 	protected static abstract class IPAddressCreator<T extends IPAddress, R extends IPAddressSection, E extends IPAddressSection, S extends IPAddressSegment> 
 			extends AddressCreator<T, R, E, S> {
@@ -130,13 +130,12 @@ public abstract class IPAddressTypeNetwork<T extends IPAddress, R extends IPAddr
 	
 	private IPAddressCreator<T, R, ?, S> creator;
 	
-	@SuppressWarnings("unchecked")
 	protected IPAddressTypeNetwork(Class<T> addressType) {
 		IPVersion version = getIPVersion();
 		int bitSize = IPAddress.bitCount(version);
-		this.subnets = (T[]) Array.newInstance(addressType, bitSize + 1);
-		this.subnetMasks = this.subnets.clone();
-		this.hostMasks = this.subnets.clone();
+		this.subnets = new AtomicReferenceArray<T>(bitSize + 1);
+		this.subnetMasks = new AtomicReferenceArray<T>(bitSize + 1);
+		this.hostMasks = new AtomicReferenceArray<T>(bitSize + 1);
 		this.creator = createAddressCreator();
 		int segmentBitSize = IPAddressSegment.getBitCount(version);
 		int segmentCount = IPAddress.segmentCount(version);
@@ -165,28 +164,22 @@ public abstract class IPAddressTypeNetwork<T extends IPAddress, R extends IPAddr
 
 	@Override
 	public T getLoopback() {
-		if(loopback == null) {
-			synchronized(this) {
-				if(loopback == null) {
-					loopback = createLoopback();
-				}
-			}
+		T result = loopback;
+		if(result == null) {
+			loopback = result = createLoopback();
 		}
-		return loopback;
+		return result;
 	}
 	
 	protected abstract T createLoopback();
 	
 	@Override
 	public String[] getStandardLoopbackStrings() {
-		if(loopbackStrings == null) {
-			synchronized(this) {
-				if(loopbackStrings == null) {
-					loopbackStrings = getLoopback().toStandardStrings();
-				}
-			}
+		String result[] = loopbackStrings;
+		if(result == null) {
+			loopbackStrings = result = getLoopback().toStandardStrings();
 		}
-		return loopbackStrings;
+		return result;
 	}
 	
 	@Override
@@ -236,7 +229,7 @@ public abstract class IPAddressTypeNetwork<T extends IPAddress, R extends IPAddr
 		return getSectionProducer().apply(getHostMask(networkPrefixLength));
 	}
 	
-	private T getMask(int networkPrefixLength, T cache[], boolean network, boolean withPrefixLength) {
+	private T getMask(int networkPrefixLength, AtomicReferenceArray<T> cache, boolean network, boolean withPrefixLength) {
 		int bits = networkPrefixLength;
 		IPVersion version = getIPVersion();
 		int addressBitLength = IPAddress.bitCount(version);
@@ -244,8 +237,10 @@ public abstract class IPAddressTypeNetwork<T extends IPAddress, R extends IPAddr
 			throw new AddressTypeException(bits, version, "ipaddress.error.prefixSize");
 		}
 		int cacheIndex = bits;
-		T subnet = cache[cacheIndex];
+		T subnet = cache.get(cacheIndex);
 		if(subnet == null) {
+			int segmentCount = IPAddress.segmentCount(version);
+			int bitsPerSegment = IPAddress.bitsPerSegment(version);
 			int onesSubnetIndex, zerosSubnetIndex;
 			if(network) {
 				onesSubnetIndex = addressBitLength;
@@ -254,110 +249,109 @@ public abstract class IPAddressTypeNetwork<T extends IPAddress, R extends IPAddr
 				onesSubnetIndex = 0;
 				zerosSubnetIndex = addressBitLength;
 			}
-			T onesSubnet = cache[onesSubnetIndex];
-			T zerosSubnet = cache[zerosSubnetIndex];
-			if(onesSubnet == null || zerosSubnet == null) {
-				synchronized(cache) {
-					int segmentCount = IPAddress.segmentCount(version);
-					int bitsPerSegment = IPAddress.bitsPerSegment(version);
-					onesSubnet = cache[onesSubnetIndex];
-					if(onesSubnet == null) {
-						IPAddressCreator<T, ?, ?, S> creator = getAddressCreator();
-						S newSegments[] = creator.createSegmentArray(segmentCount);
-						int maxSegmentValue = IPAddress.maxSegmentValue(version);
-						if(network && withPrefixLength) {
-							S segment = creator.createSegment(maxSegmentValue, IPAddressSection.getSegmentPrefixLength(bitsPerSegment, addressBitLength) /* null */ );
-							Arrays.fill(newSegments, 0, newSegments.length - 1, segment);
-							S lastSegment = creator.createSegment(maxSegmentValue, IPAddressSection.getSegmentPrefixLength(bitsPerSegment, bitsPerSegment) /* bitsPerSegment */ );
-							newSegments[newSegments.length - 1] = lastSegment;
-						} else {
-							S segment = creator.createSegment(maxSegmentValue);
-							Arrays.fill(newSegments, segment);
-						}
-						onesSubnet = creator.createAddressInternal(newSegments); /* address creation */
-						initMaskCachedValues(onesSubnet.getSection(), network, withPrefixLength, addressBitLength, onesSubnetIndex, segmentCount, bitsPerSegment);
-						cache[onesSubnetIndex] = onesSubnet;
-					}
-					zerosSubnet = cache[zerosSubnetIndex];
-					if(zerosSubnet == null) {
-						IPAddressCreator<T, ?, ?, S> creator = getAddressCreator();
-						S newSegments[] = creator.createSegmentArray(segmentCount);
-						S seg;
-						if(network && withPrefixLength) {
-							seg = creator.createSegment(0, IPAddressSection.getSegmentPrefixLength(bitsPerSegment, 0) /* 0 */);
-						} else {
-							seg = creator.createSegment(0);
-						}
-						Arrays.fill(newSegments, seg);
-						zerosSubnet = creator.createAddressInternal(newSegments); /* address creation */
-						initMaskCachedValues(zerosSubnet.getSection(), network, withPrefixLength, addressBitLength, zerosSubnetIndex, segmentCount, bitsPerSegment);
-						cache[zerosSubnetIndex] = zerosSubnet;
-					}
+			T onesSubnet = cache.get(onesSubnetIndex);
+			if(onesSubnet == null) {
+				IPAddressCreator<T, ?, ?, S> creator = getAddressCreator();
+				S newSegments[] = creator.createSegmentArray(segmentCount);
+				int maxSegmentValue = IPAddress.maxSegmentValue(version);
+				if(network && withPrefixLength) {
+					S segment = creator.createSegment(maxSegmentValue, IPAddressSection.getSegmentPrefixLength(bitsPerSegment, addressBitLength) /* null */ );
+					Arrays.fill(newSegments, 0, newSegments.length - 1, segment);
+					S lastSegment = creator.createSegment(maxSegmentValue, IPAddressSection.getSegmentPrefixLength(bitsPerSegment, bitsPerSegment) /* bitsPerSegment */ );
+					newSegments[newSegments.length - 1] = lastSegment;
+				} else {
+					S segment = creator.createSegment(maxSegmentValue);
+					Arrays.fill(newSegments, segment);
 				}
+				onesSubnet = creator.createAddressInternal(newSegments); /* address creation */
+				initMaskCachedValues(onesSubnet.getSection(), network, withPrefixLength, addressBitLength, onesSubnetIndex, segmentCount, bitsPerSegment);
+				onesSubnet = cacheMask(cache, onesSubnetIndex, onesSubnet);
+			}
+			T zerosSubnet = cache.get(zerosSubnetIndex);
+			if(zerosSubnet == null) {
+				IPAddressCreator<T, ?, ?, S> creator = getAddressCreator();
+				S newSegments[] = creator.createSegmentArray(segmentCount);
+				S seg;
+				if(network && withPrefixLength) {
+					seg = creator.createSegment(0, IPAddressSection.getSegmentPrefixLength(bitsPerSegment, 0) /* 0 */);
+				} else {
+					seg = creator.createSegment(0);
+				}
+				Arrays.fill(newSegments, seg);
+				zerosSubnet = creator.createAddressInternal(newSegments); /* address creation */
+				initMaskCachedValues(zerosSubnet.getSection(), network, withPrefixLength, addressBitLength, zerosSubnetIndex, segmentCount, bitsPerSegment);
+				zerosSubnet = cacheMask(cache, zerosSubnetIndex, zerosSubnet);
 			}
 			
-			synchronized(cache) {
-				subnet = cache[cacheIndex];
-				if(subnet == null) {			
-					BiFunction<T, Integer, S> segProducer = getSegmentProducer();				
-					int segmentCount = IPAddress.segmentCount(version);
-					int bitsPerSegment = IPAddress.bitsPerSegment(version);
-					int prefix = bits;
-					S onesSegment = segProducer.apply(onesSubnet, 1);
-					S zerosSegment = segProducer.apply(zerosSubnet, 1);
-					IPAddressCreator<T, ?, ?, S> creator = getAddressCreator();
-					
-					ArrayList<S> segmentList = new ArrayList<S>(segmentCount);
-					int i = 0;
-					for(; bits > 0; i++, bits -= bitsPerSegment) {
-						if(bits <= bitsPerSegment) {
-							S segment = null;
-							
-							//first do a check whether we have already created a segment like the one we need
-							int offset = ((bits - 1) % bitsPerSegment) + 1;
-							for(int j = 0, entry = offset; j < segmentCount; j++, entry += bitsPerSegment) {
-								if(entry != cacheIndex) { //we already know that the entry at cacheIndex is null
-									T prev = cache[entry];
-									if(prev != null) {
-										segment = segProducer.apply(prev, j);
-										break;
-									}
+			subnet = cache.get(cacheIndex);
+			if(subnet == null) {
+				BiFunction<T, Integer, S> segProducer = getSegmentProducer();
+				int prefix = bits;
+				S onesSegment = segProducer.apply(onesSubnet, 1);
+				S zerosSegment = segProducer.apply(zerosSubnet, 1);
+				IPAddressCreator<T, ?, ?, S> creator = getAddressCreator();
+				
+				ArrayList<S> segmentList = new ArrayList<S>(segmentCount);
+				int i = 0;
+				for(; bits > 0; i++, bits -= bitsPerSegment) {
+					if(bits <= bitsPerSegment) {
+						S segment = null;
+						
+						//first do a check whether we have already created a segment like the one we need
+						int offset = ((bits - 1) % bitsPerSegment) + 1;
+						for(int j = 0, entry = offset; j < segmentCount; j++, entry += bitsPerSegment) {
+							if(entry != cacheIndex) { //we already know that the entry at cacheIndex is null
+								T prev = cache.get(entry);
+								if(prev != null) {
+									segment = segProducer.apply(prev, j);
+									break;
 								}
 							}
-							
-							//if none of the other addresses with a similar segment are created yet, we need a new segment.
-							if(segment == null) {
-								int mask = getSegmentNetworkMask(bits);
-								if(network) {
-									if(withPrefixLength) {
-										segment = creator.createSegment(mask, IPAddressSection.getSegmentPrefixLength(bitsPerSegment, bits));
-									} else {
-										segment = creator.createSegment(mask);
-									}
+						}
+						
+						//if none of the other addresses with a similar segment are created yet, we need a new segment.
+						if(segment == null) {
+							int mask = getSegmentNetworkMask(bits);
+							if(network) {
+								if(withPrefixLength) {
+									segment = creator.createSegment(mask, IPAddressSection.getSegmentPrefixLength(bitsPerSegment, bits));
 								} else {
-									segment = creator.createSegment(getSegmentHostMask(bits));
+									segment = creator.createSegment(mask);
 								}
+							} else {
+								segment = creator.createSegment(getSegmentHostMask(bits));
 							}
-							segmentList.add(segment);
-						} else {
-							segmentList.add(network ? onesSegment : zerosSegment);
 						}
+						segmentList.add(segment);
+					} else {
+						segmentList.add(network ? onesSegment : zerosSegment);
 					}
-					for(; i<segmentCount; i++) {
-						segmentList.add(network ? zerosSegment : onesSegment);
-					}
-					S newSegments[] = creator.createSegmentArray(segmentList.size());
-					segmentList.toArray(newSegments);
-					subnet = creator.createAddressInternal(newSegments); /* address creation */
-					
-					//initialize the cache fields since we know what they are now - they do not have to be calculated later
-					initMaskCachedValues(subnet.getSection(), network, withPrefixLength, addressBitLength, prefix, segmentCount, bitsPerSegment);
-					cache[cacheIndex] = subnet; //last thing is to put into the cache - don't put it there before we are done with it
-				} // end subnet from cache is null
-			} //end synchronized
+				}
+				for(; i<segmentCount; i++) {
+					segmentList.add(network ? zerosSegment : onesSegment);
+				}
+				S newSegments[] = creator.createSegmentArray(segmentList.size());
+				segmentList.toArray(newSegments);
+				subnet = creator.createAddressInternal(newSegments); /* address creation */
+				
+				//initialize the cache fields since we know what they are now - they do not have to be calculated later
+				initMaskCachedValues(subnet.getSection(), network, withPrefixLength, addressBitLength, prefix, segmentCount, bitsPerSegment);
+				subnet = cacheMask(cache, cacheIndex, subnet); //last thing is to put into the cache - don't put it there before we are done with it
+			} // end subnet from cache is null
 		} // end subnet from cache is null
 		return subnet;
 	}
+	
+	/* 
+	 * Masks are created without locking and published with compareAndSet, 
+	 * so when threads create the same mask concurrently, they all use the first one published
+	 */
+	private T cacheMask(AtomicReferenceArray<T> cache, int index, T mask) {
+		if(cache.compareAndSet(index, null, mask)) {
+			return mask;
+		}
+		return cache.get(index);
+	}
 
 	private void initMaskCachedValues(
 			IPAddressSection section, 
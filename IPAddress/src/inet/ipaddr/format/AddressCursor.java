@@ -0,0 +1,143 @@
+/*
+ * Copyright 2017 Sean C Foley
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     or at
+ *     https://github.com/seancfoley/IPAddress/blob/master/LICENSE
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package inet.ipaddr.format;
+
+import java.util.NoSuchElementException;
+
+import inet.ipaddr.Address;
+import inet.ipaddr.AddressSegment;
+import inet.ipaddr.AddressSegmentSeries;
+
+/**
+ * A cursor through the individual values of an address or subnet, in the same order as the address iterator.
+ * <p>
+ * Unlike the iterator, which creates an address, a section and segments for each element, 
+ * the cursor holds the segment values of the current element in an array that is updated in place, 
+ * so moving through the values allocates nothing.  
+ * Subclasses provide the current value as primitives, and create the address only when {@link #toAddress()} is called.
+ * <p>
+ * A cursor is positioned before the first value when constructed.  Each call to {@link #advance()} moves to the next value.
+ * <pre>
+ * IPv4AddressCursor cursor = subnet.cursor();
+ * while(cursor.advance()) {
+ * 	int value = cursor.intValue();
+ * 	...
+ * }
+ * </pre>
+ * Cursors are mutable and not thread-safe.
+ * 
+ * @author sfoley
+ *
+ */
+public abstract class AddressCursor {
+	
+	private final int lower[], upper[], current[];
+	private boolean started, done;
+	
+	protected AddressCursor(AddressSegmentSeries series) {
+		int segmentCount = series.getSegmentCount();
+		lower = new int[segmentCount];
+		upper = new int[segmentCount];
+		for(int i = 0; i < segmentCount; i++) {
+			AddressSegment seg = series.getSegment(i);
+			lower[i] = seg.getLowerSegmentValue();
+			upper[i] = seg.getUpperSegmentValue();
+		}
+		current = lower.clone();
+	}
+	
+	/**
+	 * Moves to the next value, which is the lowest value on the first call.
+	 * 
+	 * @return whether there was a next value, if false the cursor is positioned after the last value
+	 */
+	public boolean advance() {
+		if(!started) {
+			started = true;
+			return true;
+		}
+		if(done) {
+			return false;
+		}
+		for(int j = current.length - 1; j >= 0; j--) {
+			if(current[j] < upper[j]) {
+				current[j]++;
+				return true;
+			}
+			current[j] = lower[j];
+		}
+		done = true;
+		return false;
+	}
+	
+	/**
+	 * @return whether the cursor is positioned at a value, which is the case after a call to {@link #advance()} returned true
+	 */
+	public boolean hasValue() {
+		return started && !done;
+	}
+	
+	/**
+	 * Positions the cursor before the first value again.
+	 */
+	public void reset() {
+		System.arraycopy(lower, 0, current, 0, current.length);
+		started = done = false;
+	}
+	
+	public int getSegmentCount() {
+		return current.length;
+	}
+	
+	/**
+	 * @param index
+	 * @throws NoSuchElementException if the cursor is not positioned at a value
+	 * @return the value of the segment at the given index in the current value
+	 */
+	public int getSegmentValue(int index) {
+		checkValue();
+		return current[index];
+	}
+	
+	protected void checkValue() {
+		if(!started || done) {
+			throw new NoSuchElementException();
+		}
+	}
+	
+	/**
+	 * Combines the segment values from the start index to the end index into a long.  
+	 * The cursor must be positioned at a value.
+	 */
+	protected long getBits(int startIndex, int endIndex, int bitsPerSegment) {
+		long result = 0;
+		for(int i = startIndex; i < endIndex; i++) {
+			result = (result << bitsPerSegment) | current[i];
+		}
+		return result;
+	}
+	
+	/**
+	 * Creates the address with the current value.
+	 * 
+	 * @throws NoSuchElementException if the cursor is not positioned at a value
+	 * @return
+	 */
+	public abstract Address toAddress();
+}
@@ -68,6 +68,8 @@ public abstract class AddressDivisionBase implements AddressItem, AddressStringD
 	private static TreeMap<Long, BigInteger> radixPowerMap = new TreeMap<Long, BigInteger>();
 
 	//cached for performance reasons - especially valuable since segments can be shared amongst different addresses as we do with the masks
+	//Strings are immutable, so the cached strings are safely published without locking, 
+	//and threads that compute a string concurrently will each cache an equal string
 	protected transient String cachedString;
 	
 	/* the cached address bytes */
@@ -374,20 +376,15 @@ public abstract class AddressDivisionBase implements AddressItem, AddressStringD
 	public String getString() {
 		String result = cachedString;
 		if(result == null) {
-			synchronized(this) {
-				result = cachedString;
-				if(result == null) {
-					String full;
-					if(!isMultiple()) {
-						result = getDefaultString();
-					} else if(isFullRange() && (full = getDefaultSegmentWildcardString()) != null) {
-						result = full;
-					} else {
-						result = getDefaultRangeString();
-					}
-					cachedString = result;
-				}
+			String full;
+			if(!isMultiple()) {
+				result = getDefaultString();
+			} else if(isFullRange() && (full = getDefaultSegmentWildcardString()) != null) {
+				result = full;
+			} else {
+				result = getDefaultRangeString();
 			}
+			cachedString = result;
 		}
 		return result;
 	}
@@ -399,12 +396,7 @@ public abstract class AddressDivisionBase implements AddressItem, AddressStringD
 	protected String getCachedString() {
 		String result = cachedString;
 		if(result == null) {
-			synchronized(this) {
-				result = cachedString;
-				if(result == null) {
-					cachedString = result = getDefaultString();
-				}
-			}
+			cachedString = result = getDefaultString();
 		}
 		return result;
 	}
@@ -413,9 +405,7 @@ public abstract class AddressDivisionBase implements AddressItem, AddressStringD
 		if(cachedString == null) {
 			String result = getDefaultSegmentWildcardString();
 			if(result != null) {
-				synchronized(this) {
-					cachedString = result;
-				}
+				cachedString = result;
 			}
 		}
 	}
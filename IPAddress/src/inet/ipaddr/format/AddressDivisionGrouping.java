@@ -24,7 +24,10 @@ import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.IntFunction;
 import java.util.function.Supplier;
 
@@ -84,6 +87,7 @@ public class AddressDivisionGrouping implements AddressDivisionSeries, Comparabl
 	
 	protected final AddressDivision divisions[];
 	private transient BigInteger cachedCount;
+	private transient volatile long cachedLongCount; //0 indicates this field not initialized, -1 indicates the count does not fit in a long
 	protected Integer cachedPrefix; //null indicates this field not initialized, -1 indicates the prefix len is null
 	
 	/* for addresses not multiple, we must check each segment, so we cache */
@@ -326,6 +330,10 @@ public class AddressDivisionGrouping implements AddressDivisionSeries, Comparabl
 	}
 
 	protected BigInteger getCountImpl() {
+		long longCount = getLongCount();
+		if(longCount >= 0) {
+			return BigInteger.valueOf(longCount);
+		}
 		BigInteger result = BigInteger.ONE;
 		if(getDivisionCount() > 0) {
 			if(isMultiple()) {
@@ -339,6 +347,44 @@ public class AddressDivisionGrouping implements AddressDivisionSeries, Comparabl
 		return result;
 	}
 	
+	@Override
+	public long getLongCount() {
+		long result = cachedLongCount;
+		if(result == 0) {
+			cachedLongCount = result = getLongCountImpl();
+		}
+		return result;
+	}
+	
+	protected long getLongCountImpl() {
+		long result = 1;
+		if(isMultiple()) {
+			int count = getDivisionCount();
+			for(int i = 0; i < count; i++) {
+				long segCount = getDivision(i).getDivisionValueCount();
+				if(segCount <= 0 || result > Long.MAX_VALUE / segCount) {//a 64 bit division spanning all values has a count of 0
+					return -1;
+				}
+				result *= segCount;
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Compares the counts of the two series using longs when both counts fit in a long.
+	 */
+	protected static int compareCount(AddressDivisionSeries one, AddressDivisionSeries two) {
+		long count = one.getLongCount(), otherCount = two.getLongCount();
+		if(count >= 0 && otherCount >= 0) {
+			return Long.compare(count, otherCount);
+		}
+		if(count >= 0 || otherCount >= 0) {
+			return count >= 0 ? -1 : 1;
+		}
+		return one.getCount().compareTo(two.getCount());
+	}
+	
 	@Override
 	public int isMore(AddressDivisionSeries other) {
 		if(!isMultiple()) {
@@ -347,7 +393,7 @@ public class AddressDivisionGrouping implements AddressDivisionSeries, Comparabl
 		if(!other.isMultiple()) {
 			return 1;
 		}
-		return getCount().compareTo(other.getCount());
+		return compareCount(this, other);
 	}
 	
 	/**
@@ -1028,7 +1074,7 @@ public class AddressDivisionGrouping implements AddressDivisionSeries, Comparabl
 				
 				@Override
 				public R next() {
-					if(!iterator.hasNext()) {
+					if(orig == null) {
 			    		throw new NoSuchElementException();
 			    	}
 					R result = orig;
@@ -1201,6 +1247,150 @@ public class AddressDivisionGrouping implements AddressDivisionSeries, Comparabl
 		};
 	}
 	
+	/**
+	 * A spliterator through the combinations of segment values in a series of segment ranges, in the same order as the iterators.
+	 * <p>
+	 * Splitting divides the values of the first segment with more than one remaining value into two halves, 
+	 * so each of the two spliterators covers a range of consecutive segment values in that segment, and all values in the following segments.
+	 * The size is exact whenever the number of remaining elements fits in a long, which is the case for all IPv4 and MAC subnets, 
+	 * and for IPv6 subnets once they are split to 2^63 addresses or fewer.
+	 * 
+	 * @author sfoley
+	 *
+	 * @param <T> the type of elements
+	 * @param <S> the segment type
+	 */
+	private static class SegmentsSpliterator<T, S extends AddressSegment> implements Spliterator<T> {
+		private final int lower[], upper[], current[];
+		private final AddressSegmentCreator<S> segmentCreator;
+		private final Function<S[], T> resultCreator;
+		private long remaining; //-1 when the number of remaining elements does not fit in a long
+		private boolean done;
+		
+		SegmentsSpliterator(int lower[], int upper[], int current[], AddressSegmentCreator<S> segmentCreator, Function<S[], T> resultCreator) {
+			this.lower = lower;
+			this.upper = upper;
+			this.current = current;
+			this.segmentCreator = segmentCreator;
+			this.resultCreator = resultCreator;
+			remaining = countRemaining();
+		}
+		
+		private long countRemaining() {
+			//the elements from the current one onwards, with the segment values as the digits in a mixed radix number
+			try {
+				long count = 0;
+				for(int i = 0; i < current.length; i++) {
+					count = Math.addExact(Math.multiplyExact(count, upper[i] - lower[i] + 1L), upper[i] - current[i]);
+				}
+				return Math.addExact(count, 1);
+			} catch(ArithmeticException e) {
+				return -1;
+			}
+		}
+		
+		@Override
+		public boolean tryAdvance(Consumer<? super T> action) {
+			if(done) {
+				return false;
+			}
+			S segs[] = segmentCreator.createSegmentArray(current.length);
+			for(int i = 0; i < segs.length; i++) {
+				segs[i] = segmentCreator.createSegment(current[i]);
+			}
+			increment();
+			action.accept(resultCreator.apply(segs));
+			return true;
+		}
+		
+		private void increment() {
+			if(remaining > 0) {
+				remaining--;
+			}
+			for(int j = current.length - 1; j >= 0; j--) {
+				if(current[j] < upper[j]) {
+					current[j]++;
+					return;
+				}
+				current[j] = lower[j];
+			}
+			done = true;
+		}
+		
+		@Override
+		public Spliterator<T> trySplit() {
+			if(done) {
+				return null;
+			}
+			//the leading segments at their upper value are fixed for all remaining elements
+			int segmentCount = current.length;
+			int i = 0;
+			while(i < segmentCount && current[i] == upper[i]) {
+				i++;
+			}
+			if(i == segmentCount) {
+				return null;
+			}
+			//as required for an ordered spliterator, the returned spliterator covers the lower half and this one keeps the upper half
+			int mid = (current[i] + upper[i] + 1) >>> 1;
+			int prefixLower[] = lower.clone(), prefixUpper[] = upper.clone();
+			System.arraycopy(current, 0, prefixLower, 0, i);
+			System.arraycopy(current, 0, lower, 0, i);
+			prefixUpper[i] = mid - 1;
+			SegmentsSpliterator<T, S> prefix = new SegmentsSpliterator<T, S>(prefixLower, prefixUpper, current.clone(), segmentCreator, resultCreator);
+			lower[i] = current[i] = mid;
+			System.arraycopy(lower, i + 1, current, i + 1, segmentCount - (i + 1));
+			remaining = countRemaining();
+			return prefix;
+		}
+		
+		@Override
+		public long estimateSize() {
+			return remaining < 0 ? Long.MAX_VALUE : remaining;
+		}
+		
+		@Override
+		public int characteristics() {
+			int result = ORDERED | DISTINCT | NONNULL | IMMUTABLE;
+			if(remaining >= 0) {
+				result |= SIZED | SUBSIZED;
+			}
+			return result;
+		}
+	}
+	
+	private static <T, S extends AddressSegment> Spliterator<T> spliterator(
+			AddressSegmentSeries series,
+			AddressSegmentCreator<S> segmentCreator,
+			Function<S[], T> resultCreator) {
+		int segmentCount = series.getSegmentCount();
+		int lower[] = new int[segmentCount], upper[] = new int[segmentCount];
+		for(int i = 0; i < segmentCount; i++) {
+			AddressSegment seg = series.getSegment(i);
+			lower[i] = seg.getLowerSegmentValue();
+			upper[i] = seg.getUpperSegmentValue();
+		}
+		return new SegmentsSpliterator<T, S>(lower, upper, lower.clone(), segmentCreator, resultCreator);
+	}
+	
+	protected static <R extends AddressSection, S extends AddressSegment> Spliterator<R> spliterator(
+			boolean useOriginal,
+			R original,
+			AddressCreator<?, R, ?, S> creator) {
+		return spliterator(original, creator, useOriginal ? segs -> original : segs -> creator.createSectionInternal(segs));
+	}
+	
+	protected static <T extends Address, S extends AddressSegment> Spliterator<T> spliterator(
+			T original,
+			AddressCreator<T, ?, ?, S> creator,
+			boolean useOriginal) {
+		return spliterator(original, creator, useOriginal ? segs -> original : segs -> creator.createAddressInternal(segs)); /* address creation */
+	}
+	
+	protected <S extends AddressSegment> Spliterator<S[]> segmentsSpliterator(AddressSegmentCreator<S> segmentCreator) {
+		return spliterator((AddressSegmentSeries) this, segmentCreator, segs -> segs);
+	}
+	
 	protected static <R extends AddressSection, S extends AddressSegment> R getSection(
 			int index,
 			int endIndex,
@@ -36,6 +36,13 @@ public interface AddressDivisionSeries extends AddressItem, AddressStringDivisio
 	 */
 	int isMore(AddressDivisionSeries other);
 	
+	/**
+	 * Returns the same count as {@link #getCount()} when the count fits in a long, without creating a BigInteger.
+	 * 
+	 * @return the count, or -1 if the count exceeds Long.MAX_VALUE, which is only possible for IPv6 subnets and extended MAC subnets
+	 */
+	long getLongCount();
+	
 	/**
 	 * @return the given division in this series.  The first is at index 0.
 	 */
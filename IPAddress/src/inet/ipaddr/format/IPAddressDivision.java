@@ -341,24 +341,19 @@ public abstract class IPAddressDivision extends AddressDivision {
 	public String getString() {
 		String result = cachedString;
 		if(result == null) {
-			synchronized(this) {
-				result = cachedString;
-				if(result == null) {
-					if(isRangeEquivalentToPrefix()) { //covers the case of !isMultiple, ie single addresses
-						result = getDefaultString();
-					} else if(isFullRange()) {
-						result = IPAddress.SEGMENT_WILDCARD_STR;
-					} else {
-						long upperValue = getUpperValue();
-						boolean maskUpper = ADJUST_RANGES_BY_PREFIX && isPrefixed();
-						if(maskUpper) {
-							upperValue &= getDivisionNetworkMask(getDivisionPrefixLength());
-						}
-						result = getDefaultRangeString(getLowerValue(), upperValue, getDefaultTextualRadix(), maskUpper);
-					}
-					cachedString = result;
+			if(isRangeEquivalentToPrefix()) { //covers the case of !isMultiple, ie single addresses
+				result = getDefaultString();
+			} else if(isFullRange()) {
+				result = IPAddress.SEGMENT_WILDCARD_STR;
+			} else {
+				long upperValue = getUpperValue();
+				boolean maskUpper = ADJUST_RANGES_BY_PREFIX && isPrefixed();
+				if(maskUpper) {
+					upperValue &= getDivisionNetworkMask(getDivisionPrefixLength());
 				}
+				result = getDefaultRangeString(getLowerValue(), upperValue, getDefaultTextualRadix(), maskUpper);
 			}
+			cachedString = result;
 		}
 		return result;
 	}
@@ -372,19 +367,14 @@ public abstract class IPAddressDivision extends AddressDivision {
 	public String getWildcardString() {
 		String result = cachedWildcardString;
 		if(result == null) {
-			synchronized(this) {
-				result = cachedWildcardString;
-				if(result == null) {
-					if(!isPrefixed() || !isMultiple()) {
-						result = getString();
-					} else if(isFullRange()) {
-						result = IPAddress.SEGMENT_WILDCARD_STR;
-					} else {
-						result = getDefaultRangeString();
-					}
-					cachedWildcardString = result;
-				}
+			if(!isPrefixed() || !isMultiple()) {
+				result = getString();
+			} else if(isFullRange()) {
+				result = IPAddress.SEGMENT_WILDCARD_STR;
+			} else {
+				result = getDefaultRangeString();
 			}
+			cachedWildcardString = result;
 		}
 		return result;
 	}
@@ -392,9 +382,7 @@ public abstract class IPAddressDivision extends AddressDivision {
 	@Override
 	protected void setFullRangeWildcardString() {
 		if(cachedWildcardString == null) {
-			synchronized(this) {
-				cachedWildcardString = IPAddress.SEGMENT_WILDCARD_STR;
-			}
+			cachedWildcardString = IPAddress.SEGMENT_WILDCARD_STR;
 		}
 	}
 
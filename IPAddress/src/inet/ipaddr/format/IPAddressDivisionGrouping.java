@@ -18,6 +18,8 @@
 
 package inet.ipaddr.format;
 
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
 import inet.ipaddr.IPAddress;
 import inet.ipaddr.IPAddressSection.WildcardOptions.WildcardOption;
 import inet.ipaddr.format.util.IPAddressStringWriter;
@@ -74,7 +76,7 @@ public class IPAddressDivisionGrouping extends AddressDivisionGrouping implement
 			int otherBits = other.getBitCount() - other.getPrefixLength();
 			return bits - otherBits;
 		}
-		return getCount().compareTo(other.getCount());
+		return compareCount(this, other);
 	}
 	
 	/**
@@ -287,6 +289,9 @@ public class IPAddressDivisionGrouping extends AddressDivisionGrouping implement
 	 * When you have no more ranges (and this no more tree nodes to follow), then you can use the field for the cached ZeroRanges object
 	 * which is associated with the path you've followed (which corresponds to the zero-ranges in the address).
 	 * 
+	 * The tree is extended without locking: each new node is added with compareAndSet, 
+	 * and a thread that loses the race to add a node uses the node added by the winner.
+	 * 
 	 * @author sfoley
 	 *
 	 */
@@ -295,10 +300,13 @@ public class IPAddressDivisionGrouping extends AddressDivisionGrouping implement
 		static final int MAX_DIVISION_COUNT = IPv6Address.SEGMENT_COUNT;
 		static final RangeList NO_ZEROS = new RangeList(new Range[0]);
 		
-		RangeCache nextRange[][];//nextRange[x - 1][y - 1] indicates tree entry for cases where the next range is at offset x from the current one and has length y
-		RangeCache parent;//the parent of this entry in the tree
+		//nextRange.get(getNextIndex(x - 1, y - 1)) indicates tree entry for cases where the next range is at offset x from the current one and has length y,
+		//for each offset x there are potentialZeroOffsets - (x - 1) possible lengths y
+		final AtomicReferenceArray<RangeCache> nextRange;
+		final int potentialZeroOffsets;
+		final RangeCache parent;//the parent of this entry in the tree
+		final Range range;
 		RangeList zeroRanges;
-		Range range;
 		
 		RangeCache() {
 			this(null, MAX_DIVISION_COUNT, null);
@@ -307,15 +315,20 @@ public class IPAddressDivisionGrouping extends AddressDivisionGrouping implement
 		
 		private RangeCache(RangeCache parent, int potentialZeroOffsets, Range range) {
 			if(potentialZeroOffsets > 0) {
-				nextRange = new RangeCache[potentialZeroOffsets][];
-				for(int i = 0; i < potentialZeroOffsets; i++) {
-					nextRange[i] = new RangeCache[potentialZeroOffsets - i];
-				}
+				nextRange = new AtomicReferenceArray<RangeCache>((potentialZeroOffsets * (potentialZeroOffsets + 1)) >>> 1);
+				this.potentialZeroOffsets = potentialZeroOffsets;
+			} else {
+				nextRange = null;
+				this.potentialZeroOffsets = 0;
 			}
 			this.parent = parent;
 			this.range = range;
 		}
 		
+		private int getNextIndex(int offsetIndex, int countIndex) {
+			return offsetIndex * potentialZeroOffsets - ((offsetIndex * (offsetIndex - 1)) >>> 1) + countIndex;
+		}
+		
 		private void get(Range ranges[], int rangesIndex) {
 			ranges[--rangesIndex] = range;
 			if(rangesIndex > 0) {
@@ -346,29 +359,25 @@ public class IPAddressDivisionGrouping extends AddressDivisionGrouping implement
 
 		void preloadCache(int lastIndex) {
 			if(nextRange != null) {
-				for(int i = 0; i < nextRange.length; i++) {
-					RangeCache next[] = nextRange[i];
-					for(int j = 0; j < next.length; j++) {
+				for(int i = 0; i < potentialZeroOffsets; i++) {
+					for(int j = 0; j < potentialZeroOffsets - i; j++) {
 						Range newRange;
 						if(lastIndex == -1) {//we are the root ZEROS_CACHE
 							newRange = new Range(i + lastIndex + 1, j + 1);
 						} else {
-							newRange = ZEROS_CACHE.nextRange[i + lastIndex + 1][j].range;
+							newRange = ZEROS_CACHE.nextRange.get(ZEROS_CACHE.getNextIndex(i + lastIndex + 1, j)).range;
 						}
 						int nextPotentialZeroIndex = i + lastIndex + j + 3;
 						int remainingPotentialZeroOffsets = RangeCache.MAX_DIVISION_COUNT - nextPotentialZeroIndex;
 						RangeCache newRangeCache = new RangeCache(this, remainingPotentialZeroOffsets, newRange);
 						newRangeCache.get();
-						next[j] = newRangeCache;
+						nextRange.set(getNextIndex(i, j), newRangeCache);
 					}
 				}
-				for(int i = 0; i < nextRange.length; i++) {
-					RangeCache next[] = nextRange[i];
-					for(int j = 0; j < next.length; j++) {
-						RangeCache nextCache = next[j];
-						Range nextRange = nextCache.range;
-						nextCache.preloadCache(nextRange.index + nextRange.length);
-					}
+				for(int i = 0; i < nextRange.length(); i++) {
+					RangeCache nextCache = nextRange.get(i);
+					Range nextRange = nextCache.range;
+					nextCache.preloadCache(nextRange.index + nextRange.length);
 				}
 			}
 		}
@@ -377,27 +386,21 @@ public class IPAddressDivisionGrouping extends AddressDivisionGrouping implement
 			int offset = currentIndex - lastIndex;//the offset from the end of the last zero-range, which must be at least 1
 			int cacheOffset = offset - 1;//since offset must be at least 1 we adjust by 1
 			int cacheCount = currentCount - 1;//since currentCount must be at least 1, we adjust by 1
-			RangeCache next = nextRange[cacheOffset][cacheCount];
+			int cacheIndex = getNextIndex(cacheOffset, cacheCount);
+			RangeCache next = nextRange.get(cacheIndex);
 			if(next == null) {
 				//we will never reach here when the cache is preloaded.
-				synchronized(this) {
-					next = nextRange[cacheOffset][cacheCount];
-					if(next == null) {
-						int nextPotentialZeroIndex = lastIndex + 1;//we adjust by 1 the next potential index since at offset 0 we do not have a 0
-						int remainingPotentialZeroOffsets = RangeCache.MAX_DIVISION_COUNT - nextPotentialZeroIndex;
-						Range newRange;
-						if(this == ZEROS_CACHE) {
-							newRange = new Range(currentIndex, currentCount);
-						} else {
-							RangeCache rootNext = ZEROS_CACHE.nextRange[currentIndex][currentCount - 1];
-							if(rootNext == null) {
-								ZEROS_CACHE.nextRange[currentIndex][currentCount - 1] = new RangeCache(ZEROS_CACHE, RangeCache.MAX_DIVISION_COUNT, newRange = new Range(currentIndex, currentCount));
-							} else {
-								newRange = rootNext.range;
-							}
-						}
-						nextRange[cacheOffset][cacheCount] = next = new RangeCache(this, remainingPotentialZeroOffsets, newRange);
-					}
+				int nextPotentialZeroIndex = lastIndex + 1;//we adjust by 1 the next potential index since at offset 0 we do not have a 0
+				int remainingPotentialZeroOffsets = RangeCache.MAX_DIVISION_COUNT - nextPotentialZeroIndex;
+				Range newRange;
+				if(this == ZEROS_CACHE) {
+					newRange = new Range(currentIndex, currentCount);
+				} else {
+					newRange = ZEROS_CACHE.addRange(currentIndex, -1, currentCount).range;
+				}
+				next = new RangeCache(this, remainingPotentialZeroOffsets, newRange);
+				if(!nextRange.compareAndSet(cacheIndex, null, next)) {
+					next = nextRange.get(cacheIndex);
 				}
 			}
 			return next;
@@ -0,0 +1,399 @@
+/*
+ * Copyright 2017 Sean C Foley
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     or at
+ *     https://github.com/seancfoley/IPAddress/blob/master/LICENSE
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package inet.ipaddr.format.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import inet.ipaddr.Address;
+import inet.ipaddr.AddressStringException;
+import inet.ipaddr.AddressStringParameters.RangeParameters;
+import inet.ipaddr.AddressTypeException;
+import inet.ipaddr.IPAddress;
+import inet.ipaddr.IPAddressStringParameters;
+import inet.ipaddr.MACAddressStringParameters;
+import inet.ipaddr.format.validate.ByteCharSequence;
+import inet.ipaddr.format.validate.IPAddressParser;
+import inet.ipaddr.format.validate.Validator;
+import inet.ipaddr.mac.MACAddress;
+
+/**
+ * Finds the IP and MAC addresses in text, such as log files, reporting the position and parsed value of each.
+ * <p>
+ * The text is divided into tokens, each a maximal run of ASCII letters, digits and the characters . : - / %.
+ * Leading and trailing . - / % characters are removed from each token, as is a port number following an IPv4 address, as in 1.2.3.4:80,
+ * and a path following an address, as in 1.2.3.4/index.html.
+ * A word ending with a colon, such as a URL scheme or a field name, is skipped along with the colon, so that 1.2.3.4 is found in http://1.2.3.4 and host:1.2.3.4.
+ * Tokens having the shape of an address, such as the separator counts of an IPv4, IPv6 or MAC address, are then parsed with the given validation options,
+ * and those that are valid addresses are reported.  Tokens with other shapes are rejected without being parsed and without creating any objects.
+ * Addresses with wildcards or ranges are not considered.
+ * <p>
+ * Text is read in chunks, so the memory used does not depend on the size of the text.  Tokens longer than {@link #MAX_TOKEN_LENGTH} are skipped.
+ * Files are memory-mapped a window at a time, and their bytes are treated as ISO-8859-1 characters, which also suits ASCII and UTF-8 text since addresses are ASCII.
+ * <p>
+ * Instances are immutable and may be shared by multiple threads, each scanning its own text.
+ *
+ * @author sfoley
+ *
+ */
+public class AddressScanner {
+
+	/**
+	 * Receives the addresses found by a scan.
+	 */
+	public interface AddressHandler {
+		/**
+		 * @param address an {@link IPAddress} or {@link MACAddress}
+		 * @param startIndex the index in the text of the first character of the address
+		 * @param endIndex the index in the text following the last character of the address
+		 */
+		void addressFound(Address address, long startIndex, long endIndex);
+	}
+
+	public static final int MAX_TOKEN_LENGTH = 128;
+
+	private static final int READER_BUFFER_SIZE = 8192;
+	private static final int MAPPED_WINDOW_SIZE = 1 << 26;
+
+	/**
+	 * Options for single IPv4 and IPv6 addresses and subnets, with no empty strings, wildcards, ranges, inet_aton formats or single-segment addresses.
+	 */
+	public static final IPAddressStringParameters DEFAULT_IP_OPTIONS = new IPAddressStringParameters.Builder().
+			allowEmpty(false).allowAll(false).allowSingleSegment(false).allowPrefixOnly(false).
+			setRangeOptions(RangeParameters.NO_RANGE).allow_inet_aton(false).toParams();
+
+	/**
+	 * Options for single MAC addresses in the dashed, colon-delimited and dotted formats.
+	 */
+	public static final MACAddressStringParameters DEFAULT_MAC_OPTIONS = new MACAddressStringParameters.Builder().
+			allowEmpty(false).allowAll(false).allowSingleSegment(false).allowSpaceDelimited(false).
+			setRangeOptions(RangeParameters.NO_RANGE).toParams();
+
+	private final IPAddressStringParameters ipOptions;
+	private final MACAddressStringParameters macOptions;
+
+	public AddressScanner() {
+		this(DEFAULT_IP_OPTIONS, DEFAULT_MAC_OPTIONS);
+	}
+
+	/**
+	 * @param ipOptions the options for validating IP addresses, or null to find no IP addresses
+	 * @param macOptions the options for validating MAC addresses, or null to find no MAC addresses
+	 */
+	public AddressScanner(IPAddressStringParameters ipOptions, MACAddressStringParameters macOptions) {
+		this.ipOptions = ipOptions;
+		this.macOptions = macOptions;
+	}
+
+	public void scan(CharSequence text, AddressHandler handler) {
+		new Scan(handler).scan(text, 0, text.length(), true, 0);
+	}
+
+	public void scan(Reader reader, AddressHandler handler) throws IOException {
+		Scan scan = new Scan(handler);
+		char buffer[] = new char[READER_BUFFER_SIZE];
+		CharBuffer chars = CharBuffer.wrap(buffer);
+		int length = 0;
+		long offset = 0;
+		while(true) {
+			int count = reader.read(buffer, length, buffer.length - length);
+			boolean isLast = count < 0;
+			if(count > 0) {
+				length += count;
+			}
+			int scanned = scan.scan(chars, 0, length, isLast, offset);
+			if(isLast) {
+				break;
+			}
+			length -= scanned;
+			System.arraycopy(buffer, scanned, buffer, 0, length);
+			offset += scanned;
+		}
+	}
+
+	public void scan(Path file, AddressHandler handler) throws IOException {
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			scan(channel, handler);
+		}
+	}
+
+	/**
+	 * Scans the file from its start, memory-mapping one window of the file at a time.
+	 *
+	 * @param channel
+	 * @param handler
+	 * @throws IOException
+	 */
+	public void scan(FileChannel channel, AddressHandler handler) throws IOException {
+		Scan scan = new Scan(handler);
+		long size = channel.size();
+		long position = 0;
+		while(true) {
+			int windowSize = (int) Math.min(MAPPED_WINDOW_SIZE, size - position);
+			boolean isLast = position + windowSize == size;
+			MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, position, windowSize);
+			int scanned = scan.scan(new ByteCharSequence(buffer, 0, windowSize), 0, windowSize, isLast, position);
+			if(isLast) {
+				break;
+			}
+			position += scanned;
+		}
+	}
+
+	private static boolean isTokenChar(char c) {
+		return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') ||
+				c == '.' || c == ':' || c == '-' || c == '/' || c == '%';
+	}
+
+	private static boolean isTrimmed(char c) {
+		return c == '.' || c == '-' || c == '/' || c == '%';
+	}
+
+	private static boolean isAlphanumeric(char c) {
+		return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+	}
+
+	private static boolean isHex(char c) {
+		return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+	}
+
+	/**
+	 * A view of a token in the text, reused for each token so that rejected tokens create no objects.
+	 */
+	private static class Token implements CharSequence {
+		CharSequence chars;
+		int start, end;
+
+		@Override
+		public int length() {
+			return end - start;
+		}
+
+		@Override
+		public char charAt(int index) {
+			return chars.charAt(start + index);
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			return chars.subSequence(this.start + start, this.start + end).toString();
+		}
+
+		@Override
+		public String toString() {
+			return chars.subSequence(start, end).toString();
+		}
+	}
+
+	private class Scan {
+		private final AddressHandler handler;
+		private final IPAddressParser parser = IPAddressParser.getThreadParser();
+		private final Token token = new Token();
+
+		//whether the text being scanned starts in the middle of a token that was too long
+		private boolean isSkipping;
+
+		Scan(AddressHandler handler) {
+			this.handler = handler;
+		}
+
+		/**
+		 * Scans the given range of a chunk of text.
+		 *
+		 * @param isLast whether the chunk is at the end of the text
+		 * @param offset the index in the text of the start of the chunk
+		 * @return the index following the last character scanned,
+		 * 	which is the start of a token left incomplete at the end of the chunk, to be scanned again with the next chunk
+		 */
+		int scan(CharSequence chars, int start, int end, boolean isLast, long offset) {
+			int index = start;
+			if(isSkipping) {
+				while(index < end && isTokenChar(chars.charAt(index))) {
+					index++;
+				}
+				if(index == end && !isLast) {
+					return end;
+				}
+				isSkipping = false;
+			}
+			while(index < end) {
+				if(!isTokenChar(chars.charAt(index))) {
+					index++;
+					continue;
+				}
+				int tokenStart = index;
+				do {
+					index++;
+				} while(index < end && isTokenChar(chars.charAt(index)));
+				int length = index - tokenStart;
+				if(index == end && !isLast) {
+					if(length > MAX_TOKEN_LENGTH) {
+						isSkipping = true;
+						return end;
+					}
+					return tokenStart;
+				}
+				if(length <= MAX_TOKEN_LENGTH) {
+					scanToken(chars, tokenStart, index, offset);
+				}
+			}
+			return end;
+		}
+
+		private void scanToken(CharSequence chars, int start, int end, long offset) {
+			while(start < end && isTrimmed(chars.charAt(start))) {
+				start++;
+			}
+			while(end > start && isTrimmed(chars.charAt(end - 1))) {
+				end--;
+			}
+			//count the separators before any zone or prefix length
+			int dots = 0, colons = 0, dashes = 0, lastColonIndex = -1, lastDotIndex = -1;
+			boolean isCompressed = false;
+			int addressEnd = end;
+			for(int i = start; i < end; i++) {
+				char c = chars.charAt(i);
+				if(c == '.') {
+					dots++;
+					lastDotIndex = i;
+				} else if(c == ':') {
+					if(lastColonIndex >= 0 && i == lastColonIndex + 1) {
+						isCompressed = true;
+					}
+					colons++;
+					lastColonIndex = i;
+				} else if(c == '-') {
+					dashes++;
+				} else if(c == '%' || c == '/') {
+					addressEnd = i;
+					break;
+				} else if(!isHex(c)) {
+					//not an address, but if the word with this letter ends with a colon, as in http://1.2.3.4 or host:1.2.3.4, an address may follow
+					int wordEnd = i + 1;
+					while(wordEnd < end && isAlphanumeric(chars.charAt(wordEnd))) {
+						wordEnd++;
+					}
+					if(wordEnd < end && chars.charAt(wordEnd) == ':') {
+						scanToken(chars, wordEnd + 1, end, offset);
+					}
+					return;
+				}
+			}
+			if(addressEnd < end && chars.charAt(addressEnd) == '/' && isPath(chars, addressEnd + 1, end)) {
+				end = addressEnd;
+			}
+			if(ipOptions != null && dashes == 0) {
+				boolean isIP = false;
+				if(dots == 3) {
+					if(colons == 0) {
+						isIP = true;
+					} else if(colons == 1 && lastColonIndex > lastDotIndex && addressEnd == end && isPort(chars, lastColonIndex + 1, end)) {
+						end = lastColonIndex;
+						isIP = true;
+					}
+				}
+				if(!isIP && colons >= 2 && (dots == 0 || dots == 3)) {
+					isIP = isCompressed || colons == (dots == 0 ? 7 : 6);
+				}
+				if(isIP) {
+					IPAddress address = parseIP(chars, start, end);
+					if(address != null) {
+						handler.addressFound(address, offset + start, offset + end);
+						return;
+					}
+				}
+			}
+			if(macOptions != null && addressEnd == end) {
+				//segments are at most 2 hex digits when delimited, 6 or more on each side of a single dash, and 4 when dotted
+				int length = end - start;
+				boolean isMAC;
+				if(colons > 0) {
+					isMAC = dots == 0 && dashes == 0 && (colons == 5 || colons == 7) && length <= colons * 3 + 2;
+				} else if(dashes > 1) {
+					isMAC = dots == 0 && (dashes == 5 || dashes == 7) && length <= dashes * 3 + 2;
+				} else if(dashes == 1) {
+					isMAC = dots == 0 && length >= 13;
+				} else {
+					isMAC = (dots == 2 || dots == 3) && length == dots * 5 + 4;
+				}
+				if(isMAC) {
+					MACAddress address = parseMAC(chars, start, end);
+					if(address != null) {
+						handler.addressFound(address, offset + start, offset + end);
+					}
+				}
+			}
+		}
+
+		/**
+		 * Whether the characters following a slash are not a prefix length or mask, but a path, as in 1.2.3.4/index.html
+		 */
+		private boolean isPath(CharSequence chars, int start, int end) {
+			for(int i = start; i < end; i++) {
+				char c = chars.charAt(i);
+				if(!isHex(c) && c != '.' && c != ':') {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private boolean isPort(CharSequence chars, int start, int end) {
+			if(start == end) {
+				return false;
+			}
+			for(int i = start; i < end; i++) {
+				char c = chars.charAt(i);
+				if(c < '0' || c > '9') {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private Token setToken(CharSequence chars, int start, int end) {
+			token.chars = chars;
+			token.start = start;
+			token.end = end;
+			return token;
+		}
+
+		private IPAddress parseIP(CharSequence chars, int start, int end) {
+			try {
+				return parser.parseAddress(setToken(chars, start, end), ipOptions);
+			} catch(AddressStringException | AddressTypeException e) {
+				return null;
+			}
+		}
+
+		private MACAddress parseMAC(CharSequence chars, int start, int end) {
+			try {
+				return Validator.VALIDATOR.validateAddress(setToken(chars, start, end), macOptions).getAddress();
+			} catch(AddressStringException | AddressTypeException e) {
+				return null;
+			}
+		}
+	}
+}
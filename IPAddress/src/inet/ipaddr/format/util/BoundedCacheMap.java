@@ -0,0 +1,411 @@
+/*
+ * Copyright 2017 Sean C Foley
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     or at
+ *     https://github.com/seancfoley/IPAddress/blob/master/LICENSE
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package inet.ipaddr.format.util;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * A thread-safe map of bounded size or bounded weight, suited to be the backing map of a {@link inet.ipaddr.IPAddressNetwork.HostIdentifierStringCache}
+ * in long-running programs that see an ever-changing set of addresses and host names.
+ * <p>
+ * The entries are divided among stripes by the hash codes of the keys, each stripe with its own lock and an equal share of the bound.
+ * Within a stripe, the least recently used entries are evicted first.
+ * <p>
+ * Optionally, new entries are admitted according to how frequently their keys are used.
+ * Each stripe keeps a small approximate count of recent uses of each key, whether the key was found or not.
+ * When a stripe is full, a new entry is admitted only if its key has been used more often than the key of the entry that would be evicted.
+ * This keeps frequently used entries from being displaced by a stream of entries that are used only once.
+ * <p>
+ * As with any cache, an entry that is put in the map may be evicted at any time, including immediately,
+ * in which case {@link #putIfAbsent(Object, Object)} returns null but the map does not hold the entry.
+ * <p>
+ * The entry, key and value sets are snapshots which do not reflect later changes and which cannot be modified.
+ * Null keys and values are not supported.
+ * 
+ * @author sfoley
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class BoundedCacheMap<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>, Serializable {
+
+	private static final long serialVersionUID = 1L;
+	
+	private static final int MAX_FREQUENCY = 15;
+	private static final int MAX_SKETCHED_ENTRIES = 1 << 12;
+	
+	private static class Stripe<K, V> extends LinkedHashMap<K, V> {
+		
+		private static final long serialVersionUID = 1L;
+		
+		final long maximum;
+		long weight;
+		long evictions;
+		
+		//approximate counts of recent key uses, null when admission is not by frequency
+		final byte frequencies[];
+		final int sampleSize;
+		int additions;
+		
+		Stripe(long maximum, boolean admitByFrequency) {
+			super(16, 0.75f, true);
+			this.maximum = maximum;
+			if(admitByFrequency) {
+				int entries = (int) Math.min(maximum, MAX_SKETCHED_ENTRIES);
+				//enough counts that the keys of evicted entries, which are also counted, seldom collide with those of retained entries
+				int length = Math.max(256, Integer.highestOneBit(entries << 3) << 1);
+				frequencies = new byte[length];
+				sampleSize = length << 1;
+			} else {
+				frequencies = null;
+				sampleSize = 0;
+			}
+		}
+		
+		private static int firstIndex(int hash) {
+			return hash;
+		}
+		
+		private static int secondIndex(int hash) {
+			return (hash * 0x85ebca6b) >>> 7;
+		}
+		
+		void recordUse(int hash) {
+			byte freqs[] = frequencies;
+			if(freqs != null) {
+				int mask = freqs.length - 1;
+				int first = firstIndex(hash) & mask, second = secondIndex(hash) & mask;
+				if(freqs[first] < MAX_FREQUENCY) {
+					freqs[first]++;
+				}
+				if(freqs[second] < MAX_FREQUENCY) {
+					freqs[second]++;
+				}
+				if(++additions >= sampleSize) {
+					//age the counts so that keys no longer in use lose their standing
+					for(int i = 0; i < freqs.length; i++) {
+						freqs[i] >>>= 1;
+					}
+					additions >>>= 1;
+				}
+			}
+		}
+		
+		int frequency(int hash) {
+			byte freqs[] = frequencies;
+			int mask = freqs.length - 1;
+			return Math.min(freqs[firstIndex(hash) & mask], freqs[secondIndex(hash) & mask]);
+		}
+	}
+
+	private final Stripe<K, V> stripes[];
+	private final ToIntBiFunction<? super K, ? super V> weigher;
+	
+	/**
+	 * Constructs a map holding at most the given number of entries, evicting the least recently used.
+	 * 
+	 * @param maximumSize
+	 */
+	public BoundedCacheMap(int maximumSize) {
+		this(maximumSize, false);
+	}
+	
+	/**
+	 * Constructs a map holding at most the given number of entries.
+	 * 
+	 * @param maximumSize
+	 * @param admitByFrequency whether new entries are admitted according to the frequency of use of their keys when the map is full
+	 */
+	public BoundedCacheMap(int maximumSize, boolean admitByFrequency) {
+		this(maximumSize, null, admitByFrequency);
+	}
+	
+	/**
+	 * Constructs a map whose entries have at most the given total weight.
+	 * <p>
+	 * For example, for an {@link inet.ipaddr.IPAddressNetwork.IPAddressStringCache}, the length of each key string is a measure of the memory used by the entry.
+	 * An entry whose weight exceeds the share of a single stripe is not retained.
+	 * 
+	 * @param maximumWeight
+	 * @param weigher the weight of each entry, which must not change while the entry is in the map, or null for a weight of 1 for each entry.  The weigher must be serializable for the map to be serializable.
+	 * @param admitByFrequency whether new entries are admitted according to the frequency of use of their keys when the map is full
+	 */
+	public BoundedCacheMap(long maximumWeight, ToIntBiFunction<? super K, ? super V> weigher, boolean admitByFrequency) {
+		this(maximumWeight, weigher, admitByFrequency, Runtime.getRuntime().availableProcessors() << 2);
+	}
+	
+	/**
+	 * Constructs a map whose entries have at most the given total weight, divided among stripes.
+	 * 
+	 * @param maximumWeight
+	 * @param weigher the weight of each entry, or null for a weight of 1 for each entry
+	 * @param admitByFrequency whether new entries are admitted according to the frequency of use of their keys when the map is full
+	 * @param concurrencyLevel the number of threads expected to use the map concurrently, which determines the number of stripes
+	 * @throws IllegalArgumentException if the maximum weight or the concurrency level is not positive
+	 */
+	public BoundedCacheMap(long maximumWeight, ToIntBiFunction<? super K, ? super V> weigher, boolean admitByFrequency, int concurrencyLevel) {
+		if(maximumWeight <= 0 || concurrencyLevel <= 0) {
+			throw new IllegalArgumentException();
+		}
+		this.weigher = weigher;
+		//a power of two no larger than the maximum, so each stripe has a share of at least one
+		int stripeCount = Integer.highestOneBit((int) Math.min(Math.min(concurrencyLevel, maximumWeight), 1 << 16));
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		Stripe<K, V> newStripes[] = new Stripe[stripeCount];
+		long share = maximumWeight / stripeCount, remainder = maximumWeight % stripeCount;
+		for(int i = 0; i < stripeCount; i++) {
+			newStripes[i] = new Stripe<K, V>(i < remainder ? share + 1 : share, admitByFrequency);
+		}
+		stripes = newStripes;
+	}
+	
+	private static int hash(Object key) {
+		return key.hashCode() * 0x9e3779b9;
+	}
+	
+	private Stripe<K, V> stripeFor(int hash) {
+		return stripes[(hash >>> 16) & (stripes.length - 1)];
+	}
+	
+	private long weigh(K key, V value) {
+		if(weigher == null) {
+			return 1;
+		}
+		int weight = weigher.applyAsInt(key, value);
+		if(weight < 0) {
+			throw new IllegalArgumentException();
+		}
+		return weight;
+	}
+	
+	//must be called while holding the lock of the stripe
+	private V store(Stripe<K, V> stripe, int hash, K key, V value) {
+		if(key == null || value == null) {
+			throw new NullPointerException();
+		}
+		long weight = weigh(key, value);
+		V previous = stripe.remove(key);
+		if(previous != null) {
+			stripe.weight -= weigh(key, previous);
+		} else if(stripe.frequencies != null && stripe.weight + weight > stripe.maximum && !stripe.isEmpty()) {
+			//admit the new entry only if its key is used more often than that of the entry that would be evicted first
+			K eldestKey = stripe.keySet().iterator().next();
+			if(stripe.frequency(hash) <= stripe.frequency(hash(eldestKey))) {
+				stripe.evictions++;
+				return null;
+			}
+		}
+		if(weight > stripe.maximum) {
+			stripe.evictions++;
+		} else {
+			stripe.put(key, value);
+			stripe.weight += weight;
+			//the new entry is the most recently used, so it is not evicted here
+			Iterator<Map.Entry<K, V>> iterator = stripe.entrySet().iterator();
+			while(stripe.weight > stripe.maximum) {
+				Map.Entry<K, V> eldest = iterator.next();
+				stripe.weight -= weigh(eldest.getKey(), eldest.getValue());
+				iterator.remove();
+				stripe.evictions++;
+			}
+		}
+		return previous;
+	}
+	
+	@Override
+	public V get(Object key) {
+		int hash = hash(key);
+		Stripe<K, V> stripe = stripeFor(hash);
+		synchronized(stripe) {
+			stripe.recordUse(hash);
+			return stripe.get(key);
+		}
+	}
+	
+	@Override
+	public boolean containsKey(Object key) {
+		Stripe<K, V> stripe = stripeFor(hash(key));
+		synchronized(stripe) {
+			return stripe.containsKey(key);
+		}
+	}
+	
+	@Override
+	public boolean containsValue(Object value) {
+		for(Stripe<K, V> stripe : stripes) {
+			synchronized(stripe) {
+				if(stripe.containsValue(value)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+	
+	@Override
+	public V put(K key, V value) {
+		int hash = hash(key);
+		Stripe<K, V> stripe = stripeFor(hash);
+		synchronized(stripe) {
+			stripe.recordUse(hash);
+			return store(stripe, hash, key, value);
+		}
+	}
+	
+	@Override
+	public V putIfAbsent(K key, V value) {
+		int hash = hash(key);
+		Stripe<K, V> stripe = stripeFor(hash);
+		synchronized(stripe) {
+			stripe.recordUse(hash);
+			V existing = stripe.get(key);
+			if(existing != null) {
+				return existing;
+			}
+			return store(stripe, hash, key, value);
+		}
+	}
+	
+	@Override
+	public V remove(Object key) {
+		Stripe<K, V> stripe = stripeFor(hash(key));
+		synchronized(stripe) {
+			V removed = stripe.remove(key);
+			if(removed != null) {
+				@SuppressWarnings("unchecked")
+				K k = (K) key;
+				stripe.weight -= weigh(k, removed);
+			}
+			return removed;
+		}
+	}
+	
+	@Override
+	public boolean remove(Object key, Object value) {
+		Stripe<K, V> stripe = stripeFor(hash(key));
+		synchronized(stripe) {
+			V existing = stripe.get(key);
+			if(existing != null && existing.equals(value)) {
+				remove(key);
+				return true;
+			}
+			return false;
+		}
+	}
+	
+	@Override
+	public boolean replace(K key, V oldValue, V newValue) {
+		int hash = hash(key);
+		Stripe<K, V> stripe = stripeFor(hash);
+		synchronized(stripe) {
+			V existing = stripe.get(key);
+			if(existing != null && existing.equals(oldValue)) {
+				store(stripe, hash, key, newValue);
+				return true;
+			}
+			return false;
+		}
+	}
+	
+	@Override
+	public V replace(K key, V value) {
+		int hash = hash(key);
+		Stripe<K, V> stripe = stripeFor(hash);
+		synchronized(stripe) {
+			if(stripe.containsKey(key)) {
+				return store(stripe, hash, key, value);
+			}
+			return null;
+		}
+	}
+	
+	@Override
+	public void clear() {
+		for(Stripe<K, V> stripe : stripes) {
+			synchronized(stripe) {
+				stripe.clear();
+				stripe.weight = 0;
+			}
+		}
+	}
+	
+	@Override
+	public int size() {
+		int size = 0;
+		for(Stripe<K, V> stripe : stripes) {
+			synchronized(stripe) {
+				size += stripe.size();
+			}
+		}
+		return size;
+	}
+	
+	/**
+	 * @return the total weight of the entries, which is the number of entries when there is no weigher
+	 */
+	public long getWeight() {
+		long weight = 0;
+		for(Stripe<K, V> stripe : stripes) {
+			synchronized(stripe) {
+				weight += stripe.weight;
+			}
+		}
+		return weight;
+	}
+	
+	/**
+	 * @return the number of entries that were evicted, or that were not admitted, to keep the map within its bound
+	 */
+	public long getEvictionCount() {
+		long evictions = 0;
+		for(Stripe<K, V> stripe : stripes) {
+			synchronized(stripe) {
+				evictions += stripe.evictions;
+			}
+		}
+		return evictions;
+	}
+	
+	/**
+	 * @return a snapshot of the entries
+	 */
+	@Override
+	public Set<Map.Entry<K, V>> entrySet() {
+		List<Map.Entry<K, V>> entries = new ArrayList<Map.Entry<K, V>>();
+		for(Stripe<K, V> stripe : stripes) {
+			synchronized(stripe) {
+				for(Map.Entry<K, V> entry : stripe.entrySet()) {
+					entries.add(new AbstractMap.SimpleImmutableEntry<K, V>(entry));
+				}
+			}
+		}
+		return Collections.unmodifiableSet(new HashSet<Map.Entry<K, V>>(entries));
+	}
+}
@@ -0,0 +1,537 @@
+/*
+ * Copyright 2017 Sean C Foley
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     or at
+ *     https://github.com/seancfoley/IPAddress/blob/master/LICENSE
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package inet.ipaddr.format.util;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.TreeSet;
+
+import inet.ipaddr.Address.SegmentValueProvider;
+import inet.ipaddr.AddressComparator;
+import inet.ipaddr.AddressTypeException;
+import inet.ipaddr.IPAddress;
+import inet.ipaddr.ipv4.IPv4Address;
+import inet.ipaddr.ipv6.IPv6Address;
+
+/**
+ * A mutable set of IPv4 and IPv6 addresses, stored as the disjoint sequential ranges [lower, upper] that it covers.
+ * <p>
+ * Adding an address or subnet merges it with any overlapping or adjacent ranges, so the set is always the minimal number of ranges,
+ * and removing an address or subnet gives the same addresses as {@link IPAddress#subtract(IPAddress)} would.
+ * A subnet with segment ranges that are not sequential, such as 1.2.3-4.5, is the union of the sequential ranges it covers, in this case 1.2.3.5 and 1.2.4.5.
+ * <p>
+ * The ranges are kept in a sorted tree, so membership and updates take time logarithmic in the number of ranges.
+ * <p>
+ * Iteration provides the minimal list of sequential subnets covering each range, such as 1.2.3.250-255 and 1.2.4-5.* and 1.2.6.0-5 for the range 1.2.3.250 to 1.2.6.5.
+ * The subnets are in the order of {@link AddressComparator.ValueComparator}, all IPv4 before all IPv6, and by increasing value within each.
+ * {@link #rangeIterator()} provides the lower and upper address of each range instead.
+ * <p>
+ * Zones of IPv6 addresses are ignored.
+ * This class is not thread-safe.
+ *
+ * @author sfoley
+ *
+ */
+public class IPAddressRangeSet implements Iterable<IPAddress> {
+
+	/**
+	 * A range of values, each value held in two longs as a right-aligned unsigned 128-bit value.
+	 */
+	static class Range implements Comparable<Range> {
+		final long lowerHigh, lowerLow, upperHigh, upperLow;
+
+		Range(long lowerHigh, long lowerLow, long upperHigh, long upperLow) {
+			this.lowerHigh = lowerHigh;
+			this.lowerLow = lowerLow;
+			this.upperHigh = upperHigh;
+			this.upperLow = upperLow;
+		}
+
+		boolean upperIsBelow(long high, long low) {
+			return SequentialRanges.compareUnsigned(upperHigh, upperLow, high, low) < 0;
+		}
+
+		@Override
+		public int compareTo(Range other) {
+			return SequentialRanges.compareUnsigned(lowerHigh, lowerLow, other.lowerHigh, other.lowerLow);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if(o instanceof Range) {
+				Range other = (Range) o;
+				return lowerHigh == other.lowerHigh && lowerLow == other.lowerLow && upperHigh == other.upperHigh && upperLow == other.upperLow;
+			}
+			return false;
+		}
+
+		@Override
+		public int hashCode() {
+			return Long.hashCode(lowerHigh) * 31 + Long.hashCode(lowerLow) + (Long.hashCode(upperHigh) * 31 + Long.hashCode(upperLow)) * 17;
+		}
+	}
+
+	/**
+	 * The ranges of one IP version
+	 */
+	static class VersionRanges {
+		final TreeSet<Range> ranges = new TreeSet<Range>();
+		final int segmentCount, bitsPerSegment, maxSegmentValue;
+		final long maxHigh, maxLow;
+
+		VersionRanges(int segmentCount, int bitsPerSegment, int maxSegmentValue) {
+			this.segmentCount = segmentCount;
+			this.bitsPerSegment = bitsPerSegment;
+			this.maxSegmentValue = maxSegmentValue;
+			int bitCount = segmentCount * bitsPerSegment;
+			maxHigh = bitCount > Long.SIZE ? -1L >>> ((Long.SIZE << 1) - bitCount) : 0;
+			maxLow = bitCount >= Long.SIZE ? -1L : ~(-1L << bitCount);
+		}
+
+		boolean isMax(long high, long low) {
+			return high == maxHigh && low == maxLow;
+		}
+
+		Range floor(long high, long low) {
+			return ranges.floor(new Range(high, low, high, low));
+		}
+
+		Range ceiling(long high, long low) {
+			return ranges.ceiling(new Range(high, low, high, low));
+		}
+
+		boolean contains(long lowerHigh, long lowerLow, long upperHigh, long upperLow) {
+			Range floor = floor(lowerHigh, lowerLow);
+			return floor != null && !floor.upperIsBelow(upperHigh, upperLow);
+		}
+
+		void add(long lowerHigh, long lowerLow, long upperHigh, long upperLow) {
+			Range floor = floor(lowerHigh, lowerLow);
+			//merge with a range below that overlaps or is adjacent
+			if(floor != null && (!floor.upperIsBelow(lowerHigh, lowerLow) || isAdjacent(floor.upperHigh, floor.upperLow, lowerHigh, lowerLow))) {
+				if(!floor.upperIsBelow(upperHigh, upperLow)) {
+					return;
+				}
+				ranges.remove(floor);
+				lowerHigh = floor.lowerHigh;
+				lowerLow = floor.lowerLow;
+			}
+			//merge with ranges above that overlap or are adjacent
+			Range next;
+			while((next = ceiling(lowerHigh, lowerLow)) != null &&
+					(SequentialRanges.compareUnsigned(next.lowerHigh, next.lowerLow, upperHigh, upperLow) <= 0 || isAdjacent(upperHigh, upperLow, next.lowerHigh, next.lowerLow))) {
+				ranges.remove(next);
+				if(next.upperIsBelow(upperHigh, upperLow)) {
+					continue;
+				}
+				upperHigh = next.upperHigh;
+				upperLow = next.upperLow;
+			}
+			ranges.add(new Range(lowerHigh, lowerLow, upperHigh, upperLow));
+		}
+
+		void remove(long lowerHigh, long lowerLow, long upperHigh, long upperLow) {
+			Range floor = floor(lowerHigh, lowerLow);
+			if(floor != null && !floor.upperIsBelow(lowerHigh, lowerLow)) {
+				ranges.remove(floor);
+				if(SequentialRanges.compareUnsigned(floor.lowerHigh, floor.lowerLow, lowerHigh, lowerLow) < 0) {
+					long belowLow = lowerLow - 1, belowHigh = lowerLow == 0 ? lowerHigh - 1 : lowerHigh;
+					ranges.add(new Range(floor.lowerHigh, floor.lowerLow, belowHigh, belowLow));
+				}
+				if(upperIsBelow(upperHigh, upperLow, floor)) {
+					addAbove(upperHigh, upperLow, floor);
+					return;
+				}
+			}
+			Range next;
+			while((next = ceiling(lowerHigh, lowerLow)) != null && SequentialRanges.compareUnsigned(next.lowerHigh, next.lowerLow, upperHigh, upperLow) <= 0) {
+				ranges.remove(next);
+				if(upperIsBelow(upperHigh, upperLow, next)) {
+					addAbove(upperHigh, upperLow, next);
+					return;
+				}
+			}
+		}
+
+		private static boolean upperIsBelow(long high, long low, Range range) {
+			return SequentialRanges.compareUnsigned(high, low, range.upperHigh, range.upperLow) < 0;
+		}
+
+		/**
+		 * Adds the part of the range above the given value, the value being below the upper value of the range
+		 */
+		private void addAbove(long high, long low, Range range) {
+			long aboveLow = low + 1, aboveHigh = aboveLow == 0 ? high + 1 : high;
+			ranges.add(new Range(aboveHigh, aboveLow, range.upperHigh, range.upperLow));
+		}
+
+		/**
+		 * Whether the second value is one more than the first
+		 */
+		boolean isAdjacent(long high, long low, long nextHigh, long nextLow) {
+			if(isMax(high, low)) {
+				return false;
+			}
+			long incrementedLow = low + 1;
+			return incrementedLow == nextLow && (incrementedLow == 0 ? high + 1 : high) == nextHigh;
+		}
+
+		void intersect(VersionRanges one, VersionRanges two) {
+			Iterator<Range> oneIterator = one.ranges.iterator(), twoIterator = two.ranges.iterator();
+			Range oneRange = oneIterator.hasNext() ? oneIterator.next() : null;
+			Range twoRange = twoIterator.hasNext() ? twoIterator.next() : null;
+			while(oneRange != null && twoRange != null) {
+				Range lower = oneRange.compareTo(twoRange) >= 0 ? oneRange : twoRange;
+				Range upper = upperIsBelow(oneRange.upperHigh, oneRange.upperLow, twoRange) ? oneRange : twoRange;
+				if(SequentialRanges.compareUnsigned(lower.lowerHigh, lower.lowerLow, upper.upperHigh, upper.upperLow) <= 0) {
+					ranges.add(new Range(lower.lowerHigh, lower.lowerLow, upper.upperHigh, upper.upperLow));
+				}
+				if(upper == oneRange) {
+					oneRange = oneIterator.hasNext() ? oneIterator.next() : null;
+				} else {
+					twoRange = twoIterator.hasNext() ? twoIterator.next() : null;
+				}
+			}
+		}
+
+		void complement(VersionRanges other) {
+			long nextHigh = 0, nextLow = 0;
+			boolean done = false;
+			for(Range range : other.ranges) {
+				if(SequentialRanges.compareUnsigned(nextHigh, nextLow, range.lowerHigh, range.lowerLow) < 0) {
+					long belowLow = range.lowerLow - 1, belowHigh = range.lowerLow == 0 ? range.lowerHigh - 1 : range.lowerHigh;
+					ranges.add(new Range(nextHigh, nextLow, belowHigh, belowLow));
+				}
+				if(isMax(range.upperHigh, range.upperLow)) {
+					done = true;
+					break;
+				}
+				nextLow = range.upperLow + 1;
+				nextHigh = nextLow == 0 ? range.upperHigh + 1 : range.upperHigh;
+			}
+			if(!done) {
+				ranges.add(new Range(nextHigh, nextLow, maxHigh, maxLow));
+			}
+		}
+
+		int getSegmentValue(long high, long low, int segmentIndex) {
+			int shift = (segmentCount - segmentIndex - 1) * bitsPerSegment;
+			long bits = shift >= Long.SIZE ? high >>> (shift - Long.SIZE) : low >>> shift;
+			return (int) bits & maxSegmentValue;
+		}
+
+		IPAddress createAddress(int lower[], int upper[]) {
+			SegmentValueProvider lowerProvider = (segmentIndex, segmentByteCount) -> lower[segmentIndex];
+			SegmentValueProvider upperProvider = (segmentIndex, segmentByteCount) -> upper[segmentIndex];
+			if(segmentCount == IPv4Address.SEGMENT_COUNT) {
+				return new IPv4Address(lowerProvider, upperProvider);
+			}
+			return new IPv6Address(lowerProvider, upperProvider);
+		}
+
+		int[] getSegmentValues(long high, long low) {
+			int result[] = new int[segmentCount];
+			for(int i = 0; i < segmentCount; i++) {
+				result[i] = getSegmentValue(high, low, i);
+			}
+			return result;
+		}
+
+		BigInteger getCount() {
+			BigInteger result = BigInteger.ZERO;
+			for(Range range : ranges) {
+				result = result.add(toBigInteger(range.upperHigh, range.upperLow).subtract(toBigInteger(range.lowerHigh, range.lowerLow)).add(BigInteger.ONE));
+			}
+			return result;
+		}
+	}
+
+	private final VersionRanges ipv4Ranges = new VersionRanges(IPv4Address.SEGMENT_COUNT, IPv4Address.BITS_PER_SEGMENT, IPv4Address.MAX_VALUE_PER_SEGMENT);
+	private final VersionRanges ipv6Ranges = new VersionRanges(IPv6Address.SEGMENT_COUNT, IPv6Address.BITS_PER_SEGMENT, IPv6Address.MAX_VALUE_PER_SEGMENT);
+
+	public IPAddressRangeSet() {}
+
+	static BigInteger toBigInteger(long high, long low) {
+		BigInteger result = BigInteger.valueOf(high >>> 1).shiftLeft(1).or(BigInteger.valueOf(high & 1)).shiftLeft(Long.SIZE);
+		return result.or(BigInteger.valueOf(low >>> 1).shiftLeft(1)).or(BigInteger.valueOf(low & 1));
+	}
+
+	private VersionRanges getRanges(IPAddress addr) {
+		return addr.isIPv4() ? ipv4Ranges : ipv6Ranges;
+	}
+
+	private static void checkVersions(IPAddress lower, IPAddress upper) throws AddressTypeException {
+		if(lower.isIPv4() != upper.isIPv4()) {
+			throw new AddressTypeException(upper, "ipaddress.error.typeMismatch");
+		}
+	}
+
+	private static long[] getLowerUpper(IPAddress lower, IPAddress upper) {
+		long lowerValue[] = SequentialRanges.getValue(lower, false), upperValue[] = SequentialRanges.getValue(upper, true);
+		return new long[] {lowerValue[0], lowerValue[1], upperValue[0], upperValue[1]};
+	}
+
+	/**
+	 * Adds the given address or subnet.
+	 *
+	 * @param addr
+	 * @return this set
+	 */
+	public IPAddressRangeSet add(IPAddress addr) {
+		VersionRanges versionRanges = getRanges(addr);
+		SequentialRanges.forEachRange(addr, versionRanges::add);
+		return this;
+	}
+
+	/**
+	 * Adds the sequential range from the lowest address of the first argument to the highest address of the second argument, inclusive.
+	 *
+	 * @param lower
+	 * @param upper
+	 * @throws AddressTypeException if the arguments are not the same IP version
+	 * @return this set
+	 */
+	public IPAddressRangeSet add(IPAddress lower, IPAddress upper) throws AddressTypeException {
+		checkVersions(lower, upper);
+		long values[] = getLowerUpper(lower, upper);
+		if(SequentialRanges.compareUnsigned(values[0], values[1], values[2], values[3]) <= 0) {
+			getRanges(lower).add(values[0], values[1], values[2], values[3]);
+		}
+		return this;
+	}
+
+	/**
+	 * Adds the given addresses and subnets.
+	 *
+	 * @param addrs
+	 * @return this set
+	 */
+	public IPAddressRangeSet addAll(Iterable<? extends IPAddress> addrs) {
+		for(IPAddress addr : addrs) {
+			add(addr);
+		}
+		return this;
+	}
+
+	/**
+	 * Adds the addresses of the given set.
+	 *
+	 * @param other
+	 * @return this set
+	 */
+	public IPAddressRangeSet addAll(IPAddressRangeSet other) {
+		for(Range range : other.ipv4Ranges.ranges) {
+			ipv4Ranges.add(range.lowerHigh, range.lowerLow, range.upperHigh, range.upperLow);
+		}
+		for(Range range : other.ipv6Ranges.ranges) {
+			ipv6Ranges.add(range.lowerHigh, range.lowerLow, range.upperHigh, range.upperLow);
+		}
+		return this;
+	}
+
+	/**
+	 * Removes the given address or subnet, leaving the addresses that {@link IPAddress#subtract(IPAddress)} would leave.
+	 *
+	 * @param addr
+	 * @return this set
+	 */
+	public IPAddressRangeSet remove(IPAddress addr) {
+		VersionRanges versionRanges = getRanges(addr);
+		SequentialRanges.forEachRange(addr, versionRanges::remove);
+		return this;
+	}
+
+	/**
+	 * Removes the sequential range from the lowest address of the first argument to the highest address of the second argument, inclusive.
+	 *
+	 * @param lower
+	 * @param upper
+	 * @throws AddressTypeException if the arguments are not the same IP version
+	 * @return this set
+	 */
+	public IPAddressRangeSet remove(IPAddress lower, IPAddress upper) throws AddressTypeException {
+		checkVersions(lower, upper);
+		long values[] = getLowerUpper(lower, upper);
+		if(SequentialRanges.compareUnsigned(values[0], values[1], values[2], values[3]) <= 0) {
+			getRanges(lower).remove(values[0], values[1], values[2], values[3]);
+		}
+		return this;
+	}
+
+	/**
+	 * Returns whether every address of the given address or subnet is in this set.
+	 *
+	 * @param addr
+	 * @return
+	 */
+	public boolean contains(IPAddress addr) {
+		VersionRanges versionRanges = getRanges(addr);
+		boolean result[] = {true};
+		SequentialRanges.forEachRange(addr, (lowerHigh, lowerLow, upperHigh, upperLow) -> {
+			result[0] &= versionRanges.contains(lowerHigh, lowerLow, upperHigh, upperLow);
+		});
+		return result[0];
+	}
+
+	/**
+	 * Returns a new set of the addresses in both this set and the given set.
+	 *
+	 * @param other
+	 * @return
+	 */
+	public IPAddressRangeSet intersect(IPAddressRangeSet other) {
+		IPAddressRangeSet result = new IPAddressRangeSet();
+		result.ipv4Ranges.intersect(ipv4Ranges, other.ipv4Ranges);
+		result.ipv6Ranges.intersect(ipv6Ranges, other.ipv6Ranges);
+		return result;
+	}
+
+	/**
+	 * Returns a new set of all the IPv4 and IPv6 addresses not in this set.
+	 *
+	 * @return
+	 */
+	public IPAddressRangeSet complement() {
+		IPAddressRangeSet result = new IPAddressRangeSet();
+		result.ipv4Ranges.complement(ipv4Ranges);
+		result.ipv6Ranges.complement(ipv6Ranges);
+		return result;
+	}
+
+	/**
+	 * @return the number of disjoint ranges in the set
+	 */
+	public int getRangeCount() {
+		return ipv4Ranges.ranges.size() + ipv6Ranges.ranges.size();
+	}
+
+	/**
+	 * @return the number of addresses in the set
+	 */
+	public BigInteger getCount() {
+		return ipv4Ranges.getCount().add(ipv6Ranges.getCount());
+	}
+
+	public boolean isEmpty() {
+		return ipv4Ranges.ranges.isEmpty() && ipv6Ranges.ranges.isEmpty();
+	}
+
+	public void clear() {
+		ipv4Ranges.ranges.clear();
+		ipv6Ranges.ranges.clear();
+	}
+
+	/**
+	 * Iterates through the minimal list of sequential subnets that span each range, IPv4 before IPv6, in increasing order.
+	 */
+	@Override
+	public Iterator<IPAddress> iterator() {
+		return new Iterator<IPAddress>() {
+			private final Iterator<IPAddress[]> rangeIterator = rangeIterator();
+			private Iterator<IPAddress> blockIterator = Collections.emptyIterator();
+
+			@Override
+			public boolean hasNext() {
+				return blockIterator.hasNext() || rangeIterator.hasNext();
+			}
+
+			@Override
+			public IPAddress next() {
+				if(!blockIterator.hasNext()) {
+					IPAddress range[] = rangeIterator.next();
+					blockIterator = Arrays.asList(range[0].spanWithSequentialBlocks(range[1])).iterator();
+				}
+				return blockIterator.next();
+			}
+		};
+	}
+
+	/**
+	 * Iterates through the ranges, IPv4 before IPv6, in increasing order, each range provided as an array with its lower and upper address.
+	 *
+	 * @return
+	 */
+	public Iterator<IPAddress[]> rangeIterator() {
+		return new Iterator<IPAddress[]>() {
+			private Iterator<Range> iterator = ipv4Ranges.ranges.iterator();
+			private VersionRanges versionRanges = ipv4Ranges;
+
+			@Override
+			public boolean hasNext() {
+				if(iterator.hasNext()) {
+					return true;
+				}
+				if(versionRanges == ipv4Ranges) {
+					versionRanges = ipv6Ranges;
+					iterator = ipv6Ranges.ranges.iterator();
+					return iterator.hasNext();
+				}
+				return false;
+			}
+
+			@Override
+			public IPAddress[] next() {
+				if(!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				Range range = iterator.next();
+				int lower[] = versionRanges.getSegmentValues(range.lowerHigh, range.lowerLow);
+				int upper[] = versionRanges.getSegmentValues(range.upperHigh, range.upperLow);
+				return new IPAddress[] {versionRanges.createAddress(lower, lower), versionRanges.createAddress(upper, upper)};
+			}
+		};
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if(o == this) {
+			return true;
+		}
+		if(o instanceof IPAddressRangeSet) {
+			IPAddressRangeSet other = (IPAddressRangeSet) o;
+			return ipv4Ranges.ranges.equals(other.ipv4Ranges.ranges) && ipv6Ranges.ranges.equals(other.ipv6Ranges.ranges);
+		}
+		return false;
+	}
+
+	@Override
+	public int hashCode() {
+		return ipv4Ranges.ranges.hashCode() * 31 + ipv6Ranges.ranges.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("[");
+		Iterator<IPAddress[]> iterator = rangeIterator();
+		while(iterator.hasNext()) {
+			IPAddress range[] = iterator.next();
+			builder.append(range[0]);
+			if(!range[0].equals(range[1])) {
+				builder.append(" -> ").append(range[1]);
+			}
+			if(iterator.hasNext()) {
+				builder.append(", ");
+			}
+		}
+		return builder.append(']').toString();
+	}
+}
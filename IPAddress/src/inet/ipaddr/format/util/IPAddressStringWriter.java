@@ -49,4 +49,14 @@ public interface IPAddressStringWriter<T extends IPAddressStringDivisionSeries>
 	 * @return the string produced by these params
 	 */
 	String toString(T addr, CharSequence zone);
+	
+	/**
+	 * Appends the string produced by these params to the given builder
+	 * 
+	 * @param builder
+	 * @param addr
+	 * @param zone the zone, or null if there is no zone
+	 * @return the given builder
+	 */
+	StringBuilder append(StringBuilder builder, T addr, CharSequence zone);
 }
@@ -0,0 +1,543 @@
+/*
+ * Copyright 2017 Sean C Foley
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     or at
+ *     https://github.com/seancfoley/IPAddress/blob/master/LICENSE
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package inet.ipaddr.format.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import inet.ipaddr.AddressTypeException;
+import inet.ipaddr.IPAddress;
+import inet.ipaddr.IPAddressSegment;
+
+/**
+ * A compact binary trie (a Patricia trie) of IPv4 and IPv6 prefix blocks,
+ * supporting exact lookup, longest-prefix matching, and the retrieval of all blocks containing a given address.
+ * <p>
+ * Each element is treated as the CIDR prefix block it represents.
+ * A prefixed address such as 1.2.0.0/16 is the block of its prefix, a non-prefixed address such as 1.2.*.* is the block of its equivalent prefix {@link IPAddress#getEquivalentPrefix()},
+ * and a single non-prefixed address is a block with the full bit-length.  An address with a range of values that is not a prefix block, such as 1.2.3-4.5, cannot be added.
+ * <p>
+ * IPv4 and IPv6 elements are stored in separate trees.
+ * The bits of each node are held in two longs, so lookups take time proportional to the bit-length and create no objects.
+ * <p>
+ * A single writer may modify the trie while other threads read it.
+ * Nodes are fully constructed before they are linked into the trie, so readers always see a consistent tree, although they may or may not see a concurrent modification.
+ * Multiple concurrent writers must synchronize externally.
+ *
+ * @author sfoley
+ *
+ */
+public class IPAddressTrie implements Iterable<IPAddress> {
+
+	/**
+	 * A node in the trie.  Nodes with a null key are branching nodes that were not added as elements.
+	 * The value is used by {@link IPAddressTrieMap}.
+	 *
+	 * The bits of the node are left-aligned in the high and low longs, with the bits beyond the prefix length set to zero.
+	 *
+	 * @author sfoley
+	 *
+	 */
+	static class TrieNode {
+		final long high, low;
+		final int prefixLength;
+		volatile IPAddress key;
+		volatile Object value;
+		volatile TrieNode lower, upper;
+		TrieNode parent; //only used by the writer
+
+		TrieNode(long high, long low, int prefixLength) {
+			this.high = high;
+			this.low = low;
+			this.prefixLength = prefixLength;
+		}
+
+		boolean isAdded() {
+			return key != null;
+		}
+
+		TrieNode getChild(long high, long low) {
+			return isUpperBit(high, low, prefixLength) ? upper : lower;
+		}
+
+		void setChild(TrieNode child) {
+			if(isUpperBit(child.high, child.low, prefixLength)) {
+				upper = child;
+			} else {
+				lower = child;
+			}
+			child.parent = this;
+		}
+
+		void replaceChild(TrieNode child, TrieNode replacement) {
+			if(upper == child) {
+				upper = replacement;
+			} else {
+				lower = replacement;
+			}
+			if(replacement != null) {
+				replacement.parent = this;
+			}
+		}
+
+		/**
+		 * Whether the given bits match the bits of this node up to this node's prefix length
+		 */
+		boolean matches(long high, long low) {
+			return ((high ^ this.high) & getHighMask(prefixLength)) == 0 && ((low ^ this.low) & getLowMask(prefixLength)) == 0;
+		}
+
+		@Override
+		public String toString() {
+			return isAdded() ? key.toString() : "(" + prefixLength + ")";
+		}
+	}
+
+	volatile TrieNode ipv4Root, ipv6Root;
+	volatile int size;
+
+	public IPAddressTrie() {}
+
+	/**
+	 * Adds the prefix block represented by the given address.
+	 *
+	 * @param addr
+	 * @throws AddressTypeException if the address represents a range of values that is not a prefix block
+	 * @return true if the trie did not already contain the block
+	 */
+	public boolean add(IPAddress addr) {
+		return addNode(addr, null) != null;
+	}
+
+	/**
+	 * Adds the block with the given value, returning the added node, or null if the block is already present.
+	 */
+	TrieNode addNode(IPAddress addr, Object value) {
+		int prefixLength = getKeyPrefixLength(addr);
+		long high = getHigh(addr, prefixLength), low = getLow(addr, prefixLength);
+		boolean isIPv4 = addr.isIPv4();
+		TrieNode current = isIPv4 ? ipv4Root : ipv6Root;
+		if(current == null) {
+			TrieNode node = createAddedNode(high, low, prefixLength, addr, value);
+			setRoot(isIPv4, node);
+			return node;
+		}
+		while(true) {
+			int common = getCommonPrefixLength(high, low, current.high, current.low, Math.min(prefixLength, current.prefixLength));
+			if(common < current.prefixLength) {
+				//the new node goes above the current node, either as its parent or as a sibling under a new branching node
+				TrieNode parent = current.parent;
+				TrieNode node = createAddedNode(high, low, prefixLength, addr, value);
+				TrieNode top;
+				if(common == prefixLength) {
+					node.setChild(current);
+					top = node;
+				} else {
+					top = new TrieNode(high & getHighMask(common), low & getLowMask(common), common);
+					top.setChild(current);
+					top.setChild(node);
+				}
+				if(parent == null) {
+					top.parent = null;
+					setRoot(isIPv4, top);
+				} else {
+					parent.replaceChild(current, top);
+				}
+				return node;
+			}
+			if(current.prefixLength == prefixLength) {
+				if(current.isAdded()) {
+					return null;
+				}
+				current.value = value;
+				current.key = addr;
+				size++;
+				return current;
+			}
+			TrieNode next = current.getChild(high, low);
+			if(next == null) {
+				TrieNode node = createAddedNode(high, low, prefixLength, addr, value);
+				current.setChild(node);
+				return node;
+			}
+			current = next;
+		}
+	}
+
+	private TrieNode createAddedNode(long high, long low, int prefixLength, IPAddress addr, Object value) {
+		TrieNode node = new TrieNode(high, low, prefixLength);
+		node.key = addr;
+		node.value = value;
+		size++;
+		return node;
+	}
+
+	private void setRoot(boolean isIPv4, TrieNode node) {
+		if(isIPv4) {
+			ipv4Root = node;
+		} else {
+			ipv6Root = node;
+		}
+	}
+
+	/**
+	 * Removes the prefix block represented by the given address.
+	 *
+	 * @param addr
+	 * @throws AddressTypeException if the address represents a range of values that is not a prefix block
+	 * @return true if the block was removed
+	 */
+	public boolean remove(IPAddress addr) {
+		TrieNode node = getNode(addr);
+		if(node == null) {
+			return false;
+		}
+		removeNode(node);
+		return true;
+	}
+
+	void removeNode(TrieNode node) {
+		boolean isIPv4 = node.key.isIPv4();
+		node.key = null;
+		size--;
+		if(node.lower != null && node.upper != null) {
+			//the node remains as a branching node
+			node.value = null;
+			return;
+		}
+		TrieNode child = node.lower != null ? node.lower : node.upper;
+		TrieNode parent = node.parent;
+		if(parent == null) {
+			if(child != null) {
+				child.parent = null;
+			}
+			setRoot(isIPv4, child);
+			return;
+		}
+		parent.replaceChild(node, child);
+		if(child == null && !parent.isAdded()) {
+			//the parent is a branching node with a single remaining child, so it is no longer needed
+			TrieNode remaining = parent.lower != null ? parent.lower : parent.upper;
+			TrieNode grandParent = parent.parent;
+			if(grandParent == null) {
+				remaining.parent = null;
+				setRoot(isIPv4, remaining);
+			} else {
+				grandParent.replaceChild(parent, remaining);
+			}
+		}
+	}
+
+	/**
+	 * Returns whether the trie contains the exact prefix block represented by the given address.
+	 *
+	 * @param addr
+	 * @throws AddressTypeException if the address represents a range of values that is not a prefix block
+	 * @return
+	 */
+	public boolean contains(IPAddress addr) {
+		return getNode(addr) != null;
+	}
+
+	TrieNode getNode(IPAddress addr) {
+		int prefixLength = getKeyPrefixLength(addr);
+		long high = getHigh(addr, prefixLength), low = getLow(addr, prefixLength);
+		TrieNode current = addr.isIPv4() ? ipv4Root : ipv6Root;
+		while(current != null && current.prefixLength <= prefixLength && current.matches(high, low)) {
+			if(current.prefixLength == prefixLength) {
+				return current.isAdded() ? current : null;
+			}
+			current = current.getChild(high, low);
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the block with the longest prefix that contains the given address or prefix block, or null if no such block exists.
+	 *
+	 * @param addr
+	 * @throws AddressTypeException if the address represents a range of values that is not a prefix block
+	 * @return
+	 */
+	public IPAddress longestPrefixMatch(IPAddress addr) {
+		int prefixLength = getKeyPrefixLength(addr);
+		long high = getHigh(addr, prefixLength), low = getLow(addr, prefixLength);
+		TrieNode current = addr.isIPv4() ? ipv4Root : ipv6Root;
+		IPAddress result = null;
+		while(current != null && current.prefixLength <= prefixLength && current.matches(high, low)) {
+			//a node removed by the writer may remain linked as a branching node, so each key is read only once
+			IPAddress key = current.key;
+			if(key != null) {
+				result = key;
+			}
+			if(current.prefixLength == prefixLength) {
+				break;
+			}
+			current = current.getChild(high, low);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the value of the block with the longest prefix that contains the given address or prefix block, or null if no such block exists.
+	 */
+	Object longestPrefixMatchValue(IPAddress addr) {
+		int prefixLength = getKeyPrefixLength(addr);
+		long high = getHigh(addr, prefixLength), low = getLow(addr, prefixLength);
+		TrieNode current = addr.isIPv4() ? ipv4Root : ipv6Root;
+		Object result = null;
+		while(current != null && current.prefixLength <= prefixLength && current.matches(high, low)) {
+			Object value = current.value;
+			if(value != null) {
+				result = value;
+			}
+			if(current.prefixLength == prefixLength) {
+				break;
+			}
+			current = current.getChild(high, low);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns whether any block in the trie contains the given address or prefix block.
+	 *
+	 * @param addr
+	 * @throws AddressTypeException if the address represents a range of values that is not a prefix block
+	 * @return
+	 */
+	public boolean elementContains(IPAddress addr) {
+		return longestPrefixMatch(addr) != null;
+	}
+
+	/**
+	 * Returns all blocks in the trie that contain the given address or prefix block, ordered from the shortest prefix to the longest.
+	 *
+	 * @param addr
+	 * @throws AddressTypeException if the address represents a range of values that is not a prefix block
+	 * @return
+	 */
+	public List<IPAddress> elementsContaining(IPAddress addr) {
+		int prefixLength = getKeyPrefixLength(addr);
+		long high = getHigh(addr, prefixLength), low = getLow(addr, prefixLength);
+		TrieNode current = addr.isIPv4() ? ipv4Root : ipv6Root;
+		List<IPAddress> result = new ArrayList<IPAddress>();
+		while(current != null && current.prefixLength <= prefixLength && current.matches(high, low)) {
+			IPAddress key = current.key;
+			if(key != null) {
+				result.add(key);
+			}
+			if(current.prefixLength == prefixLength) {
+				break;
+			}
+			current = current.getChild(high, low);
+		}
+		return result;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void clear() {
+		ipv4Root = ipv6Root = null;
+		size = 0;
+	}
+
+	/**
+	 * Iterates through the blocks, IPv4 before IPv6,
+	 * with each block followed by the blocks it contains, and lower blocks preceding upper blocks.
+	 */
+	@Override
+	public Iterator<IPAddress> iterator() {
+		final Iterator<TrieNode> nodeIterator = nodeIterator();
+		return new Iterator<IPAddress>() {
+
+			@Override
+			public boolean hasNext() {
+				return nodeIterator.hasNext();
+			}
+
+			@Override
+			public IPAddress next() {
+				return nodeIterator.next().key;
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	/**
+	 * Iterates through the added nodes in pre-order.
+	 */
+	Iterator<TrieNode> nodeIterator() {
+		final ArrayDeque<TrieNode> stack = new ArrayDeque<TrieNode>();
+		if(ipv6Root != null) {
+			stack.push(ipv6Root);
+		}
+		if(ipv4Root != null) {
+			stack.push(ipv4Root);
+		}
+		return new Iterator<TrieNode>() {
+			TrieNode next = advance();
+
+			private TrieNode advance() {
+				while(!stack.isEmpty()) {
+					TrieNode node = stack.pop();
+					if(node.upper != null) {
+						stack.push(node.upper);
+					}
+					if(node.lower != null) {
+						stack.push(node.lower);
+					}
+					if(node.isAdded()) {
+						return node;
+					}
+				}
+				return null;
+			}
+
+			@Override
+			public boolean hasNext() {
+				return next != null;
+			}
+
+			@Override
+			public TrieNode next() {
+				if(next == null) {
+					throw new NoSuchElementException();
+				}
+				TrieNode result = next;
+				next = advance();
+				return result;
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("[");
+		Iterator<IPAddress> iterator = iterator();
+		if(iterator.hasNext()) {
+			builder.append(iterator.next());
+			while(iterator.hasNext()) {
+				builder.append(", ").append(iterator.next());
+			}
+		}
+		return builder.append(']').toString();
+	}
+
+	/**
+	 * Returns the prefix length of the block represented by the given address.
+	 *
+	 * @param addr
+	 * @throws AddressTypeException if the address represents a range of values that is not a prefix block
+	 * @return
+	 */
+	static int getKeyPrefixLength(IPAddress addr) {
+		if(addr.isRangeEquivalentToPrefix()) {
+			Integer prefix = addr.getNetworkPrefixLength();
+			return prefix == null ? addr.getBitCount() : prefix;
+		}
+		Integer prefix = addr.getEquivalentPrefix();
+		if(prefix == null) {
+			throw new AddressTypeException(addr, "ipaddress.error.notPrefixBlock");
+		}
+		return prefix;
+	}
+
+	/**
+	 * Returns the first 64 bits of the lower value of the address, left-aligned, with the bits beyond the prefix length set to zero.
+	 */
+	static long getHigh(IPAddress addr, int prefixLength) {
+		int bitsPerSegment = addr.getBitsPerSegment();
+		int segmentCount = Math.min(addr.getSegmentCount(), Long.SIZE / bitsPerSegment);
+		long result = 0;
+		for(int i = 0, shift = Long.SIZE - bitsPerSegment; i < segmentCount; i++, shift -= bitsPerSegment) {
+			IPAddressSegment segment = addr.getSegment(i);
+			result |= ((long) segment.getLowerSegmentValue()) << shift;
+		}
+		return result & getHighMask(prefixLength);
+	}
+
+	/**
+	 * Returns the second 64 bits of the lower value of the address, left-aligned, with the bits beyond the prefix length set to zero.
+	 */
+	static long getLow(IPAddress addr, int prefixLength) {
+		int bitsPerSegment = addr.getBitsPerSegment();
+		int segmentCount = addr.getSegmentCount();
+		long result = 0;
+		for(int i = Long.SIZE / bitsPerSegment, shift = Long.SIZE - bitsPerSegment; i < segmentCount; i++, shift -= bitsPerSegment) {
+			IPAddressSegment segment = addr.getSegment(i);
+			result |= ((long) segment.getLowerSegmentValue()) << shift;
+		}
+		return result & getLowMask(prefixLength);
+	}
+
+	static long getHighMask(int prefixLength) {
+		if(prefixLength >= Long.SIZE) {
+			return -1L;
+		}
+		return prefixLength == 0 ? 0L : -1L << (Long.SIZE - prefixLength);
+	}
+
+	static long getLowMask(int prefixLength) {
+		if(prefixLength <= Long.SIZE) {
+			return 0L;
+		}
+		return -1L << ((Long.SIZE << 1) - prefixLength);
+	}
+
+	/**
+	 * Whether the bit following the given prefix length is one
+	 */
+	static boolean isUpperBit(long high, long low, int prefixLength) {
+		if(prefixLength < Long.SIZE) {
+			return (high & (Long.MIN_VALUE >>> prefixLength)) != 0;
+		}
+		return (low & (Long.MIN_VALUE >>> (prefixLength - Long.SIZE))) != 0;
+	}
+
+	static int getCommonPrefixLength(long high, long low, long otherHigh, long otherLow, int limit) {
+		long diff = high ^ otherHigh;
+		int result;
+		if(diff != 0) {
+			result = Long.numberOfLeadingZeros(diff);
+		} else {
+			diff = low ^ otherLow;
+			result = Long.SIZE + Long.numberOfLeadingZeros(diff);
+		}
+		return Math.min(result, limit);
+	}
+}
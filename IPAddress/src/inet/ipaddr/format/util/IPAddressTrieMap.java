@@ -0,0 +1,213 @@
+/*
+ * Copyright 2017 Sean C Foley
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     or at
+ *     https://github.com/seancfoley/IPAddress/blob/master/LICENSE
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package inet.ipaddr.format.util;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import inet.ipaddr.Address;
+import inet.ipaddr.AddressComparator;
+import inet.ipaddr.AddressTypeException;
+import inet.ipaddr.IPAddress;
+import inet.ipaddr.format.util.IPAddressTrie.TrieNode;
+
+/**
+ * Maps IPv4 and IPv6 prefix blocks to values,
+ * and finds the value of the most specific block containing a given address using {@link #longestPrefixMatch(IPAddress)}.
+ * <p>
+ * Keys are treated as prefix blocks as described in {@link IPAddressTrie}, so 1.2.0.0/16 and 1.2.*.* are the same key.
+ * <p>
+ * The entries can also be traversed in the order of an {@link AddressComparator}, by default {@link Address#addressComparator},
+ * using the floor, ceiling, lower and higher methods or the view returned by {@link #asNavigableMap()}.
+ * <p>
+ * A single writer may modify the map while other threads read it.  Multiple concurrent writers must synchronize externally.
+ *
+ * @author sfoley
+ *
+ * @param <V> the type of the mapped values
+ */
+public class IPAddressTrieMap<V> {
+
+	private final IPAddressTrie trie = new IPAddressTrie();
+	private final ConcurrentSkipListMap<IPAddress, V> ordered;
+	private final NavigableMap<IPAddress, V> orderedView;
+
+	public IPAddressTrieMap() {
+		this(Address.addressComparator);
+	}
+
+	public IPAddressTrieMap(AddressComparator comparator) {
+		ordered = new ConcurrentSkipListMap<IPAddress, V>(comparator);
+		orderedView = Collections.unmodifiableNavigableMap(ordered);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <V> V getValue(TrieNode node) {
+		return node == null ? null : (V) node.value;
+	}
+
+	/**
+	 * Maps the prefix block represented by the given address to the given value.
+	 * If the block is already mapped, the existing key is retained and its value is replaced.
+	 *
+	 * @param addr
+	 * @param value
+	 * @throws AddressTypeException if the address represents a range of values that is not a prefix block
+	 * @throws NullPointerException if the value is null
+	 * @return the previous value, or null if there was none
+	 */
+	public V put(IPAddress addr, V value) {
+		if(value == null) {
+			throw new NullPointerException();
+		}
+		TrieNode node = trie.getNode(addr);
+		if(node == null) {
+			trie.addNode(addr, value);
+			ordered.put(addr, value);
+			return null;
+		}
+		V result = getValue(node);
+		node.value = value;
+		ordered.put(node.key, value);
+		return result;
+	}
+
+	/**
+	 * Returns the value mapped to the exact prefix block represented by the given address, or null if there is none.
+	 *
+	 * @param addr
+	 * @throws AddressTypeException if the address represents a range of values that is not a prefix block
+	 * @return
+	 */
+	public V get(IPAddress addr) {
+		return getValue(trie.getNode(addr));
+	}
+
+	public boolean containsKey(IPAddress addr) {
+		return trie.contains(addr);
+	}
+
+	/**
+	 * Returns the value of the block with the longest prefix that contains the given address or prefix block, or null if there is none.
+	 *
+	 * @param addr
+	 * @throws AddressTypeException if the address represents a range of values that is not a prefix block
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public V longestPrefixMatch(IPAddress addr) {
+		return (V) trie.longestPrefixMatchValue(addr);
+	}
+
+	/**
+	 * Returns the key of the block with the longest prefix that contains the given address or prefix block, or null if there is none.
+	 *
+	 * @param addr
+	 * @throws AddressTypeException if the address represents a range of values that is not a prefix block
+	 * @return
+	 */
+	public IPAddress longestPrefixMatchKey(IPAddress addr) {
+		return trie.longestPrefixMatch(addr);
+	}
+
+	/**
+	 * Removes the mapping for the prefix block represented by the given address.
+	 *
+	 * @param addr
+	 * @throws AddressTypeException if the address represents a range of values that is not a prefix block
+	 * @return the removed value, or null if there was none
+	 */
+	public V remove(IPAddress addr) {
+		TrieNode node = trie.getNode(addr);
+		if(node == null) {
+			return null;
+		}
+		V result = getValue(node);
+		IPAddress key = node.key;
+		trie.removeNode(node);
+		ordered.remove(key);
+		return result;
+	}
+
+	public int size() {
+		return trie.size();
+	}
+
+	public boolean isEmpty() {
+		return trie.isEmpty();
+	}
+
+	public void clear() {
+		trie.clear();
+		ordered.clear();
+	}
+
+	public Map.Entry<IPAddress, V> firstEntry() {
+		return ordered.firstEntry();
+	}
+
+	public Map.Entry<IPAddress, V> lastEntry() {
+		return ordered.lastEntry();
+	}
+
+	/**
+	 * Returns the entry with the greatest key less than or equal to the given address in the map ordering, or null if there is none.
+	 */
+	public Map.Entry<IPAddress, V> floorEntry(IPAddress addr) {
+		return ordered.floorEntry(addr);
+	}
+
+	/**
+	 * Returns the entry with the least key greater than or equal to the given address in the map ordering, or null if there is none.
+	 */
+	public Map.Entry<IPAddress, V> ceilingEntry(IPAddress addr) {
+		return ordered.ceilingEntry(addr);
+	}
+
+	/**
+	 * Returns the entry with the greatest key strictly less than the given address in the map ordering, or null if there is none.
+	 */
+	public Map.Entry<IPAddress, V> lowerEntry(IPAddress addr) {
+		return ordered.lowerEntry(addr);
+	}
+
+	/**
+	 * Returns the entry with the least key strictly greater than the given address in the map ordering, or null if there is none.
+	 */
+	public Map.Entry<IPAddress, V> higherEntry(IPAddress addr) {
+		return ordered.higherEntry(addr);
+	}
+
+	/**
+	 * Returns an unmodifiable view of the entries in the order of the map comparator.
+	 * The view reflects subsequent changes to this map.
+	 *
+	 * @return
+	 */
+	public NavigableMap<IPAddress, V> asNavigableMap() {
+		return orderedView;
+	}
+
+	@Override
+	public String toString() {
+		return ordered.toString();
+	}
+}
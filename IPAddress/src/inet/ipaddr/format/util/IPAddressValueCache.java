@@ -0,0 +1,262 @@
+/*
+ * Copyright 2017 Sean C Foley
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     or at
+ *     https://github.com/seancfoley/IPAddress/blob/master/LICENSE
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package inet.ipaddr.format.util;
+
+import java.util.Arrays;
+
+import inet.ipaddr.IPAddress;
+import inet.ipaddr.IPAddressString;
+import inet.ipaddr.ipv4.IPv4Address;
+import inet.ipaddr.ipv6.IPv6Address;
+import inet.ipaddr.ipv6.IPv6AddressNetwork.IPv6AddressCreator;
+
+/**
+ * A thread-safe cache of single IPv4 and IPv6 addresses, looked up by their numeric values rather than by strings,
+ * for addresses obtained as numbers, such as those from packet headers, for which computing a string only to look up a cache is wasteful.
+ * <p>
+ * Lookups with the same value return the same address object while it remains in the cache, 
+ * and so the same {@link IPAddressString} from {@link IPAddress#toAddressString()}, which the address retains, 
+ * along with the strings and other objects the address and address string cache.
+ * <p>
+ * The values are held in open-addressing hash tables of primitive keys, divided into stripes, each with its own lock.
+ * The tables have a fixed capacity and do not grow.
+ * A value is held in one of a small number of consecutive slots of its table, and when those are all occupied, one of them is replaced in turn.
+ * So the memory used is bounded, and an address may be replaced by another at any time.
+ * <p>
+ * The addresses have no prefix length and no zone.
+ * 
+ * @author sfoley
+ *
+ */
+public class IPAddressValueCache {
+	
+	//the number of consecutive slots that may hold a value, a power of two
+	private static final int PROBE_LENGTH = 8;
+	
+	private static class IPv4Table {
+		final int values[];
+		final IPv4Address addresses[];
+		int size, nextReplaced;
+		
+		IPv4Table(int capacity) {
+			values = new int[capacity];
+			addresses = new IPv4Address[capacity];
+		}
+	}
+	
+	private static class IPv6Table {
+		final long highValues[], lowValues[];
+		final IPv6Address addresses[];
+		int size, nextReplaced;
+		
+		IPv6Table(int capacity) {
+			highValues = new long[capacity];
+			lowValues = new long[capacity];
+			addresses = new IPv6Address[capacity];
+		}
+	}
+	
+	private final IPv4Table ipv4Tables[];
+	private final IPv6Table ipv6Tables[];
+	
+	/**
+	 * @param capacity the minimum number of addresses of each version that can be held, which is rounded up to a power of two for each stripe
+	 */
+	public IPAddressValueCache(int capacity) {
+		this(capacity, Runtime.getRuntime().availableProcessors() << 2);
+	}
+	
+	/**
+	 * @param capacity the minimum number of addresses of each version that can be held, which is rounded up to a power of two for each stripe
+	 * @param concurrencyLevel the number of threads expected to use the cache concurrently, which determines the number of stripes
+	 * @throws IllegalArgumentException if the capacity or the concurrency level is not positive
+	 */
+	public IPAddressValueCache(int capacity, int concurrencyLevel) {
+		if(capacity <= 0 || concurrencyLevel <= 0) {
+			throw new IllegalArgumentException();
+		}
+		int stripeCount = Integer.highestOneBit(Math.min(Math.min(concurrencyLevel, (capacity + PROBE_LENGTH - 1) / PROBE_LENGTH), 1 << 16));
+		int share = (capacity + stripeCount - 1) / stripeCount;
+		int tableCapacity = Math.max(PROBE_LENGTH, Integer.highestOneBit(share - 1) << 1);
+		ipv4Tables = new IPv4Table[stripeCount];
+		ipv6Tables = new IPv6Table[stripeCount];
+		for(int i = 0; i < stripeCount; i++) {
+			ipv4Tables[i] = new IPv4Table(tableCapacity);
+			ipv6Tables[i] = new IPv6Table(tableCapacity);
+		}
+	}
+	
+	private static long hash(long value) {
+		long hash = value * 0x9e3779b97f4a7c15L;
+		return hash ^ (hash >>> 29);
+	}
+	
+	private static int stripeIndex(long hash, int stripeCount) {
+		return (int) (hash >>> 48) & (stripeCount - 1);
+	}
+	
+	private static IPv6AddressCreator getIPv6Creator() {
+		return IPv6Address.network().getAddressCreator();
+	}
+	
+	/**
+	 * @param value the 32 bits of the address
+	 * @return the cached address with the given value, which is created and cached if not already in the cache
+	 */
+	public IPv4Address get(int value) {
+		long hash = hash(value);
+		IPv4Table table = ipv4Tables[stripeIndex(hash, ipv4Tables.length)];
+		synchronized(table) {
+			int values[] = table.values;
+			IPv4Address addresses[] = table.addresses;
+			int mask = values.length - 1;
+			int start = (int) hash;
+			int slot = -1;
+			for(int i = 0; i < PROBE_LENGTH; i++) {
+				int index = (start + i) & mask;
+				IPv4Address existing = addresses[index];
+				if(existing == null) {
+					slot = index;
+					table.size++;
+					break;
+				}
+				if(values[index] == value) {
+					return existing;
+				}
+			}
+			if(slot < 0) {
+				slot = (start + (table.nextReplaced++ & (PROBE_LENGTH - 1))) & mask;
+			}
+			IPv4Address result = new IPv4Address(value);
+			values[slot] = value;
+			addresses[slot] = result;
+			return result;
+		}
+	}
+	
+	/**
+	 * @param highBits the high 64 bits of the address
+	 * @param lowBits the low 64 bits of the address
+	 * @return the cached address with the given value, which is created and cached if not already in the cache
+	 */
+	public IPv6Address get(long highBits, long lowBits) {
+		//each half is mixed before combining, so that neighbouring addresses in dense IPv6 sets do not collide
+		long hash = hash(highBits) ^ Long.rotateLeft(hash(lowBits), 32);
+		IPv6Table table = ipv6Tables[stripeIndex(hash, ipv6Tables.length)];
+		synchronized(table) {
+			long highValues[] = table.highValues, lowValues[] = table.lowValues;
+			IPv6Address addresses[] = table.addresses;
+			int mask = addresses.length - 1;
+			int start = (int) hash;
+			int slot = -1;
+			for(int i = 0; i < PROBE_LENGTH; i++) {
+				int index = (start + i) & mask;
+				IPv6Address existing = addresses[index];
+				if(existing == null) {
+					slot = index;
+					table.size++;
+					break;
+				}
+				if(lowValues[index] == lowBits && highValues[index] == highBits) {
+					return existing;
+				}
+			}
+			if(slot < 0) {
+				slot = (start + (table.nextReplaced++ & (PROBE_LENGTH - 1))) & mask;
+			}
+			IPv6Address result = getIPv6Creator().createAddress(highBits, lowBits, null, null);
+			highValues[slot] = highBits;
+			lowValues[slot] = lowBits;
+			addresses[slot] = result;
+			return result;
+		}
+	}
+	
+	/**
+	 * @param bytes the 4 bytes of an IPv4 address or the 16 bytes of an IPv6 address
+	 * @return the cached address with the given bytes, which is created and cached if not already in the cache
+	 * @throws IllegalArgumentException if there are neither 4 nor 16 bytes
+	 */
+	public IPAddress get(byte bytes[]) {
+		if(bytes.length == IPv4Address.BYTE_COUNT) {
+			return get((int) toLong(bytes, 0, IPv4Address.BYTE_COUNT));
+		} else if(bytes.length == IPv6Address.BYTE_COUNT) {
+			return get(toLong(bytes, 0, Long.BYTES), toLong(bytes, Long.BYTES, IPv6Address.BYTE_COUNT));
+		}
+		throw new IllegalArgumentException();
+	}
+	
+	private static long toLong(byte bytes[], int start, int end) {
+		long value = 0;
+		for(int i = start; i < end; i++) {
+			value = (value << 8) | (0xff & bytes[i]);
+		}
+		return value;
+	}
+	
+	/**
+	 * @param value the 32 bits of the address
+	 * @return the address string of the cached address with the given value
+	 */
+	public IPAddressString getAddressString(int value) {
+		return get(value).toAddressString();
+	}
+	
+	/**
+	 * @param highBits the high 64 bits of the address
+	 * @param lowBits the low 64 bits of the address
+	 * @return the address string of the cached address with the given value
+	 */
+	public IPAddressString getAddressString(long highBits, long lowBits) {
+		return get(highBits, lowBits).toAddressString();
+	}
+	
+	/**
+	 * @return the number of cached addresses of both versions
+	 */
+	public int size() {
+		int size = 0;
+		for(IPv4Table table : ipv4Tables) {
+			synchronized(table) {
+				size += table.size;
+			}
+		}
+		for(IPv6Table table : ipv6Tables) {
+			synchronized(table) {
+				size += table.size;
+			}
+		}
+		return size;
+	}
+	
+	public void clear() {
+		for(IPv4Table table : ipv4Tables) {
+			synchronized(table) {
+				Arrays.fill(table.addresses, null);
+				table.size = 0;
+			}
+		}
+		for(IPv6Table table : ipv6Tables) {
+			synchronized(table) {
+				Arrays.fill(table.addresses, null);
+				table.size = 0;
+			}
+		}
+	}
+}
@@ -0,0 +1,545 @@
+/*
+ * Copyright 2017 Sean C Foley
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     or at
+ *     https://github.com/seancfoley/IPAddress/blob/master/LICENSE
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package inet.ipaddr.format.util;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import inet.ipaddr.AddressTypeException;
+import inet.ipaddr.IPAddress;
+import inet.ipaddr.ipv4.IPv4Address;
+import inet.ipaddr.ipv6.IPv6Address;
+
+/**
+ * An immutable set of single IPv4 and IPv6 addresses, stored in a memory-mapped file as sorted fixed-width keys,
+ * the 4 or 16 bytes of {@link IPAddress#getBytes()}.
+ * <p>
+ * The file is written by a {@link Builder} and opened with {@link #open(Path)}.
+ * Opening maps the file without reading the keys, the keys are held off-heap in the mapped file, and pages are loaded by the operating system as lookups touch them.
+ * Lookups are binary searches that create no objects, and iteration creates the address objects only as they are returned.
+ * <p>
+ * Zones of IPv6 addresses are not stored, so an IPv6 address with a zone is treated as the same address without the zone.
+ * <p>
+ * Instances can be used by multiple threads concurrently.
+ * The file must not be modified while it is open.
+ *
+ * @author sfoley
+ *
+ */
+public class MappedIPAddressSet implements Iterable<IPAddress> {
+
+	static final int MAGIC = 0x49504153; //IPAS
+	static final int VERSION = 1;
+	static final int HEADER_LENGTH = 24; //magic, version, IPv4 key count, IPv6 key count
+
+	private static final int IPV4_KEY_SHIFT = 2, IPV6_KEY_SHIFT = 4; //keys are 4 and 16 bytes
+
+	//windows are a multiple of both key sizes so no key straddles two windows
+	private static final int WINDOW_SHIFT = 30;
+	private static final long WINDOW_MASK = (1L << WINDOW_SHIFT) - 1;
+
+	/**
+	 * The keys of one IP version, mapped as a sequence of windows since a single mapping is limited to 2GB.
+	 */
+	static class KeyRegion {
+		final MappedByteBuffer windows[];
+		final long count;
+		final int keyShift;
+
+		KeyRegion(FileChannel channel, long position, long count, int keyShift) throws IOException {
+			this.count = count;
+			this.keyShift = keyShift;
+			long size = count << keyShift;
+			int windowCount = (int) ((size + WINDOW_MASK) >>> WINDOW_SHIFT);
+			windows = new MappedByteBuffer[windowCount];
+			for(int i = 0; i < windowCount; i++) {
+				long windowStart = ((long) i) << WINDOW_SHIFT;
+				windows[i] = channel.map(FileChannel.MapMode.READ_ONLY, position + windowStart, Math.min(size - windowStart, 1L << WINDOW_SHIFT));
+			}
+		}
+
+		int getInt(long index) {
+			long position = index << keyShift;
+			return windows[(int) (position >>> WINDOW_SHIFT)].getInt((int) (position & WINDOW_MASK));
+		}
+
+		long getLong(long index, int longIndex) {
+			long position = (index << keyShift) + (longIndex << 3);
+			return windows[(int) (position >>> WINDOW_SHIFT)].getLong((int) (position & WINDOW_MASK));
+		}
+
+		/**
+		 * @return the index of the first IPv4 key not less than the given value, or the key count if there is none
+		 */
+		long lowerBound(int value) {
+			long low = 0, high = count;
+			while(low < high) {
+				long mid = (low + high) >>> 1;
+				if(Integer.compareUnsigned(getInt(mid), value) < 0) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			return low;
+		}
+
+		/**
+		 * @return the index of the first IPv6 key not less than the given value, or the key count if there is none
+		 */
+		long lowerBound(long valueHigh, long valueLow) {
+			long low = 0, high = count;
+			while(low < high) {
+				long mid = (low + high) >>> 1;
+				if(SequentialRanges.compareUnsigned(getLong(mid, 0), getLong(mid, 1), valueHigh, valueLow) < 0) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			return low;
+		}
+	}
+
+	private final KeyRegion ipv4Keys, ipv6Keys;
+
+	private MappedIPAddressSet(KeyRegion ipv4Keys, KeyRegion ipv6Keys) {
+		this.ipv4Keys = ipv4Keys;
+		this.ipv6Keys = ipv6Keys;
+	}
+
+	/**
+	 * Maps the set written to the given file by a {@link Builder}.
+	 * <p>
+	 * The file can be closed by the operating system once the returned set is no longer referenced and has been garbage-collected.
+	 *
+	 * @param path
+	 * @return
+	 * @throws IOException if the file cannot be read or was not written by a {@link Builder}
+	 */
+	public static MappedIPAddressSet open(Path path) throws IOException {
+		try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+			while(header.hasRemaining()) {
+				if(channel.read(header) < 0) {
+					throw new IOException("incomplete address set header in " + path);
+				}
+			}
+			header.flip();
+			int magic = header.getInt(), version = header.getInt();
+			long ipv4Count = header.getLong(), ipv6Count = header.getLong();
+			if(magic != MAGIC || version != VERSION || ipv4Count < 0 || ipv6Count < 0 ||
+					channel.size() != HEADER_LENGTH + (ipv4Count << IPV4_KEY_SHIFT) + (ipv6Count << IPV6_KEY_SHIFT)) {
+				throw new IOException("invalid address set file " + path);
+			}
+			//the mappings remain valid after the channel is closed
+			KeyRegion ipv4Keys = new KeyRegion(channel, HEADER_LENGTH, ipv4Count, IPV4_KEY_SHIFT);
+			KeyRegion ipv6Keys = new KeyRegion(channel, HEADER_LENGTH + (ipv4Count << IPV4_KEY_SHIFT), ipv6Count, IPV6_KEY_SHIFT);
+			return new MappedIPAddressSet(ipv4Keys, ipv6Keys);
+		}
+	}
+
+	/**
+	 * Gets the bits of the lower or upper address of the given address in the range of segments, without creating the bytes.
+	 */
+	static int getIPv4Value(IPAddress addr, boolean upper) {
+		IPv4Address ipv4 = addr.toIPv4();
+		return upper ? ipv4.upperIntValue() : ipv4.intValue();
+	}
+
+	static long getIPv6High(IPAddress addr, boolean upper) {
+		IPv6Address ipv6 = addr.toIPv6();
+		return upper ? ipv6.getUpperHighBits() : ipv6.getHighBits();
+	}
+
+	static long getIPv6Low(IPAddress addr, boolean upper) {
+		IPv6Address ipv6 = addr.toIPv6();
+		return upper ? ipv6.getUpperLowBits() : ipv6.getLowBits();
+	}
+
+	/**
+	 * @return the number of addresses in the set
+	 */
+	public long size() {
+		return ipv4Keys.count + ipv6Keys.count;
+	}
+
+	public long getIPv4Count() {
+		return ipv4Keys.count;
+	}
+
+	public long getIPv6Count() {
+		return ipv6Keys.count;
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 * Returns whether the set contains the given address, or for a subnet, whether the set contains every address in the subnet.
+	 *
+	 * @param addr
+	 * @return
+	 */
+	public boolean contains(IPAddress addr) {
+		if(!addr.isMultiple()) {
+			if(addr.isIPv4()) {
+				int value = getIPv4Value(addr, false);
+				long index = ipv4Keys.lowerBound(value);
+				return index < ipv4Keys.count && ipv4Keys.getInt(index) == value;
+			}
+			long high = getIPv6High(addr, false), low = getIPv6Low(addr, false);
+			long index = ipv6Keys.lowerBound(high, low);
+			return index < ipv6Keys.count && ipv6Keys.getLong(index, 0) == high && ipv6Keys.getLong(index, 1) == low;
+		}
+		//the set has no duplicates, so the subnet is contained when the set has as many addresses between its lowest and highest as the subnet has
+		BigInteger subnetCount = addr.getCount();
+		if(!subnetCount.equals(BigInteger.valueOf(count(addr, addr)))) {
+			return false;
+		}
+		if(isSequential(addr)) {
+			return true;
+		}
+		Iterator<? extends IPAddress> iterator = addr.iterator();
+		while(iterator.hasNext()) {
+			if(!contains(iterator.next())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Whether the address is the sequential range of all values between its lowest and highest
+	 */
+	private static boolean isSequential(IPAddress addr) {
+		int segmentCount = addr.getSegmentCount();
+		int i = 0;
+		while(i < segmentCount && !addr.getSegment(i).isMultiple()) {
+			i++;
+		}
+		while(++i < segmentCount) {
+			if(!addr.getSegment(i).isFullRange()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static void checkVersions(IPAddress lower, IPAddress upper) throws AddressTypeException {
+		if(lower.isIPv4() != upper.isIPv4()) {
+			throw new AddressTypeException(upper, "ipaddress.error.typeMismatch");
+		}
+	}
+
+	/**
+	 * Counts the addresses in the set from the lowest address of the first argument to the highest address of the second argument, inclusive.
+	 * <p>
+	 * Passing the same subnet as both arguments counts the addresses of the set from the lowest to the highest address in the subnet.
+	 *
+	 * @param lower
+	 * @param upper
+	 * @throws AddressTypeException if the arguments are not the same IP version
+	 * @return
+	 */
+	public long count(IPAddress lower, IPAddress upper) throws AddressTypeException {
+		checkVersions(lower, upper);
+		long range[] = getIndexRange(lower, upper);
+		return range[1] - range[0];
+	}
+
+	/**
+	 * Iterates through the addresses in the set from the lowest address of the first argument to the highest address of the second argument, inclusive, in increasing order.
+	 *
+	 * @param lower
+	 * @param upper
+	 * @throws AddressTypeException if the arguments are not the same IP version
+	 * @return
+	 */
+	public Iterator<IPAddress> iterator(IPAddress lower, IPAddress upper) throws AddressTypeException {
+		checkVersions(lower, upper);
+		long range[] = getIndexRange(lower, upper);
+		return lower.isIPv4() ? new KeyIterator(ipv4Keys, range[0], range[1], null) : new KeyIterator(ipv6Keys, range[0], range[1], null);
+	}
+
+	/**
+	 * Iterates through the addresses in the set from the lowest to the highest address in the given subnet, in increasing order.
+	 *
+	 * @param subnet
+	 * @return
+	 */
+	public Iterator<IPAddress> iterator(IPAddress subnet) {
+		return iterator(subnet, subnet);
+	}
+
+	private long[] getIndexRange(IPAddress lower, IPAddress upper) {
+		long start, end;
+		if(lower.isIPv4()) {
+			start = ipv4Keys.lowerBound(getIPv4Value(lower, false));
+			int upperValue = getIPv4Value(upper, true);
+			end = upperValue == -1 ? ipv4Keys.count : ipv4Keys.lowerBound(upperValue + 1);
+		} else {
+			start = ipv6Keys.lowerBound(getIPv6High(lower, false), getIPv6Low(lower, false));
+			long upperHigh = getIPv6High(upper, true), upperLow = getIPv6Low(upper, true);
+			if(upperLow != -1) {
+				end = ipv6Keys.lowerBound(upperHigh, upperLow + 1);
+			} else if(upperHigh != -1) {
+				end = ipv6Keys.lowerBound(upperHigh + 1, 0);
+			} else {
+				end = ipv6Keys.count;
+			}
+		}
+		return new long[] {start, Math.max(start, end)};
+	}
+
+	/**
+	 * Iterates through the IPv4 addresses in increasing order, followed by the IPv6 addresses in increasing order.
+	 */
+	@Override
+	public Iterator<IPAddress> iterator() {
+		return new KeyIterator(ipv4Keys, 0, ipv4Keys.count, new KeyIterator(ipv6Keys, 0, ipv6Keys.count, null));
+	}
+
+	private static class KeyIterator implements Iterator<IPAddress> {
+		private final KeyRegion keys;
+		private final long end;
+		private long index;
+		private KeyIterator next;
+
+		KeyIterator(KeyRegion keys, long start, long end, KeyIterator next) {
+			this.keys = keys;
+			this.index = start;
+			this.end = end;
+			this.next = next;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return index < end || (next != null && next.hasNext());
+		}
+
+		@Override
+		public IPAddress next() {
+			if(index < end) {
+				long current = index++;
+				if(keys.keyShift == IPV4_KEY_SHIFT) {
+					return new IPv4Address(keys.getInt(current));
+				}
+				ByteBuffer bytes = ByteBuffer.allocate(IPv6Address.BYTE_COUNT);
+				bytes.putLong(keys.getLong(current, 0)).putLong(keys.getLong(current, 1));
+				return new IPv6Address(bytes.array());
+			}
+			if(next != null) {
+				return next.next();
+			}
+			throw new NoSuchElementException();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "IPv4 count: " + ipv4Keys.count + ", IPv6 count: " + ipv6Keys.count;
+	}
+
+	/**
+	 * Collects addresses in memory as primitive keys, then sorts them, removes duplicates, and writes them to a file that can be opened as a {@link MappedIPAddressSet}.
+	 * <p>
+	 * Each key takes 4 or 16 bytes of heap while building.
+	 *
+	 * @author sfoley
+	 *
+	 */
+	public static class Builder {
+		//IPv4 keys have the sign bit flipped and IPv6 keys have the sign bit of the high long flipped, so that signed ordering is unsigned address ordering
+		private int ipv4Keys[] = new int[16];
+		private long ipv6Keys[] = new long[32];
+		private int ipv4Count, ipv6Count;
+
+		/**
+		 * Adds a single address.
+		 *
+		 * @param addr
+		 * @return this builder
+		 * @throws AddressTypeException if the address represents multiple addresses
+		 */
+		public Builder add(IPAddress addr) throws AddressTypeException {
+			if(addr.isMultiple()) {
+				throw new AddressTypeException(addr, "ipaddress.error.not.single.address");
+			}
+			if(addr.isIPv4()) {
+				if(ipv4Count == ipv4Keys.length) {
+					ipv4Keys = Arrays.copyOf(ipv4Keys, newCapacity(ipv4Count));
+				}
+				ipv4Keys[ipv4Count++] = getIPv4Value(addr, false) ^ Integer.MIN_VALUE;
+			} else {
+				int index = ipv6Count << 1;
+				if(index == ipv6Keys.length) {
+					ipv6Keys = Arrays.copyOf(ipv6Keys, newCapacity(index));
+				}
+				ipv6Keys[index] = getIPv6High(addr, false) ^ Long.MIN_VALUE;
+				ipv6Keys[index + 1] = getIPv6Low(addr, false);
+				ipv6Count++;
+			}
+			return this;
+		}
+
+		/**
+		 * Adds the given single addresses.
+		 *
+		 * @param addrs
+		 * @return this builder
+		 * @throws AddressTypeException if an address represents multiple addresses
+		 */
+		public Builder addAll(Iterable<? extends IPAddress> addrs) throws AddressTypeException {
+			for(IPAddress addr : addrs) {
+				add(addr);
+			}
+			return this;
+		}
+
+		private static int newCapacity(int length) {
+			if(length >= Integer.MAX_VALUE - 8) {
+				throw new OutOfMemoryError();
+			}
+			return (int) Math.min(Integer.MAX_VALUE - 8, ((long) length) << 1);
+		}
+
+		/**
+		 * Sorts the keys and writes the file, replacing any existing file.  The builder remains usable afterwards.
+		 *
+		 * @param path
+		 * @throws IOException
+		 */
+		public void write(Path path) throws IOException {
+			Arrays.sort(ipv4Keys, 0, ipv4Count);
+			int ipv4Unique = 0;
+			for(int i = 0; i < ipv4Count; i++) {
+				if(ipv4Unique == 0 || ipv4Keys[ipv4Unique - 1] != ipv4Keys[i]) {
+					ipv4Keys[ipv4Unique++] = ipv4Keys[i];
+				}
+			}
+			ipv4Count = ipv4Unique;
+			sortPairs(ipv6Keys, ipv6Count);
+			int ipv6Unique = 0;
+			for(int i = 0; i < ipv6Count; i++) {
+				int from = i << 1;
+				int last = (ipv6Unique - 1) << 1;
+				if(ipv6Unique == 0 || ipv6Keys[last] != ipv6Keys[from] || ipv6Keys[last + 1] != ipv6Keys[from + 1]) {
+					int to = ipv6Unique++ << 1;
+					ipv6Keys[to] = ipv6Keys[from];
+					ipv6Keys[to + 1] = ipv6Keys[from + 1];
+				}
+			}
+			ipv6Count = ipv6Unique;
+			try(FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+				ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+				buffer.putInt(MAGIC).putInt(VERSION).putLong(ipv4Count).putLong(ipv6Count);
+				for(int i = 0; i < ipv4Count; i++) {
+					if(buffer.remaining() < Integer.BYTES) {
+						flush(channel, buffer);
+					}
+					buffer.putInt(ipv4Keys[i] ^ Integer.MIN_VALUE);
+				}
+				for(int i = 0; i < ipv6Count; i++) {
+					if(buffer.remaining() < IPv6Address.BYTE_COUNT) {
+						flush(channel, buffer);
+					}
+					buffer.putLong(ipv6Keys[i << 1] ^ Long.MIN_VALUE).putLong(ipv6Keys[(i << 1) + 1]);
+				}
+				flush(channel, buffer);
+			}
+		}
+
+		/**
+		 * Writes the file and opens it.
+		 *
+		 * @param path
+		 * @return
+		 * @throws IOException
+		 */
+		public MappedIPAddressSet build(Path path) throws IOException {
+			write(path);
+			return open(path);
+		}
+
+		private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+			buffer.flip();
+			while(buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+
+		/**
+		 * Heap sort of the key pairs, which sorts in place without the recursion or extra arrays that sorting pairs with the library sorts would require.
+		 */
+		static void sortPairs(long keys[], int count) {
+			for(int i = (count >>> 1) - 1; i >= 0; i--) {
+				siftDown(keys, i, count);
+			}
+			for(int end = count - 1; end > 0; end--) {
+				swap(keys, 0, end);
+				siftDown(keys, 0, end);
+			}
+		}
+
+		private static void siftDown(long keys[], int index, int count) {
+			while(true) {
+				int child = (index << 1) + 1;
+				if(child >= count) {
+					return;
+				}
+				if(child + 1 < count && compare(keys, child + 1, child) > 0) {
+					child++;
+				}
+				if(compare(keys, child, index) <= 0) {
+					return;
+				}
+				swap(keys, index, child);
+				index = child;
+			}
+		}
+
+		private static int compare(long keys[], int one, int two) {
+			int result = Long.compare(keys[one << 1], keys[two << 1]);
+			if(result == 0) {
+				result = Long.compareUnsigned(keys[(one << 1) + 1], keys[(two << 1) + 1]);
+			}
+			return result;
+		}
+
+		private static void swap(long keys[], int one, int two) {
+			int oneIndex = one << 1, twoIndex = two << 1;
+			long high = keys[oneIndex], low = keys[oneIndex + 1];
+			keys[oneIndex] = keys[twoIndex];
+			keys[oneIndex + 1] = keys[twoIndex + 1];
+			keys[twoIndex] = high;
+			keys[twoIndex + 1] = low;
+		}
+	}
+}
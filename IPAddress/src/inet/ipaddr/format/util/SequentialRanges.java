@@ -0,0 +1,109 @@
+/*
+ * Copyright 2017 Sean C Foley
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     or at
+ *     https://github.com/seancfoley/IPAddress/blob/master/LICENSE
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package inet.ipaddr.format.util;
+
+import inet.ipaddr.AddressSegment;
+import inet.ipaddr.AddressSegmentSeries;
+
+/**
+ * Provides the sequential ranges of values covered by an address or address section,
+ * with each value held in two longs as a right-aligned unsigned value of up to 128 bits.
+ * <p>
+ * Used by {@link IPAddressRangeSet} and by the merging of subnets into prefix blocks.
+ *
+ * @author sfoley
+ *
+ */
+public final class SequentialRanges {
+
+	@FunctionalInterface
+	public interface RangeConsumer {
+		void accept(long lowerHigh, long lowerLow, long upperHigh, long upperLow);
+	}
+
+	private SequentialRanges() {}
+
+	/**
+	 * Compares two unsigned values, each held in two longs.
+	 */
+	public static int compareUnsigned(long oneHigh, long oneLow, long twoHigh, long twoLow) {
+		int result = Long.compareUnsigned(oneHigh, twoHigh);
+		if(result == 0) {
+			result = Long.compareUnsigned(oneLow, twoLow);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the lowest or highest value of the series, held in two longs.
+	 */
+	public static long[] getValue(AddressSegmentSeries series, boolean upper) {
+		int bitsPerSegment = series.getBitsPerSegment();
+		long high = 0, low = 0;
+		for(int i = 0; i < series.getSegmentCount(); i++) {
+			AddressSegment seg = series.getSegment(i);
+			high = (high << bitsPerSegment) | (low >>> (Long.SIZE - bitsPerSegment));
+			low = (low << bitsPerSegment) | (upper ? seg.getUpperSegmentValue() : seg.getLowerSegmentValue());
+		}
+		return new long[] {high, low};
+	}
+
+	/**
+	 * Calls the consumer with the sequential ranges covered by the series, in increasing order.
+	 * The segments following the last segment that is not a full range are full ranges, so each combination of values of the preceding segments is a sequential range.
+	 */
+	public static void forEachRange(AddressSegmentSeries series, RangeConsumer consumer) {
+		int segCount = series.getSegmentCount();
+		int bitsPerSegment = series.getBitsPerSegment();
+		int lastIndex = segCount - 1;
+		while(lastIndex > 0 && series.getSegment(lastIndex).isFullRange()) {
+			lastIndex--;
+		}
+		int current[] = new int[lastIndex];
+		for(int i = 0; i < lastIndex; i++) {
+			current[i] = series.getSegment(i).getLowerSegmentValue();
+		}
+		while(true) {
+			long lowerHigh = 0, lowerLow = 0, upperHigh = 0, upperLow = 0;
+			for(int i = 0; i < segCount; i++) {
+				AddressSegment seg = series.getSegment(i);
+				int lower = i < lastIndex ? current[i] : seg.getLowerSegmentValue();
+				int upper = i < lastIndex ? current[i] : seg.getUpperSegmentValue();
+				lowerHigh = (lowerHigh << bitsPerSegment) | (lowerLow >>> (Long.SIZE - bitsPerSegment));
+				lowerLow = (lowerLow << bitsPerSegment) | lower;
+				upperHigh = (upperHigh << bitsPerSegment) | (upperLow >>> (Long.SIZE - bitsPerSegment));
+				upperLow = (upperLow << bitsPerSegment) | upper;
+			}
+			consumer.accept(lowerHigh, lowerLow, upperHigh, upperLow);
+			//increment the combination of the values of the segments before the last index
+			int i = lastIndex - 1;
+			for(; i >= 0; i--) {
+				AddressSegment seg = series.getSegment(i);
+				if(current[i] < seg.getUpperSegmentValue()) {
+					current[i]++;
+					break;
+				}
+				current[i] = seg.getLowerSegmentValue();
+			}
+			if(i < 0) {
+				break;
+			}
+		}
+	}
+}
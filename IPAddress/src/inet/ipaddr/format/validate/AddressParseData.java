@@ -19,6 +19,7 @@
 package inet.ipaddr.format.validate;
 
 import java.io.Serializable;
+import java.util.Arrays;
 
 import inet.ipaddr.AddressNetwork.AddressSegmentCreator;
 import inet.ipaddr.AddressTypeException;
@@ -74,11 +75,30 @@ class AddressParseData implements Serializable {
 	int addressEndIndex;
 	
 	void initSegmentData(int segmentCapacity) {
+		if(flags != null && flags.length >= segmentCapacity) {
+			//reuse the arrays from a previous parse
+			for(int i = 0; i < segmentCapacity; i++) {
+				Arrays.fill(flags[i], false);
+				Arrays.fill(indices[i], 0);
+				Arrays.fill(values[i], 0);
+			}
+			return;
+		}
 		flags = new boolean[segmentCapacity][STANDARD_RANGE_STR_INDEX + 1];
 		indices = new int[segmentCapacity][UPPER_STR_END_INDEX + 1];
 		values = new long[segmentCapacity][EXTENDED_UPPER_INDEX + 1];
 	}
 	
+	/**
+	 * Clears the results of a previous parse, retaining the segment arrays so they can be reused.
+	 */
+	void reset() {
+		segmentCount = 0;
+		anyWildcard = isEmpty = isAll = isSingleSegment = false;
+		consecutiveSepIndex = -1;
+		addressEndIndex = 0;
+	}
+	
 	boolean isWildcard(int index) {
 		return flags[index][WILDCARD_INDEX];
 	}
@@ -140,13 +160,13 @@ class ParsedMACAddress implements Serializable {
 		}
 	};
 	
-	private final String addressString;
+	private final CharSequence addressString;
 	private final HostIdentifierString originator;
 	private final MACAddressParseData parseData;
 	
 	ParsedMACAddress(
 			HostIdentifierString from, 
-			String addressString,
+			CharSequence addressString,
 			MACAddressParseData parseData) {
 		this.parseData = parseData;
 		this.addressString = addressString;
@@ -326,7 +346,7 @@ class ParsedMACAddress implements Serializable {
 	}
 		
 	private static <S extends MACAddressSegment> S createSegment(
-			String addressString,
+			CharSequence addressString,
 			int val,
 			int upperVal,
 			boolean flags[],
@@ -336,7 +356,7 @@ class ParsedMACAddress implements Serializable {
 			return createRangeSegment(addressString, val, upperVal, flags, indices, creator);
 		}
 		S result;
-		if(flags == null) {
+		if(flags == null || !(addressString instanceof String)) {
 			result = creator.createSegment(val, val, null);
 		} else {
 			result = creator.createSegmentInternal(
@@ -352,14 +372,14 @@ class ParsedMACAddress implements Serializable {
 	}
 	
 	private static <S extends MACAddressSegment> S createRangeSegment(
-			String addressString,
+			CharSequence addressString,
 			int lower,
 			int upper,
 			boolean flags[],
 			int indices[],
 			ParsedAddressCreator<?, ?, ?, S> creator) {
 		S result;
-		if(flags == null) {
+		if(flags == null || !(addressString instanceof String)) {
 			result = creator.createSegment(lower, upper, null);
 		} else {
 			result = creator.createSegmentInternal(
@@ -411,10 +431,41 @@ class ParsedIPAddress implements Serializable {
 	
 		boolean isBase85, isBase85Zoned;
 		
+		//the parse data of the embedded IPv4 address from a previous parse, available for reuse
+		private IPAddressParseData reusableMixedParseData;
+		
 		void initSegmentData(int segmentCapacity) {
 			addressParseData.initSegmentData(segmentCapacity);
 		}
 		
+		/**
+		 * Clears the results of a previous parse, retaining the segment arrays so they can be reused.
+		 * This must only be called once the results of the previous parse are no longer needed, 
+		 * which is the case once the addresses have been created from them.
+		 */
+		void reset() {
+			addressParseData.reset();
+			qualifierIndex = -1;
+			isPrefixed = isZoned = hasPort = false;
+			ipVersion = null;
+			isMixed = false;
+			if(mixedParsedAddress != null) {
+				reusableMixedParseData = mixedParsedAddress.parseData;
+				mixedParsedAddress = null;
+			}
+			isBase85 = isBase85Zoned = false;
+		}
+		
+		IPAddressParseData createMixedParseData() {
+			IPAddressParseData result = reusableMixedParseData;
+			if(result == null) {
+				return new IPAddressParseData();
+			}
+			reusableMixedParseData = null;
+			result.reset();
+			return result;
+		}
+		
 		void reverseSegments() {
 			if(isMixed) {
 				mixedParsedAddress.reverseSegments();
@@ -436,6 +487,96 @@ class ParsedIPAddress implements Serializable {
 		boolean isWildcard(int index) {
 			return addressParseData.isWildcard(index);
 		}
+		
+		private boolean isMultiple(int index) {
+			long vals[] = addressParseData.values[index];
+			return isWildcard(index) || vals[AddressParseData.LOWER_INDEX] != vals[AddressParseData.UPPER_INDEX] ||
+					vals[AddressParseData.EXTENDED_LOWER_INDEX] != vals[AddressParseData.EXTENDED_UPPER_INDEX];
+		}
+		
+		/**
+		 * Calculates the value of a parsed IPv4 address, ignoring any prefix length or mask, without creating segments.
+		 * Segment values must already have been checked against their maximum values.
+		 * 
+		 * @return the value as an unsigned int, or -1 if the address has a range of values
+		 */
+		long getIPv4Value() {
+			int segmentCount = addressParseData.segmentCount;
+			int missingCount = IPv4Address.SEGMENT_COUNT - segmentCount;
+			long result = 0;
+			for(int i = 0; i < segmentCount; i++) {
+				if(isMultiple(i)) {
+					return -1;
+				}
+				long value = addressParseData.values[i][AddressParseData.LOWER_INDEX];
+				//with inet_aton joined segments, the last segment value covers the missing segments
+				int shift = (i == segmentCount - 1 && missingCount > 0) ? (missingCount + 1) * IPv4Address.BITS_PER_SEGMENT : IPv4Address.BITS_PER_SEGMENT;
+				result = (result << shift) | value;
+			}
+			return result;
+		}
+		
+		/**
+		 * Calculates the value of a parsed IPv6 address, ignoring any prefix length, mask or zone, without creating segments.
+		 * Segment values must already have been checked against their maximum values.
+		 * 
+		 * @param values the array in which the high 64 bits are stored at index 0 and the low 64 bits at index 1
+		 * @return false if the address has a range of values
+		 */
+		boolean getIPv6Value(long values[]) {
+			int segmentCount = addressParseData.segmentCount;
+			boolean mixed = mixedParsedAddress != null;
+			int missingSegmentCount = (mixed ? IPv6Address.MIXED_ORIGINAL_SEGMENT_COUNT : IPv6Address.SEGMENT_COUNT) - segmentCount;
+			boolean expandedSegments = (missingSegmentCount <= 0);
+			long high = 0, low = 0;
+			for(int i = 0; i < segmentCount; i++) {
+				if(isMultiple(i)) {
+					return false;
+				}
+				long vals[] = addressParseData.values[i];
+				long lower = vals[AddressParseData.LOWER_INDEX];
+				if(!expandedSegments && i == segmentCount - 1) {
+					//joined segments, the last segment value covers the missing segments
+					long lowerHighBytes = vals[AddressParseData.EXTENDED_LOWER_INDEX];
+					for(int count = missingSegmentCount; count >= 0; count--) {
+						long segmentValue;
+						if(count >= 4) {
+							segmentValue = (lowerHighBytes >>> (IPv6Address.BITS_PER_SEGMENT * (count % 4))) & IPv6Address.MAX_VALUE_PER_SEGMENT;
+						} else {
+							segmentValue = (lower >>> (IPv6Address.BITS_PER_SEGMENT * count)) & IPv6Address.MAX_VALUE_PER_SEGMENT;
+						}
+						high = (high << IPv6Address.BITS_PER_SEGMENT) | (low >>> (Long.SIZE - IPv6Address.BITS_PER_SEGMENT));
+						low = (low << IPv6Address.BITS_PER_SEGMENT) | segmentValue;
+					}
+					break;
+				}
+				high = (high << IPv6Address.BITS_PER_SEGMENT) | (low >>> (Long.SIZE - IPv6Address.BITS_PER_SEGMENT));
+				low = (low << IPv6Address.BITS_PER_SEGMENT) | lower;
+				if(!expandedSegments && isCompressed(i)) {
+					//the compressed segments are zero
+					expandedSegments = true;
+					int shift = IPv6Address.BITS_PER_SEGMENT * missingSegmentCount;
+					if(shift >= Long.SIZE) {
+						high = low << (shift - Long.SIZE);
+						low = 0;
+					} else {
+						high = (high << shift) | (low >>> (Long.SIZE - shift));
+						low <<= shift;
+					}
+				}
+			}
+			if(mixed) {
+				long ipv4Value = mixedParsedAddress.parseData.getIPv4Value();
+				if(ipv4Value < 0) {
+					return false;
+				}
+				high = (high << IPv4Address.BIT_COUNT) | (low >>> IPv4Address.BIT_COUNT);
+				low = (low << IPv4Address.BIT_COUNT) | ipv4Value;
+			}
+			values[0] = high;
+			values[1] = low;
+			return true;
+		}
 	};
 
 	static class CachedIPAddresses<T extends IPAddress> implements Serializable {
@@ -992,7 +1133,8 @@ class ParsedIPAddress implements Serializable {
 			val &= mask;
 		}
 		S result;
-		if(flags == null) {
+		//segment strings are cached only when parsing a String, other character sequences such as byte buffers may be reused by the caller
+		if(flags == null || !(addressString instanceof String)) {
 			result = creator.createSegment(val, val, segmentPrefixLength);
 		} else {
 			result = creator.createSegmentInternal(
@@ -1066,7 +1208,7 @@ class ParsedIPAddress implements Serializable {
 			upper &= maskInt;
 		}
 		S result;
-		if(flags == null) {
+		if(flags == null || !(addressString instanceof String)) {
 			result = creator.createSegment(lower, upper, segmentPrefixLength);
 		} else {
 			result = creator.createSegmentInternal(
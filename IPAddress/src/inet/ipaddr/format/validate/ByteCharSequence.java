@@ -0,0 +1,108 @@
+/*
+ * Copyright 2017 Sean C Foley
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     or at
+ *     https://github.com/seancfoley/IPAddress/blob/master/LICENSE
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package inet.ipaddr.format.validate;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A character sequence view of a region of ASCII or ISO-8859-1 bytes, in a byte array or a ByteBuffer, so that address strings can be parsed without copying them into String objects.
+ * <p>
+ * The bytes are not copied, so changes to the bytes are visible through this sequence.
+ * The position and limit of a ByteBuffer are neither used nor changed.
+ * <p>
+ * Sub-sequences are copied to String objects, so that they remain valid when the bytes are reused.
+ *
+ * @author sfoley
+ *
+ */
+public class ByteCharSequence implements CharSequence {
+
+	private final byte bytes[];
+	private final ByteBuffer buffer;
+	private final int offset, length;
+
+	public ByteCharSequence(byte bytes[]) {
+		this(bytes, 0, bytes.length);
+	}
+
+	public ByteCharSequence(byte bytes[], int offset, int length) {
+		checkRange(bytes.length, offset, length);
+		this.bytes = bytes;
+		this.buffer = null;
+		this.offset = offset;
+		this.length = length;
+	}
+
+	/**
+	 * @param buffer
+	 * @param offset the absolute index of the first byte in the buffer
+	 * @param length
+	 */
+	public ByteCharSequence(ByteBuffer buffer, int offset, int length) {
+		checkRange(buffer.capacity(), offset, length);
+		if(buffer.hasArray()) {
+			this.bytes = buffer.array();
+			this.buffer = null;
+			this.offset = buffer.arrayOffset() + offset;
+		} else {
+			this.bytes = null;
+			this.buffer = buffer;
+			this.offset = offset;
+		}
+		this.length = length;
+	}
+
+	private static void checkRange(int capacity, int offset, int length) {
+		if(offset < 0 || length < 0 || offset > capacity - length) {
+			throw new IndexOutOfBoundsException("offset " + offset + ", length " + length + ", capacity " + capacity);
+		}
+	}
+
+	@Override
+	public int length() {
+		return length;
+	}
+
+	@Override
+	public char charAt(int index) {
+		if(index < 0 || index >= length) {
+			throw new IndexOutOfBoundsException(Integer.toString(index));
+		}
+		int byteIndex = offset + index;
+		byte b = (bytes != null) ? bytes[byteIndex] : buffer.get(byteIndex);
+		return (char) (b & 0xff);
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		if(start < 0 || end > length || start > end) {
+			throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+		}
+		char chars[] = new char[end - start];
+		for(int i = 0; i < chars.length; i++) {
+			chars[i] = charAt(start + i);
+		}
+		return new String(chars);
+	}
+
+	@Override
+	public String toString() {
+		return subSequence(0, length).toString();
+	}
+}
@@ -22,8 +22,10 @@ import inet.ipaddr.HostName;
 import inet.ipaddr.HostNameException;
 import inet.ipaddr.IPAddress.IPVersion;
 import inet.ipaddr.IPAddressString;
+import inet.ipaddr.IPAddressStringParameters;
 import inet.ipaddr.AddressStringException;
 import inet.ipaddr.MACAddressString;
+import inet.ipaddr.MACAddressStringParameters;
 import inet.ipaddr.ipv6.IPv6Address;
 
 /**
@@ -45,5 +47,13 @@ public interface HostIdentifierStringValidator {
 	
 	MACAddressProvider validateAddress(MACAddressString fromString) throws AddressStringException;
 	
+	IPAddressProvider validateAddress(CharSequence str, IPAddressStringParameters validationOptions) throws AddressStringException;
+	
+	MACAddressProvider validateAddress(CharSequence str, MACAddressStringParameters validationOptions) throws AddressStringException;
+	
 	int validatePrefix(CharSequence fullAddr, IPVersion version) throws AddressStringException;
+	
+	int validateIPv4Value(CharSequence str, IPAddressStringParameters validationOptions) throws AddressStringException;
+	
+	void validateIPv6Value(CharSequence str, IPAddressStringParameters validationOptions, long values[]) throws AddressStringException;
 }
@@ -0,0 +1,395 @@
+/*
+ * Copyright 2017 Sean C Foley
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     or at
+ *     https://github.com/seancfoley/IPAddress/blob/master/LICENSE
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package inet.ipaddr.format.validate;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import inet.ipaddr.AddressStringException;
+import inet.ipaddr.AddressTypeException;
+import inet.ipaddr.IPAddress;
+import inet.ipaddr.IPAddressString;
+import inet.ipaddr.IPAddressStringParameters;
+
+/**
+ * Parses batches of address strings, producing either addresses or primitive address values, along with a bitmap of the indices of the strings that could not be parsed.
+ * <p>
+ * Each string is parsed as with {@link IPAddressParser}, which gives the same results as {@link IPAddressString} with the same validation options.
+ * So leading and trailing whitespace is ignored, such as the carriage return left at the end of a line split from a file with CRLF line endings.
+ * The strings are parsed by the calling thread, reusing its parser for the whole batch, unless a {@link ForkJoinPool} is supplied,
+ * in which case the batch is split into ranges that are parsed in parallel, each worker thread reusing its own parser.
+ * Lists are accessed by index, so they should support fast random access, as indicated by {@link java.util.RandomAccess}.
+ * <p>
+ * Instances are immutable and may be shared by multiple threads.
+ *
+ * @author sfoley
+ *
+ */
+public class IPAddressBatchParser {
+
+	//ranges are split on bitmap word boundaries, so that each task writes to its own words of the error bitmap
+	private static final int DEFAULT_SPLIT_THRESHOLD = Long.SIZE * 16;
+
+	private final IPAddressStringParameters validationOptions;
+	private final ForkJoinPool pool;
+	private final int splitThreshold;
+
+	/**
+	 * Creates a parser for batches that are parsed by the calling thread.
+	 *
+	 * @param validationOptions
+	 */
+	public IPAddressBatchParser(IPAddressStringParameters validationOptions) {
+		this(validationOptions, null);
+	}
+
+	/**
+	 * Creates a parser for batches that are split across the given pool.
+	 *
+	 * @param validationOptions
+	 * @param pool the pool, or null to parse with the calling thread
+	 */
+	public IPAddressBatchParser(IPAddressStringParameters validationOptions, ForkJoinPool pool) {
+		this(validationOptions, pool, DEFAULT_SPLIT_THRESHOLD);
+	}
+
+	/**
+	 * @param validationOptions
+	 * @param pool the pool, or null to parse with the calling thread
+	 * @param splitThreshold the number of strings below which a range of the batch is no longer split, rounded up to a multiple of 64
+	 */
+	public IPAddressBatchParser(IPAddressStringParameters validationOptions, ForkJoinPool pool, int splitThreshold) {
+		if(validationOptions == null) {
+			throw new NullPointerException();
+		}
+		if(splitThreshold <= 0) {
+			throw new IllegalArgumentException();
+		}
+		this.validationOptions = validationOptions;
+		this.pool = pool;
+		this.splitThreshold = ((splitThreshold + Long.SIZE - 1) / Long.SIZE) * Long.SIZE;
+	}
+
+	public IPAddressStringParameters getValidationOptions() {
+		return validationOptions;
+	}
+
+	/**
+	 * The result of parsing a batch.  Strings that could not be parsed, including null elements, are marked in the error bitmap.
+	 *
+	 * @author sfoley
+	 *
+	 */
+	public static abstract class BatchResult {
+		private final int size;
+		private final long errorWords[];
+
+		BatchResult(int size) {
+			this.size = size;
+			errorWords = new long[(size + Long.SIZE - 1) / Long.SIZE];
+		}
+
+		void setError(int index) {
+			errorWords[index / Long.SIZE] |= 1L << index;
+		}
+
+		public int size() {
+			return size;
+		}
+
+		public boolean isError(int index) {
+			checkIndex(index);
+			return (errorWords[index / Long.SIZE] & (1L << index)) != 0;
+		}
+
+		public int getErrorCount() {
+			int count = 0;
+			for(long word : errorWords) {
+				count += Long.bitCount(word);
+			}
+			return count;
+		}
+
+		/**
+		 * @return a new bitmap with a bit set for the index of each string that could not be parsed
+		 */
+		public BitSet getErrors() {
+			return BitSet.valueOf(errorWords);
+		}
+
+		void checkIndex(int index) {
+			if(index < 0 || index >= size) {
+				throw new IndexOutOfBoundsException(Integer.toString(index));
+			}
+		}
+	}
+
+	/**
+	 * The addresses from a batch.
+	 * The address is null for each string that could not be parsed, and also for strings like the empty string that do not represent an address,
+	 * for which {@link IPAddressString#toAddress()} returns null.
+	 */
+	public static class AddressBatchResult extends BatchResult {
+		private final IPAddress addresses[];
+
+		AddressBatchResult(int size) {
+			super(size);
+			addresses = new IPAddress[size];
+		}
+
+		public IPAddress getAddress(int index) {
+			checkIndex(index);
+			return addresses[index];
+		}
+
+		public IPAddress[] getAddresses() {
+			return addresses.clone();
+		}
+	}
+
+	/**
+	 * The IPv4 address values from a batch.  The value is zero for each string that could not be parsed.
+	 */
+	public static class IPv4ValueBatchResult extends BatchResult {
+		private final int values[];
+
+		IPv4ValueBatchResult(int size) {
+			super(size);
+			values = new int[size];
+		}
+
+		public int getValue(int index) {
+			checkIndex(index);
+			return values[index];
+		}
+
+		public int[] getValues() {
+			return values.clone();
+		}
+	}
+
+	/**
+	 * The IPv6 address values from a batch, stored as two longs for each string, the high 64 bits followed by the low 64 bits.
+	 * The values are zero for each string that could not be parsed.
+	 */
+	public static class IPv6ValueBatchResult extends BatchResult {
+		private final long values[];
+
+		IPv6ValueBatchResult(int size) {
+			super(size);
+			values = new long[size << 1];
+		}
+
+		public long getHighValue(int index) {
+			checkIndex(index);
+			return values[index << 1];
+		}
+
+		public long getLowValue(int index) {
+			checkIndex(index);
+			return values[(index << 1) + 1];
+		}
+
+		public long[] getValues() {
+			return values.clone();
+		}
+	}
+
+	private static abstract class BatchTask<R extends BatchResult> extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		final List<? extends CharSequence> strs;
+		final R result;
+		final int start, end, splitThreshold;
+
+		BatchTask(List<? extends CharSequence> strs, R result, int start, int end, int splitThreshold) {
+			this.strs = strs;
+			this.result = result;
+			this.start = start;
+			this.end = end;
+			this.splitThreshold = splitThreshold;
+		}
+
+		abstract BatchTask<R> createTask(int start, int end);
+
+		abstract void parse(IPAddressParser parser, CharSequence str, int index) throws AddressStringException, AddressTypeException;
+
+		@Override
+		protected void compute() {
+			int count = end - start;
+			if(count > splitThreshold) {
+				int mid = start + (((count >>> 1) + Long.SIZE - 1) / Long.SIZE) * Long.SIZE;
+				invokeAll(createTask(start, mid), createTask(mid, end));
+			} else {
+				parseRange();
+			}
+		}
+
+		void parseRange() {
+			IPAddressParser parser = IPAddressParser.getThreadParser();
+			for(int i = start; i < end; i++) {
+				CharSequence str = strs.get(i);
+				if(str == null) {
+					result.setError(i);
+					continue;
+				}
+				try {
+					parse(parser, str, i);
+				} catch(AddressStringException | AddressTypeException e) {
+					result.setError(i);
+				}
+			}
+		}
+	}
+
+	private <R extends BatchResult> R execute(BatchTask<R> task) {
+		if(pool == null) {
+			task.parseRange();
+		} else {
+			pool.invoke(task);
+		}
+		return task.result;
+	}
+
+	/**
+	 * Parses each string to produce the address that {@link IPAddressString#toAddress()} produces.
+	 *
+	 * @param strs
+	 * @return
+	 */
+	public AddressBatchResult parseAddresses(List<? extends CharSequence> strs) {
+		return execute(new AddressTask(strs, new AddressBatchResult(strs.size()), 0, strs.size(), splitThreshold));
+	}
+
+	public AddressBatchResult parseAddresses(CharSequence strs[]) {
+		return parseAddresses(Arrays.asList(strs));
+	}
+
+	/**
+	 * Parses the strings of the given stream, in the encounter order of the stream.
+	 * The stream is collected into a list before parsing.
+	 *
+	 * @param strs
+	 * @return
+	 */
+	public AddressBatchResult parseAddresses(Stream<? extends CharSequence> strs) {
+		return parseAddresses(strs.collect(Collectors.toList()));
+	}
+
+	/**
+	 * Parses each string to produce the 32-bit value of a single IPv4 address,
+	 * as described in {@link inet.ipaddr.ipv4.IPv4AddressNetwork#parseValue(CharSequence, IPAddressStringParameters)}.
+	 *
+	 * @param strs
+	 * @return
+	 */
+	public IPv4ValueBatchResult parseIPv4Values(List<? extends CharSequence> strs) {
+		return execute(new IPv4Task(strs, new IPv4ValueBatchResult(strs.size()), 0, strs.size(), splitThreshold));
+	}
+
+	public IPv4ValueBatchResult parseIPv4Values(CharSequence strs[]) {
+		return parseIPv4Values(Arrays.asList(strs));
+	}
+
+	public IPv4ValueBatchResult parseIPv4Values(Stream<? extends CharSequence> strs) {
+		return parseIPv4Values(strs.collect(Collectors.toList()));
+	}
+
+	/**
+	 * Parses each string to produce the 128-bit value of a single IPv6 address,
+	 * as described in {@link inet.ipaddr.ipv6.IPv6AddressNetwork#parseValue(CharSequence, IPAddressStringParameters, long[])}.
+	 *
+	 * @param strs
+	 * @return
+	 */
+	public IPv6ValueBatchResult parseIPv6Values(List<? extends CharSequence> strs) {
+		return execute(new IPv6Task(strs, new IPv6ValueBatchResult(strs.size()), 0, strs.size(), splitThreshold));
+	}
+
+	public IPv6ValueBatchResult parseIPv6Values(CharSequence strs[]) {
+		return parseIPv6Values(Arrays.asList(strs));
+	}
+
+	public IPv6ValueBatchResult parseIPv6Values(Stream<? extends CharSequence> strs) {
+		return parseIPv6Values(strs.collect(Collectors.toList()));
+	}
+
+	private class AddressTask extends BatchTask<AddressBatchResult> {
+		private static final long serialVersionUID = 1L;
+
+		AddressTask(List<? extends CharSequence> strs, AddressBatchResult result, int start, int end, int splitThreshold) {
+			super(strs, result, start, end, splitThreshold);
+		}
+
+		@Override
+		BatchTask<AddressBatchResult> createTask(int start, int end) {
+			return new AddressTask(strs, result, start, end, splitThreshold);
+		}
+
+		@Override
+		void parse(IPAddressParser parser, CharSequence str, int index) throws AddressStringException, AddressTypeException {
+			result.addresses[index] = parser.parseAddress(str, validationOptions);
+		}
+	}
+
+	private class IPv4Task extends BatchTask<IPv4ValueBatchResult> {
+		private static final long serialVersionUID = 1L;
+
+		IPv4Task(List<? extends CharSequence> strs, IPv4ValueBatchResult result, int start, int end, int splitThreshold) {
+			super(strs, result, start, end, splitThreshold);
+		}
+
+		@Override
+		BatchTask<IPv4ValueBatchResult> createTask(int start, int end) {
+			return new IPv4Task(strs, result, start, end, splitThreshold);
+		}
+
+		@Override
+		void parse(IPAddressParser parser, CharSequence str, int index) throws AddressStringException {
+			result.values[index] = parser.parseIPv4Value(str, validationOptions);
+		}
+	}
+
+	private class IPv6Task extends BatchTask<IPv6ValueBatchResult> {
+		private static final long serialVersionUID = 1L;
+
+		private final long values[] = new long[2];
+
+		IPv6Task(List<? extends CharSequence> strs, IPv6ValueBatchResult result, int start, int end, int splitThreshold) {
+			super(strs, result, start, end, splitThreshold);
+		}
+
+		@Override
+		BatchTask<IPv6ValueBatchResult> createTask(int start, int end) {
+			return new IPv6Task(strs, result, start, end, splitThreshold);
+		}
+
+		@Override
+		void parse(IPAddressParser parser, CharSequence str, int index) throws AddressStringException {
+			parser.parseIPv6Value(str, validationOptions, values);
+			result.values[index << 1] = values[0];
+			result.values[(index << 1) + 1] = values[1];
+		}
+	}
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2017 Sean C Foley
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     or at
+ *     https://github.com/seancfoley/IPAddress/blob/master/LICENSE
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package inet.ipaddr.format.validate;
+
+import java.nio.CharBuffer;
+
+import inet.ipaddr.AddressStringException;
+import inet.ipaddr.AddressTypeException;
+import inet.ipaddr.IPAddress;
+import inet.ipaddr.IPAddressString;
+import inet.ipaddr.IPAddressStringParameters;
+import inet.ipaddr.format.validate.ParsedIPAddress.IPAddressParseData;
+
+/**
+ * Parses address strings one after another, reusing the same parse data for each string.
+ * <p>
+ * When constructing an {@link IPAddressString}, the parse data is allocated for each string and retained until the address is created.
+ * This parser instead creates each address before returning, so the parse data is no longer needed and can be reused for the next string.
+ * The results are the same as those of {@link IPAddressString#toAddress()} for the same string and validation options.
+ * Leading and trailing whitespace is skipped, just as it is trimmed from the string of an {@link IPAddressString}, but without copying the characters.
+ * <p>
+ * Instances are not thread-safe.  Use one instance per thread, such as the instance returned by {@link #getThreadParser()}.
+ *
+ * @author sfoley
+ *
+ */
+public class IPAddressParser {
+
+	private static final ThreadLocal<IPAddressParser> THREAD_PARSER = ThreadLocal.withInitial(IPAddressParser::new);
+
+	private final IPAddressParseData parseData = new IPAddressParseData();
+
+	/**
+	 * Returns a parser for use by the calling thread only.
+	 *
+	 * @return
+	 */
+	public static IPAddressParser getThreadParser() {
+		return THREAD_PARSER.get();
+	}
+
+	/**
+	 * Parses the given string to produce the same address as {@link IPAddressString#toAddress()}.
+	 *
+	 * @param str
+	 * @param validationOptions
+	 * @return the address, or null if the string does not represent a specific IPAddress or a ranged IPAddress, such as the empty string or a prefix alone
+	 * @throws AddressStringException if the address format is invalid
+	 * @throws AddressTypeException if the address string cannot be represented by an IPAddress, as described in {@link IPAddressString#toAddress()}
+	 */
+	public IPAddress parseAddress(CharSequence str, IPAddressStringParameters validationOptions) throws AddressStringException, AddressTypeException {
+		parseData.reset();
+		return Validator.validateAddress(trim(str), validationOptions, parseData).getAddress();
+	}
+
+	/**
+	 * Parses the given string, which must be a single IPv4 address, to produce the 32-bit address value.
+	 *
+	 * @see inet.ipaddr.ipv4.IPv4AddressNetwork#parseValue(CharSequence, IPAddressStringParameters)
+	 */
+	public int parseIPv4Value(CharSequence str, IPAddressStringParameters validationOptions) throws AddressStringException {
+		parseData.reset();
+		return Validator.validateIPv4Value(trim(str), validationOptions, parseData);
+	}
+
+	/**
+	 * Parses the given string, which must be a single IPv6 address, to produce the 128-bit address value,
+	 * with the high 64 bits at index 0 and the low 64 bits at index 1 of the given array.
+	 *
+	 * @see inet.ipaddr.ipv6.IPv6AddressNetwork#parseValue(CharSequence, IPAddressStringParameters, long[])
+	 */
+	public void parseIPv6Value(CharSequence str, IPAddressStringParameters validationOptions, long values[]) throws AddressStringException {
+		parseData.reset();
+		Validator.validateIPv6Value(trim(str), validationOptions, values, parseData);
+	}
+
+	/**
+	 * Skips the same leading and trailing characters as {@link String#trim()}.
+	 * The characters in between are provided as a view of the given sequence rather than a copy.
+	 * 
+	 * @param str
+	 * @return the given sequence when there is nothing to skip
+	 */
+	private static CharSequence trim(CharSequence str) {
+		int startIndex = 0, endIndex = str.length();
+		while(startIndex < endIndex && str.charAt(startIndex) <= ' ') {
+			startIndex++;
+		}
+		while(endIndex > startIndex && str.charAt(endIndex - 1) <= ' ') {
+			endIndex--;
+		}
+		if(startIndex == 0 && endIndex == str.length()) {
+			return str;
+		}
+		return CharBuffer.wrap(str, startIndex, endIndex);
+	}
+}
@@ -29,6 +29,8 @@ import inet.ipaddr.IPAddressNetwork;
 import inet.ipaddr.IPAddressString;
 import inet.ipaddr.format.validate.ParsedIPAddress.CachedIPAddresses;
 import inet.ipaddr.format.validate.ParsedIPAddress.IPAddresses;
+import inet.ipaddr.ipv4.IPv4Address;
+import inet.ipaddr.ipv4.IPv4AddressSection;
 import inet.ipaddr.ipv6.IPv6Address;
 
 /**
@@ -418,6 +420,63 @@ public abstract class IPAddressProvider implements Serializable, Comparable<IPAd
 		}
 	}
 	
+	/**
+	 * Provides the address for a string in the common dotted decimal IPv4 format, such as 1.2.3.4 or 1.2.3.0/24.
+	 * The parser has already calculated the value, so no parse data is retained.
+	 * 
+	 * @author sfoley
+	 *
+	 */
+	static class IPv4DottedDecimalProvider extends CachedAddressCreator {
+		private static final long serialVersionUID = 3L;
+		private final HostIdentifierString originator;
+		private final int value;
+		private final Integer networkPrefixLength;
+		
+		IPv4DottedDecimalProvider(HostIdentifierString originator, int value, Integer networkPrefixLength) {
+			this.originator = originator;
+			this.value = value;
+			this.networkPrefixLength = networkPrefixLength;
+		}
+		
+		@Override
+		public IPVersion getIPVersion() {
+			return IPVersion.IPV4;
+		}
+		
+		@Override
+		public boolean isIPv4() {
+			return true;
+		}
+		
+		@Override
+		public boolean isIPv6() {
+			return false;
+		}
+		
+		@Override
+		public Integer getNetworkPrefixLength() {
+			return networkPrefixLength;
+		}
+		
+		@Override
+		public boolean isPrefixed() {
+			return networkPrefixLength != null;
+		}
+		
+		@Override
+		CachedIPAddresses<IPv4Address> createAddresses() {
+			ParsedAddressCreator<IPv4Address, IPv4AddressSection, ?, ?> creator = IPv4Address.network().getAddressCreator();
+			IPv4Address address = creator.createAddressInternal(new IPv4AddressSection(value, networkPrefixLength), originator);
+			if(networkPrefixLength == null) {
+				return new CachedIPAddresses<IPv4Address>(address);
+			}
+			//address is 1.2.0.0/16 and hostAddress is 1.2.3.4 for the string 1.2.3.4/16
+			IPv4Address hostAddress = creator.createAddressInternal(new IPv4AddressSection(value), null);
+			return new CachedIPAddresses<IPv4Address>(address, hostAddress);
+		}
+	}
+	
 	static abstract class VersionedAddressCreator extends CachedAddressCreator {
 		private static final long serialVersionUID = 3L;
 		IPAddress versionedValues[];
@@ -18,8 +18,6 @@
 
 package inet.ipaddr.format.validate;
 
-import java.math.BigInteger;
-
 import inet.ipaddr.Address;
 import inet.ipaddr.AddressStringException;
 import inet.ipaddr.AddressStringParameters;
@@ -39,6 +37,7 @@ import inet.ipaddr.MACAddressStringParameters.AddressSize;
 import inet.ipaddr.MACAddressStringParameters.MACAddressStringFormatParameters;
 import inet.ipaddr.format.AddressLargeDivision;
 import inet.ipaddr.format.validate.IPAddressProvider.AllCreator;
+import inet.ipaddr.format.validate.IPAddressProvider.IPv4DottedDecimalProvider;
 import inet.ipaddr.format.validate.IPAddressProvider.MaskCreator;
 import inet.ipaddr.format.validate.IPAddressProvider.ParsedAddressProvider;
 import inet.ipaddr.format.validate.ParsedHost.EmbeddedAddress;
@@ -134,8 +133,18 @@ public class Validator implements HostIdentifierStringValidator {
 
 	@Override
 	public MACAddressProvider validateAddress(MACAddressString fromString) throws AddressStringException {
-		String str = fromString.toString();
-		MACAddressStringParameters validationOptions = fromString.getValidationOptions();
+		return validateMACAddress(fromString, fromString.toString(), fromString.getValidationOptions());
+	}
+	
+	@Override
+	public MACAddressProvider validateAddress(CharSequence str, MACAddressStringParameters validationOptions) throws AddressStringException {
+		return validateMACAddress(null, str, validationOptions);
+	}
+	
+	private static MACAddressProvider validateMACAddress(
+			final MACAddressString originator,
+			final CharSequence str,
+			final MACAddressStringParameters validationOptions) throws AddressStringException {
 		MACAddressParseData macAddressParseData = new MACAddressParseData();
 		validateMACAddress(validationOptions, str, 0, str.length(), macAddressParseData);
 		AddressParseData addressParseData = macAddressParseData.addressParseData;
@@ -146,9 +155,9 @@ public class Validator implements HostIdentifierStringValidator {
 			return (allAddresses == AddressSize.EUI64) ? MACAddressProvider.ALL_EUI_64 : MACAddressProvider.ALL_MAC;
 		} else {
 			ParsedMACAddress parsedAddress = createParsedMACAddress(
-					fromString,
-					fromString.toString(),
-					fromString.getValidationOptions(),
+					originator,
+					str,
+					validationOptions,
 					macAddressParseData);
 			return new MACAddressProvider(parsedAddress);
 		}
@@ -157,12 +166,171 @@ public class Validator implements HostIdentifierStringValidator {
 	static IPAddressProvider validateAddressImpl(IPAddressString fromString) throws AddressStringException {
 		String str = fromString.toString();
 		IPAddressStringParameters validationOptions = fromString.getValidationOptions();
+		long dottedDecimal = parseIPv4DottedDecimal(str, validationOptions);
+		if(dottedDecimal >= 0) {
+			return new IPv4DottedDecimalProvider(fromString, getDottedDecimalValue(dottedDecimal), getDottedDecimalPrefixLength(dottedDecimal));
+		}
 		IPAddressParseData ipAddressParseData = new IPAddressParseData();
 		validateIPAddress(validationOptions, str, 0, str.length(), ipAddressParseData);
 		return createProvider(fromString, str, validationOptions, ipAddressParseData,
 			parseQualifier(str, validationOptions, null, ipAddressParseData, str.length()));
 	}
 	
+	@Override
+	public IPAddressProvider validateAddress(CharSequence str, IPAddressStringParameters validationOptions) throws AddressStringException {
+		return validateAddress(str, validationOptions, new IPAddressParseData());
+	}
+	
+	/**
+	 * Validates using the given parse data, which is retained by the returned provider until the addresses are created.
+	 */
+	static IPAddressProvider validateAddress(CharSequence str, IPAddressStringParameters validationOptions, IPAddressParseData ipAddressParseData) throws AddressStringException {
+		long dottedDecimal = parseIPv4DottedDecimal(str, validationOptions);
+		if(dottedDecimal >= 0) {
+			return new IPv4DottedDecimalProvider(null, getDottedDecimalValue(dottedDecimal), getDottedDecimalPrefixLength(dottedDecimal));
+		}
+		validateIPAddress(validationOptions, str, 0, str.length(), ipAddressParseData);
+		return createProvider(null, str, validationOptions, ipAddressParseData,
+			parseQualifier(str, validationOptions, null, ipAddressParseData, str.length()));
+	}
+	
+	@Override
+	public int validateIPv4Value(CharSequence str, IPAddressStringParameters validationOptions) throws AddressStringException {
+		return validateIPv4Value(str, validationOptions, new IPAddressParseData());
+	}
+	
+	static int validateIPv4Value(CharSequence str, IPAddressStringParameters validationOptions, IPAddressParseData parseData) throws AddressStringException {
+		long dottedDecimal = parseIPv4DottedDecimal(str, validationOptions);
+		if(dottedDecimal >= 0) {
+			return getDottedDecimalValue(dottedDecimal);
+		}
+		validateSingleAddress(str, validationOptions, IPVersion.IPV4, parseData);
+		long value = parseData.getIPv4Value();
+		if(value < 0) {
+			throw new AddressStringException(str, "ipaddress.error.not.single.address");
+		}
+		return (int) value;
+	}
+	
+	@Override
+	public void validateIPv6Value(CharSequence str, IPAddressStringParameters validationOptions, long values[]) throws AddressStringException {
+		validateIPv6Value(str, validationOptions, values, new IPAddressParseData());
+	}
+	
+	static void validateIPv6Value(CharSequence str, IPAddressStringParameters validationOptions, long values[], IPAddressParseData parseData) throws AddressStringException {
+		validateSingleAddress(str, validationOptions, IPVersion.IPV6, parseData);
+		if(!parseData.getIPv6Value(values)) {
+			throw new AddressStringException(str, "ipaddress.error.not.single.address");
+		}
+	}
+	
+	/**
+	 * Parses and validates a string that must be an address of the given version,
+	 * applying the same checks as when an address is created from the string.
+	 */
+	private static void validateSingleAddress(
+			final CharSequence str,
+			final IPAddressStringParameters validationOptions,
+			final IPVersion version,
+			final IPAddressParseData parseData) throws AddressStringException {
+		validateIPAddress(validationOptions, str, 0, str.length(), parseData);
+		parseQualifier(str, validationOptions, null, parseData, str.length());
+		IPVersion parsedVersion = parseData.ipVersion;
+		if(parsedVersion == null) {
+			//empty, prefix-only or all addresses
+			throw new AddressStringException(str, "ipaddress.error.not.single.address");
+		} else if(!parsedVersion.equals(version)) {
+			throw new AddressStringException(str, parsedVersion.isIPv4() ? "ipaddress.error.address.is.ipv4" : "ipaddress.error.address.is.ipv6");
+		} else if(parseData.isZoned && parsedVersion.isIPv4()) {
+			throw new AddressStringException(str, "ipaddress.error.only.ipv6.has.zone");
+		}
+		checkSegments(str, validationOptions, parseData);
+	}
+	
+	/**
+	 * A fast path for the most common format, four decimal segments with no leading zeros and an optional prefix length, such as 1.2.3.4 or 1.2.3.0/24.
+	 * 
+	 * The address value is calculated as the characters are read, and no parse data is created.
+	 * Any string not in this exact format, including one with a segment or prefix length that is too large, is left to the general parser,
+	 * which handles every other format and produces the validation errors, so that the results are always the same as those of the general parser.
+	 * 
+	 * @param str
+	 * @param validationOptions
+	 * @return -1 if the string must be handled by the general parser, 
+	 * 	otherwise the address value in the low 32 bits and the prefix length plus one, or zero when there is no prefix length, in the bits above,
+	 * 	to be retrieved with {@link #getDottedDecimalValue(long)} and {@link #getDottedDecimalPrefixLength(long)}
+	 */
+	private static long parseIPv4DottedDecimal(
+			final CharSequence str,
+			final IPAddressStringParameters validationOptions) {
+		if(!validationOptions.allowIPv4) {
+			return -1;
+		}
+		int strEndIndex = str.length();
+		int value = 0, segmentValue = 0, digitCount = 0, separatorCount = 0;
+		int index = 0;
+		for(; index < strEndIndex; index++) {
+			char currentChar = str.charAt(index);
+			if(currentChar >= '0' && currentChar <= '9') {
+				if(digitCount > 0 && segmentValue == 0) {
+					//leading zeros can denote octal, or may not be allowed
+					return -1;
+				}
+				segmentValue = (segmentValue * 10) + (currentChar - '0');
+				if(segmentValue > IPv4Address.MAX_VALUE_PER_SEGMENT) {
+					return -1;
+				}
+				digitCount++;
+			} else if(currentChar == IPv4Address.SEGMENT_SEPARATOR) {
+				if(digitCount == 0 || ++separatorCount >= IPv4Address.SEGMENT_COUNT) {
+					return -1;
+				}
+				value = (value << IPv4Address.BITS_PER_SEGMENT) | segmentValue;
+				segmentValue = digitCount = 0;
+			} else if(currentChar == IPAddress.PREFIX_LEN_SEPARATOR) {
+				break;
+			} else {
+				return -1;
+			}
+		}
+		if(digitCount == 0 || separatorCount != IPv4Address.SEGMENT_COUNT - 1) {
+			return -1;
+		}
+		value = (value << IPv4Address.BITS_PER_SEGMENT) | segmentValue;
+		long result = value & 0xffffffffL;
+		if(index < strEndIndex) {
+			if(!validationOptions.allowPrefix) {
+				return -1;
+			}
+			int prefixStartIndex = ++index;
+			int prefixLength = 0;
+			for(; index < strEndIndex; index++) {
+				char currentChar = str.charAt(index);
+				if(currentChar < '0' || currentChar > '9' || (index > prefixStartIndex && prefixLength == 0)) {
+					return -1;
+				}
+				prefixLength = (prefixLength * 10) + (currentChar - '0');
+				if(prefixLength > IPv4Address.BIT_COUNT) {
+					return -1;
+				}
+			}
+			if(index == prefixStartIndex) {
+				return -1;
+			}
+			result |= ((long) (prefixLength + 1)) << IPv4Address.BIT_COUNT;
+		}
+		return result;
+	}
+	
+	private static int getDottedDecimalValue(long dottedDecimal) {
+		return (int) dottedDecimal;
+	}
+	
+	private static Integer getDottedDecimalPrefixLength(long dottedDecimal) {
+		int prefixLength = (int) (dottedDecimal >>> IPv4Address.BIT_COUNT) - 1;
+		return prefixLength < 0 ? null : prefixLength;
+	}
+	
 	private static void validateIPAddress(
 			final IPAddressStringParameters validationOptions,
 			final CharSequence str,
@@ -184,7 +352,7 @@ public class Validator implements HostIdentifierStringValidator {
 	
 	private static ParsedMACAddress createParsedMACAddress(
 			final MACAddressString originator,
-			final String fullAddr,
+			final CharSequence fullAddr,
 			final MACAddressStringParameters validationOptions,
 			final MACAddressParseData parseData) throws AddressStringException {
 		if(parseData.format != null) {
@@ -259,7 +427,7 @@ public class Validator implements HostIdentifierStringValidator {
 	
 	private static void validateMACAddress(
 			final MACAddressStringParameters validationOptions,
-			final String str,
+			final CharSequence str,
 			final int strStartIndex,
 			int strEndIndex,
 			MACAddressParseData parseData) throws AddressStringException {
@@ -470,22 +638,17 @@ public class Validator implements HostIdentifierStringValidator {
 											throw new AddressStringException(str, "ipaddress.error.ipv6");
 										}
 										ipAddressParseData.ipVersion = IPVersion.IPV6;
-										BigInteger val = parseBig85(str, strStartIndex, strEndIndex);
-										long value = val.and(LOW_BITS_MASK).longValue();
-										BigInteger shift64 = val.shiftRight(Long.SIZE);
-										long extendedValue = shift64.longValue();
-										//note that even with the correct number of digits, we can have a value too large
-										BigInteger shiftMore = shift64.shiftRight(Long.SIZE);
-										if(!shiftMore.equals(BigInteger.ZERO)) {
-											throw new AddressStringException(str, "ipaddress.error.address.too.large");
-										}
 										parseData.initSegmentData(1);
 										parseData.segmentCount = 1;
 										long vals[] = parseData.values[0];
+										//note that even with the correct number of digits, we can have a value too large
+										if(!parseBase85(str, strStartIndex, strEndIndex, vals, AddressParseData.EXTENDED_LOWER_INDEX, AddressParseData.LOWER_INDEX)) {
+											throw new AddressStringException(str, "ipaddress.error.address.too.large");
+										}
 										int indices[] = parseData.indices[0];
 										assignAttributes(strStartIndex, strEndIndex, indices, IPv6Address.DEFAULT_TEXTUAL_RADIX, strStartIndex);
-										vals[AddressParseData.LOWER_INDEX] = vals[AddressParseData.UPPER_INDEX] = value;
-										vals[AddressParseData.EXTENDED_LOWER_INDEX] = vals[AddressParseData.EXTENDED_UPPER_INDEX] = extendedValue;
+										vals[AddressParseData.UPPER_INDEX] = vals[AddressParseData.LOWER_INDEX];
+										vals[AddressParseData.EXTENDED_UPPER_INDEX] = vals[AddressParseData.EXTENDED_LOWER_INDEX];
 										ipAddressParseData.isBase85 = true;
 										break;
 									}
@@ -496,29 +659,18 @@ public class Validator implements HostIdentifierStringValidator {
 										}
 										ipAddressParseData.ipVersion = IPVersion.IPV6;
 										int frontEndIndex = strStartIndex + IPV6_BASE85_SINGLE_SEGMENT_DIGIT_COUNT;
-										BigInteger val = parseBig85(str, strStartIndex, frontEndIndex);
-										BigInteger val2 = parseBig85(str, frontEndIndex + 1, strEndIndex);
-										long value = val.and(LOW_BITS_MASK).longValue();
-										BigInteger shift64 = val.shiftRight(Long.SIZE);
-										long extendedValue = shift64.longValue();
-										BigInteger shiftMore = shift64.shiftRight(Long.SIZE);
-										long value2 = val2.and(LOW_BITS_MASK).longValue();
-										shift64 = val2.shiftRight(Long.SIZE);
-										long extendedValue2 = shift64.longValue();
-										shiftMore = shift64.shiftRight(Long.SIZE);
-										if(!shiftMore.equals(BigInteger.ZERO)) {
+										parseData.initSegmentData(parseData.segmentCount = 1);
+										long vals[] = parseData.values[0];
+										if(!parseBase85(str, strStartIndex, frontEndIndex, vals, AddressParseData.EXTENDED_LOWER_INDEX, AddressParseData.LOWER_INDEX) ||
+												!parseBase85(str, frontEndIndex + 1, strEndIndex, vals, AddressParseData.EXTENDED_UPPER_INDEX, AddressParseData.UPPER_INDEX)) {
 											throw new AddressStringException(str, "ipaddress.error.address.too.large");
-										} else if(val.compareTo(val2) > 0) {
+										}
+										int comparison = Long.compareUnsigned(vals[AddressParseData.EXTENDED_LOWER_INDEX], vals[AddressParseData.EXTENDED_UPPER_INDEX]);
+										if(comparison > 0 || (comparison == 0 && Long.compareUnsigned(vals[AddressParseData.LOWER_INDEX], vals[AddressParseData.UPPER_INDEX]) > 0)) {
 											throw new AddressStringException(str, "ipaddress.error.invalidRange");
 										}
-										parseData.initSegmentData(parseData.segmentCount = 1);
-										long vals[] = parseData.values[0];
 										int indices[] = parseData.indices[0];
 										assignAttributes(strStartIndex, frontEndIndex, frontEndIndex + 1, strEndIndex, indices, strStartIndex, frontEndIndex + 1, IPv6Address.DEFAULT_TEXTUAL_RADIX, IPv6Address.DEFAULT_TEXTUAL_RADIX);
-										vals[AddressParseData.LOWER_INDEX] = value;
-										vals[AddressParseData.UPPER_INDEX] = value2;
-										vals[AddressParseData.EXTENDED_LOWER_INDEX] = extendedValue;
-										vals[AddressParseData.EXTENDED_UPPER_INDEX] = extendedValue2;
 										ipAddressParseData.isBase85 = true;
 										break;
 									}
@@ -595,7 +747,7 @@ public class Validator implements HostIdentifierStringValidator {
 						parseData.segmentCount++;
 					}
 					IPAddressStringParameters mixedOptions = ipv6SpecificOptions.getMixedParameters();
-					IPAddressParseData mixedAddressParseData = new IPAddressParseData();
+					IPAddressParseData mixedAddressParseData = ipAddressParseData.createMixedParseData();
 					validateIPAddress(mixedOptions, str, lastSeparatorIndex + 1, strEndIndex, mixedAddressParseData, true);
 					ipAddressParseData.mixedParsedAddress = createIPAddressProvider(null, str, mixedOptions, mixedAddressParseData, ParsedHost.NO_QUALIFIER);
 					index = mixedAddressParseData.addressParseData.addressEndIndex;
@@ -1460,6 +1612,19 @@ public class Validator implements HostIdentifierStringValidator {
 			final IPAddressStringParameters validationOptions,
 			final IPAddressParseData parseData,
 			final ParsedHostIdentifierStringQualifier qualifier) throws AddressStringException {
+		checkSegments(fullAddr, validationOptions, parseData);
+		IPVersion version = parseData.ipVersion;
+		ParsedIPAddress valueCreator = new ParsedIPAddress(originator, fullAddr, parseData, version, qualifier);
+		return valueCreator;
+	}
+	
+	/**
+	 * Checks the segment count and that segment values and strings are not too large, which cannot be done until all segments have been parsed.
+	 */
+	private static void checkSegments(
+			final CharSequence fullAddr,
+			final IPAddressStringParameters validationOptions,
+			final IPAddressParseData parseData) throws AddressStringException {
 		final int segCount = parseData.addressParseData.segmentCount;
 		IPVersion version = parseData.ipVersion;
 		if(version.isIPv4()) {
@@ -1506,8 +1671,6 @@ public class Validator implements HostIdentifierStringValidator {
 				throw new AddressStringException(fullAddr, "ipaddress.error.too.few.segments");
 			}
 		}
-		ParsedIPAddress valueCreator = new ParsedIPAddress(originator, fullAddr, parseData, version, qualifier);
-		return valueCreator;
 	}
 	
 	@Override
@@ -2039,40 +2202,43 @@ public class Validator implements HostIdentifierStringValidator {
 		return result;
 	}
 	
-	private static final BigInteger BASE_85_POWERS[] = new BigInteger[10];
-	private static final BigInteger LOW_BITS_MASK = BigInteger.valueOf(0xffffffffffffffffL);
+	//85^4 is the largest power for which a 32 bit value multiplied by the power, plus a carry, fits in a long
+	private static final int BASE_85_CHUNK_DIGITS = 4;
+	private static final long BASE_85_POWERS[] = {1, 85, 85 * 85, 85 * 85 * 85, 85 * 85 * 85 * 85};
+	private static final long LOW_32_BITS_MASK = 0xffffffffL;
 	
-	static {
-		BigInteger eightyFive = BigInteger.valueOf(85);
-		BASE_85_POWERS[0] = BigInteger.ONE;
-		for(int i = 1; i < BASE_85_POWERS.length; i++) {
-			BASE_85_POWERS[i] = BASE_85_POWERS[i - 1].multiply(eightyFive);
-		}
-	}
-	
-	private static BigInteger parseBig85(CharSequence s, int start, int end) {
+	/**
+	 * Parses a base 85 value of up to 128 bits, storing the high and low 64 bits in the given array.
+	 * The value is accumulated in four 32 bit parts so that no intermediate objects are created.
+	 * 
+	 * @return false if the value does not fit in 128 bits
+	 */
+	private static boolean parseBase85(CharSequence s, int start, int end, long vals[], int highIndex, int lowIndex) {
 		int charArray[] = extendedChars;
-		BigInteger result = BigInteger.ZERO;
-		boolean last;
-		do {
-			int partialEnd, power;
-			int left = end - start;
-			if(last = (left <= 9)) {
-				partialEnd = end;
-				power = left;
-			} else {
-				partialEnd = start + 9;
-				power = 9;
-			}
+		long high = 0, low = 0;
+		while(start < end) {
+			int partialEnd = Math.min(end, start + BASE_85_CHUNK_DIGITS);
+			long power = BASE_85_POWERS[partialEnd - start];
 			long partialResult = charArray[s.charAt(start)];
 			while (++start < partialEnd) {
-				int next = charArray[s.charAt(start)];
-				partialResult = (partialResult * 85) + next;
+				partialResult = (partialResult * 85) + charArray[s.charAt(start)];
 			}
-			result = result.multiply(BASE_85_POWERS[power]).add(BigInteger.valueOf(partialResult));
-			start = partialEnd;
-		} while(!last);
-		return result;
+			//multiply the 128 bit value by the power and add the partial result, starting from the lowest 32 bits
+			long product = (low & LOW_32_BITS_MASK) * power + partialResult;
+			long newLow = product & LOW_32_BITS_MASK;
+			product = (low >>> 32) * power + (product >>> 32);
+			low = newLow | (product << 32);
+			product = (high & LOW_32_BITS_MASK) * power + (product >>> 32);
+			long newHigh = product & LOW_32_BITS_MASK;
+			product = (high >>> 32) * power + (product >>> 32);
+			high = newHigh | (product << 32);
+			if((product >>> 32) != 0) {
+				return false;
+			}
+		}
+		vals[highIndex] = high;
+		vals[lowIndex] = low;
+		return true;
 	}
 	
 	//according to rfc 1035 or 952, a label must start with a letter, must end with a letter or digit, and must have in the middle a letter or digit or -
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2017 Sean C Foley
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     or at
+ *     https://github.com/seancfoley/IPAddress/blob/master/LICENSE
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package inet.ipaddr.ipv4;
+
+import java.io.Serializable;
+
+import inet.ipaddr.Address;
+import inet.ipaddr.AddressTypeException;
+import inet.ipaddr.IPAddress;
+import inet.ipaddr.IPAddress.IPVersion;
+
+/**
+ * An immutable IPv4 address, or prefix block of IPv4 addresses, stored as an int value and a prefix length.
+ * <p>
+ * An {@link IPv4Address} holds a section and an array of segment objects, in addition to cached values,
+ * while an instance of this class is a single small object, suited to storing large numbers of addresses.
+ * <p>
+ * The equivalent {@link IPv4Address} is created by {@link #toAddress()}, and the segments by {@link #getSegment(int)} and {@link #getSegments()}.
+ * These are created on each call and not retained, so callers that use them repeatedly should keep the {@link IPv4Address}.
+ * <p>
+ * As with {@link IPv4Address}, a prefix length denotes the block of all addresses with the same prefix,
+ * so 1.2.3.4/16 is the block 1.2.0.0/16, and two instances are equal when they are the same address or block, regardless of whether the prefix length is the full bit count.
+ *
+ * @author sfoley
+ *
+ */
+public final class CompactIPv4Address implements Comparable<CompactIPv4Address>, Serializable {
+
+	private static final long serialVersionUID = 3L;
+
+	private final int value;
+	private final byte networkPrefixLength; //-1 when there is no prefix length
+
+	/**
+	 * Constructs a single IPv4 address.
+	 *
+	 * @param value the 4 byte IPv4 address
+	 */
+	public CompactIPv4Address(int value) {
+		this.value = value;
+		this.networkPrefixLength = -1;
+	}
+
+	/**
+	 * Constructs an IPv4 address or prefix block.
+	 *
+	 * @param value the 4 byte IPv4 address
+	 * @param networkPrefixLength the prefix length, or null for a single address
+	 * @throws AddressTypeException if the prefix length is negative or exceeds the address bit count
+	 */
+	public CompactIPv4Address(int value, Integer networkPrefixLength) throws AddressTypeException {
+		if(networkPrefixLength == null) {
+			this.value = value;
+			this.networkPrefixLength = -1;
+		} else {
+			int prefix = networkPrefixLength;
+			if(prefix < 0 || prefix > IPv4Address.BIT_COUNT) {
+				throw new AddressTypeException(prefix, IPVersion.IPV4, "ipaddress.error.prefixSize");
+			}
+			this.value = value & getNetworkMask(prefix);
+			this.networkPrefixLength = (byte) prefix;
+		}
+	}
+
+	/**
+	 * Constructs the compact form of the given address.
+	 *
+	 * @param address a single address, or a prefix block with the same prefix length as the address
+	 * @throws AddressTypeException if the address is a range of values that is not the prefix block of its prefix length
+	 */
+	public CompactIPv4Address(IPv4Address address) throws AddressTypeException {
+		this(address.intValue(), address.getNetworkPrefixLength());
+		if(address.isMultiple() && getUpperValue() != address.upperIntValue()) {
+			throw new AddressTypeException(address, "ipaddress.error.notPrefixBlock");
+		}
+	}
+
+	private static int getNetworkMask(int networkPrefixLength) {
+		return networkPrefixLength == 0 ? 0 : -1 << (IPv4Address.BIT_COUNT - networkPrefixLength);
+	}
+
+	/**
+	 * @return the lowest address value, which is the network address for a prefix block
+	 */
+	public int intValue() {
+		return value;
+	}
+
+	/**
+	 * @return the lowest address value as an unsigned value
+	 */
+	public long longValue() {
+		return value & 0xffffffffL;
+	}
+
+	/**
+	 * @return the highest address value, which differs from {@link #intValue()} only for a prefix block
+	 */
+	public int getUpperValue() {
+		return networkPrefixLength < 0 ? value : value | ~getNetworkMask(networkPrefixLength);
+	}
+
+	public Integer getNetworkPrefixLength() {
+		return networkPrefixLength < 0 ? null : Integer.valueOf(networkPrefixLength);
+	}
+
+	public boolean isPrefixed() {
+		return networkPrefixLength >= 0;
+	}
+
+	/**
+	 * @return whether this represents more than one address
+	 */
+	public boolean isMultiple() {
+		return networkPrefixLength >= 0 && networkPrefixLength < IPv4Address.BIT_COUNT;
+	}
+
+	/**
+	 * @return the number of addresses
+	 */
+	public long getCount() {
+		return networkPrefixLength < 0 ? 1 : 1L << (IPv4Address.BIT_COUNT - networkPrefixLength);
+	}
+
+	public boolean contains(int address) {
+		return Integer.compareUnsigned(address, value) >= 0 && Integer.compareUnsigned(address, getUpperValue()) <= 0;
+	}
+
+	public boolean contains(CompactIPv4Address other) {
+		return contains(other.value) && contains(other.getUpperValue());
+	}
+
+	public boolean contains(IPv4Address other) {
+		return contains(other.intValue()) && contains(other.upperIntValue());
+	}
+
+	public int getSegmentCount() {
+		return IPv4Address.SEGMENT_COUNT;
+	}
+
+	/**
+	 * Creates the segment at the given index.
+	 *
+	 * @param index
+	 * @return
+	 */
+	public IPv4AddressSegment getSegment(int index) {
+		return toAddress().getSegment(index);
+	}
+
+	/**
+	 * Creates the segments.
+	 *
+	 * @return
+	 */
+	public IPv4AddressSegment[] getSegments() {
+		return toAddress().getSegments();
+	}
+
+	/**
+	 * @return the bytes of the lowest address
+	 */
+	public byte[] getBytes() {
+		return new byte[] {(byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value};
+	}
+
+	/**
+	 * Creates the equivalent {@link IPv4Address}.
+	 *
+	 * @return
+	 */
+	public IPv4Address toAddress() {
+		return new IPv4Address(value, getNetworkPrefixLength());
+	}
+
+	/**
+	 * Orders as {@link Address#addressComparator} orders the equivalent addresses, single addresses before larger blocks, and then by value.
+	 */
+	@Override
+	public int compareTo(CompactIPv4Address other) {
+		int result = Long.compare(getCount(), other.getCount());
+		if(result == 0) {
+			result = Integer.compareUnsigned(value, other.value);
+		}
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if(o == this) {
+			return true;
+		}
+		if(o instanceof CompactIPv4Address) {
+			CompactIPv4Address other = (CompactIPv4Address) o;
+			return value == other.value && getCount() == other.getCount();
+		}
+		return false;
+	}
+
+	@Override
+	public int hashCode() {
+		return value * 31 + Long.numberOfTrailingZeros(getCount());
+	}
+
+	/**
+	 * Produces the same string as {@link IPv4Address#toString()}, without creating the address.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder(18);
+		for(int i = IPv4Address.SEGMENT_COUNT - 1; i >= 0; i--) {
+			builder.append((value >>> (i * IPv4Address.BITS_PER_SEGMENT)) & IPv4Address.MAX_VALUE_PER_SEGMENT);
+			if(i > 0) {
+				builder.append(IPv4Address.SEGMENT_SEPARATOR);
+			}
+		}
+		if(networkPrefixLength >= 0) {
+			builder.append(IPAddress.PREFIX_LEN_SEPARATOR).append(networkPrefixLength);
+		}
+		return builder.toString();
+	}
+}
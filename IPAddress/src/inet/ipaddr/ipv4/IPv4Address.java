@@ -20,6 +20,9 @@ package inet.ipaddr.ipv4;
 
 import java.net.Inet4Address;
 import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import inet.ipaddr.AddressTypeException;
 import inet.ipaddr.IPAddress;
@@ -326,6 +329,64 @@ public class IPv4Address extends IPAddress implements Iterable<IPv4Address> {
 		IPv4AddressCreator creator = getAddressCreator();
 		return getSection().iterator(this, creator);
 	}
+	
+	@Override
+	public Spliterator<IPv4Address> spliterator() {
+		return getSection().spliterator(this, getAddressCreator());
+	}
+	
+	@Override
+	public Stream<IPv4Address> stream() {
+		return StreamSupport.stream(spliterator(), false);
+	}
+	
+	@Override
+	public Stream<IPv4Address> parallelStream() {
+		return StreamSupport.stream(spliterator(), true);
+	}
+	
+	/**
+	 * Provides a cursor through the individual values of this address or subnet, in the same order as {@link #iterator()},
+	 * which provides each value as an int, and which creates no objects while moving through the values.
+	 * 
+	 * @return
+	 */
+	public IPv4AddressCursor cursor() {
+		return new IPv4AddressCursor(this);
+	}
+	
+	/**
+	 * @return the lowest address value as an int
+	 */
+	public int intValue() {
+		return getSection().intValue();
+	}
+	
+	/**
+	 * @return the highest address value as an int
+	 */
+	public int upperIntValue() {
+		return getSection().upperIntValue();
+	}
+	
+	/**
+	 * @return the lowest address value as an unsigned value
+	 */
+	public long longValue() {
+		return getSection().longValue();
+	}
+	
+	/**
+	 * @return the highest address value as an unsigned value
+	 */
+	public long upperLongValue() {
+		return getSection().upperLongValue();
+	}
+	
+	@Override
+	public Iterator<IPv4Address> prefixBlockIterator(int prefixLength) throws AddressTypeException {
+		return getSection().prefixBlockIterator(this, getAddressCreator(), prefixLength);
+	}
 
 	@Override
 	public Iterable<IPv4Address> getIterable() {
@@ -376,6 +437,40 @@ public class IPv4Address extends IPAddress implements Iterable<IPv4Address> {
 		return result;
 	}
 	
+	@Override
+	public IPv4Address[] mergeToPrefixBlocks(IPAddress... addresses) throws AddressTypeException {
+		IPv4AddressSection sections[] = new IPv4AddressSection[addresses.length];
+		for(int i = 0; i < addresses.length; i++) {
+			sections[i] = convertArg(addresses[i]).getSection();
+		}
+		IPv4AddressSection blocks[] = getSection().mergeToPrefixBlocks(sections);
+		IPv4AddressCreator creator = getAddressCreator();
+		IPv4Address result[] = new IPv4Address[blocks.length];
+		for(int i = 0; i < result.length; i++) {
+			result[i] = creator.createAddress(blocks[i]); /* address creation */
+		}
+		return result;
+	}
+	
+	@Override
+	public IPv4Address[] spanWithPrefixBlocks(IPAddress other) throws AddressTypeException {
+		return toAddresses(getSection().spanWithPrefixBlocks(convertArg(other).getSection()));
+	}
+	
+	@Override
+	public IPv4Address[] spanWithSequentialBlocks(IPAddress other) throws AddressTypeException {
+		return toAddresses(getSection().spanWithSequentialBlocks(convertArg(other).getSection()));
+	}
+	
+	private IPv4Address[] toAddresses(IPv4AddressSection sections[]) {
+		IPv4AddressCreator creator = getAddressCreator();
+		IPv4Address result[] = new IPv4Address[sections.length];
+		for(int i = 0; i < result.length; i++) {
+			result[i] = creator.createAddress(sections[i]); /* address creation */
+		}
+		return result;
+	}
+	
 	@Override
 	public IPv4Address applyPrefixLength(int networkPrefixLength) throws AddressTypeException {
 		return checkIdentity(getSection().applyPrefixLength(networkPrefixLength));
@@ -578,4 +673,9 @@ public class IPv4Address extends IPAddress implements Iterable<IPv4Address> {
 	public Iterator<IPv4AddressSegment[]> segmentsIterator() {
 		return getSection().segmentsIterator();
 	};
+	
+	@Override
+	public Spliterator<IPv4AddressSegment[]> segmentsSpliterator() {
+		return getSection().segmentsSpliterator();
+	}
 }
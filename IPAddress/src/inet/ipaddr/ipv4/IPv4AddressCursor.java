@@ -0,0 +1,62 @@
+/*
+ * Copyright 2017 Sean C Foley
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     or at
+ *     https://github.com/seancfoley/IPAddress/blob/master/LICENSE
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package inet.ipaddr.ipv4;
+
+import inet.ipaddr.format.AddressCursor;
+
+/**
+ * A cursor through the individual values of an IPv4 address or subnet, providing each value as an int.
+ * 
+ * @see AddressCursor
+ * @see IPv4Address#cursor()
+ * @author sfoley
+ *
+ */
+public class IPv4AddressCursor extends AddressCursor {
+	
+	public IPv4AddressCursor(IPv4Address address) {
+		super(address);
+	}
+	
+	/**
+	 * @throws java.util.NoSuchElementException if the cursor is not positioned at a value
+	 * @return the current value
+	 */
+	public int intValue() {
+		checkValue();
+		return (int) getBits(0, IPv4Address.SEGMENT_COUNT, IPv4Address.BITS_PER_SEGMENT);
+	}
+	
+	/**
+	 * @throws java.util.NoSuchElementException if the cursor is not positioned at a value
+	 * @return the current value as an unsigned long
+	 */
+	public long longValue() {
+		return intValue() & 0xffffffffL;
+	}
+	
+	public CompactIPv4Address toCompactAddress() {
+		return new CompactIPv4Address(intValue());
+	}
+	
+	@Override
+	public IPv4Address toAddress() {
+		return new IPv4Address(intValue());
+	}
+}
@@ -18,12 +18,17 @@
 
 package inet.ipaddr.ipv4;
 
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
 import inet.ipaddr.Address.SegmentValueProvider;
+import inet.ipaddr.AddressStringException;
 import inet.ipaddr.IPAddress.IPVersion;
+import inet.ipaddr.IPAddressString;
+import inet.ipaddr.IPAddressStringParameters;
 import inet.ipaddr.IPAddressTypeNetwork;
+import inet.ipaddr.format.validate.IPAddressParser;
 
 /**
  * 
@@ -37,15 +42,40 @@ public class IPv4AddressNetwork extends IPAddressTypeNetwork<IPv4Address, IPv4Ad
 		IPv4AddressSegment emptySegments[] = {};
 		IPv4AddressSection emptySection[] = {};
 		
-		private static IPv4AddressSegment segmentCache[] = new IPv4AddressSegment[IPv4Address.MAX_VALUE_PER_SEGMENT + 1];
-		private static IPv4AddressSegment segmentPrefixCache[][]; 
-		private static IPv4AddressSegment allPrefixedCache[] = new IPv4AddressSegment[IPv4Address.BITS_PER_SEGMENT];
+		//The caches are populated lazily, each element written at most once with compareAndSet,
+		//so that segments are safely published to other threads and all threads use the same instance for a given value.
+		//Reading a populated element is a single volatile read, with no locking.
+		private static final AtomicReferenceArray<IPv4AddressSegment> segmentCache = new AtomicReferenceArray<IPv4AddressSegment>(IPv4Address.MAX_VALUE_PER_SEGMENT + 1);
 		
-		static {
-			if(CACHE_SEGMENTS_BY_PREFIX) {
-				segmentPrefixCache = new IPv4AddressSegment[IPv4Address.BITS_PER_SEGMENT][];
-				for(int i = 0, digits = 2; i < segmentPrefixCache.length; i++, digits <<= 1) {
-					segmentPrefixCache[i] = new IPv4AddressSegment[digits];
+		//There are 2 to the n possible values for prefix n, so the cache for prefix n starts at index (2 to the n) - 2
+		private static final AtomicReferenceArray<IPv4AddressSegment> segmentPrefixCache = new AtomicReferenceArray<IPv4AddressSegment>((2 << IPv4Address.BITS_PER_SEGMENT) - 2);
+		private static final AtomicReferenceArray<IPv4AddressSegment> allPrefixedCache = new AtomicReferenceArray<IPv4AddressSegment>(IPv4Address.BITS_PER_SEGMENT);
+		
+		private static IPv4AddressSegment cacheSegment(AtomicReferenceArray<IPv4AddressSegment> cache, int index, IPv4AddressSegment segment) {
+			if(cache.compareAndSet(index, null, segment)) {
+				return segment;
+			}
+			return cache.get(index);
+		}
+		
+		/**
+		 * Populates the segment caches, which are otherwise populated as segments are created.
+		 * Call this at startup to avoid the cost of populating the caches when addresses are first created.
+		 * 
+		 * @param prefixed whether to also populate the caches of prefixed segments, which hold 510 segments in addition to the 256 segments with no prefix
+		 */
+		public static void preloadSegmentCaches(boolean prefixed) {
+			IPv4AddressCreator creator = IPv4Address.network().getAddressCreator();
+			for(int i = 0; i <= IPv4Address.MAX_VALUE_PER_SEGMENT; i++) {
+				creator.createSegment(i);
+			}
+			if(prefixed && CACHE_SEGMENTS_BY_PREFIX) {
+				int bitsPerSegment = IPv4Address.BITS_PER_SEGMENT;
+				for(int prefix = 1; prefix <= bitsPerSegment; prefix++) {
+					for(int i = 0, count = 1 << prefix; i < count; i++) {
+						creator.createSegment(i << (bitsPerSegment - prefix), prefix);
+					}
+					creator.createSegment(0, IPv4Address.network().getSegmentNetworkMask(prefix), prefix);
 				}
 			}
 		}
@@ -60,9 +90,9 @@ public class IPv4AddressNetwork extends IPAddressTypeNetwork<IPv4Address, IPv4Ad
 		
 		@Override
 		public IPv4AddressSegment createSegment(int value) {
-			IPv4AddressSegment result = segmentCache[value];
+			IPv4AddressSegment result = segmentCache.get(value);
 			if(result == null) {
-				segmentCache[value] = result = new IPv4AddressSegment(value);
+				result = cacheSegment(segmentCache, value, new IPv4AddressSegment(value));
 			}
 			return result;
 		}
@@ -82,12 +112,12 @@ public class IPv4AddressNetwork extends IPAddressTypeNetwork<IPv4Address, IPv4Ad
 				}
 				int mask = IPv4Address.network().getSegmentNetworkMask(segmentPrefixLength);
 				value &= mask;
-				int prefixIndex = segmentPrefixLength - 1;
 				int valueIndex = value >>> (bitsPerSegment - segmentPrefixLength);
-				IPv4AddressSegment cache[][] = segmentPrefixCache;
-				IPv4AddressSegment result = cache[prefixIndex][valueIndex];
+				int cacheIndex = (1 << segmentPrefixLength) - 2 + valueIndex;
+				AtomicReferenceArray<IPv4AddressSegment> cache = segmentPrefixCache;
+				IPv4AddressSegment result = cache.get(cacheIndex);
 				if(result == null) {
-					cache[prefixIndex][valueIndex] = result = new IPv4AddressSegment(value, segmentPrefixLength);
+					result = cacheSegment(cache, cacheIndex, new IPv4AddressSegment(value, segmentPrefixLength));
 				}
 				return result;
 			}
@@ -117,10 +147,10 @@ public class IPv4AddressNetwork extends IPAddressTypeNetwork<IPv4Address, IPv4Ad
 					if(lower == 0 && upper == mask) {
 						//cache */26 type segments
 						int prefixIndex = segmentPrefixLength - 1;
-						IPv4AddressSegment cache[] = allPrefixedCache;
-						IPv4AddressSegment result = cache[prefixIndex];
+						AtomicReferenceArray<IPv4AddressSegment> cache = allPrefixedCache;
+						IPv4AddressSegment result = cache.get(prefixIndex);
 						if(result == null) {
-							cache[prefixIndex] = result = new IPv4AddressSegment(0, IPv4Address.MAX_VALUE_PER_SEGMENT, segmentPrefixLength);
+							result = cacheSegment(cache, prefixIndex, new IPv4AddressSegment(0, IPv4Address.MAX_VALUE_PER_SEGMENT, segmentPrefixLength));
 						}
 						return result;
 					}
@@ -239,4 +269,20 @@ public class IPv4AddressNetwork extends IPAddressTypeNetwork<IPv4Address, IPv4Ad
 	public IPVersion getIPVersion() {
 		return IPVersion.IPV4;
 	}
+	
+	/**
+	 * Parses the string as an IPv4 address using the given validation options, and returns the address value as an int, 
+	 * without creating an {@link IPAddressString} or any address, section or segment objects.
+	 * <p>
+	 * The string is validated exactly as with {@link IPAddressString#toAddress()}, and leading and trailing whitespace is ignored just as it is by {@link IPAddressString}.
+	 * Any prefix length or mask is validated and then ignored, so 1.2.3.4/16 produces the value of 1.2.3.4, the same as {@link IPAddressString#toHostAddress()}.
+	 * 
+	 * @param str
+	 * @param validationOptions
+	 * @throws AddressStringException if the string is invalid, or is not a single IPv4 address, such as an IPv6 address, a range of addresses, or the empty string
+	 * @return the 32-bit value of the address
+	 */
+	public static int parseValue(CharSequence str, IPAddressStringParameters validationOptions) throws AddressStringException {
+		return IPAddressParser.getThreadParser().parseIPv4Value(str, validationOptions);
+	}
 }
@@ -22,6 +22,10 @@ import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import inet.ipaddr.Address.SegmentValueProvider;
 import inet.ipaddr.AddressSection;
@@ -86,7 +90,10 @@ public class IPv4AddressSection extends IPAddressSection implements Iterable<IPv
 	
 	static class AddressCache extends SectionCache<IPv4Address> {}
 	
-	transient IPv4StringCache stringCache;
+	transient volatile IPv4StringCache stringCache;
+	
+	private static final AtomicReferenceFieldUpdater<IPv4AddressSection, IPv4StringCache> stringCacheUpdater = 
+			AtomicReferenceFieldUpdater.newUpdater(IPv4AddressSection.class, IPv4StringCache.class, "stringCache");
 	
 	private transient SectionCache<IPv4AddressSection> sectionCache;
 
@@ -241,6 +248,44 @@ public class IPv4AddressSection extends IPAddressSection implements Iterable<IPv
 	public Iterator<IPv4AddressSegment[]> segmentsIterator() {
 		return super.iterator(getSegmentCreator(), () -> getLower().getSegments(), index -> getSegment(index).iterator());
 	}
+	
+	@Override
+	public Spliterator<IPv4AddressSection> spliterator() {
+		return spliterator(!isMultiple() && !isPrefixed(), this, getAddressCreator());
+	}
+	
+	@Override
+	public Stream<IPv4AddressSection> stream() {
+		return StreamSupport.stream(spliterator(), false);
+	}
+	
+	@Override
+	public Stream<IPv4AddressSection> parallelStream() {
+		return StreamSupport.stream(spliterator(), true);
+	}
+	
+	@Override
+	public Spliterator<IPv4AddressSegment[]> segmentsSpliterator() {
+		return super.segmentsSpliterator(getSegmentCreator());
+	}
+	
+	@Override
+	public Iterator<IPv4AddressSection> prefixBlockIterator(int prefixLength) throws AddressTypeException {
+		return iterator(false, this, getAddressCreator(), prefixBlockSegmentsIterator(prefixLength, getSegmentCreator()));
+	}
+	
+	protected Iterator<IPv4Address> prefixBlockIterator(
+			IPv4Address original,
+			AddressCreator<IPv4Address, ?, ?, IPv4AddressSegment> creator,
+			int prefixLength) throws AddressTypeException {
+		return iterator(original, creator, false, prefixBlockSegmentsIterator(prefixLength, creator));
+	}
+	
+	protected Spliterator<IPv4Address> spliterator(
+			IPv4Address original,
+			AddressCreator<IPv4Address, ?, ?, IPv4AddressSegment> creator) {
+		return spliterator(original, creator, !isMultiple() && !isPrefixed());
+	}
 
 	protected Iterator<IPv4Address> iterator(
 			IPv4Address original,
@@ -254,17 +299,60 @@ public class IPv4AddressSection extends IPAddressSection implements Iterable<IPv
 			);
 	}
 	
+	/**
+	 * @return the lowest value of this section as an int, the segment values joined from the most to the least significant
+	 */
+	public int intValue() {
+		return getIntValue(true);
+	}
+	
+	/**
+	 * @return the highest value of this section as an int, the segment values joined from the most to the least significant
+	 */
+	public int upperIntValue() {
+		return getIntValue(false);
+	}
+	
+	/**
+	 * @return the lowest value of this section as an unsigned value
+	 */
+	public long longValue() {
+		return intValue() & 0xffffffffL;
+	}
+	
+	/**
+	 * @return the highest value of this section as an unsigned value
+	 */
+	public long upperLongValue() {
+		return upperIntValue() & 0xffffffffL;
+	}
+	
+	private int getIntValue(boolean lower) {
+		int segCount = getSegmentCount();
+		int result = 0;
+		for(int i = 0; i < segCount; i++) {
+			IPv4AddressSegment seg = getSegment(i);
+			result = (result << IPv4Address.BITS_PER_SEGMENT) | (lower ? seg.getLowerSegmentValue() : seg.getUpperSegmentValue());
+		}
+		return result;
+	}
+	
 	@Override
 	protected BigInteger getCountImpl() {
+		return BigInteger.valueOf(getLongCount());
+	}
+	
+	@Override
+	protected long getLongCountImpl() {
 		int segCount = getSegmentCount();
 		if(!isMultiple()) {
-			return BigInteger.ONE;
+			return 1;
 		}
 		long result = getSegment(0).getValueCount();
 		for(int i = 1; i < segCount; i++) {
 			result *= getSegment(i).getValueCount();
 		}
-		return BigInteger.valueOf(result);
+		return result;
 	}
 
 	private IPv4AddressCreator getSegmentCreator() {
@@ -401,6 +489,43 @@ public class IPv4AddressSection extends IPAddressSection implements Iterable<IPv
 		return subtract(this, other, getAddressCreator(), this::getSegment, (section, prefix) -> section.applyPrefixLength(prefix));
 	}
 	
+	/**
+	 * Merges this section with the given sections into the minimal list of prefix blocks that cover the same values, in increasing order.
+	 * <p>
+	 * The sections can be single values, prefix blocks, or sections with ranges of segment values, and can overlap.
+	 * Each of the resulting sections has a prefix length, so single values have a prefix length of the bit count.
+	 * 
+	 * @param sections
+	 * @throws AddressTypeException if the sections do not have the same number of segments
+	 * @return the prefix blocks
+	 */
+	public IPv4AddressSection[] mergeToPrefixBlocks(IPv4AddressSection... sections) throws AddressTypeException {
+		return mergeToPrefixBlocks(this, sections, getAddressCreator());
+	}
+	
+	/**
+	 * Produces the minimal list of prefix blocks that span from the lowest value of this and the given section to the highest value of the two, in increasing order.
+	 * 
+	 * @param other
+	 * @throws AddressTypeException if the sections do not have the same number of segments
+	 * @return the prefix blocks, each with a prefix length
+	 */
+	public IPv4AddressSection[] spanWithPrefixBlocks(IPv4AddressSection other) throws AddressTypeException {
+		return spanWithPrefixBlocks(this, other, getAddressCreator());
+	}
+	
+	/**
+	 * Produces the minimal list of sequential blocks, blocks like 1.2.3-5.* in which the segments following a range are full ranges,
+	 * that span from the lowest value of this and the given section to the highest value of the two, in increasing order.
+	 * 
+	 * @param other
+	 * @throws AddressTypeException if the sections do not have the same number of segments
+	 * @return the sequential blocks
+	 */
+	public IPv4AddressSection[] spanWithSequentialBlocks(IPv4AddressSection other) throws AddressTypeException {
+		return spanWithSequentialBlocks(this, other, getAddressCreator());
+	}
+	
 	@Override
 	public int getByteIndex(int networkPrefixLength) {
 		return getByteIndex(networkPrefixLength, IPv4Address.BYTE_COUNT);
@@ -531,12 +656,7 @@ public class IPv4AddressSection extends IPAddressSection implements Iterable<IPv
 	@Override
 	protected boolean hasNoStringCache() {
 		if(stringCache == null) {
-			synchronized(this) {
-				if(stringCache == null) {
-					stringCache = new IPv4StringCache();
-					return true;
-				}
-			}
+			return stringCacheUpdater.compareAndSet(this, null, new IPv4StringCache());
 		}
 		return false;
 	}
@@ -558,6 +678,20 @@ public class IPv4AddressSection extends IPAddressSection implements Iterable<IPv
 		return result;
 	}
 
+	@Override
+	public StringBuilder appendCanonicalString(StringBuilder builder) {
+		String result;
+		if(hasNoStringCache() || (result = stringCache.canonicalString) == null) {
+			return appendNormalizedString(IPv4StringCache.canonicalParams, builder);
+		}
+		return builder.append(result);
+	}
+	
+	@Override
+	public StringBuilder appendCompressedString(StringBuilder builder) {
+		return appendCanonicalString(builder);
+	}
+
 	/**
 	 * This produces a string with no compressed segments and all segments of full length,
 	 * which is 3 characters for IPv4 segments.
@@ -0,0 +1,322 @@
+/*
+ * Copyright 2017 Sean C Foley
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     or at
+ *     https://github.com/seancfoley/IPAddress/blob/master/LICENSE
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package inet.ipaddr.ipv6;
+
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.util.Objects;
+
+import inet.ipaddr.Address;
+import inet.ipaddr.AddressTypeException;
+import inet.ipaddr.IPAddress.IPVersion;
+import inet.ipaddr.format.util.SequentialRanges;
+
+/**
+ * An immutable IPv6 address, or prefix block of IPv6 addresses, stored as two longs, a prefix length and a zone.
+ * <p>
+ * An {@link IPv6Address} holds a section and an array of eight segment objects, in addition to cached values,
+ * while an instance of this class is a single small object, suited to storing large numbers of addresses.
+ * <p>
+ * The equivalent {@link IPv6Address} is created by {@link #toAddress()}, and the segments by {@link #getSegment(int)} and {@link #getSegments()}.
+ * These are created on each call and not retained, so callers that use them repeatedly should keep the {@link IPv6Address}.
+ * Conversions in both directions are also available from {@link IPv6AddressNetwork.IPv6AddressCreator}.
+ * The string methods also create the address, and produce the same strings as the equivalent address.
+ * <p>
+ * As with {@link IPv6Address}, a prefix length denotes the block of all addresses with the same prefix,
+ * and two instances are equal when they are the same address or block with the same zone, regardless of whether the prefix length is the full bit count.
+ *
+ * @author sfoley
+ *
+ */
+public final class CompactIPv6Address implements Comparable<CompactIPv6Address>, Serializable {
+
+	private static final long serialVersionUID = 3L;
+
+	private final long highBits, lowBits;
+	private final short networkPrefixLength; //-1 when there is no prefix length, a short since 128 does not fit a byte
+	private final String zone; //null when there is no zone
+
+	/**
+	 * Constructs an IPv6 address or prefix block.
+	 *
+	 * @param highBits the high 64 bits of the address
+	 * @param lowBits the low 64 bits of the address
+	 * @param networkPrefixLength the prefix length, or null for a single address
+	 * @param zone the zone, or null for no zone
+	 * @throws AddressTypeException if the prefix length is negative or exceeds the address bit count
+	 */
+	public CompactIPv6Address(long highBits, long lowBits, Integer networkPrefixLength, CharSequence zone) throws AddressTypeException {
+		if(networkPrefixLength == null) {
+			this.highBits = highBits;
+			this.lowBits = lowBits;
+			this.networkPrefixLength = -1;
+		} else {
+			int prefix = networkPrefixLength;
+			if(prefix < 0 || prefix > IPv6Address.BIT_COUNT) {
+				throw new AddressTypeException(prefix, IPVersion.IPV6, "ipaddress.error.prefixSize");
+			}
+			this.highBits = highBits & getHighNetworkMask(prefix);
+			this.lowBits = lowBits & getLowNetworkMask(prefix);
+			this.networkPrefixLength = (short) prefix;
+		}
+		this.zone = (zone == null || zone.length() == 0) ? null : zone.toString();
+	}
+
+	public CompactIPv6Address(long highBits, long lowBits) {
+		this(highBits, lowBits, null, null);
+	}
+
+	/**
+	 * Constructs the compact form of the given address.
+	 *
+	 * @param address a single address, or a prefix block with the same prefix length as the address
+	 * @throws AddressTypeException if the address is a range of values that is not the prefix block of its prefix length
+	 */
+	public CompactIPv6Address(IPv6Address address) throws AddressTypeException {
+		this(address.getHighBits(), address.getLowBits(), address.getNetworkPrefixLength(), address.getZone());
+		if(address.isMultiple()) {
+			if(getUpperHighBits() != address.getUpperHighBits() || getUpperLowBits() != address.getUpperLowBits()) {
+				throw new AddressTypeException(address, "ipaddress.error.notPrefixBlock");
+			}
+		}
+	}
+
+	private static long getHighNetworkMask(int networkPrefixLength) {
+		return networkPrefixLength == 0 ? 0 : (networkPrefixLength >= Long.SIZE ? -1L : -1L << (Long.SIZE - networkPrefixLength));
+	}
+
+	private static long getLowNetworkMask(int networkPrefixLength) {
+		return networkPrefixLength <= Long.SIZE ? 0 : -1L << (IPv6Address.BIT_COUNT - networkPrefixLength);
+	}
+
+	private int getEffectivePrefixLength() {
+		return networkPrefixLength < 0 ? IPv6Address.BIT_COUNT : networkPrefixLength;
+	}
+
+	/**
+	 * @return the high 64 bits of the lowest address, which is the network address for a prefix block
+	 */
+	public long getHighBits() {
+		return highBits;
+	}
+
+	/**
+	 * @return the low 64 bits of the lowest address, which is the network address for a prefix block
+	 */
+	public long getLowBits() {
+		return lowBits;
+	}
+
+	/**
+	 * @return the high 64 bits of the highest address
+	 */
+	public long getUpperHighBits() {
+		return highBits | ~getHighNetworkMask(getEffectivePrefixLength());
+	}
+
+	/**
+	 * @return the low 64 bits of the highest address
+	 */
+	public long getUpperLowBits() {
+		return lowBits | ~getLowNetworkMask(getEffectivePrefixLength());
+	}
+
+	public Integer getNetworkPrefixLength() {
+		return networkPrefixLength < 0 ? null : Integer.valueOf(networkPrefixLength);
+	}
+
+	public boolean isPrefixed() {
+		return networkPrefixLength >= 0;
+	}
+
+	public boolean hasZone() {
+		return zone != null;
+	}
+
+	/**
+	 * @return the zone, or null if there is none
+	 */
+	public String getZone() {
+		return zone;
+	}
+
+	/**
+	 * @return whether this represents more than one address
+	 */
+	public boolean isMultiple() {
+		return getEffectivePrefixLength() < IPv6Address.BIT_COUNT;
+	}
+
+	/**
+	 * @return the number of addresses
+	 */
+	public BigInteger getCount() {
+		return BigInteger.ONE.shiftLeft(IPv6Address.BIT_COUNT - getEffectivePrefixLength());
+	}
+
+	/**
+	 * @param highBits
+	 * @param lowBits
+	 * @return whether the address with the given value, and with no zone or the same zone as this, is contained by this address or block
+	 */
+	public boolean contains(long highBits, long lowBits) {
+		return SequentialRanges.compareUnsigned(highBits, lowBits, this.highBits, this.lowBits) >= 0 &&
+				SequentialRanges.compareUnsigned(highBits, lowBits, getUpperHighBits(), getUpperLowBits()) <= 0;
+	}
+
+	/**
+	 * As with {@link IPv6Address#contains(inet.ipaddr.IPAddress)}, the zones must match.
+	 *
+	 * @param other
+	 * @return
+	 */
+	public boolean contains(CompactIPv6Address other) {
+		return Objects.equals(zone, other.zone) && contains(other.highBits, other.lowBits) && contains(other.getUpperHighBits(), other.getUpperLowBits());
+	}
+
+	public int getSegmentCount() {
+		return IPv6Address.SEGMENT_COUNT;
+	}
+
+	/**
+	 * Creates the segment at the given index.
+	 *
+	 * @param index
+	 * @return
+	 */
+	public IPv6AddressSegment getSegment(int index) {
+		return toAddress().getSegment(index);
+	}
+
+	/**
+	 * Creates the segments.
+	 *
+	 * @return
+	 */
+	public IPv6AddressSegment[] getSegments() {
+		return toAddress().getSegments();
+	}
+
+	/**
+	 * @return the bytes of the lowest address
+	 */
+	public byte[] getBytes() {
+		byte bytes[] = new byte[IPv6Address.BYTE_COUNT];
+		for(int i = 0; i < Long.BYTES; i++) {
+			int shift = (Long.BYTES - i - 1) << 3;
+			bytes[i] = (byte) (highBits >>> shift);
+			bytes[i + Long.BYTES] = (byte) (lowBits >>> shift);
+		}
+		return bytes;
+	}
+
+	/**
+	 * Applies the given mask to this address, producing the same address or block as {@link IPv6Address#mask(inet.ipaddr.IPAddress)}.
+	 *
+	 * @param mask
+	 * @return
+	 * @throws AddressTypeException if the masked block cannot be represented
+	 */
+	public CompactIPv6Address mask(CompactIPv6Address mask) throws AddressTypeException {
+		if(!isPrefixed() && !mask.isPrefixed()) {
+			return new CompactIPv6Address(highBits & mask.highBits, lowBits & mask.lowBits, null, zone);
+		}
+		return new CompactIPv6Address(toAddress().mask(mask.toAddress()));
+	}
+
+	/**
+	 * Creates the equivalent {@link IPv6Address}.
+	 *
+	 * @return
+	 */
+	public IPv6Address toAddress() {
+		return IPv6Address.network().getAddressCreator().createAddress(this);
+	}
+
+	/**
+	 * Orders as {@link Address#addressComparator} orders the equivalent addresses, single addresses before larger blocks, and then by value, and then by zone.
+	 */
+	@Override
+	public int compareTo(CompactIPv6Address other) {
+		int result = other.getEffectivePrefixLength() - getEffectivePrefixLength();
+		if(result == 0) {
+			result = SequentialRanges.compareUnsigned(highBits, lowBits, other.highBits, other.lowBits);
+			if(result == 0) {
+				result = (zone == null) ? (other.zone == null ? 0 : -1) : (other.zone == null ? 1 : zone.compareTo(other.zone));
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if(o == this) {
+			return true;
+		}
+		if(o instanceof CompactIPv6Address) {
+			CompactIPv6Address other = (CompactIPv6Address) o;
+			return highBits == other.highBits && lowBits == other.lowBits &&
+					getEffectivePrefixLength() == other.getEffectivePrefixLength() && Objects.equals(zone, other.zone);
+		}
+		return false;
+	}
+
+	@Override
+	public int hashCode() {
+		int result = Long.hashCode(highBits) * 31 + Long.hashCode(lowBits);
+		result = result * 31 + getEffectivePrefixLength();
+		if(zone != null) {
+			result = result * 31 + zone.hashCode();
+		}
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return toAddress().toString();
+	}
+
+	public String toCanonicalString() {
+		return toAddress().toCanonicalString();
+	}
+
+	public String toNormalizedString() {
+		return toAddress().toNormalizedString();
+	}
+
+	public String toCompressedString() {
+		return toAddress().toCompressedString();
+	}
+
+	public String toFullString() {
+		return toAddress().toFullString();
+	}
+
+	public String toMixedString() {
+		return toAddress().toMixedString();
+	}
+
+	public String toSubnetString() {
+		return toAddress().toSubnetString();
+	}
+
+	public String toPrefixLengthString() {
+		return toAddress().toPrefixLengthString();
+	}
+}
@@ -22,6 +22,10 @@ import java.net.Inet6Address;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import inet.ipaddr.AddressTypeException;
 import inet.ipaddr.IPAddress;
@@ -100,7 +104,10 @@ public class IPv6Address extends IPAddress implements Iterable<IPv6Address> {
 	 */
 	private final String zone;
 
-	private transient IPv6StringCache stringCache;
+	private transient volatile IPv6StringCache stringCache;
+	
+	private static final AtomicReferenceFieldUpdater<IPv6Address, IPv6StringCache> stringCacheUpdater = 
+			AtomicReferenceFieldUpdater.newUpdater(IPv6Address.class, IPv6StringCache.class, "stringCache");
 	
 	transient AddressCache sectionCache;
 
@@ -577,6 +584,64 @@ public class IPv6Address extends IPAddress implements Iterable<IPv6Address> {
 		return getSection().iterator(this, getCreator());
 	}
 	
+	@Override
+	public Spliterator<IPv6Address> spliterator() {
+		return getSection().spliterator(this, getCreator());
+	}
+	
+	@Override
+	public Stream<IPv6Address> stream() {
+		return StreamSupport.stream(spliterator(), false);
+	}
+	
+	@Override
+	public Stream<IPv6Address> parallelStream() {
+		return StreamSupport.stream(spliterator(), true);
+	}
+	
+	/**
+	 * Provides a cursor through the individual values of this address or subnet, in the same order as {@link #iterator()},
+	 * which provides each value as two longs, and which creates no objects while moving through the values.
+	 * 
+	 * @return
+	 */
+	public IPv6AddressCursor cursor() {
+		return new IPv6AddressCursor(this);
+	}
+	
+	/**
+	 * @return the high 64 bits of the lowest address value
+	 */
+	public long getHighBits() {
+		return getSection().getHighBits();
+	}
+	
+	/**
+	 * @return the low 64 bits of the lowest address value
+	 */
+	public long getLowBits() {
+		return getSection().getLowBits();
+	}
+	
+	/**
+	 * @return the high 64 bits of the highest address value
+	 */
+	public long getUpperHighBits() {
+		return getSection().getUpperHighBits();
+	}
+	
+	/**
+	 * @return the low 64 bits of the highest address value
+	 */
+	public long getUpperLowBits() {
+		return getSection().getUpperLowBits();
+	}
+	
+	@Override
+	public Iterator<IPv6Address> prefixBlockIterator(int prefixLength) throws AddressTypeException {
+		return getSection().prefixBlockIterator(this, getCreator(), prefixLength);
+	}
+	
 	@Override
 	public Iterable<IPv6Address> getIterable() {
 		return this;
@@ -849,6 +914,40 @@ public class IPv6Address extends IPAddress implements Iterable<IPv6Address> {
 		}
 		return result;
 	}
+	
+	@Override
+	public IPv6Address[] mergeToPrefixBlocks(IPAddress... addresses) throws AddressTypeException {
+		IPv6AddressSection sections[] = new IPv6AddressSection[addresses.length];
+		for(int i = 0; i < addresses.length; i++) {
+			sections[i] = convertArg(addresses[i]).getSection();
+		}
+		IPv6AddressSection blocks[] = getSection().mergeToPrefixBlocks(sections);
+		IPv6AddressCreator creator = network().getAddressCreator();
+		IPv6Address result[] = new IPv6Address[blocks.length];
+		for(int i = 0; i < result.length; i++) {
+			result[i] = creator.createAddress(blocks[i], zone); /* address creation */
+		}
+		return result;
+	}
+	
+	@Override
+	public IPv6Address[] spanWithPrefixBlocks(IPAddress other) throws AddressTypeException {
+		return toAddresses(getSection().spanWithPrefixBlocks(convertArg(other).getSection()));
+	}
+	
+	@Override
+	public IPv6Address[] spanWithSequentialBlocks(IPAddress other) throws AddressTypeException {
+		return toAddresses(getSection().spanWithSequentialBlocks(convertArg(other).getSection()));
+	}
+	
+	private IPv6Address[] toAddresses(IPv6AddressSection sections[]) {
+		IPv6AddressCreator creator = network().getAddressCreator();
+		IPv6Address result[] = new IPv6Address[sections.length];
+		for(int i = 0; i < result.length; i++) {
+			result[i] = creator.createAddress(sections[i], zone); /* address creation */
+		}
+		return result;
+	}
 
 	private IPv6Address checkIdentity(IPv6AddressSection newSection) {
 		if(newSection == getSection()) {
@@ -1047,20 +1146,14 @@ public class IPv6Address extends IPAddress implements Iterable<IPv6Address> {
 	
 	private boolean hasNoStringCache() {
 		if(stringCache == null) {
-			synchronized(this) {
-				if(stringCache == null) {
-					if(hasZone()) {
-						stringCache = new IPv6StringCache();
-					} else {
-						//when there is no zone, the section and address strings are the same, so we use the same cache
-						IPv6AddressSection section = getSection();
-						boolean result = section.hasNoStringCache();
-						stringCache = section.getStringCache();
-						return result;
-					}
-					return true;
-				}
+			if(hasZone()) {
+				return stringCacheUpdater.compareAndSet(this, null, new IPv6StringCache());
 			}
+			//when there is no zone, the section and address strings are the same, so we use the same cache
+			IPv6AddressSection section = getSection();
+			boolean result = section.hasNoStringCache();
+			stringCacheUpdater.compareAndSet(this, null, section.getStringCache());
+			return result;
 		}
 		return false;
 	}
@@ -1299,6 +1392,35 @@ public class IPv6Address extends IPAddress implements Iterable<IPv6Address> {
 	public String toNormalizedString(IPv6StringOptions params) {
 		return getSection().toNormalizedString(params, zone);
 	}
+	
+	@Override
+	public StringBuilder appendNormalizedString(IPStringOptions params, StringBuilder builder) {
+		return getSection().appendNormalizedString(params, zone, builder);
+	}
+	
+	@Override
+	public StringBuilder appendCanonicalString(StringBuilder builder) {
+		String result;
+		if(hasNoStringCache() || (result = stringCache.canonicalString) == null) {
+			if(hasZone()) {
+				return getSection().appendNormalizedString(IPv6StringCache.canonicalParams, zone, builder);
+			}
+			return getSection().appendCanonicalString(builder);
+		}
+		return builder.append(result);
+	}
+	
+	@Override
+	public StringBuilder appendCompressedString(StringBuilder builder) {
+		String result;
+		if(hasNoStringCache() || (result = stringCache.compressedString) == null) {
+			if(hasZone()) {
+				return getSection().appendNormalizedString(IPv6StringCache.compressedParams, zone, builder);
+			}
+			return getSection().appendCompressedString(builder);
+		}
+		return builder.append(result);
+	}
 
 	/**
 	 * Constructs a string representing this address according to the given parameters
@@ -1390,4 +1512,9 @@ public class IPv6Address extends IPAddress implements Iterable<IPv6Address> {
 	public Iterator<IPv6AddressSegment[]> segmentsIterator() {
 		return getSection().segmentsIterator();
 	}
+	
+	@Override
+	public Spliterator<IPv6AddressSegment[]> segmentsSpliterator() {
+		return getSection().segmentsSpliterator();
+	}
 }
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2017 Sean C Foley
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     or at
+ *     https://github.com/seancfoley/IPAddress/blob/master/LICENSE
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package inet.ipaddr.ipv6;
+
+import inet.ipaddr.format.AddressCursor;
+
+/**
+ * A cursor through the individual values of an IPv6 address or subnet, providing each value as two longs.
+ * The zone of the address or subnet is applied to each created address.
+ * 
+ * @see AddressCursor
+ * @see IPv6Address#cursor()
+ * @author sfoley
+ *
+ */
+public class IPv6AddressCursor extends AddressCursor {
+	
+	private static final int HALF_SEGMENT_COUNT = IPv6Address.SEGMENT_COUNT >>> 1;
+	
+	private final String zone;
+	
+	public IPv6AddressCursor(IPv6Address address) {
+		super(address);
+		zone = address.getZone();
+	}
+	
+	/**
+	 * @throws java.util.NoSuchElementException if the cursor is not positioned at a value
+	 * @return the high 64 bits of the current value
+	 */
+	public long getHighBits() {
+		checkValue();
+		return getBits(0, HALF_SEGMENT_COUNT, IPv6Address.BITS_PER_SEGMENT);
+	}
+	
+	/**
+	 * @throws java.util.NoSuchElementException if the cursor is not positioned at a value
+	 * @return the low 64 bits of the current value
+	 */
+	public long getLowBits() {
+		checkValue();
+		return getBits(HALF_SEGMENT_COUNT, IPv6Address.SEGMENT_COUNT, IPv6Address.BITS_PER_SEGMENT);
+	}
+	
+	public CompactIPv6Address toCompactAddress() {
+		return new CompactIPv6Address(getHighBits(), getLowBits(), null, zone);
+	}
+	
+	@Override
+	public IPv6Address toAddress() {
+		checkValue();
+		return new IPv6Address((segmentIndex, segmentByteCount) -> getSegmentValue(segmentIndex), null, zone);
+	}
+}
@@ -18,13 +18,18 @@
 
 package inet.ipaddr.ipv6;
 
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
 import inet.ipaddr.Address.SegmentValueProvider;
+import inet.ipaddr.AddressStringException;
 import inet.ipaddr.HostIdentifierString;
 import inet.ipaddr.IPAddress.IPVersion;
+import inet.ipaddr.IPAddressString;
+import inet.ipaddr.IPAddressStringParameters;
 import inet.ipaddr.IPAddressTypeNetwork;
+import inet.ipaddr.format.validate.IPAddressParser;
 import inet.ipaddr.ipv4.IPv4AddressSection;
 import inet.ipaddr.mac.MACAddress;
 import inet.ipaddr.mac.MACAddressSection;
@@ -41,14 +46,67 @@ public class IPv6AddressNetwork extends IPAddressTypeNetwork<IPv6Address, IPv6Ad
 	public static class IPv6AddressCreator extends IPAddressCreator<IPv6Address, IPv6AddressSection, IPv4AddressSection, IPv6AddressSegment> {
 		static boolean CACHE_SEGMENTS_BY_PREFIX = true;
 		
+		//The caches are populated lazily, each block and each element written at most once with compareAndSet,
+		//so that segments are safely published to other threads and all threads use the same instance for a given value.
+		//Reading a populated element is two volatile reads, with no locking.
+		
 		//there are 0x10000 (ie 0xffff + 1) possible segment values in IPv6.  We break the cache into 0x100 blocks of size 0x100
-		private static IPv6AddressSegment segmentCache[][] = new IPv6AddressSegment[((2 * IPv6Address.MAX_VALUE_PER_SEGMENT) - 1) / 0x100][];
+		private static final AtomicReferenceArray<AtomicReferenceArray<IPv6AddressSegment>> segmentCache = 
+				new AtomicReferenceArray<AtomicReferenceArray<IPv6AddressSegment>>((IPv6Address.MAX_VALUE_PER_SEGMENT + 1) >>> 8);
 		
 		//we maintain a similar cache for each potential prefixed segment.  
-		//Note that there are 2 to the n possible values for prefix n
-		//We break up that number into blocks of size 0x100
-		private static IPv6AddressSegment segmentPrefixCache[][][] = new IPv6AddressSegment[IPv6Address.BITS_PER_SEGMENT][][];
-		private static IPv6AddressSegment allPrefixedCache[] = new IPv6AddressSegment[IPv6Address.BITS_PER_SEGMENT];
+		//Note that there are 2 to the n possible values for prefix n, so the cache for prefix n starts at index (2 to the n) - 2
+		//We break up the cache into blocks of size 0x100
+		private static final AtomicReferenceArray<AtomicReferenceArray<IPv6AddressSegment>> segmentPrefixCache = 
+				new AtomicReferenceArray<AtomicReferenceArray<IPv6AddressSegment>>(((2 << IPv6Address.BITS_PER_SEGMENT) - 2 + 0xff) >>> 8);
+		private static final AtomicReferenceArray<IPv6AddressSegment> allPrefixedCache = new AtomicReferenceArray<IPv6AddressSegment>(IPv6Address.BITS_PER_SEGMENT);
+		
+		private static IPv6AddressSegment getCachedSegment(AtomicReferenceArray<AtomicReferenceArray<IPv6AddressSegment>> cache, int index) {
+			AtomicReferenceArray<IPv6AddressSegment> block = cache.get(index >>> 8); // divide by 0x100
+			return block == null ? null : block.get(index & 0xff); // mod 0x100
+		}
+		
+		private static IPv6AddressSegment cacheBlockSegment(AtomicReferenceArray<AtomicReferenceArray<IPv6AddressSegment>> cache, int index, IPv6AddressSegment segment) {
+			int blockIndex = index >>> 8;
+			AtomicReferenceArray<IPv6AddressSegment> block = cache.get(blockIndex);
+			if(block == null) {
+				block = new AtomicReferenceArray<IPv6AddressSegment>(0x100);
+				if(!cache.compareAndSet(blockIndex, null, block)) {
+					block = cache.get(blockIndex);
+				}
+			}
+			return cacheSegment(block, index & 0xff, segment);
+		}
+		
+		private static IPv6AddressSegment cacheSegment(AtomicReferenceArray<IPv6AddressSegment> cache, int index, IPv6AddressSegment segment) {
+			if(cache.compareAndSet(index, null, segment)) {
+				return segment;
+			}
+			return cache.get(index);
+		}
+		
+		/**
+		 * Populates the segment caches, which are otherwise populated as segments are created.
+		 * Call this at startup to avoid the cost of populating the caches when addresses are first created.
+		 * 
+		 * @param prefixed whether to also populate the caches of prefixed segments, 
+		 * 	which hold 131070 segments in addition to the 65536 segments with no prefix
+		 */
+		public static void preloadSegmentCaches(boolean prefixed) {
+			IPv6AddressCreator creator = IPv6Address.network().getAddressCreator();
+			for(int i = 0; i <= IPv6Address.MAX_VALUE_PER_SEGMENT; i++) {
+				creator.createSegment(i);
+			}
+			if(prefixed && CACHE_SEGMENTS_BY_PREFIX) {
+				int bitsPerSegment = IPv6Address.BITS_PER_SEGMENT;
+				for(int prefix = 1; prefix <= bitsPerSegment; prefix++) {
+					for(int i = 0, count = 1 << prefix; i < count; i++) {
+						creator.createSegment(i << (bitsPerSegment - prefix), prefix);
+					}
+					creator.createSegment(0, IPv6Address.network().getSegmentNetworkMask(prefix), prefix);
+				}
+			}
+		}
 
 		@Override
 		public IPv6AddressSegment[] createSegmentArray(int length) {
@@ -60,19 +118,10 @@ public class IPv6AddressNetwork extends IPAddressTypeNetwork<IPv6Address, IPv6Ad
 		
 		@Override
 		public IPv6AddressSegment createSegment(int value) {
-			IPv6AddressSegment cache[][] = segmentCache;
-			int blockIndex = value >>> 8; // divide by 0x100
-			int resultIndex = value - (blockIndex << 8); // mod 0x100
-			IPv6AddressSegment block[] = cache[blockIndex];
-			IPv6AddressSegment result;
-			if(block == null) {
-				cache[blockIndex] = block = new IPv6AddressSegment[0x100];
-				result = block[resultIndex] = new IPv6AddressSegment(value);
-			} else {
-				result = block[resultIndex];
-				if(result == null) {
-					result = block[resultIndex] = new IPv6AddressSegment(value);
-				}
+			AtomicReferenceArray<AtomicReferenceArray<IPv6AddressSegment>> cache = segmentCache;
+			IPv6AddressSegment result = getCachedSegment(cache, value);
+			if(result == null) {
+				result = cacheBlockSegment(cache, value, new IPv6AddressSegment(value));
 			}
 			return result;
 		}
@@ -92,39 +141,12 @@ public class IPv6AddressNetwork extends IPAddressTypeNetwork<IPv6Address, IPv6Ad
 				}
 				int mask = IPv6Address.network().getSegmentNetworkMask(segmentPrefixLength);
 				value &= mask;
-				int prefixIndex = segmentPrefixLength - 1;
 				int valueIndex = value >>> (bitsPerSegment - segmentPrefixLength);
-				
-				IPv6AddressSegment cache[][][] = segmentPrefixCache;
-				IPv6AddressSegment prefixCache[][] = cache[prefixIndex];
-				IPv6AddressSegment block[] = null;
-				IPv6AddressSegment result = null;
-				int blockIndex = valueIndex >>> 8; // divide by 0x100
-				int resultIndex = valueIndex - (blockIndex << 8); // mod 0x100
-				boolean blockExists = false, resultExists = false;
-				if(prefixCache == null) {
-					int prefixCacheSize = 1 << segmentPrefixLength;//number of possible values for segmentPrefix
-					cache[prefixIndex] = new IPv6AddressSegment[(prefixCacheSize + 0x100 - 1) >>> 8][];
-				} else {
-					block = cache[prefixIndex][blockIndex];
-					blockExists = (block != null);
-					if(blockExists) {
-						result = block[resultIndex];
-						resultExists = (result != null);
-					}
-				}
-				if(!blockExists) {
-					int prefixCacheSize = 1 << segmentPrefixLength;
-					int highestIndex = prefixCacheSize >>> 8; // divide by 0x100
-					if(valueIndex >>> 8 == highestIndex) { //final block: only use an array as large as we need
-						block = new IPv6AddressSegment[prefixCacheSize - (highestIndex << 8)]; // mod 0x100
-					} else { //all other blocks are size 0x100
-						block = new IPv6AddressSegment[0x100];
-					}
-					cache[prefixIndex][blockIndex] = block;
-				}
-				if(!resultExists) {
-					result = block[resultIndex] = new IPv6AddressSegment(value, segmentPrefixLength);
+				int cacheIndex = (1 << segmentPrefixLength) - 2 + valueIndex;
+				AtomicReferenceArray<AtomicReferenceArray<IPv6AddressSegment>> cache = segmentPrefixCache;
+				IPv6AddressSegment result = getCachedSegment(cache, cacheIndex);
+				if(result == null) {
+					result = cacheBlockSegment(cache, cacheIndex, new IPv6AddressSegment(value, segmentPrefixLength));
 				}
 				return result;
 			}
@@ -154,10 +176,10 @@ public class IPv6AddressNetwork extends IPAddressTypeNetwork<IPv6Address, IPv6Ad
 					if(lower == 0 && upper == mask) {
 						//cache */26 type segments
 						int prefixIndex = segmentPrefixLength - 1;
-						IPv6AddressSegment cache[] = allPrefixedCache;
-						IPv6AddressSegment result = cache[prefixIndex];
+						AtomicReferenceArray<IPv6AddressSegment> cache = allPrefixedCache;
+						IPv6AddressSegment result = cache.get(prefixIndex);
 						if(result == null) {
-							cache[prefixIndex] = result = new IPv6AddressSegment(0, IPv6Address.MAX_VALUE_PER_SEGMENT, segmentPrefixLength);
+							result = cacheSegment(cache, prefixIndex, new IPv6AddressSegment(0, IPv6Address.MAX_VALUE_PER_SEGMENT, segmentPrefixLength));
 						}
 						return result;
 					}
@@ -262,6 +284,39 @@ public class IPv6AddressNetwork extends IPAddressTypeNetwork<IPv6Address, IPv6Ad
 			return new IPv6Address(section, eui);
 		}
 		
+		/**
+		 * Creates the {@link IPv6Address} equivalent to the given compact address, materialising the segments from the two long values.
+		 */
+		public IPv6Address createAddress(CompactIPv6Address address) {
+			return createAddress(address.getHighBits(), address.getLowBits(), address.getNetworkPrefixLength(), address.getZone());
+		}
+		
+		/**
+		 * Creates the address with the given value, the high 64 bits followed by the low 64 bits.
+		 * 
+		 * @param highBits
+		 * @param lowBits
+		 * @param prefix the prefix length, or null for no prefix
+		 * @param zone the zone, or null for no zone
+		 * @return
+		 */
+		public IPv6Address createAddress(long highBits, long lowBits, Integer prefix, CharSequence zone) {
+			SegmentValueProvider valueProvider = (segmentIndex, segmentByteCount) -> {
+				int halfCount = IPv6Address.SEGMENT_COUNT >>> 1;
+				long bits = segmentIndex < halfCount ? highBits : lowBits;
+				return (int) (bits >>> ((halfCount - (segmentIndex % halfCount) - 1) * IPv6Address.BITS_PER_SEGMENT)) & IPv6Address.MAX_VALUE_PER_SEGMENT;
+			};
+			return createAddress(createSection(valueProvider, null, prefix), zone);
+		}
+		
+		public CompactIPv6Address createCompactAddress(long highBits, long lowBits, Integer prefix, CharSequence zone) {
+			return new CompactIPv6Address(highBits, lowBits, prefix, zone);
+		}
+		
+		public CompactIPv6Address createCompactAddress(IPv6Address address) {
+			return new CompactIPv6Address(address);
+		}
+		
 	};
 
 	IPv6AddressNetwork() {
@@ -307,4 +362,25 @@ public class IPv6AddressNetwork extends IPAddressTypeNetwork<IPv6Address, IPv6Ad
 	public IPVersion getIPVersion() {
 		return IPVersion.IPV6;
 	}
+	
+	/**
+	 * Parses the string as an IPv6 address using the given validation options, and provides the address value as two longs,
+	 * without creating an {@link IPAddressString} or any address, section or segment objects.
+	 * <p>
+	 * The string is validated exactly as with {@link IPAddressString#toAddress()}, and leading and trailing whitespace is ignored just as it is by {@link IPAddressString}.
+	 * Any prefix length, mask or zone is validated and then ignored, so 1::2/64 produces the value of 1::2, the same as {@link IPAddressString#toHostAddress()}.
+	 * 
+	 * @param str
+	 * @param validationOptions
+	 * @param values an array of length at least 2 in which the value is stored, or null to allocate a new array
+	 * @throws AddressStringException if the string is invalid, or is not a single IPv6 address, such as an IPv4 address, a range of addresses, or the empty string
+	 * @return the array holding the high 64 bits of the address at index 0 and the low 64 bits at index 1
+	 */
+	public static long[] parseValue(CharSequence str, IPAddressStringParameters validationOptions, long values[]) throws AddressStringException {
+		if(values == null) {
+			values = new long[2];
+		}
+		IPAddressParser.getThreadParser().parseIPv6Value(str, validationOptions, values);
+		return values;
+	}
 }
@@ -22,6 +22,10 @@ import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import inet.ipaddr.Address;
 import inet.ipaddr.Address.SegmentValueProvider;
@@ -148,12 +152,19 @@ public class IPv6AddressSection extends IPAddressSection implements Iterable<IPv
 	
 	static class AddressCache extends SectionCache<IPv6Address> {}
 
-	private transient IPv6StringCache stringCache;
+	private transient volatile IPv6StringCache stringCache;
 	
 	private transient SectionCache<IPv6AddressSection> sectionCache;
 	
-	transient IPv4AddressSection embeddedIPv4Section;//the lowest 4 bytes as IPv4
-	transient IPv6v4MixedAddressSection defaultMixedAddressSection;
+	transient volatile IPv4AddressSection embeddedIPv4Section;//the lowest 4 bytes as IPv4
+	transient volatile IPv6v4MixedAddressSection defaultMixedAddressSection;
+	
+	private static final AtomicReferenceFieldUpdater<IPv6AddressSection, IPv6StringCache> stringCacheUpdater = 
+			AtomicReferenceFieldUpdater.newUpdater(IPv6AddressSection.class, IPv6StringCache.class, "stringCache");
+	private static final AtomicReferenceFieldUpdater<IPv6AddressSection, IPv4AddressSection> embeddedIPv4SectionUpdater = 
+			AtomicReferenceFieldUpdater.newUpdater(IPv6AddressSection.class, IPv4AddressSection.class, "embeddedIPv4Section");
+	private static final AtomicReferenceFieldUpdater<IPv6AddressSection, IPv6v4MixedAddressSection> defaultMixedAddressSectionUpdater = 
+			AtomicReferenceFieldUpdater.newUpdater(IPv6AddressSection.class, IPv6v4MixedAddressSection.class, "defaultMixedAddressSection");
 
 	/*
 	 * Indicates the index of the first segment where this section would be located in a full IPv6 address.  0 for network sections or full addresses
@@ -413,6 +424,44 @@ public class IPv6AddressSection extends IPAddressSection implements Iterable<IPv
 		return super.iterator(getSegmentCreator(), () -> getLower().getSegments(), index -> getSegment(index).iterator());
 	}
 	
+	@Override
+	public Spliterator<IPv6AddressSection> spliterator() {
+		return spliterator(!isMultiple() && !isPrefixed(), this, getAddressCreator());
+	}
+	
+	@Override
+	public Stream<IPv6AddressSection> stream() {
+		return StreamSupport.stream(spliterator(), false);
+	}
+	
+	@Override
+	public Stream<IPv6AddressSection> parallelStream() {
+		return StreamSupport.stream(spliterator(), true);
+	}
+	
+	@Override
+	public Spliterator<IPv6AddressSegment[]> segmentsSpliterator() {
+		return super.segmentsSpliterator(getSegmentCreator());
+	}
+	
+	@Override
+	public Iterator<IPv6AddressSection> prefixBlockIterator(int prefixLength) throws AddressTypeException {
+		return iterator(false, this, getAddressCreator(), prefixBlockSegmentsIterator(prefixLength, getSegmentCreator()));
+	}
+	
+	protected Iterator<IPv6Address> prefixBlockIterator(
+			IPv6Address original,
+			AddressCreator<IPv6Address, ?, ?, IPv6AddressSegment> creator,
+			int prefixLength) throws AddressTypeException {
+		return iterator(original, creator, false, prefixBlockSegmentsIterator(prefixLength, creator));
+	}
+	
+	protected Spliterator<IPv6Address> spliterator(
+			IPv6Address original,
+			AddressCreator<IPv6Address, ?, ?, IPv6AddressSegment> creator) {
+		return spliterator(original, creator, !isMultiple() && !isPrefixed());
+	}
+	
 	protected Iterator<IPv6Address> iterator(
 			IPv6Address original,
 			AddressCreator<IPv6Address, ?, ?, IPv6AddressSegment> creator) {
@@ -424,12 +473,59 @@ public class IPv6AddressSection extends IPAddressSection implements Iterable<IPv
 				useOriginal ? null : iterator(creator, () -> (IPv6AddressSegment[]) getLower().divisions, index -> getSegment(index).iterator()));
 	}
 
+	/**
+	 * The value of this section is the segment values joined from the most to the least significant, 
+	 * held in two longs, the low 64 bits taken from the last four segments and the high 64 bits taken from the preceding segments.
+	 * 
+	 * @return the high 64 bits of the lowest value of this section
+	 */
+	public long getHighBits() {
+		return getLongValue(true, true);
+	}
+	
+	/**
+	 * @return the low 64 bits of the lowest value of this section
+	 */
+	public long getLowBits() {
+		return getLongValue(false, true);
+	}
+	
+	/**
+	 * @return the high 64 bits of the highest value of this section
+	 */
+	public long getUpperHighBits() {
+		return getLongValue(true, false);
+	}
+	
+	/**
+	 * @return the low 64 bits of the highest value of this section
+	 */
+	public long getUpperLowBits() {
+		return getLongValue(false, false);
+	}
+	
+	private long getLongValue(boolean high, boolean lower) {
+		int segCount = getSegmentCount();
+		int lowStart = Math.max(0, segCount - (IPv6Address.SEGMENT_COUNT >>> 1));
+		int start = high ? 0 : lowStart, end = high ? lowStart : segCount;
+		long result = 0;
+		for(int i = start; i < end; i++) {
+			IPv6AddressSegment seg = getSegment(i);
+			result = (result << IPv6Address.BITS_PER_SEGMENT) | (lower ? seg.getLowerSegmentValue() : seg.getUpperSegmentValue());
+		}
+		return result;
+	}
+	
 	@Override
 	protected BigInteger getCountImpl() {
 		int segCount = getSegmentCount();
 		if(!isMultiple()) {
 			return BigInteger.ONE;
 		}
+		long longCount = getLongCount();
+		if(longCount >= 0) {
+			return BigInteger.valueOf(longCount);
+		}
 		long result1 = getSegment(0).getValueCount();
 		BigInteger big1 = null;
 		int limit = Math.min(segCount,  3);
@@ -687,25 +783,25 @@ public class IPv6AddressSection extends IPAddressSection implements Iterable<IPv
 	 * @return the embedded IPv4 section or null
 	 */
 	public IPv4AddressSection getEmbeddedIPv4AddressSection() {
-		if(embeddedIPv4Section == null) {
-			synchronized(this) {
-				if(embeddedIPv4Section == null) {
-					int mixedCount = getSegmentCount() - Math.max(IPv6Address.MIXED_ORIGINAL_SEGMENT_COUNT - startIndex, 0);
-					int lastIndex = getSegmentCount() - 1;
-					IPv4AddressCreator creator = IPv4Address.network().getAddressCreator();
-					IPv4AddressSegment[] mixed;
-					if(mixedCount == 0) {
-						mixed = creator.createSegmentArray(0);
-					} else {
-						mixed = (mixedCount == 1) ? 
-							getSegment(lastIndex).split() : 
-							IPv6AddressSegment.split(getSegment(lastIndex - 1), getSegment(lastIndex));
-					}
-					embeddedIPv4Section = createSection(creator, mixed);
-				}
+		IPv4AddressSection result = embeddedIPv4Section;
+		if(result == null) {
+			int mixedCount = getSegmentCount() - Math.max(IPv6Address.MIXED_ORIGINAL_SEGMENT_COUNT - startIndex, 0);
+			int lastIndex = getSegmentCount() - 1;
+			IPv4AddressCreator creator = IPv4Address.network().getAddressCreator();
+			IPv4AddressSegment[] mixed;
+			if(mixedCount == 0) {
+				mixed = creator.createSegmentArray(0);
+			} else {
+				mixed = (mixedCount == 1) ? 
+					getSegment(lastIndex).split() : 
+					IPv6AddressSegment.split(getSegment(lastIndex - 1), getSegment(lastIndex));
+			}
+			result = createSection(creator, mixed);
+			if(!embeddedIPv4SectionUpdater.compareAndSet(this, null, result)) {
+				result = embeddedIPv4Section;
 			}
 		}
-		return embeddedIPv4Section;
+		return result;
 	}
 	
 	public IPv6AddressSection createNonMixedSection() {
@@ -721,16 +817,16 @@ public class IPv6AddressSection extends IPAddressSection implements Iterable<IPv
 	}
 	
 	public IPv6v4MixedAddressSection getMixedAddressSection() {
-		if(defaultMixedAddressSection == null) {
-			synchronized(this) {
-				if(defaultMixedAddressSection == null) {
-					defaultMixedAddressSection = new IPv6v4MixedAddressSection(
-							createNonMixedSection(),
-							getEmbeddedIPv4AddressSection());
-				}
+		IPv6v4MixedAddressSection result = defaultMixedAddressSection;
+		if(result == null) {
+			result = new IPv6v4MixedAddressSection(
+					createNonMixedSection(),
+					getEmbeddedIPv4AddressSection());
+			if(!defaultMixedAddressSectionUpdater.compareAndSet(this, null, result)) {
+				result = defaultMixedAddressSection;
 			}
 		}
-		return defaultMixedAddressSection;
+		return result;
 	}
 	
 	@Override
@@ -868,6 +964,43 @@ public class IPv6AddressSection extends IPAddressSection implements Iterable<IPv
 		return subtract(this, other, getAddressCreator(), this::getSegment, (section, prefix) -> section.applyPrefixLength(prefix));
 	}
 	
+	/**
+	 * Merges this section with the given sections into the minimal list of prefix blocks that cover the same values, in increasing order.
+	 * <p>
+	 * The sections can be single values, prefix blocks, or sections with ranges of segment values, and can overlap.
+	 * Each of the resulting sections has a prefix length, so single values have a prefix length of the bit count.
+	 * 
+	 * @param sections
+	 * @throws AddressTypeException if the sections do not have the same number of segments
+	 * @return the prefix blocks
+	 */
+	public IPv6AddressSection[] mergeToPrefixBlocks(IPv6AddressSection... sections) throws AddressTypeException {
+		return mergeToPrefixBlocks(this, sections, getAddressCreator());
+	}
+	
+	/**
+	 * Produces the minimal list of prefix blocks that span from the lowest value of this and the given section to the highest value of the two, in increasing order.
+	 * 
+	 * @param other
+	 * @throws AddressTypeException if the sections do not have the same number of segments
+	 * @return the prefix blocks, each with a prefix length
+	 */
+	public IPv6AddressSection[] spanWithPrefixBlocks(IPv6AddressSection other) throws AddressTypeException {
+		return spanWithPrefixBlocks(this, other, getAddressCreator());
+	}
+	
+	/**
+	 * Produces the minimal list of sequential blocks, blocks like 1.2.3-5.* in which the segments following a range are full ranges,
+	 * that span from the lowest value of this and the given section to the highest value of the two, in increasing order.
+	 * 
+	 * @param other
+	 * @throws AddressTypeException if the sections do not have the same number of segments
+	 * @return the sequential blocks
+	 */
+	public IPv6AddressSection[] spanWithSequentialBlocks(IPv6AddressSection other) throws AddressTypeException {
+		return spanWithSequentialBlocks(this, other, getAddressCreator());
+	}
+	
 	@Override
 	public int getByteIndex(int networkPrefixLength) {
 		return getByteIndex(networkPrefixLength, IPv6Address.BYTE_COUNT);
@@ -1003,12 +1136,7 @@ public class IPv6AddressSection extends IPAddressSection implements Iterable<IPv
 	@Override
 	protected boolean hasNoStringCache() {
 		if(stringCache == null) {
-			synchronized(this) {
-				if(stringCache == null) {
-					stringCache = new IPv6StringCache();
-					return true;
-				}
-			}
+			return stringCacheUpdater.compareAndSet(this, null, new IPv6StringCache());
 		}
 		return false;
 	}
@@ -1046,6 +1174,24 @@ public class IPv6AddressSection extends IPAddressSection implements Iterable<IPv
 		return result;
 	}
 	
+	@Override
+	public StringBuilder appendCanonicalString(StringBuilder builder) {
+		String result;
+		if(hasNoStringCache() || (result = stringCache.canonicalString) == null) {
+			return appendNormalizedString(IPv6StringCache.canonicalParams, null, builder);
+		}
+		return builder.append(result);
+	}
+	
+	@Override
+	public StringBuilder appendCompressedString(StringBuilder builder) {
+		String result;
+		if(hasNoStringCache() || (result = getStringCache().compressedString) == null) {
+			return appendNormalizedString(IPv6StringCache.compressedParams, null, builder);
+		}
+		return builder.append(result);
+	}
+	
 	/**
 	 * This produces the mixed IPv6/IPv4 string.  It is the shortest such string (ie fully compressed).
 	 */
@@ -1147,6 +1293,22 @@ public class IPv6AddressSection extends IPAddressSection implements Iterable<IPv
 	
 	String toBase85String(String zone) {
 		Integer prefixLength = getNetworkPrefixLength();
+		if(getSegmentCount() == IPv6Address.SEGMENT_COUNT && (prefixLength == null || !isMultiple())) {
+			//no prefix adjustment of a range is required, so we can write the digits directly from the address bits
+			StringBuilder builder = new StringBuilder(BASE_85_DIGIT_COUNT << 1);
+			appendBase85(getHighBits(), getLowBits(), builder);
+			if(isMultiple()) {
+				builder.append(AddressLargeDivision.EXTENDED_DIGITS_RANGE_SEPARATOR);
+				appendBase85(getUpperHighBits(), getUpperLowBits(), builder);
+			}
+			if(zone != null) {
+				builder.append(IPv6Address.ALTERNATIVE_ZONE_SEPARATOR).append(zone);
+			}
+			if(prefixLength != null) {
+				builder.append(IPAddress.PREFIX_LEN_SEPARATOR).append(prefixLength);
+			}
+			return builder.toString();
+		}
 		AddressLargeDivision largeDiv;
 		if(isDualString()) {
 			largeDiv = new AddressLargeDivision(getBytes(), getUpperBytes(), getBitCount(), 85, prefixLength);
@@ -1157,6 +1319,40 @@ public class IPv6AddressSection extends IPAddressSection implements Iterable<IPv
 		return toNormalizedString(IPv6StringCache.base85Params, zone, part);
 	}
 
+	private static final int BASE_85_DIGIT_COUNT = 20;
+	private static final long LOW_32_BITS_MASK = 0xffffffffL;
+
+	/**
+	 * Writes the 20 base 85 digits of the 128 bit value with the given high and low bits.
+	 * The value is divided by 85 in four 32 bit parts so that no intermediate objects are created.
+	 */
+	private static void appendBase85(long highBits, long lowBits, StringBuilder builder) {
+		char digits[] = AddressLargeDivision.EXTENDED_DIGITS;
+		int start = builder.length();
+		builder.setLength(start + BASE_85_DIGIT_COUNT);
+		long high = highBits, low = lowBits;
+		for(int i = start + BASE_85_DIGIT_COUNT - 1; i >= start; i--) {
+			//each partial dividend is the remainder so far, which is less than 85, followed by the next 32 bits
+			long dividend = high >>> 32;
+			long quotient = dividend / 85;
+			long remainder = dividend - quotient * 85;
+			long newHigh = quotient << 32;
+			dividend = (remainder << 32) | (high & LOW_32_BITS_MASK);
+			quotient = dividend / 85;
+			remainder = dividend - quotient * 85;
+			high = newHigh | quotient;
+			dividend = (remainder << 32) | (low >>> 32);
+			quotient = dividend / 85;
+			remainder = dividend - quotient * 85;
+			long newLow = quotient << 32;
+			dividend = (remainder << 32) | (low & LOW_32_BITS_MASK);
+			quotient = dividend / 85;
+			remainder = dividend - quotient * 85;
+			low = newLow | quotient;
+			builder.setCharAt(i, digits[(int) remainder]);
+		}
+	}
+
 	@Override
 	protected void cacheNormalizedString(String str) {
 		if(hasNoStringCache() || getStringCache().normalizedString == null) {
@@ -1242,6 +1438,46 @@ public class IPv6AddressSection extends IPAddressSection implements Iterable<IPv
 	}
 	
 	public String toNormalizedString(IPv6StringOptions options, CharSequence zone) {
+		IPAddressStringWriter<?> writer = toStringWriter(options);
+		if(writer instanceof IPv6v4MixedParams) {
+			return toNormalizedMixedString((IPv6v4MixedParams) writer, zone);
+		}
+		return ((IPv6StringParams) writer).toString(this, zone);
+	}
+	
+	/**
+	 * Appends the string produced by {@link #toNormalizedString(IPv6StringOptions, CharSequence)} to the given builder, 
+	 * without creating the string.
+	 * 
+	 * @param options
+	 * @param zone the zone, or null if there is no zone
+	 * @param builder
+	 * @return the given builder
+	 */
+	public StringBuilder appendNormalizedString(IPv6StringOptions options, CharSequence zone, StringBuilder builder) {
+		IPAddressStringWriter<?> writer = toStringWriter(options);
+		if(writer instanceof IPv6v4MixedParams) {
+			return ((IPv6v4MixedParams) writer).append(builder, getMixedAddressSection(), zone);
+		}
+		return ((IPv6StringParams) writer).append(builder, this, zone);
+	}
+	
+	@Override
+	public StringBuilder appendNormalizedString(IPStringOptions options, StringBuilder builder) {
+		return appendNormalizedString(options, null, builder);
+	}
+	
+	StringBuilder appendNormalizedString(IPStringOptions options, CharSequence zone, StringBuilder builder) {
+		if(options instanceof IPv6StringOptions) {
+			return appendNormalizedString((IPv6StringOptions) options, zone, builder);
+		}
+		return toIPParams(options).append(builder, this, zone);
+	}
+	
+	/**
+	 * @return the writer for the options, which is either mixed params or IPv6 params
+	 */
+	private IPAddressStringWriter<?> toStringWriter(IPv6StringOptions options) {
 		IPv6StringParams stringParams;
 		if(options.compressOptions == null) {
 			IPAddressStringWriter<?> cachedParams = (IPAddressStringWriter<?>) getCachedParams(options);
@@ -1250,24 +1486,21 @@ public class IPv6AddressSection extends IPAddressSection implements Iterable<IPv
 				if(options.makeMixed()) {
 					IPv6v4MixedParams mixedParams = new IPv6v4MixedParams(stringParams, options.ipv4Opts);
 					setCachedParams(options, mixedParams);
-					return toNormalizedMixedString(mixedParams, zone);
+					return mixedParams;
 				} else {
 					setCachedParams(options, stringParams);
 				}
 			} else {
-				if(cachedParams instanceof IPv6v4MixedParams) {
-					return toNormalizedMixedString((IPv6v4MixedParams) cachedParams, zone);
-				}
-				stringParams = (IPv6StringParams) cachedParams;
+				return cachedParams;
 			}
 		} else {
 			//no caching is possible due to the compress options
 			stringParams = options.from(this);
 			if(options.makeMixed() && stringParams.nextUncompressedIndex <= IPv6Address.MIXED_ORIGINAL_SEGMENT_COUNT - startIndex) {//the mixed section is not compressed
-				return toNormalizedMixedString(new IPv6v4MixedParams(stringParams, options.ipv4Opts), zone);
+				return new IPv6v4MixedParams(stringParams, options.ipv4Opts);
 			}
 		}
-		return stringParams.toString(this, zone);
+		return stringParams;
 	}
 	
 	public static String toNormalizedString(IPStringOptions options, CharSequence zone, IPAddressStringDivisionSeries part) {
@@ -1996,6 +2229,7 @@ public class IPv6AddressSection extends IPAddressSection implements Iterable<IPv
 			return ipv6Params.appendDivision(builder, seg);
 		}
 		
+		@Override
 		public StringBuilder append(StringBuilder builder, IPv6v4MixedAddressSection addr, CharSequence zone) {
 			ipv6Params.appendLabel(builder);
 			ipv6Params.appendSegments(builder, addr.ipv6Section);
@@ -19,6 +19,9 @@
 package inet.ipaddr.mac;
 
 import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import inet.ipaddr.Address;
 import inet.ipaddr.AddressTypeException;
@@ -288,11 +291,55 @@ public class MACAddress extends Address implements Iterable<MACAddress> {
 		return getSection().iterator(this);
 	}
 	
+	@Override
+	public Spliterator<MACAddress> spliterator() {
+		return getSection().spliterator(this);
+	}
+	
+	@Override
+	public Stream<MACAddress> stream() {
+		return StreamSupport.stream(spliterator(), false);
+	}
+	
+	@Override
+	public Stream<MACAddress> parallelStream() {
+		return StreamSupport.stream(spliterator(), true);
+	}
+	
+	/**
+	 * Provides a cursor through the individual values of this address or subnet, in the same order as {@link #iterator()},
+	 * which provides each value as a long, and which creates no objects while moving through the values.
+	 * 
+	 * @return
+	 */
+	public MACAddressCursor cursor() {
+		return new MACAddressCursor(this);
+	}
+	
+	/**
+	 * @return the lowest address value as a long, which is negative for an extended 8 byte address with the high bit set
+	 */
+	public long longValue() {
+		return getSection().longValue();
+	}
+	
+	/**
+	 * @return the highest address value as a long
+	 */
+	public long upperLongValue() {
+		return getSection().upperLongValue();
+	}
+	
 	@Override
 	public Iterator<MACAddressSegment[]> segmentsIterator() {
 		return getSection().segmentsIterator();
 	}
 	
+	@Override
+	public Spliterator<MACAddressSegment[]> segmentsSpliterator() {
+		return getSection().segmentsSpliterator();
+	}
+	
 	@Override
 	public MACAddress getLower() {
 		return getLowestOrHighest(true);
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2017 Sean C Foley
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     or at
+ *     https://github.com/seancfoley/IPAddress/blob/master/LICENSE
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package inet.ipaddr.mac;
+
+import inet.ipaddr.format.AddressCursor;
+
+/**
+ * A cursor through the individual values of a MAC address or subnet, providing each value as a long.
+ * 
+ * @see AddressCursor
+ * @see MACAddress#cursor()
+ * @author sfoley
+ *
+ */
+public class MACAddressCursor extends AddressCursor {
+	
+	private final boolean extended;
+	
+	public MACAddressCursor(MACAddress address) {
+		super(address);
+		extended = address.isExtended();
+	}
+	
+	/**
+	 * @throws java.util.NoSuchElementException if the cursor is not positioned at a value
+	 * @return the current value
+	 */
+	public long longValue() {
+		checkValue();
+		return getBits(0, getSegmentCount(), MACAddress.BITS_PER_SEGMENT);
+	}
+	
+	@Override
+	public MACAddress toAddress() {
+		return new MACAddress(longValue(), extended);
+	}
+}
@@ -21,7 +21,11 @@ package inet.ipaddr.mac;
 import java.math.BigInteger;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.function.IntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import inet.ipaddr.Address;
 import inet.ipaddr.Address.SegmentValueProvider;
@@ -73,7 +77,10 @@ public class MACAddressSection extends AddressDivisionGrouping implements Addres
 	
 	private static MACAddressCreator creators[][] = new MACAddressCreator[MACAddress.EXTENDED_UNIQUE_IDENTIFIER_64_SEGMENT_COUNT + 1][2];
 	
-	private transient MACStringCache stringCache;
+	private transient volatile MACStringCache stringCache;
+	
+	private static final AtomicReferenceFieldUpdater<MACAddressSection, MACStringCache> stringCacheUpdater = 
+			AtomicReferenceFieldUpdater.newUpdater(MACAddressSection.class, MACStringCache.class, "stringCache");
 	
 	private transient SectionCache<MACAddressSection> sectionCache;
 	
@@ -373,12 +380,41 @@ public class MACAddressSection extends AddressDivisionGrouping implements Addres
 		return bytes;
 	}
 	
+	/**
+	 * @return the lowest value of this section as a long, the segment values joined from the most to the least significant,
+	 * which is negative for an 8 byte section with the high bit set
+	 */
+	public long longValue() {
+		return getLongValue(true);
+	}
+	
+	/**
+	 * @return the highest value of this section as a long
+	 */
+	public long upperLongValue() {
+		return getLongValue(false);
+	}
+	
+	private long getLongValue(boolean lower) {
+		int segCount = getSegmentCount();
+		long result = 0;
+		for(int i = 0; i < segCount; i++) {
+			MACAddressSegment seg = getSegment(i);
+			result = (result << MACAddress.BITS_PER_SEGMENT) | (lower ? seg.getLowerSegmentValue() : seg.getUpperSegmentValue());
+		}
+		return result;
+	}
+	
 	@Override
 	protected BigInteger getCountImpl() {
 		int segCount = getSegmentCount();
 		if(!isMultiple()) {
 			return BigInteger.ONE;
 		}
+		long longCount = getLongCount();
+		if(longCount >= 0) {
+			return BigInteger.valueOf(longCount);
+		}
 		long result = getSegment(0).getValueCount();
 		int limit = Math.min(segCount, 7);
 		for(int i = 1; i < limit; i++) {
@@ -778,6 +814,30 @@ public class MACAddressSection extends AddressDivisionGrouping implements Addres
 		return super.iterator(getSegmentCreator(), () -> getLower().getSegments(), index -> getSegment(index).iterator());
 	}
 	
+	@Override
+	public Spliterator<MACAddressSection> spliterator() {
+		return spliterator(!isMultiple(), this, getAddressCreator());
+	}
+	
+	@Override
+	public Stream<MACAddressSection> stream() {
+		return StreamSupport.stream(spliterator(), false);
+	}
+	
+	@Override
+	public Stream<MACAddressSection> parallelStream() {
+		return StreamSupport.stream(spliterator(), true);
+	}
+	
+	@Override
+	public Spliterator<MACAddressSegment[]> segmentsSpliterator() {
+		return super.segmentsSpliterator(getSegmentCreator());
+	}
+	
+	protected Spliterator<MACAddress> spliterator(MACAddress original) {
+		return spliterator(original, getAddressCreator(), !isMultiple());
+	}
+	
 	protected Iterator<MACAddress> iterator(MACAddress original) {
 		MACAddressCreator creator = getAddressCreator();
 		boolean useOriginal = !isMultiple();
@@ -794,12 +854,7 @@ public class MACAddressSection extends AddressDivisionGrouping implements Addres
 
 	protected boolean hasNoStringCache() {
 		if(stringCache == null) {
-			synchronized(this) {
-				if(stringCache == null) {
-					stringCache = new MACStringCache();
-					return true;
-				}
-			}
+			return stringCacheUpdater.compareAndSet(this, null, new MACStringCache());
 		}
 		return false;
 	}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2017 Sean C Foley
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     or at
+ *     https://github.com/seancfoley/IPAddress/blob/master/LICENSE
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package inet.ipaddr.test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import inet.ipaddr.Address;
+import inet.ipaddr.IPAddress;
+import inet.ipaddr.format.util.AddressScanner;
+
+
+public class AddressScannerTest extends TestBase {
+
+	AddressScannerTest(AddressCreator creator) {
+		super(creator);
+	}
+
+	/**
+	 * Returns the text one or two characters at a time, so that tokens are split across reads.
+	 */
+	static class TrickleReader extends Reader {
+		private final Reader reader;
+		private int count;
+
+		TrickleReader(String str) {
+			reader = new StringReader(str);
+		}
+
+		@Override
+		public int read(char[] cbuf, int off, int len) throws IOException {
+			return reader.read(cbuf, off, Math.min(len, (count++ % 2) + 1));
+		}
+
+		@Override
+		public void close() throws IOException {
+			reader.close();
+		}
+	}
+
+	void checkFound(String text, List<String> found, String expected[], String source) {
+		List<String> expectedList = new ArrayList<String>();
+		for(String str : expected) {
+			int index = text.indexOf(str);
+			expectedList.add(str + '@' + index);
+		}
+		if(!found.equals(expectedList)) {
+			addFailure(new Failure(source + " found " + found + " expected " + expectedList));
+		}
+		incrementTestCount();
+	}
+
+	void testScan(String text, String expected[]) {
+		AddressScanner scanner = new AddressScanner();
+		List<String> found = new ArrayList<String>();
+		AddressScanner.AddressHandler handler = (Address address, long startIndex, long endIndex) -> {
+			String token = text.substring((int) startIndex, (int) endIndex);
+			//the reported address must be that of the token at the reported position
+			Address expectedAddress = (address instanceof IPAddress) ?
+					createAddress(token, AddressScanner.DEFAULT_IP_OPTIONS).getAddress() :
+					createMACAddress(token, AddressScanner.DEFAULT_MAC_OPTIONS).getAddress();
+			if(!address.equals(expectedAddress)) {
+				addFailure(new Failure("scanned " + address + " expected " + expectedAddress, address));
+			}
+			found.add(token + '@' + startIndex);
+		};
+		scanner.scan(text, handler);
+		checkFound(text, found, expected, "text");
+		found.clear();
+		try {
+			scanner.scan(new TrickleReader(text), handler);
+			checkFound(text, found, expected, "reader");
+			found.clear();
+			Path file = Files.createTempFile("scan", ".log");
+			try {
+				Files.write(file, text.getBytes(StandardCharsets.ISO_8859_1));
+				scanner.scan(file, handler);
+				checkFound(text, found, expected, "file");
+			} finally {
+				Files.delete(file);
+			}
+		} catch(IOException e) {
+			addFailure(new Failure("scan failed " + e));
+		}
+	}
+
+	@Override
+	void runTest() {
+		testScan("1.2.3.4", new String[] {"1.2.3.4"});
+		testScan("", new String[0]);
+		testScan("10.1.2.3 - - [17/Oct/2017:10:15:30 -0700] \"GET /index.html HTTP/1.1\" 200 2326 \"Mozilla/5.0\" from 192.168.0.0/16.",
+				new String[] {"10.1.2.3", "192.168.0.0/16"});
+		testScan("connect [::1]:8080 and fe80::1%eth0, then 1:2:3:4:5:6:7:8 or 1:2:3:4:5:6:1.2.3.4 via 10.0.0.1:443",
+				new String[] {"::1", "fe80::1%eth0", "1:2:3:4:5:6:7:8", "1:2:3:4:5:6:1.2.3.4", "10.0.0.1"});
+		testScan("mac aa:bb:cc:dd:ee:ff, AA-BB-CC-DD-EE-01 aabb.ccdd.eeff aabbcc-ddeeff on 2017-10-17 at 10:15:30.123",
+				new String[] {"aa:bb:cc:dd:ee:ff", "AA-BB-CC-DD-EE-01", "aabb.ccdd.eeff", "aabbcc-ddeeff"});
+		testScan("GET http://10.0.0.5:8080/api and https://[2001:db8::1]:443/x then ftp://1.2.3.4/pub/file.txt, http://5.6.7.8/24",
+				new String[] {"10.0.0.5", "2001:db8::1", "1.2.3.4", "5.6.7.8/24"});
+		testScan("host:192.168.1.7 peer:fe80::1%eth0 gw:aa:bb:cc:dd:ee:ff src=1.2.3.5 dst:10.0.0.6:80 time:10:15:30 addr::1",
+				new String[] {"192.168.1.7", "fe80::1%eth0", "aa:bb:cc:dd:ee:ff", "1.2.3.5", "10.0.0.6"});
+		testScan("not addresses:1.2.3.256 1.2.3 1.2.3.4.5 1::2::3 1:2:3 a.b.c.d 12.34.56.78.90.12 version 1.2.3.4-beta",
+				new String[0]);
+
+		StringBuilder longToken = new StringBuilder();
+		for(int i = 0; i < AddressScanner.MAX_TOKEN_LENGTH; i++) {
+			longToken.append("1.");
+		}
+		testScan(longToken + "1.2.3.4 " + longToken + " 5.6.7.8", new String[] {"5.6.7.8"});
+	}
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2017 Sean C Foley
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     or at
+ *     https://github.com/seancfoley/IPAddress/blob/master/LICENSE
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package inet.ipaddr.test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+
+import javax.management.Attribute;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+import inet.ipaddr.IPAddressNetwork.HostIdentifierStringCache.CacheStatistics;
+import inet.ipaddr.IPAddressNetwork.IPAddressStringCache;
+import inet.ipaddr.IPAddressString;
+import inet.ipaddr.format.util.BoundedCacheMap;
+
+
+public class BoundedCacheMapTest extends TestBase {
+
+	BoundedCacheMapTest(AddressCreator creator) {
+		super(creator);
+	}
+
+	void checkKeys(BoundedCacheMap<String, String> map, String op, String ...expected) {
+		if(!map.keySet().equals(new HashSet<String>(Arrays.asList(expected))) || map.size() != expected.length) {
+			addFailure(new Failure(op + ": keys " + map.keySet() + " expected " + Arrays.asList(expected)));
+		}
+		incrementTestCount();
+	}
+
+	void testLeastRecentlyUsed() {
+		BoundedCacheMap<String, String> map = new BoundedCacheMap<String, String>(4, null, false, 1);
+		for(String key : new String[] {"a", "b", "c", "d"}) {
+			map.put(key, key);
+		}
+		map.get("a");
+		map.put("e", "e");
+		checkKeys(map, "evict", "a", "c", "d", "e");
+		if(map.putIfAbsent("a", "x") != "a" || !map.replace("a", "a", "y") || map.replace("a", "a", "z") || !"y".equals(map.get("a")) ||
+				map.remove("a", "a") || !map.remove("a", "y") || map.replace("f", "f") != null || map.getWeight() != 3) {
+			addFailure(new Failure("concurrent map operations " + map));
+		}
+		incrementTestCount();
+		map.clear();
+		checkKeys(map, "clear");
+	}
+
+	void testWeight() {
+		BoundedCacheMap<String, String> map = new BoundedCacheMap<String, String>(10, (key, value) -> key.length(), false, 1);
+		map.put("aaaa", "");
+		map.put("bbbb", "");
+		map.put("cc", "");
+		checkKeys(map, "weigh", "aaaa", "bbbb", "cc");
+		map.put("dd", "");
+		checkKeys(map, "evict by weight", "bbbb", "cc", "dd");
+		map.put("eeeeeeeeeee", "");
+		checkKeys(map, "too heavy", "bbbb", "cc", "dd");
+		map.put("ffffffffff", "");
+		checkKeys(map, "heaviest", "ffffffffff");
+		if(map.getWeight() != 10) {
+			addFailure(new Failure("weight " + map.getWeight()));
+		}
+		incrementTestCount();
+	}
+
+	void testFrequency(boolean admitByFrequency) {
+		BoundedCacheMap<String, String> map = new BoundedCacheMap<String, String>(4, null, admitByFrequency, 1);
+		String hot[] = {"hot1", "hot2", "hot3", "hot4"};
+		for(int i = 0; i < 5; i++) {
+			for(String key : hot) {
+				if(map.get(key) == null) {
+					map.put(key, key);
+				}
+			}
+		}
+		//a scan of keys used once displaces the hot keys only when admission is not by frequency
+		for(int i = 0; i < 100; i++) {
+			String key = "cold" + i;
+			if(map.get(key) == null) {
+				map.putIfAbsent(key, key);
+			}
+		}
+		boolean hotRetained = map.keySet().containsAll(Arrays.asList(hot));
+		if(hotRetained != admitByFrequency || map.size() != 4) {
+			addFailure(new Failure("frequency admission " + admitByFrequency + " kept " + map.keySet()));
+		}
+		incrementTestCount();
+	}
+
+	void testConcurrent() {
+		BoundedCacheMap<String, String> map = new BoundedCacheMap<String, String>(100, null, true, 8);
+		int iterations = fullTest ? 2000 : 500;
+		HostAllTest.testCachesSync(new Runnable() {
+			@Override
+			public void run() {
+				Random random = new Random();
+				for(int i = 0; i < iterations; i++) {
+					//a skewed distribution, so that some keys are hot
+					String key = String.valueOf(random.nextInt(1 + random.nextInt(1000)));
+					String value = map.get(key);
+					if(value == null) {
+						map.putIfAbsent(key, key);
+					} else if(!value.equals(key)) {
+						synchronized(BoundedCacheMapTest.this) {
+							addFailure(new Failure("value " + value + " for " + key));
+						}
+					}
+				}
+			}
+		});
+		if(map.size() > 100 || map.getWeight() != map.size()) {
+			addFailure(new Failure("concurrent size " + map.size() + " weight " + map.getWeight()));
+		}
+		incrementTestCount();
+	}
+
+	void testStatistics() {
+		BoundedCacheMap<String, IPAddressString> map = new BoundedCacheMap<String, IPAddressString>(4, null, false, 1);
+		IPAddressStringCache cache = new IPAddressStringCache(map);
+		cache.get("1.2.3.4");
+		cache.setRecordingStatistics(true);
+		cache.get("1.2.3.4");
+		cache.get("1.2.3.4");
+		cache.get("1.2.3.5");
+		cache.get(new byte[] {1, 2, 3, 5});
+		cache.get(new byte[] {1, 2, 3, 6});
+		for(int i = 0; i < 4; i++) {
+			cache.get("2.0.0." + i);
+		}
+		CacheStatistics stats = cache.getStatistics();
+		if(stats.getHitCount() != 3 || stats.getMissCount() != 6 || stats.getCreationCount() != 6 || stats.getEvictionCount() != 3 ||
+				stats.getSize() != 4 || stats.getHitRate() != 1.0 / 3 || stats.getTotalLoadTime() <= 0) {
+			addFailure(new Failure("cache statistics " + stats));
+		}
+		incrementTestCount();
+		//the platform server is slow to start, so a server of our own is used outside the full test
+		testStatisticsMBean(cache, fullTest ? ManagementFactory.getPlatformMBeanServer() : MBeanServerFactory.newMBeanServer());
+	}
+
+	void testStatisticsMBean(IPAddressStringCache cache, MBeanServer server) {
+		try {
+			ObjectName name = cache.registerStatisticsMBean("test" + Thread.currentThread().getId() + '-' + System.identityHashCode(cache), server);
+			try {
+				server.setAttribute(name, new Attribute("RecordingStatistics", false));
+				if(!Long.valueOf(0).equals(server.getAttribute(name, "HitCount")) || !Integer.valueOf(4).equals(server.getAttribute(name, "Size")) || cache.isRecordingStatistics()) {
+					addFailure(new Failure("cache statistics bean " + server.getAttribute(name, "HitCount")));
+				}
+			} finally {
+				server.unregisterMBean(name);
+			}
+			if(server.isRegistered(name)) {
+				addFailure(new Failure("cache statistics bean still registered " + name));
+			}
+		} catch(JMException e) {
+			addFailure(new Failure("cache statistics bean " + e));
+		}
+		incrementTestCount();
+	}
+
+	@Override
+	void runTest() {
+		testLeastRecentlyUsed();
+		testWeight();
+		testFrequency(true);
+		testFrequency(false);
+		testConcurrent();
+		testStatistics();
+	}
+}
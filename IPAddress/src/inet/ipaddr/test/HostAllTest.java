@@ -28,6 +28,7 @@ import inet.ipaddr.HostNameParameters;
 import inet.ipaddr.IPAddressNetwork.HostNameCache;
 import inet.ipaddr.IPAddressString;
 import inet.ipaddr.IPAddressStringParameters;
+import inet.ipaddr.format.util.BoundedCacheMap;
 
 public class HostAllTest extends HostRangeTest {
 	
@@ -275,5 +276,12 @@ public class HostAllTest extends HostRangeTest {
 				testCaches(map, false, false);
 			}
 		});
+		BoundedCacheMap<String, HostName> boundedMap = new BoundedCacheMap<String, HostName>(20, true);
+		testCachesSync(new Runnable() {
+			@Override
+			public void run() {
+				testCaches(boundedMap, false, false);
+			}
+		});
 	}
 }
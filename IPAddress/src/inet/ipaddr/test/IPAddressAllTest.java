@@ -29,6 +29,7 @@ import inet.ipaddr.IPAddress;
 import inet.ipaddr.IPAddressNetwork.IPAddressStringCache;
 import inet.ipaddr.IPAddressString;
 import inet.ipaddr.IPAddressStringParameters;
+import inet.ipaddr.format.util.BoundedCacheMap;
 
 public class IPAddressAllTest extends IPAddressRangeTest {
 	
@@ -686,5 +687,14 @@ public class IPAddressAllTest extends IPAddressRangeTest {
 				testCaches(map, false, false);
 			}
 		});
+		//bounded maps evict entries, so the sizes are not checked
+		testCaches(new BoundedCacheMap<String, IPAddressString>(50, true), false, true);
+		BoundedCacheMap<String, IPAddressString> boundedMap = new BoundedCacheMap<String, IPAddressString>(100, (key, value) -> key.length(), false);
+		HostAllTest.testCachesSync(new Runnable() {
+			@Override
+			public void run() {
+				testCaches(boundedMap, false, false);
+			}
+		});
 	}
 }
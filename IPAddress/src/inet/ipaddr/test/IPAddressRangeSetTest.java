@@ -0,0 +1,226 @@
+/*
+ * Copyright 2017 Sean C Foley
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     or at
+ *     https://github.com/seancfoley/IPAddress/blob/master/LICENSE
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package inet.ipaddr.test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import inet.ipaddr.AddressComparator;
+import inet.ipaddr.IPAddress;
+import inet.ipaddr.format.util.IPAddressRangeSet;
+import inet.ipaddr.ipv4.IPv4Address;
+
+
+public class IPAddressRangeSetTest extends TestBase {
+
+	//the model covers the addresses 10.0.0.0 to 10.0.3.255
+	static final int MODEL_SIZE = 1024;
+
+	IPAddressRangeSetTest(AddressCreator creator) {
+		super(creator);
+	}
+
+	static IPv4Address modelAddress(int index) {
+		return new IPv4Address((10 << 24) | index);
+	}
+
+	void checkModel(IPAddressRangeSet set, BitSet model, String op) {
+		for(int i = 0; i < MODEL_SIZE; i++) {
+			if(set.contains(modelAddress(i)) != model.get(i)) {
+				addFailure(new Failure(op + ": containment mismatch " + set, modelAddress(i)));
+				return;
+			}
+		}
+		//the ranges are the runs of the model
+		int runs = 0;
+		for(int i = model.nextSetBit(0); i >= 0; i = model.nextSetBit(model.nextClearBit(i))) {
+			runs++;
+		}
+		if(set.getRangeCount() != runs || !set.getCount().equals(BigInteger.valueOf(model.cardinality()))) {
+			addFailure(new Failure(op + ": " + set.getRangeCount() + " ranges, expected " + runs + " in " + set));
+		}
+		//the blocks are ordered, sequential, and cover exactly the set
+		BitSet covered = new BitSet();
+		IPAddress previous = null;
+		AddressComparator comparator = new AddressComparator.ValueComparator(false);
+		for(IPAddress block : set) {
+			if(previous != null && comparator.compare(previous, block) >= 0) {
+				addFailure(new Failure(op + ": blocks out of order " + previous, block));
+			}
+			Iterator<? extends IPAddress> iterator = block.iterator();
+			int count = 0;
+			while(iterator.hasNext()) {
+				IPAddress next = iterator.next();
+				int value = (next.getSegment(2).getLowerSegmentValue() << 8) | next.getSegment(3).getLowerSegmentValue();
+				count++;
+				if(count > MODEL_SIZE) {
+					break;
+				}
+				covered.set(value);
+			}
+			previous = block;
+		}
+		if(!covered.equals(model)) {
+			addFailure(new Failure(op + ": blocks " + covered + " expected " + model));
+		}
+		incrementTestCount();
+	}
+
+	void setModel(BitSet model, IPAddress addr, boolean value) {
+		Iterator<? extends IPAddress> iterator = addr.iterator();
+		while(iterator.hasNext()) {
+			IPAddress next = iterator.next();
+			model.set((next.getSegment(2).getLowerSegmentValue() << 8) | next.getSegment(3).getLowerSegmentValue(), value);
+		}
+	}
+
+	IPAddress randomSubnet(Random random) {
+		int third = random.nextInt(4), fourth = random.nextInt(256);
+		switch(random.nextInt(4)) {
+			case 0:
+				return createAddress("10.0." + third + "." + fourth).getAddress();
+			case 1:
+				return createAddress("10.0." + third + "." + fourth + "/" + (22 + random.nextInt(11))).getAddress();
+			case 2:
+				int thirdUpper = third + random.nextInt(4 - third);
+				int fourthUpper = fourth + random.nextInt(Math.min(20, 256 - fourth));
+				return createAddress("10.0." + third + "-" + thirdUpper + "." + fourth + "-" + fourthUpper, INET_ATON_WILDCARD_AND_RANGE_OPTIONS).getAddress();
+			default:
+				return createAddress("10.0." + third + ".*", INET_ATON_WILDCARD_AND_RANGE_OPTIONS).getAddress();
+		}
+	}
+
+	void testRandom(long seed) {
+		Random random = new Random(seed);
+		IPAddressRangeSet set = new IPAddressRangeSet();
+		BitSet model = new BitSet();
+		IPAddressRangeSet other = new IPAddressRangeSet();
+		BitSet otherModel = new BitSet();
+		for(int i = 0; i < 60; i++) {
+			IPAddress subnet = randomSubnet(random);
+			boolean add = random.nextInt(3) != 0;
+			if(add) {
+				set.add(subnet);
+			} else {
+				set.remove(subnet);
+			}
+			setModel(model, subnet, add);
+			checkModel(set, model, (add ? "add " : "remove ") + subnet);
+			if(set.contains(subnet) != subnetContained(model, subnet)) {
+				addFailure(new Failure("subnet containment mismatch", subnet));
+			}
+			if(random.nextBoolean()) {
+				IPAddress otherSubnet = randomSubnet(random);
+				other.add(otherSubnet);
+				setModel(otherModel, otherSubnet, true);
+			}
+		}
+		BitSet intersection = (BitSet) model.clone();
+		intersection.and(otherModel);
+		checkModel(set.intersect(other), intersection, "intersect");
+
+		//the complement within the model, plus everything outside the model
+		IPAddressRangeSet complement = set.complement();
+		BitSet complementModel = new BitSet();
+		complementModel.set(0, MODEL_SIZE);
+		complementModel.andNot(model);
+		IPAddressRangeSet window = new IPAddressRangeSet().add(modelAddress(0), modelAddress(MODEL_SIZE - 1));
+		checkModel(complement.intersect(window), complementModel, "complement");
+		BigInteger expectedCount = BigInteger.ONE.shiftLeft(32).add(BigInteger.ONE.shiftLeft(128)).subtract(BigInteger.valueOf(model.cardinality()));
+		if(!complement.getCount().equals(expectedCount) || !complement.complement().equals(set)) {
+			addFailure(new Failure("complement mismatch " + complement));
+		}
+		incrementTestCount();
+	}
+
+	static boolean subnetContained(BitSet model, IPAddress subnet) {
+		Iterator<? extends IPAddress> iterator = subnet.iterator();
+		while(iterator.hasNext()) {
+			IPAddress next = iterator.next();
+			if(!model.get((next.getSegment(2).getLowerSegmentValue() << 8) | next.getSegment(3).getLowerSegmentValue())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	void testBlocks(String lower, String upper, String expected[]) {
+		IPAddressRangeSet set = new IPAddressRangeSet().add(createAddress(lower).getAddress(), createAddress(upper).getAddress());
+		List<IPAddress> blocks = new ArrayList<IPAddress>();
+		for(IPAddress block : set) {
+			blocks.add(block);
+		}
+		List<IPAddress> expectedBlocks = new ArrayList<IPAddress>();
+		for(String str : expected) {
+			expectedBlocks.add(createAddress(str, INET_ATON_WILDCARD_AND_RANGE_OPTIONS).getAddress());
+		}
+		if(!blocks.equals(expectedBlocks)) {
+			addFailure(new Failure("blocks " + blocks + " expected " + expectedBlocks));
+		}
+		incrementTestCount();
+	}
+
+	void testIPv6() {
+		IPAddressRangeSet set = new IPAddressRangeSet();
+		set.add(createAddress("1:2::/64").getAddress());
+		set.add(createAddress("1:2:0:1::/64").getAddress());
+		set.add(createAddress("1:2:0:3::/64").getAddress());
+		set.add(createAddress("ffff:ffff:ffff:ffff:ffff:ffff:ffff:fffe").getAddress());
+		set.add(createAddress("ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff").getAddress());
+		set.add(createAddress("::").getAddress());
+		set.add(createAddress("1.2.3.4").getAddress());
+		if(set.getRangeCount() != 5 || !set.contains(createAddress("1:2:0:1:ffff:ffff:ffff:ffff").getAddress()) ||
+				set.contains(createAddress("1:2:0:2::").getAddress()) || !set.contains(createAddress("1:2::/63").getAddress()) ||
+				!set.contains(createAddress("ffff:ffff:ffff:ffff:ffff:ffff:ffff:fffe/127").getAddress()) || set.contains(createAddress("1.2.3.5").getAddress())) {
+			addFailure(new Failure("ipv6 set " + set));
+		}
+		set.remove(createAddress("1:2:0:1:8000::/65").getAddress());
+		set.remove(createAddress("ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff").getAddress());
+		if(set.getRangeCount() != 5 || set.contains(createAddress("1:2:0:1:8000::").getAddress()) ||
+				!set.contains(createAddress("1:2:0:1:7fff:ffff:ffff:ffff").getAddress()) || set.contains(createAddress("ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff").getAddress())) {
+			addFailure(new Failure("ipv6 set removal " + set));
+		}
+		IPAddressRangeSet complement = set.complement();
+		if(!complement.contains(createAddress("1:2:0:1:8000::/65").getAddress()) || complement.contains(createAddress("::").getAddress()) ||
+				!complement.contains(createAddress("ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff").getAddress()) || !complement.complement().equals(set)) {
+			addFailure(new Failure("ipv6 complement " + complement));
+		}
+		incrementTestCount();
+	}
+
+	@Override
+	void runTest() {
+		testBlocks("1.2.3.250", "1.2.6.5", new String[] {"1.2.3.250-255", "1.2.4-5.*", "1.2.6.0-5"});
+		testBlocks("1.2.3.4", "1.2.3.4", new String[] {"1.2.3.4"});
+		testBlocks("0.0.0.0", "255.255.255.255", new String[] {"*.*.*.*"});
+		testBlocks("1.2.3.0", "1.2.255.255", new String[] {"1.2.3-255.*"});
+		testBlocks("1.255.255.255", "3.0.0.0", new String[] {"1.255.255.255", "2.*.*.*", "3.0.0.0"});
+		testBlocks("1::ffff", "1::1:0", new String[] {"1::ffff", "1::1:0"});
+		testBlocks("1::fff0", "1::2:f", new String[] {"1::fff0-ffff", "1::1:*", "1::2:0-f"});
+		testIPv6();
+		int seeds = fullTest ? 10 : 1;
+		for(long seed = 0; seed < seeds; seed++) {
+			testRandom(seed);
+		}
+	}
+}
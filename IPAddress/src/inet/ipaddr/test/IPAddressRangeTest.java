@@ -19,21 +19,39 @@
 package inet.ipaddr.test;
 
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
 
 import inet.ipaddr.Address;
+import inet.ipaddr.AddressSection;
+import inet.ipaddr.AddressSegment;
 import inet.ipaddr.AddressStringException;
 import inet.ipaddr.AddressStringParameters.RangeParameters;
 import inet.ipaddr.AddressTypeException;
 import inet.ipaddr.HostIdentifierString;
 import inet.ipaddr.IPAddress;
+import inet.ipaddr.IPAddressSection;
 import inet.ipaddr.IPAddressSegment;
 import inet.ipaddr.IPAddressString;
 import inet.ipaddr.IPAddressStringParameters;
+import inet.ipaddr.format.AddressCursor;
+import inet.ipaddr.ipv4.CompactIPv4Address;
 import inet.ipaddr.ipv4.IPv4Address;
+import inet.ipaddr.ipv4.IPv4AddressCursor;
 import inet.ipaddr.ipv4.IPv4AddressSection;
+import inet.ipaddr.ipv6.CompactIPv6Address;
+import inet.ipaddr.ipv6.IPv6Address;
+import inet.ipaddr.ipv6.IPv6AddressCursor;
+import inet.ipaddr.ipv6.IPv6AddressSection;
+import inet.ipaddr.mac.MACAddress;
+import inet.ipaddr.mac.MACAddressCursor;
 
 
 public class IPAddressRangeTest extends IPAddressTest {
@@ -45,6 +63,8 @@ public class IPAddressRangeTest extends IPAddressTest {
 	private static final IPAddressStringParameters INET_ATON_WILDCARD_OPTS = INET_ATON_WILDCARD_AND_RANGE_OPTIONS.toBuilder().setRangeOptions(RangeParameters.WILDCARD_ONLY).toParams();
 	private static IPAddressStringParameters optionsCache[][] = new IPAddressStringParameters[3][3];
 
+	static final int SPLIT_TEST_LIMIT = 256, FAST_SPLIT_TEST_LIMIT = 16;
+
 	IPAddressRangeTest(AddressCreator creator) {
 		super(creator);
 	}
@@ -291,8 +311,8 @@ public class IPAddressRangeTest extends IPAddressTest {
 	static void testCount(TestBase testBase, HostIdentifierString w, int number) {
 		Address val = w.getAddress();
 		BigInteger count = val.getCount();
-		if(!count.equals(BigInteger.valueOf(number))) {
-			testBase.addFailure(new Failure("count was " + count, w));
+		if(!count.equals(BigInteger.valueOf(number)) || val.getLongCount() != number) {
+			testBase.addFailure(new Failure("count was " + count + " long count " + val.getLongCount(), w));
 		} else {
 			Iterator<? extends Address> addrIterator = val.iterator();
 			int counter = 0;
@@ -319,10 +339,221 @@ public class IPAddressRangeTest extends IPAddressTest {
 					}
 				}
 			}
+			if(number <= (testBase.fullTest ? SPLIT_TEST_LIMIT : FAST_SPLIT_TEST_LIMIT)) {
+				//the traversals are repeated for each test run, so they are restricted to smaller subnets
+				testSpliterator(testBase, val);
+				testCursor(testBase, val);
+			}
 		}
 		testBase.incrementTestCount();
 	}
 	
+	static <T> List<T> toList(Iterator<T> iterator) {
+		List<T> result = new ArrayList<T>();
+		while(iterator.hasNext()) {
+			result.add(iterator.next());
+		}
+		return result;
+	}
+	
+	static <T> void split(Spliterator<? extends T> spliterator, List<T> result, int depth) {
+		Spliterator<? extends T> prefix = depth > 0 ? spliterator.trySplit() : null;
+		if(prefix != null) {
+			split(prefix, result, depth - 1);
+			split(spliterator, result, depth - 1);
+		} else {
+			spliterator.forEachRemaining(result::add);
+		}
+	}
+	
+	static void testSpliterator(TestBase testBase, Address val) {
+		List<? extends Address> expected = toList(val.iterator());
+		Spliterator<? extends Address> spliterator = val.spliterator();
+		if(spliterator.getExactSizeIfKnown() != expected.size()) {
+			testBase.addFailure(new Failure("spliterator size " + spliterator.getExactSizeIfKnown() + " expected " + expected.size(), val));
+		}
+		//repeated splitting, with the halves traversed in order, gives the same elements in the same order as the iterator
+		List<Address> split = new ArrayList<Address>();
+		split(spliterator, split, 6);
+		if(!split.equals(expected)) {
+			testBase.addFailure(new Failure("split elements " + split + " expected " + expected, val));
+		}
+		List<? extends Address> parallel = val.parallelStream().collect(Collectors.toList());
+		if(!parallel.equals(expected) || val.stream().count() != expected.size()) {
+			testBase.addFailure(new Failure("stream elements " + parallel + " expected " + expected, val));
+		}
+		List<? extends AddressSegment[]> segs = toList(val.segmentsIterator());
+		List<AddressSegment[]> splitSegs = new ArrayList<AddressSegment[]>();
+		split(val.segmentsSpliterator(), splitSegs, 3);
+		boolean segsMatch = segs.size() == splitSegs.size();
+		for(int i = 0; segsMatch && i < segs.size(); i++) {
+			segsMatch = Arrays.equals(segs.get(i), splitSegs.get(i));
+		}
+		List<? extends AddressSection> sections = toList(val.getSection().iterator());
+		if(!segsMatch || !val.getSection().parallelStream().collect(Collectors.toList()).equals(sections)) {
+			testBase.addFailure(new Failure("section or segment spliterator mismatch", val));
+		}
+	}
+	
+	static void testCursor(TestBase testBase, Address val) {
+		AddressCursor cursor;
+		if(val instanceof IPv4Address) {
+			cursor = ((IPv4Address) val).cursor();
+		} else if(val instanceof IPv6Address) {
+			cursor = ((IPv6Address) val).cursor();
+		} else {
+			cursor = ((MACAddress) val).cursor();
+		}
+		//traverse twice to check reset
+		for(int i = 0; i < 2; i++) {
+			Iterator<? extends Address> iterator = val.iterator();
+			while(cursor.advance()) {
+				Address next = iterator.hasNext() ? iterator.next() : null;
+				Address current = cursor.toAddress();
+				boolean matches = current.equals(next);
+				if(matches) {
+					if(cursor instanceof IPv4AddressCursor) {
+						matches = ((IPv4AddressCursor) cursor).intValue() == new CompactIPv4Address((IPv4Address) next).intValue() &&
+								((IPv4AddressCursor) cursor).toCompactAddress().equals(new CompactIPv4Address((IPv4Address) next));
+					} else if(cursor instanceof IPv6AddressCursor) {
+						IPv6AddressCursor ipv6Cursor = (IPv6AddressCursor) cursor;
+						CompactIPv6Address compact = new CompactIPv6Address((IPv6Address) next);
+						matches = ipv6Cursor.getHighBits() == compact.getHighBits() && ipv6Cursor.getLowBits() == compact.getLowBits() &&
+								ipv6Cursor.toCompactAddress().equals(compact);
+					} else {
+						MACAddress mac = (MACAddress) next;
+						long value = 0;
+						for(int j = 0; j < mac.getSegmentCount(); j++) {
+							value = (value << 8) | mac.getSegment(j).getLowerSegmentValue();
+						}
+						matches = ((MACAddressCursor) cursor).longValue() == value;
+					}
+				}
+				if(!matches) {
+					testBase.addFailure(new Failure("cursor value " + current + " expected " + next, val));
+					return;
+				}
+			}
+			if(iterator.hasNext() || cursor.hasValue()) {
+				testBase.addFailure(new Failure("cursor ended early", val));
+				return;
+			}
+			try {
+				cursor.toAddress();
+				testBase.addFailure(new Failure("cursor has value after end", val));
+			} catch(NoSuchElementException e) {}
+			cursor.reset();
+		}
+	}
+	
+	void testLongCount(String original, long expected, BigInteger expectedCount) {
+		IPAddress addr = createAddress(original, INET_ATON_WILDCARD_AND_RANGE_OPTIONS).getAddress();
+		if(addr.getLongCount() != expected || !addr.getCount().equals(expectedCount) || addr.getSection().getLongCount() != expected) {
+			addFailure(new Failure("long count " + addr.getLongCount() + " count " + addr.getCount() + " expected " + expectedCount, addr));
+		}
+		incrementTestCount();
+	}
+	
+	void testIsMore(String one, String two) {
+		IPAddress addr = createAddress(one, INET_ATON_WILDCARD_AND_RANGE_OPTIONS).getAddress();
+		IPAddress other = createAddress(two, INET_ATON_WILDCARD_AND_RANGE_OPTIONS).getAddress();
+		int expected = addr.getCount().compareTo(other.getCount());
+		if(Integer.signum(addr.isMore(other)) != expected || Integer.signum(other.isMore(addr)) != -expected) {
+			addFailure(new Failure("isMore " + addr.isMore(other) + " expected " + expected + " comparing with " + other, addr));
+		}
+		incrementTestCount();
+	}
+	
+	void testIPv4Values(String original, int lower, int upper) {
+		IPv4Address addr = createAddress(original, INET_ATON_WILDCARD_AND_RANGE_OPTIONS).getAddress().toIPv4();
+		if(addr.intValue() != lower || addr.upperIntValue() != upper || addr.longValue() != (lower & 0xffffffffL) || 
+				addr.upperLongValue() != (upper & 0xffffffffL) || !addr.getLower().removePrefixLength(false).equals(new IPv4Address(lower))) {
+			addFailure(new Failure("values " + addr.intValue() + " " + addr.upperIntValue(), addr));
+		}
+		incrementTestCount();
+	}
+	
+	void testIPv6Values(String original, long high, long low, long upperHigh, long upperLow) {
+		IPv6Address addr = createAddress(original, INET_ATON_WILDCARD_AND_RANGE_OPTIONS).getAddress().toIPv6();
+		if(addr.getHighBits() != high || addr.getLowBits() != low || addr.getUpperHighBits() != upperHigh || addr.getUpperLowBits() != upperLow) {
+			addFailure(new Failure("values " + Long.toHexString(addr.getHighBits()) + " " + Long.toHexString(addr.getLowBits()), addr));
+		}
+		//a section of the last six segments has a high part from the first two of those segments
+		IPv6AddressSection section = addr.getSection().getSection(2);
+		if(section.getHighBits() != (high & 0xffffffffL) || section.getLowBits() != low) {
+			addFailure(new Failure("section values " + Long.toHexString(section.getHighBits()) + " " + Long.toHexString(section.getLowBits()), addr));
+		}
+		incrementTestCount();
+	}
+	
+	void testPrefixBlocks(String original, int prefixLength, String expected[]) {
+		IPAddress addr = createAddress(original, INET_ATON_WILDCARD_AND_RANGE_OPTIONS).getAddress();
+		List<String> blocks = new ArrayList<String>();
+		Iterator<? extends IPAddress> iterator = addr.prefixBlockIterator(prefixLength);
+		while(iterator.hasNext()) {
+			blocks.add(iterator.next().toPrefixLengthString());
+		}
+		List<String> sectionBlocks = new ArrayList<String>();
+		Iterator<? extends IPAddressSection> sectionIterator = addr.getSection().prefixBlockIterator(prefixLength);
+		while(sectionIterator.hasNext()) {
+			sectionBlocks.add(sectionIterator.next().toPrefixLengthString());
+		}
+		List<String> expectedBlocks = new ArrayList<String>();
+		for(String str : expected) {
+			expectedBlocks.add(createAddress(str).getAddress().toPrefixLengthString());
+		}
+		if(!blocks.equals(expectedBlocks) || !sectionBlocks.equals(expectedBlocks)) {
+			addFailure(new Failure("prefix blocks " + blocks + " section blocks " + sectionBlocks + " expected " + expectedBlocks, addr));
+		}
+		incrementTestCount();
+	}
+	
+	void testPrefixBlockCount(String original, int prefixLength, int expectedCount) {
+		IPAddress addr = createAddress(original).getAddress();
+		Iterator<? extends IPAddress> iterator = addr.prefixBlockIterator(prefixLength);
+		int count = 0;
+		IPAddress previous = null;
+		while(iterator.hasNext()) {
+			IPAddress next = iterator.next();
+			if(next.getNetworkPrefixLength() != prefixLength || !addr.contains(next) || 
+					!next.getCount().equals(BigInteger.ONE.shiftLeft(next.getBitCount() - prefixLength)) || (previous != null && previous.compareTo(next) >= 0)) {
+				addFailure(new Failure("prefix block " + next, addr));
+				break;
+			}
+			previous = next;
+			count++;
+		}
+		if(count != expectedCount) {
+			addFailure(new Failure("prefix block count " + count + " expected " + expectedCount, addr));
+		}
+		try {
+			addr.prefixBlockIterator(addr.getBitCount() + 1);
+			addFailure(new Failure("prefix block iterator accepted prefix length " + (addr.getBitCount() + 1), addr));
+		} catch(AddressTypeException e) {}
+		incrementTestCount();
+	}
+	
+	void testLargeSpliterator(String original, int splits, long expectedSize) {
+		//the size of the IPv6 subnet does not fit in a long until it has been split
+		IPAddress addr = createAddress(original).getAddress();
+		Spliterator<? extends IPAddress> spliterator = addr.spliterator();
+		for(int i = 0; i < splits; i++) {
+			Spliterator<? extends IPAddress> prefix = spliterator.trySplit();
+			if(prefix == null || !prefix.tryAdvance(a -> {})) {
+				addFailure(new Failure("split failed", addr));
+				return;
+			}
+		}
+		if(spliterator.getExactSizeIfKnown() != expectedSize || !spliterator.tryAdvance(next -> {
+			if(!addr.contains(next)) {
+				addFailure(new Failure("spliterator element not contained " + next, addr));
+			}
+		})) {
+			addFailure(new Failure("spliterator size " + spliterator.getExactSizeIfKnown() + " expected " + expectedSize, addr));
+		}
+		incrementTestCount();
+	}
+	
 	void testIPv4Wildcarded(String original, int bits, String expected, String expectedSQL) {
 		testWildcarded(original, bits, expected, expected, expected, expected, expectedSQL);
 	}
@@ -2094,6 +2325,47 @@ public class IPAddressRangeTest extends IPAddressTest {
 		testCount("1::2:3/128", 1);
 		testCount("1::2:3/127", 2);
 		
+		testLongCount("::/0", -1, BigInteger.ONE.shiftLeft(128));
+		testLongCount("::/65", -1, BigInteger.ONE.shiftLeft(63));
+		testLongCount("::/66", 1L << 62, BigInteger.ONE.shiftLeft(62));
+		testLongCount("::1-7fff:*:*:*", 0x7fffL << 48, BigInteger.valueOf(0x7fff).shiftLeft(48));
+		testLongCount("::0-7fff:*:*:*", -1, BigInteger.ONE.shiftLeft(63));
+		testLongCount("0.0.0.0/0", 1L << 32, BigInteger.ONE.shiftLeft(32));
+		testLongCount("1.2.3.4", 1, BigInteger.ONE);
+		testIsMore("::/0", "::/1");
+		testIsMore("::/64", "::/0");
+		testIsMore("::/63", "1.2.3.4");
+		testIsMore("1:2::/64", "1:2:*:*:0-7fff:*:*:*");
+		testIsMore("1.2.*.*", "1.2.3.*");
+		testIPv4Values("1.2.3.4", 0x01020304, 0x01020304);
+		testIPv4Values("255.2.3.0/24", 0xff020300, 0xff0203ff);
+		testIPv4Values("1.2-3.3.4", 0x01020304, 0x01030304);
+		testIPv6Values("1:2:3:4:5:6:7:8", 0x0001000200030004L, 0x0005000600070008L, 0x0001000200030004L, 0x0005000600070008L);
+		testIPv6Values("ffff:2:3:4::/64", 0xffff000200030004L, 0, 0xffff000200030004L, -1L);
+		
+		testPrefixBlocks("1.2.0.0/16", 18, new String[] {"1.2.0.0/18", "1.2.64.0/18", "1.2.128.0/18", "1.2.192.0/18"});
+		testPrefixBlocks("1.2.3.4", 24, new String[] {"1.2.3.0/24"});
+		testPrefixBlocks("1.2.3.4", 32, new String[] {"1.2.3.4/32"});
+		testPrefixBlocks("1.2-3.4.5", 24, new String[] {"1.2.4.0/24", "1.3.4.0/24"});
+		testPrefixBlocks("1.2.3.1-6", 30, new String[] {"1.2.3.0/30", "1.2.3.4/30"});
+		testPrefixBlocks("1.2.0.0/16", 8, new String[] {"1.0.0.0/8"});
+		testPrefixBlocks("0.0.0.0/0", 0, new String[] {"0.0.0.0/0"});
+		testPrefixBlocks("0.0.0.0/0", 2, new String[] {"0.0.0.0/2", "64.0.0.0/2", "128.0.0.0/2", "192.0.0.0/2"});
+		testPrefixBlocks("1:2:3::/48", 50, new String[] {"1:2:3::/50", "1:2:3:4000::/50", "1:2:3:8000::/50", "1:2:3:c000::/50"});
+		testPrefixBlocks("1:2:3:4-5::/64", 63, new String[] {"1:2:3:4::/63"});
+		testPrefixBlockCount("16.0.0.0/12", 24, 1 << 12);
+		testPrefixBlockCount("1:2:3::/48", 56, 1 << 8);
+		if(fullTest) testPrefixBlockCount("1:2:3::/48", 64, 1 << 16);
+		testPrefixBlockCount("1.2.3.0/24", 32, 256);
+		
+		testLargeSpliterator("::/0", 1, -1);
+		testLargeSpliterator("::/0", 66, 1L << 62);
+		testLargeSpliterator("1:2:3:4::/64", 0, -1);
+		testLargeSpliterator("1:2:3:4::/64", 1, -1);
+		testLargeSpliterator("1:2:3:4::/64", 2, 1L << 62);
+		testLargeSpliterator("1.*.*.*", 0, 1 << 24);
+		testLargeSpliterator("1.*.*.*", 8, 1 << 16);
+		
 		ipv4test(true, "1.0-0.3.0");
 		ipv4test(true, "1.0-3.3.0");
 		ipv4test(true, "1.1-3.3.0");
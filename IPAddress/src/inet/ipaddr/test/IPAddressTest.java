@@ -18,17 +18,22 @@
 
 package inet.ipaddr.test;
 
+import java.math.BigInteger;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 import inet.ipaddr.AddressSegmentSeries;
 import inet.ipaddr.AddressStringException;
@@ -40,14 +45,23 @@ import inet.ipaddr.IPAddressSection.IPStringBuilderOptions;
 import inet.ipaddr.IPAddressSection.IPStringOptions;
 import inet.ipaddr.IPAddressSegment;
 import inet.ipaddr.IPAddressString;
+import inet.ipaddr.IPAddressStringParameters;
+import inet.ipaddr.format.AddressLargeDivision;
 import inet.ipaddr.format.IPAddressStringDivisionSeries;
 import inet.ipaddr.format.util.IPAddressPartStringCollection;
 import inet.ipaddr.format.util.sql.MySQLTranslator;
+import inet.ipaddr.format.validate.IPAddressBatchParser;
+import inet.ipaddr.format.validate.IPAddressBatchParser.AddressBatchResult;
+import inet.ipaddr.format.validate.IPAddressBatchParser.IPv4ValueBatchResult;
+import inet.ipaddr.format.validate.IPAddressBatchParser.IPv6ValueBatchResult;
+import inet.ipaddr.format.validate.IPAddressParser;
+import inet.ipaddr.ipv4.CompactIPv4Address;
 import inet.ipaddr.ipv4.IPv4Address;
 import inet.ipaddr.ipv4.IPv4AddressNetwork;
 import inet.ipaddr.ipv4.IPv4AddressSection;
 import inet.ipaddr.ipv4.IPv4AddressSection.IPv4StringBuilderOptions;
 import inet.ipaddr.ipv4.IPv4AddressSection.IPv4StringOptions;
+import inet.ipaddr.ipv6.CompactIPv6Address;
 import inet.ipaddr.ipv6.IPv6Address;
 import inet.ipaddr.ipv6.IPv6AddressNetwork;
 import inet.ipaddr.ipv6.IPv6AddressSection;
@@ -1464,6 +1478,460 @@ public class IPAddressTest extends TestBase {
 	
 	
 	
+	void testDottedDecimal(String str, int value, Integer prefix) {
+		IPAddressString addrString = createAddress(str);
+		try {
+			IPAddress addr = addrString.toAddress();
+			IPAddress expected = prefix == null ? new IPv4Address(value) : new IPv4Address(value, prefix);
+			if(!addr.equals(expected) || !Objects.equals(addr.getNetworkPrefixLength(), prefix)) {
+				addFailure(new Failure("expected " + expected, addr));
+			} else if(!addrString.isIPv4() || !Objects.equals(addrString.getNetworkPrefixLength(), prefix) || addrString.isIPv6()) {
+				addFailure(new Failure("failed dotted decimal type", addrString));
+			} else if(!addrString.toHostAddress().equals(new IPv4Address(value))) {
+				addFailure(new Failure("expected host " + new IPv4Address(value), addrString.toHostAddress()));
+			} else if(addr.toAddressString() != addrString) {
+				addFailure(new Failure("failed originator", addr));
+			}
+		} catch(AddressStringException e) {
+			addFailure(new Failure("failed " + e, addrString));
+		}
+		incrementTestCount();
+	}
+	
+	void testParseValue(String str, IPAddressStringParameters options) {
+		IPAddressString addrString = new IPAddressString(str, options);
+		IPAddress host = addrString.isIPAddress() ? addrString.getHostAddress() : null;
+		boolean isSingle = host != null && !host.isMultiple();
+		for(IPVersion version : IPVersion.values()) {
+			byte bytes[];
+			try {
+				if(version.isIPv4()) {
+					int value = IPv4AddressNetwork.parseValue(str, options);
+					bytes = new byte[IPv4Address.BYTE_COUNT];
+					for(int i = 0; i < bytes.length; i++) {
+						bytes[i] = (byte) (value >>> ((bytes.length - i - 1) << 3));
+					}
+				} else {
+					long values[] = IPv6AddressNetwork.parseValue(str, options, null);
+					bytes = new byte[IPv6Address.BYTE_COUNT];
+					for(int i = 0; i < bytes.length; i++) {
+						long value = values[i >> 3];
+						bytes[i] = (byte) (value >>> ((7 - (i & 7)) << 3));
+					}
+				}
+			} catch(AddressStringException e) {
+				bytes = null;
+			}
+			boolean expectValue = isSingle && host.getIPVersion().equals(version);
+			if(expectValue ? (bytes == null || !Arrays.equals(bytes, host.getBytes())) : bytes != null) {
+				addFailure(new Failure("parsed value mismatch for " + version + " " + (bytes == null ? null : Arrays.toString(bytes)), addrString));
+			}
+		}
+		incrementTestCount();
+	}
+	
+	void testParseBytes(String str, IPAddressStringParameters options) {
+		IPAddressString addrString = new IPAddressString(str, options);
+		IPAddress expected;
+		try {
+			expected = addrString.toAddress();
+		} catch(AddressStringException | AddressTypeException e) {
+			expected = null;
+		}
+		boolean expectValid = addrString.isValid();
+		byte strBytes[] = str.getBytes(StandardCharsets.ISO_8859_1);
+		byte padded[] = new byte[strBytes.length + 6];
+		Arrays.fill(padded, (byte) '1');
+		System.arraycopy(strBytes, 0, padded, 3, strBytes.length);
+		ByteBuffer direct = ByteBuffer.allocateDirect(padded.length);
+		direct.put(padded);
+		for(int i = 0; i < 3; i++) {
+			IPAddress addr;
+			boolean valid = true;
+			try {
+				if(i == 0) {
+					addr = IPAddressString.parseAddress(padded, 3, strBytes.length, options);
+				} else if(i == 1) {
+					addr = IPAddressString.parseAddress(direct, 3, strBytes.length, options);
+				} else {
+					addr = IPAddressString.parseAddress(new StringBuilder(str), options);
+				}
+			} catch(AddressStringException | AddressTypeException e) {
+				addr = null;
+				valid = e instanceof AddressTypeException;
+			}
+			if(valid != expectValid || !Objects.equals(addr, expected) ||
+					(addr != null && (!addr.toString().equals(expected.toString()) || !Objects.equals(addr.getNetworkPrefixLength(), expected.getNetworkPrefixLength())))) {
+				addFailure(new Failure("byte parse mismatch, expected " + expected + " got " + addr, addrString));
+			}
+		}
+		incrementTestCount();
+	}
+	
+	void testReusedParser(String strs[], IPAddressStringParameters options) {
+		IPAddressParser parser = new IPAddressParser();
+		//parse in both directions so that each string follows different strings
+		for(int j = 0; j < 2 * strs.length; j++) {
+			String str = strs[j < strs.length ? j : 2 * strs.length - j - 1];
+			IPAddressString addrString = new IPAddressString(str, options);
+			IPAddress expected, addr;
+			try {
+				expected = addrString.toAddress();
+			} catch(AddressStringException | AddressTypeException e) {
+				expected = null;
+			}
+			try {
+				addr = parser.parseAddress(str, options);
+			} catch(AddressStringException | AddressTypeException e) {
+				addr = null;
+			}
+			if(!Objects.equals(addr, expected) || (addr != null && !addr.toString().equals(expected.toString()))) {
+				addFailure(new Failure("reused parser mismatch, expected " + expected + " got " + addr, addrString));
+			}
+			incrementTestCount();
+		}
+	}
+	
+	void testBatch(String strs[], IPAddressStringParameters options) {
+		List<String> batch = new ArrayList<String>();
+		//enough repeats for the pool parser to split the batch
+		int repeats = fullTest ? 50 : 4;
+		for(int i = 0; i < repeats; i++) {
+			batch.addAll(Arrays.asList(strs));
+		}
+		batch.add(null);
+		IPAddressBatchParser parsers[] = {
+				new IPAddressBatchParser(options),
+				new IPAddressBatchParser(options, ForkJoinPool.commonPool(), 100)
+		};
+		for(IPAddressBatchParser parser : parsers) {
+			AddressBatchResult addresses = parser.parseAddresses(batch.stream());
+			IPv4ValueBatchResult ipv4Values = parser.parseIPv4Values(batch);
+			IPv6ValueBatchResult ipv6Values = parser.parseIPv6Values(batch.toArray(new String[batch.size()]));
+			for(int i = 0; i < batch.size(); i++) {
+				String str = batch.get(i);
+				IPAddress expected = null;
+				boolean isError = str == null;
+				int ipv4Value = 0;
+				long ipv6Value[] = new long[2];
+				boolean isIPv4Error = isError, isIPv6Error = isError;
+				if(!isError) {
+					try {
+						expected = new IPAddressString(str, options).toAddress();
+					} catch(AddressStringException | AddressTypeException e) {
+						isError = true;
+					}
+					try {
+						ipv4Value = IPv4AddressNetwork.parseValue(str, options);
+					} catch(AddressStringException e) {
+						isIPv4Error = true;
+					}
+					try {
+						IPv6AddressNetwork.parseValue(str, options, ipv6Value);
+					} catch(AddressStringException e) {
+						isIPv6Error = true;
+						ipv6Value[0] = ipv6Value[1] = 0;
+					}
+				}
+				if(addresses.isError(i) != isError || !Objects.equals(addresses.getAddress(i), expected) ||
+						ipv4Values.isError(i) != isIPv4Error || ipv4Values.getValue(i) != ipv4Value ||
+						ipv6Values.isError(i) != isIPv6Error || ipv6Values.getHighValue(i) != ipv6Value[0] || ipv6Values.getLowValue(i) != ipv6Value[1]) {
+					addFailure(new Failure("batch mismatch at " + i + " for " + str));
+					break;
+				}
+			}
+			if(addresses.getErrorCount() != addresses.getErrors().cardinality()) {
+				addFailure(new Failure("batch error count mismatch " + addresses.getErrorCount()));
+			}
+			incrementTestCount();
+		}
+	}
+	
+	void testCompactIPv4(String strs[]) {
+		CompactIPv4Address compacts[] = new CompactIPv4Address[strs.length];
+		IPv4Address addrs[] = new IPv4Address[strs.length];
+		for(int i = 0; i < strs.length; i++) {
+			IPAddressString addrString = createAddress(strs[i]);
+			IPv4Address addr = addrString.getAddress().toIPv4();
+			CompactIPv4Address compact = new CompactIPv4Address(addr);
+			CompactIPv4Address fromValue = new CompactIPv4Address(compact.intValue(), addr.getNetworkPrefixLength());
+			if(!compact.toString().equals(addr.toString()) || !compact.toAddress().equals(addr) ||
+					!Objects.equals(compact.toAddress().getNetworkPrefixLength(), addr.getNetworkPrefixLength()) ||
+					!Arrays.equals(compact.getSegments(), addr.getSegments()) || !Arrays.equals(compact.getBytes(), addr.getLower().getBytes())) {
+				addFailure(new Failure("compact mismatch " + compact, addr));
+			} else if(!compact.equals(fromValue) || compact.hashCode() != fromValue.hashCode() || compact.getCount() != addr.getCount().longValue()) {
+				addFailure(new Failure("compact value mismatch " + fromValue, addr));
+			} else if(!compact.contains(addr.getLower()) || !compact.contains(addr.getUpper()) || !compact.contains(fromValue)) {
+				addFailure(new Failure("compact containment failed " + compact, addr));
+			}
+			compacts[i] = compact;
+			addrs[i] = addr;
+			incrementTestCount();
+		}
+		for(int i = 0; i < strs.length; i++) {
+			for(int j = 0; j < strs.length; j++) {
+				int expected = Integer.signum(addrs[i].compareTo(addrs[j]));
+				if(Integer.signum(compacts[i].compareTo(compacts[j])) != expected ||
+						compacts[i].equals(compacts[j]) != addrs[i].equals(addrs[j]) ||
+						compacts[i].contains(compacts[j]) != addrs[i].contains(addrs[j])) {
+					addFailure(new Failure("compact comparison mismatch " + compacts[i] + " " + compacts[j], addrs[i]));
+				}
+			}
+		}
+		try {
+			new CompactIPv4Address(createAddress("1.2.3-4.5", INET_ATON_WILDCARD_AND_RANGE_OPTIONS).getAddress().toIPv4());
+			addFailure(new Failure("compact range succeeded"));
+		} catch(AddressTypeException e) {}
+		incrementTestCount();
+	}
+	
+	void testCompactIPv6(String strs[]) {
+		IPv6AddressNetwork.IPv6AddressCreator creator = IPv6Address.network().getAddressCreator();
+		CompactIPv6Address compacts[] = new CompactIPv6Address[strs.length];
+		IPv6Address addrs[] = new IPv6Address[strs.length];
+		for(int i = 0; i < strs.length; i++) {
+			IPAddressString addrString = createAddress(strs[i]);
+			IPv6Address addr = addrString.getAddress().toIPv6();
+			CompactIPv6Address compact = creator.createCompactAddress(addr);
+			CompactIPv6Address fromValue = creator.createCompactAddress(compact.getHighBits(), compact.getLowBits(), addr.getNetworkPrefixLength(), addr.getZone());
+			IPv6Address materialized = compact.toAddress();
+			if(!compact.toString().equals(addr.toString()) || !compact.toCompressedString().equals(addr.toCompressedString()) ||
+					!compact.toFullString().equals(addr.toFullString()) || !compact.toMixedString().equals(addr.toMixedString()) ||
+					!compact.toNormalizedString().equals(addr.toNormalizedString()) || !compact.toCanonicalString().equals(addr.toCanonicalString()) ||
+					!materialized.equals(addr) || !Objects.equals(materialized.getNetworkPrefixLength(), addr.getNetworkPrefixLength()) ||
+					!Arrays.equals(compact.getSegments(), addr.getSegments()) || !Arrays.equals(compact.getBytes(), addr.getLower().getBytes())) {
+				addFailure(new Failure("compact mismatch " + compact, addr));
+			} else if(!compact.equals(fromValue) || compact.hashCode() != fromValue.hashCode() || !compact.getCount().equals(addr.getCount())) {
+				addFailure(new Failure("compact value mismatch " + fromValue, addr));
+			} else if(!compact.contains(fromValue) || compact.isMultiple() != addr.isMultiple()) {
+				addFailure(new Failure("compact containment failed " + compact, addr));
+			}
+			compacts[i] = compact;
+			addrs[i] = addr;
+			incrementTestCount();
+		}
+		for(int i = 0; i < strs.length; i++) {
+			for(int j = 0; j < strs.length; j++) {
+				if(compacts[i].equals(compacts[j]) != addrs[i].isSameAddress(addrs[j]) ||
+						compacts[i].contains(compacts[j]) != addrs[i].contains(addrs[j])) {
+					addFailure(new Failure("compact comparison mismatch " + compacts[i] + " " + compacts[j], addrs[i]));
+				} else if(!compacts[i].hasZone() && !compacts[j].hasZone() &&
+						Integer.signum(compacts[i].compareTo(compacts[j])) != Integer.signum(addrs[i].compareTo(addrs[j]))) {
+					addFailure(new Failure("compact ordering mismatch " + compacts[i] + " " + compacts[j], addrs[i]));
+				} else if(!compacts[i].isPrefixed() && !compacts[j].isPrefixed() && !compacts[i].hasZone() && !compacts[j].hasZone()) {
+					CompactIPv6Address masked = compacts[i].mask(compacts[j]);
+					if(!masked.toAddress().equals(addrs[i].mask(addrs[j]))) {
+						addFailure(new Failure("compact mask mismatch " + masked, addrs[i]));
+					}
+				}
+			}
+		}
+		try {
+			creator.createCompactAddress(createAddress("1::2-3", INET_ATON_WILDCARD_AND_RANGE_OPTIONS).getAddress().toIPv6());
+			addFailure(new Failure("compact range succeeded"));
+		} catch(AddressTypeException e) {}
+		incrementTestCount();
+	}
+	
+	void testMerge(String strs[], String expected[]) {
+		IPAddress addrs[] = new IPAddress[strs.length - 1];
+		for(int i = 1; i < strs.length; i++) {
+			addrs[i - 1] = createAddress(strs[i], INET_ATON_WILDCARD_AND_RANGE_OPTIONS).getAddress();
+		}
+		IPAddress first = createAddress(strs[0], INET_ATON_WILDCARD_AND_RANGE_OPTIONS).getAddress();
+		IPAddress merged[] = first.mergeToPrefixBlocks(addrs);
+		String mergedStrs[] = new String[merged.length];
+		for(int i = 0; i < merged.length; i++) {
+			mergedStrs[i] = merged[i].toPrefixLengthString();
+		}
+		String expectedStrs[] = new String[expected.length];
+		for(int i = 0; i < expected.length; i++) {
+			expectedStrs[i] = createAddress(expected[i]).getAddress().toPrefixLengthString();
+		}
+		if(!Arrays.equals(mergedStrs, expectedStrs)) {
+			addFailure(new Failure("merged " + Arrays.asList(mergedStrs) + " expected " + Arrays.asList(expectedStrs), first));
+		}
+		incrementTestCount();
+	}
+	
+	void testMergeLarge(int count, long seed) {
+		//random addresses and blocks within 10.0.0.0/16, checked against a bit set of the same addresses
+		java.util.Random random = new java.util.Random(seed);
+		IPv4Address addrs[] = new IPv4Address[count];
+		java.util.BitSet model = new java.util.BitSet();
+		for(int i = 0; i < count; i++) {
+			int value = random.nextInt(1 << 16);
+			int prefix = 24 + random.nextInt(9);
+			addrs[i] = new IPv4Address((10 << 24) | value, prefix);
+			int start = value & (-1 << (32 - prefix)), size = 1 << (32 - prefix);
+			model.set(start, start + size);
+		}
+		IPv4Address merged[] = addrs[0].mergeToPrefixBlocks(addrs);
+		java.util.BitSet covered = new java.util.BitSet();
+		int previousStart = -1, previousSize = 0;
+		for(IPv4Address block : merged) {
+			int prefix = block.getNetworkPrefixLength();
+			int start = (block.getSegment(2).getLowerSegmentValue() << 8) | block.getSegment(3).getLowerSegmentValue(), size = 1 << (32 - prefix);
+			if(start < previousStart + previousSize || (start & (size - 1)) != 0) {
+				addFailure(new Failure("merged block out of order or overlapping", block));
+			} else if(size == previousSize && (previousStart & ((size << 1) - 1)) == 0 && start == previousStart + size) {
+				//the blocks are minimal when no two consecutive blocks are the halves of a larger block
+				addFailure(new Failure("merged blocks not minimal", block));
+			}
+			previousStart = start;
+			previousSize = size;
+			covered.set(start, start + size);
+		}
+		if(!covered.equals(model)) {
+			addFailure(new Failure("merged blocks do not cover the addresses"));
+		}
+		incrementTestCount();
+	}
+	
+	static String[] toPrefixLengthStrings(IPAddress addrs[]) {
+		String result[] = new String[addrs.length];
+		for(int i = 0; i < addrs.length; i++) {
+			result[i] = addrs[i].toPrefixLengthString();
+		}
+		return result;
+	}
+	
+	void testSpan(String lower, String upper, String expectedPrefixBlocks[], String expectedSequentialBlocks[]) {
+		IPAddress one = createAddress(lower).getAddress();
+		IPAddress two = createAddress(upper).getAddress();
+		String expectedStrs[] = new String[expectedPrefixBlocks.length];
+		for(int i = 0; i < expectedStrs.length; i++) {
+			expectedStrs[i] = createAddress(expectedPrefixBlocks[i]).getAddress().toPrefixLengthString();
+		}
+		//the span does not depend on the order of the two addresses
+		String spanned[] = toPrefixLengthStrings(one.spanWithPrefixBlocks(two));
+		String reverseSpanned[] = toPrefixLengthStrings(two.spanWithPrefixBlocks(one));
+		if(!Arrays.equals(spanned, expectedStrs) || !Arrays.equals(reverseSpanned, expectedStrs)) {
+			addFailure(new Failure("spanned " + Arrays.asList(spanned) + " expected " + Arrays.asList(expectedStrs), one));
+		}
+		IPAddress sequential[] = one.spanWithSequentialBlocks(two);
+		IPAddress expectedSequential[] = new IPAddress[expectedSequentialBlocks.length];
+		for(int i = 0; i < expectedSequential.length; i++) {
+			expectedSequential[i] = createAddress(expectedSequentialBlocks[i], INET_ATON_WILDCARD_AND_RANGE_OPTIONS).getAddress();
+		}
+		if(!Arrays.equals(sequential, expectedSequential) || !Arrays.equals(two.spanWithSequentialBlocks(one), expectedSequential)) {
+			addFailure(new Failure("spanned " + Arrays.asList(sequential) + " expected " + Arrays.asList(expectedSequential), one));
+		}
+		//merging the sequential blocks gives the same prefix blocks
+		IPAddress merged[] = sequential[0].mergeToPrefixBlocks(sequential);
+		if(!Arrays.equals(toPrefixLengthStrings(merged), expectedStrs)) {
+			addFailure(new Failure("merged span " + Arrays.asList(merged) + " expected " + Arrays.asList(expectedStrs), one));
+		}
+		incrementTestCount();
+	}
+	
+	void testSpanRandom(int count, long seed) {
+		//random ranges within 10.0.0.0/16, compared with the blocks of the same range found by merging
+		java.util.Random random = new java.util.Random(seed);
+		for(int i = 0; i < count; i++) {
+			int one = random.nextInt(1 << 16), two = random.nextInt(1 << 16);
+			IPv4Address lower = new IPv4Address((10 << 24) | Math.min(one, two));
+			IPv4Address upper = new IPv4Address((10 << 24) | Math.max(one, two));
+			IPv4Address blocks[] = lower.spanWithPrefixBlocks(upper);
+			IPv4Address sequential[] = upper.spanWithSequentialBlocks(lower);
+			int next = Math.min(one, two);
+			for(IPv4Address block : sequential) {
+				int start = (block.getSegment(2).getLowerSegmentValue() << 8) | block.getSegment(3).getLowerSegmentValue();
+				int end = (block.getSegment(2).getUpperSegmentValue() << 8) | block.getSegment(3).getUpperSegmentValue();
+				if(start != next || block.getCount().intValue() != end - start + 1) {
+					addFailure(new Failure("sequential span not contiguous", block));
+					break;
+				}
+				next = end + 1;
+			}
+			if(next != Math.max(one, two) + 1) {
+				addFailure(new Failure("sequential span incomplete " + Arrays.asList(sequential), lower));
+			} else if(!Arrays.equals(toPrefixLengthStrings(blocks), toPrefixLengthStrings(lower.mergeToPrefixBlocks(sequential)))) {
+				addFailure(new Failure("spanned " + Arrays.asList(blocks) + " merged " + Arrays.asList(lower.mergeToPrefixBlocks(sequential)), lower));
+			}
+			incrementTestCount();
+		}
+	}
+	
+	void testAppendStrings(String str) {
+		IPAddress addr = createAddress(str, INET_ATON_WILDCARD_AND_RANGE_OPTIONS).getAddress();
+		List<IPStringOptions> options = new ArrayList<IPStringOptions>();
+		options.add(new IPStringOptions.Builder(16).setSeparator(IPv6Address.SEGMENT_SEPARATOR).setExpandedSegments(true).toParams());
+		if(addr.isIPv6()) {
+			options.add(new IPv6StringOptions.Builder().setMakeMixed(true).setCompressOptions(new CompressOptions(true, CompressOptions.CompressionChoiceOptions.ZEROS_OR_HOST)).toParams());
+			options.add(new IPv6StringOptions.Builder().setMakeMixed(true).toParams());
+			options.add(new IPv6StringOptions.Builder().toParams());
+		} else {
+			options.add(new IPv4StringOptions.Builder().setExpandedSegments(true).toParams());
+		}
+		//the builder already has content, which is kept
+		String start = "start ";
+		for(IPStringOptions opts : options) {
+			String expected = start + addr.toNormalizedString(opts);
+			String appended = addr.appendNormalizedString(opts, new StringBuilder(start)).toString();
+			if(!appended.equals(expected)) {
+				addFailure(new Failure("appended " + appended + " expected " + expected, addr));
+			}
+			String sectionExpected = start + addr.getSection().toNormalizedString(opts);
+			String sectionAppended = addr.getSection().appendNormalizedString(opts, new StringBuilder(start)).toString();
+			if(!sectionAppended.equals(sectionExpected)) {
+				addFailure(new Failure("appended " + sectionAppended + " expected " + sectionExpected, addr));
+			}
+		}
+		//append before the strings are cached, and then after
+		IPAddress uncached = new IPAddressString(str, INET_ATON_WILDCARD_AND_RANGE_OPTIONS).getAddress();
+		String canonical = uncached.appendCanonicalString(new StringBuilder()).toString();
+		String compressed = uncached.appendCompressedString(new StringBuilder()).toString();
+		if(!canonical.equals(addr.toCanonicalString()) || !compressed.equals(addr.toCompressedString()) ||
+				!addr.appendCanonicalString(new StringBuilder()).toString().equals(canonical) ||
+				!addr.appendCompressedString(new StringBuilder()).toString().equals(compressed) ||
+				!addr.getSection().appendCanonicalString(new StringBuilder()).toString().equals(addr.getSection().toCanonicalString())) {
+			addFailure(new Failure("appended " + canonical + " and " + compressed, addr));
+		}
+		incrementTestCount();
+	}
+	
+	static String toBase85(BigInteger value) {
+		//the digits of RFC 1924, computed independently of the address classes
+		char digits[] = new char[20];
+		BigInteger eightyFive = BigInteger.valueOf(85);
+		for(int i = digits.length - 1; i >= 0; i--) {
+			BigInteger divRem[] = value.divideAndRemainder(eightyFive);
+			digits[i] = AddressLargeDivision.EXTENDED_DIGITS[divRem[1].intValue()];
+			value = divRem[0];
+		}
+		return new String(digits);
+	}
+	
+	void testBase85Random(int count, long seed) {
+		java.util.Random random = new java.util.Random(seed);
+		for(int i = 0; i < count; i++) {
+			//use small values as well as large, so that leading zeros are covered
+			long high = (i % 3 == 0) ? 0 : random.nextLong();
+			long low = (i % 5 == 0) ? random.nextInt(85) : random.nextLong();
+			byte bytes[] = ByteBuffer.allocate(IPv6Address.BYTE_COUNT).putLong(high).putLong(low).array();
+			IPv6Address addr = new IPv6Address(bytes);
+			String expected = toBase85(new BigInteger(1, bytes));
+			String base85 = addr.toBase85String();
+			if(!base85.equals(expected)) {
+				addFailure(new Failure("base 85 " + base85 + " expected " + expected, addr));
+			} else if(base85.charAt(0) != IPv6Address.ZONE_SEPARATOR) {//a leading zone separator is not parsed as a digit
+				IPAddress parsed = createAddress(base85, DEFAULT_BASIC_VALIDATION_OPTIONS).getAddress();
+				if(parsed == null || !parsed.equals(addr)) {
+					addFailure(new Failure("base 85 parsed " + parsed + " from " + base85, addr));
+				}
+			}
+			incrementTestCount();
+		}
+		//the largest 20 digit value exceeds 128 bits
+		String tooLarge = "~~~~~~~~~~~~~~~~~~~~";
+		try {
+			createAddress(tooLarge, DEFAULT_BASIC_VALIDATION_OPTIONS).validate();
+			addFailure(new Failure("base 85 value too large " + tooLarge));
+		} catch(AddressStringException e) {}
+		incrementTestCount();
+	}
+	
 	void testEquivalentPrefix(String host, int prefix) {
 		testEquivalentPrefix(host, prefix, prefix);
 	}
@@ -1717,6 +2185,91 @@ public class IPAddressTest extends TestBase {
 	
 	@Override
 	void runTest() {
+		testDottedDecimal("1.2.3.4", 0x01020304, null);
+		testDottedDecimal("0.0.0.0", 0, null);
+		testDottedDecimal("255.255.255.255", -1, null);
+		testDottedDecimal("10.200.30.4/16", 0x0ac81e04, 16);
+		testDottedDecimal("10.200.30.4/0", 0x0ac81e04, 0);
+		testDottedDecimal("10.200.30.4/32", 0x0ac81e04, 32);
+		
+		String parseValueStrs[] = {
+				"1.2.3.4", "1.2.3.4/16", "1.2.3.4/255.255.0.0", "255.255.255.255", "01.02.03.04", "0x1.0x2.3.4", "1.2.772", "1.131844", "16909060",
+				"1.2.3.*", "1.2.3.4-5", "1.2.3", "1.2.3.256", "1.2.3.4/33", "", "*", "/16", "a.b.c.d",
+				"1:2:3:4:5:6:7:8", "1::8", "::", "::1", "1::", "ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff", "1:2:3:4:5:6:1.2.3.4", "::ffff:1.2.3.4", "1::1.2.3.4",
+				"fe80::1%eth0", "1:2::3/64", "0x00010002000300040005000600070008", "4)+k&C#VzJ4br>0wv%Yp",
+				"1:2:3:4:5:6:7:*", "1::2-3", "1:2:3:4:5:6:1.2.3.*", "1:2:3:4:5:6:7", "1:2:3:4:5:6:7:8:9", "1::2::3"
+		};
+		for(String str : parseValueStrs) {
+			testParseValue(str, ADDRESS_OPTIONS);
+			testParseValue(str, INET_ATON_WILDCARD_AND_RANGE_OPTIONS);
+			testParseBytes(str, ADDRESS_OPTIONS);
+			testParseBytes(str, INET_ATON_WILDCARD_AND_RANGE_OPTIONS);
+		}
+		testReusedParser(parseValueStrs, ADDRESS_OPTIONS);
+		testReusedParser(parseValueStrs, INET_ATON_WILDCARD_AND_RANGE_OPTIONS);
+		//whitespace is trimmed, as it is by IPAddressString
+		String paddedStrs[] = {
+				" 1.2.3.4", "1.2.3.4 ", " ", "\t1.2.3.4/16\r\n", " 1.2.3.4 5", " 1:2::3 ", "1::8\r", " fe80::1%eth0 ", " 1.2.3.* ", "\t"
+		};
+		testReusedParser(paddedStrs, ADDRESS_OPTIONS);
+		testReusedParser(paddedStrs, INET_ATON_WILDCARD_AND_RANGE_OPTIONS);
+		for(String str : paddedStrs) {
+			testParseValue(str, ADDRESS_OPTIONS);
+			testParseBytes(str, ADDRESS_OPTIONS);
+		}
+		testBatch(parseValueStrs, ADDRESS_OPTIONS);
+		testBatch(parseValueStrs, INET_ATON_WILDCARD_AND_RANGE_OPTIONS);
+		testBatch(paddedStrs, ADDRESS_OPTIONS);
+		testCompactIPv4(new String[] {
+				"1.2.3.4", "1.2.3.4/32", "1.2.3.4/16", "1.2.0.0/16", "1.2.3.0/24", "0.0.0.0/0", "0.0.0.0", "255.255.255.255", "128.0.0.0/1", "1.2.3.5", "9.8.7.6/31"
+		});
+		testCompactIPv6(new String[] {
+				"1:2:3:4:5:6:7:8", "1:2:3:4:5:6:7:8/128", "1:2:3:4:5:6:7:8/64", "1:2:3:4::/64", "1:2:3:4:5:6:7:0/112", "1:2:3:4:5:6:7:8/65",
+				"::", "::/0", "ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff", "8000::/1", "::ffff:1.2.3.4", "fe80::1%eth0", "fe80::1%eth1", "fe80::1",
+				"ffff:ffff:ffff:ffff::", "ffff:ffff:ffff:ffff:ffff:ffff:ffff:0"
+		});
+		
+		testMerge(new String[] {"1.2.3.4"}, new String[] {"1.2.3.4/32"});
+		testMerge(new String[] {"1.2.3.0", "1.2.3.1", "1.2.3.2", "1.2.3.3"}, new String[] {"1.2.3.0/30"});
+		testMerge(new String[] {"1.2.3-7.*"}, new String[] {"1.2.3.0/24", "1.2.4.0/22"});
+		testMerge(new String[] {"1.2.3.4-5", "1.2.3.0/30", "1.2.3.6/31", "1.2.3.8"}, new String[] {"1.2.3.0/29", "1.2.3.8/32"});
+		testMerge(new String[] {"1.2.0.0/16", "1.2.3.4", "1.3.0.0/16"}, new String[] {"1.2.0.0/15"});
+		testMerge(new String[] {"1.2.3-4.5"}, new String[] {"1.2.3.5/32", "1.2.4.5/32"});
+		testMerge(new String[] {"0.0.0.0/1", "128.0.0.0/1"}, new String[] {"0.0.0.0/0"});
+		testMerge(new String[] {"255.255.255.255", "255.255.255.254", "0.0.0.0"}, new String[] {"0.0.0.0/32", "255.255.255.254/31"});
+		testMerge(new String[] {"1.2.3.1-254"}, new String[] {"1.2.3.1/32", "1.2.3.2/31", "1.2.3.4/30", "1.2.3.8/29", "1.2.3.16/28", "1.2.3.32/27", "1.2.3.64/26",
+				"1.2.3.128/26", "1.2.3.192/27", "1.2.3.224/28", "1.2.3.240/29", "1.2.3.248/30", "1.2.3.252/31", "1.2.3.254/32"});
+		testMerge(new String[] {"::/1", "8000::/1"}, new String[] {"::/0"});
+		testMerge(new String[] {"ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff", "ffff:ffff:ffff:ffff::/65", "ffff:ffff:ffff:ffff:8000::/65"}, new String[] {"ffff:ffff:ffff:ffff::/64"});
+		testMerge(new String[] {"1::ffff:ffff:ffff:fffe-ffff", "1::1:0:0:0:0/127"}, new String[] {"1::ffff:ffff:ffff:fffe/127", "1:0:0:1::/127"});
+		testMerge(new String[] {"1:2:3:4:5:6:7:8", "1.2.3.4"}, new String[] {"::ffff:102:304/128", "1:2:3:4:5:6:7:8/128"});
+		testMergeLarge(fullTest ? 20000 : 2000, 1);
+		testMergeLarge(300, 2);
+		
+		testSpan("1.0.0.0", "1.0.0.255", new String[] {"1.0.0.0/24"}, new String[] {"1.0.0.*"});
+		testSpan("1.0.0.0", "1.0.1.5", new String[] {"1.0.0.0/24", "1.0.1.0/30", "1.0.1.4/31"}, new String[] {"1.0.0.*", "1.0.1.0-5"});
+		testSpan("1.2.3.250", "1.2.6.5", new String[] {"1.2.3.250/31", "1.2.3.252/30", "1.2.4.0/23", "1.2.6.0/30", "1.2.6.4/31"}, 
+				new String[] {"1.2.3.250-255", "1.2.4-5.*", "1.2.6.0-5"});
+		testSpan("1.2.3.4", "1.2.3.4", new String[] {"1.2.3.4/32"}, new String[] {"1.2.3.4"});
+		testSpan("0.0.0.0", "255.255.255.255", new String[] {"0.0.0.0/0"}, new String[] {"*.*.*.*"});
+		testSpan("1.255.255.255", "3.0.0.0", new String[] {"1.255.255.255/32", "2.0.0.0/8", "3.0.0.0/32"}, new String[] {"1.255.255.255", "2.*.*.*", "3.0.0.0"});
+		testSpan("1.2.3.0/24", "1.2.5.0/24", new String[] {"1.2.3.0/24", "1.2.4.0/23"}, new String[] {"1.2.3-5.*"});
+		testSpan("1::ffff", "1::2:f", new String[] {"1::ffff/128", "1::1:0/112", "1::2:0/124"}, new String[] {"1::ffff", "1::1:*", "1::2:0-f"});
+		testSpan("::", "ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff", new String[] {"::/0"}, new String[] {"*:*:*:*:*:*:*:*"});
+		testSpan("::ffff:ffff:ffff:ffff", "0:0:0:1::", new String[] {"::ffff:ffff:ffff:ffff/128", "0:0:0:1::/128"}, new String[] {"::ffff:ffff:ffff:ffff", "0:0:0:1::"});
+		testSpan("1:2:3:4::", "1:2:3:7:ffff:ffff:ffff:ffff", new String[] {"1:2:3:4::/62"}, new String[] {"1:2:3:4-7:*:*:*:*"});
+		testSpanRandom(300, 3);
+		testBase85Random(300, 4);
+		
+		testAppendStrings("1.2.3.4");
+		testAppendStrings("1.2.0.0/16");
+		testAppendStrings("1.2-3.*.4");
+		testAppendStrings("1:2::");
+		testAppendStrings("1:2::%eth0");
+		testAppendStrings("1:2::/32");
+		testAppendStrings("1:2:*::5:1.2.3.4");
+		testAppendStrings("::ffff:1.2.3.4%3");
+		
 		testEquivalentPrefix("1.2.3.4", 32);
 		testEquivalentPrefix("1.2.3.4/1", 1);
 		testEquivalentPrefix("1.2.3.4/15", 15);
@@ -0,0 +1,379 @@
+/*
+ * Copyright 2017 Sean C Foley
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     or at
+ *     https://github.com/seancfoley/IPAddress/blob/master/LICENSE
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package inet.ipaddr.test;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import inet.ipaddr.AddressComparator.ValueComparator;
+import inet.ipaddr.AddressTypeException;
+import inet.ipaddr.IPAddress;
+import inet.ipaddr.format.util.IPAddressTrie;
+import inet.ipaddr.format.util.IPAddressTrieMap;
+
+
+public class IPAddressTrieTest extends TestBase {
+
+	IPAddressTrieTest(AddressCreator creator) {
+		super(creator);
+	}
+
+	IPAddress getAddress(String str) {
+		return createAddress(str, IPAddressRangeTest.WILDCARD_AND_RANGE_ADDRESS_OPTIONS).getAddress();
+	}
+
+	IPAddressTrie createTrie(String blocks[]) {
+		IPAddressTrie trie = new IPAddressTrie();
+		for(String block : blocks) {
+			IPAddress addr = getAddress(block);
+			if(!trie.add(addr)) {
+				addFailure(new Failure("add failed", addr));
+			}
+			if(trie.add(addr)) {
+				addFailure(new Failure("add duplicate succeeded", addr));
+			}
+		}
+		if(trie.size() != blocks.length) {
+			addFailure(new Failure("size mismatch " + trie.size() + " expected " + blocks.length));
+		}
+		return trie;
+	}
+
+	void testLongestPrefixMatch(String blocks[], String addrStr, String expected) {
+		IPAddressTrie trie = createTrie(blocks);
+		IPAddress addr = getAddress(addrStr);
+		IPAddress match = trie.longestPrefixMatch(addr);
+		if(expected == null) {
+			if(match != null) {
+				addFailure(new Failure("unexpected match " + match, addr));
+			} else if(trie.elementContains(addr)) {
+				addFailure(new Failure("unexpected containment", addr));
+			}
+		} else {
+			IPAddress expectedAddr = getAddress(expected);
+			if(match == null || !match.equals(expectedAddr)) {
+				addFailure(new Failure("match " + match + " expected " + expectedAddr, addr));
+			} else if(!trie.elementContains(addr)) {
+				addFailure(new Failure("no containment", addr));
+			} else if(!match.contains(addr)) {
+				addFailure(new Failure("match " + match + " does not contain", addr));
+			}
+		}
+		incrementTestCount();
+	}
+
+	void testContaining(String blocks[], String addrStr, String expected[]) {
+		IPAddressTrie trie = createTrie(blocks);
+		IPAddress addr = getAddress(addrStr);
+		List<IPAddress> containing = trie.elementsContaining(addr);
+		if(containing.size() != expected.length) {
+			addFailure(new Failure("containing " + containing + " expected " + Arrays.asList(expected), addr));
+		} else {
+			for(int i = 0; i < expected.length; i++) {
+				IPAddress expectedAddr = getAddress(expected[i]);
+				if(!containing.get(i).equals(expectedAddr)) {
+					addFailure(new Failure("containing " + containing + " expected " + Arrays.asList(expected), addr));
+					break;
+				}
+			}
+		}
+		incrementTestCount();
+	}
+
+	void testRemove(String blocks[], String removed[]) {
+		IPAddressTrie trie = createTrie(blocks);
+		for(String removedStr : removed) {
+			IPAddress addr = getAddress(removedStr);
+			if(!trie.remove(addr)) {
+				addFailure(new Failure("remove failed", addr));
+			} else if(trie.contains(addr)) {
+				addFailure(new Failure("contains removed", addr));
+			} else if(trie.remove(addr)) {
+				addFailure(new Failure("removed twice", addr));
+			}
+		}
+		if(trie.size() != blocks.length - removed.length) {
+			addFailure(new Failure("size mismatch after remove " + trie.size()));
+		}
+		List<String> removedList = Arrays.asList(removed);
+		for(String block : blocks) {
+			IPAddress addr = getAddress(block);
+			if(!removedList.contains(block) && !trie.contains(addr)) {
+				addFailure(new Failure("remaining not contained", addr));
+			}
+		}
+		for(String removedStr : removed) {
+			trie.remove(getAddress(removedStr));
+		}
+		for(String block : blocks) {
+			trie.remove(getAddress(block));
+		}
+		if(!trie.isEmpty() || trie.iterator().hasNext()) {
+			addFailure(new Failure("not empty after remove: " + trie));
+		}
+		incrementTestCount();
+	}
+
+	void testIterationOrder(String blocks[], String expected[]) {
+		IPAddressTrie trie = createTrie(blocks);
+		Iterator<IPAddress> iterator = trie.iterator();
+		for(String expectedStr : expected) {
+			IPAddress expectedAddr = getAddress(expectedStr);
+			if(!iterator.hasNext()) {
+				addFailure(new Failure("iterator ended early, expected", expectedAddr));
+				return;
+			}
+			IPAddress next = iterator.next();
+			if(!next.equals(expectedAddr)) {
+				addFailure(new Failure("iterator returned " + next + " expected", expectedAddr));
+				return;
+			}
+		}
+		if(iterator.hasNext()) {
+			addFailure(new Failure("iterator has extra " + iterator.next()));
+		}
+		incrementTestCount();
+	}
+
+	void testNotBlock(String addrStr) {
+		IPAddressTrie trie = new IPAddressTrie();
+		IPAddress addr = getAddress(addrStr);
+		try {
+			trie.add(addr);
+			addFailure(new Failure("added non-block", addr));
+		} catch(AddressTypeException e) {
+			//pass
+		}
+		incrementTestCount();
+	}
+
+	void testMap() {
+		IPAddressTrieMap<String> map = new IPAddressTrieMap<String>();
+		String blocks[] = {"10.0.0.0/8", "10.1.0.0/16", "10.1.2.0/24", "1::/16", "1:2::/32"};
+		for(String block : blocks) {
+			if(map.put(getAddress(block), block) != null) {
+				addFailure(new Failure("put returned existing value", getAddress(block)));
+			}
+		}
+		if(map.size() != blocks.length) {
+			addFailure(new Failure("map size " + map.size() + " expected " + blocks.length));
+		}
+		testMapMatch(map, "10.1.2.3", "10.1.2.0/24");
+		testMapMatch(map, "10.1.3.3", "10.1.0.0/16");
+		testMapMatch(map, "10.2.3.3", "10.0.0.0/8");
+		testMapMatch(map, "11.2.3.3", null);
+		testMapMatch(map, "1:2:3::", "1:2::/32");
+		testMapMatch(map, "1:3::", "1::/16");
+		IPAddress key = getAddress("10.1.*.*");
+		if(!"10.1.0.0/16".equals(map.put(key, "replaced")) || !"replaced".equals(map.get(getAddress("10.1.0.0/16")))) {
+			addFailure(new Failure("put did not replace", key));
+		}
+		if(!"replaced".equals(map.asNavigableMap().get(getAddress("10.1.0.0/16")))) {
+			addFailure(new Failure("ordered view not updated", key));
+		}
+		if(!"replaced".equals(map.remove(key)) || map.containsKey(key) || map.asNavigableMap().containsKey(getAddress("10.1.0.0/16"))) {
+			addFailure(new Failure("remove failed", key));
+		}
+		testMapMatch(map, "10.1.3.3", "10.0.0.0/8");
+		testMapMatch(map, "10.1.2.3", "10.1.2.0/24");
+
+		//with the default count comparator, blocks with more addresses come later
+		IPAddress single = getAddress("10.1.2.3");
+		Map.Entry<IPAddress, String> entry = map.floorEntry(single);
+		if(entry != null) {
+			addFailure(new Failure("floor " + entry, single));
+		}
+		entry = map.ceilingEntry(single);
+		if(entry == null || !entry.getValue().equals("10.1.2.0/24")) {
+			addFailure(new Failure("ceiling " + entry, single));
+		}
+		IPAddress larger = getAddress("10.200.0.0/16");
+		entry = map.floorEntry(larger);
+		if(entry == null || !entry.getValue().equals("10.1.2.0/24")) {
+			addFailure(new Failure("floor " + entry, larger));
+		}
+		entry = map.ceilingEntry(larger);
+		if(entry == null || !entry.getValue().equals("10.0.0.0/8")) {
+			addFailure(new Failure("ceiling " + entry, larger));
+		}
+		entry = map.higherEntry(getAddress("10.0.0.0/8"));
+		if(entry == null || !entry.getValue().equals("1:2::/32")) {
+			addFailure(new Failure("higher " + entry, getAddress("10.0.0.0/8")));
+		}
+
+		IPAddressTrieMap<String> valueMap = new IPAddressTrieMap<String>(new ValueComparator(false));
+		for(String block : blocks) {
+			valueMap.put(getAddress(block), block);
+		}
+		entry = valueMap.lowerEntry(getAddress("10.1.2.3"));
+		if(entry == null || !entry.getValue().equals("10.1.2.0/24")) {
+			addFailure(new Failure("lower " + entry, getAddress("10.1.2.3")));
+		}
+		entry = valueMap.higherEntry(getAddress("10.1.2.3"));
+		if(entry != null && entry.getKey().isIPv4()) {
+			addFailure(new Failure("higher " + entry, getAddress("10.1.2.3")));
+		}
+		incrementTestCount();
+	}
+
+	void testMapMatch(IPAddressTrieMap<String> map, String addrStr, String expected) {
+		IPAddress addr = getAddress(addrStr);
+		String value = map.longestPrefixMatch(addr);
+		if(expected == null ? value != null : !expected.equals(value)) {
+			addFailure(new Failure("map match " + value + " expected " + expected, addr));
+		} else if(expected != null && !map.longestPrefixMatchKey(addr).equals(getAddress(expected))) {
+			addFailure(new Failure("map match key " + map.longestPrefixMatchKey(addr) + " expected " + expected, addr));
+		}
+		incrementTestCount();
+	}
+
+	void testConcurrentMapReads(boolean withChildren) {
+		final IPAddressTrieMap<String> map = new IPAddressTrieMap<String>();
+		final IPAddress fixed = getAddress("10.0.0.0/8");
+		final IPAddress lookup = getAddress("10.1.2.3");
+		map.put(fixed, "fixed");
+		final IPAddress others[] = new IPAddress[256];
+		for(int i = 0; i < others.length; i++) {
+			others[i] = getAddress("10." + i + ".0.0/16");
+			if(withChildren) {
+				//with two children, a removed node remains in the trie as a branching node
+				map.put(getAddress("10." + i + ".64.0/24"), "child");
+				map.put(getAddress("10." + i + ".128.0/24"), "child");
+			}
+		}
+		final AtomicBoolean failed = new AtomicBoolean();
+		final AtomicBoolean done = new AtomicBoolean();
+		Thread reader = new Thread() {
+			@Override
+			public void run() {
+				while(!done.get()) {
+					String value = map.longestPrefixMatch(lookup);
+					IPAddress key = map.longestPrefixMatchKey(lookup);
+					if(value == null || !(value.equals("fixed") || value.startsWith("10.1.")) || key == null || !key.contains(lookup)) {
+						failed.set(true);
+						return;
+					}
+				}
+			}
+		};
+		reader.start();
+		int rounds = fullTest ? 20 : 4;
+		for(int j = 0; j < rounds; j++) {
+			for(IPAddress other : others) {
+				map.put(other, other.toString());
+			}
+			for(IPAddress other : others) {
+				map.remove(other);
+			}
+		}
+		done.set(true);
+		try {
+			reader.join();
+		} catch(InterruptedException e) {}
+		if(failed.get() || map.size() != (withChildren ? 1 + 2 * others.length : 1)) {
+			addFailure(new Failure("concurrent read failed", lookup));
+		}
+		incrementTestCount();
+	}
+
+	@Override
+	void runTest() {
+		String ipv4Blocks[] = {
+				"10.0.0.0/8",
+				"10.1.0.0/16",
+				"10.1.2.0/24",
+				"10.1.2.128/25",
+				"10.128.0.0/9",
+				"192.168.0.0/16",
+				"192.168.1.1",
+				"0.0.0.0/0"
+		};
+		testLongestPrefixMatch(ipv4Blocks, "10.1.2.3", "10.1.2.0/24");
+		testLongestPrefixMatch(ipv4Blocks, "10.1.2.200", "10.1.2.128/25");
+		testLongestPrefixMatch(ipv4Blocks, "10.1.3.1", "10.1.0.0/16");
+		testLongestPrefixMatch(ipv4Blocks, "10.2.3.1", "10.0.0.0/8");
+		testLongestPrefixMatch(ipv4Blocks, "10.200.3.1", "10.128.0.0/9");
+		testLongestPrefixMatch(ipv4Blocks, "192.168.1.1", "192.168.1.1");
+		testLongestPrefixMatch(ipv4Blocks, "192.168.1.2", "192.168.0.0/16");
+		testLongestPrefixMatch(ipv4Blocks, "11.1.1.1", "0.0.0.0/0");
+		testLongestPrefixMatch(ipv4Blocks, "10.1.*.*", "10.1.0.0/16");
+		testLongestPrefixMatch(ipv4Blocks, "10.1.2.0/23", "10.1.0.0/16");
+		testLongestPrefixMatch(ipv4Blocks, "10.0.0.0/15", "10.0.0.0/8");
+		testLongestPrefixMatch(ipv4Blocks, "::1", null);
+
+		String ipv6Blocks[] = {
+				"1::/16",
+				"1:2::/32",
+				"1:2:3:4::/64",
+				"1:2:3:4:5::/80",
+				"1:2:3:4:5:6:7:8",
+				"1:3::/32",
+				"1.2.0.0/16"
+		};
+		testLongestPrefixMatch(ipv6Blocks, "1:2:3:4:5:6:7:8", "1:2:3:4:5:6:7:8");
+		testLongestPrefixMatch(ipv6Blocks, "1:2:3:4:5:6:7:9", "1:2:3:4:5::/80");
+		testLongestPrefixMatch(ipv6Blocks, "1:2:3:4:6::", "1:2:3:4::/64");
+		testLongestPrefixMatch(ipv6Blocks, "1:2:3:5::", "1:2::/32");
+		testLongestPrefixMatch(ipv6Blocks, "1:3:ffff::", "1:3::/32");
+		testLongestPrefixMatch(ipv6Blocks, "1:4::", "1::/16");
+		testLongestPrefixMatch(ipv6Blocks, "2::", null);
+		testLongestPrefixMatch(ipv6Blocks, "1.2.3.4", "1.2.0.0/16");
+
+		testContaining(ipv4Blocks, "10.1.2.130", new String[] {"0.0.0.0/0", "10.0.0.0/8", "10.1.0.0/16", "10.1.2.0/24", "10.1.2.128/25"});
+		testContaining(ipv4Blocks, "192.168.1.1", new String[] {"0.0.0.0/0", "192.168.0.0/16", "192.168.1.1"});
+		testContaining(ipv4Blocks, "10.128.0.0/9", new String[] {"0.0.0.0/0", "10.0.0.0/8", "10.128.0.0/9"});
+		testContaining(ipv6Blocks, "1:2:3:4:5:6:7:8", new String[] {"1::/16", "1:2::/32", "1:2:3:4::/64", "1:2:3:4:5::/80", "1:2:3:4:5:6:7:8"});
+		testContaining(ipv6Blocks, "2::", new String[0]);
+
+		testRemove(ipv4Blocks, new String[] {"10.1.0.0/16"});
+		testRemove(ipv4Blocks, new String[] {"10.0.0.0/8", "10.1.2.128/25"});
+		testRemove(ipv4Blocks, new String[] {"0.0.0.0/0", "192.168.1.1", "10.1.2.0/24"});
+		testRemove(ipv6Blocks, new String[] {"1:2:3:4:5:6:7:8", "1::/16"});
+		testRemove(ipv6Blocks, new String[] {"1:3::/32", "1.2.0.0/16", "1:2:3:4::/64"});
+
+		testIterationOrder(new String[] {
+				"1::/16",
+				"10.128.0.0/9",
+				"10.1.0.0/16",
+				"10.0.0.0/8",
+				"1:2::/32",
+				"9.0.0.0/8",
+				"10.0.0.0/16"
+		}, new String[] {
+				"9.0.0.0/8",
+				"10.0.0.0/8",
+				"10.0.0.0/16",
+				"10.1.0.0/16",
+				"10.128.0.0/9",
+				"1::/16",
+				"1:2::/32"
+		});
+
+		testNotBlock("1.2.3-4.5");
+		testNotBlock("1.2.1-2.*");
+		testNotBlock("1::2-3:4");
+
+		testMap();
+		testConcurrentMapReads(false);
+		testConcurrentMapReads(true);
+	}
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2017 Sean C Foley
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     or at
+ *     https://github.com/seancfoley/IPAddress/blob/master/LICENSE
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package inet.ipaddr.test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import inet.ipaddr.IPAddress;
+import inet.ipaddr.IPAddressString;
+import inet.ipaddr.format.util.IPAddressValueCache;
+import inet.ipaddr.ipv4.IPv4Address;
+import inet.ipaddr.ipv6.IPv6Address;
+
+
+public class IPAddressValueCacheTest extends TestBase {
+
+	IPAddressValueCacheTest(AddressCreator creator) {
+		super(creator);
+	}
+
+	void checkIPv4(IPAddressValueCache cache, int value) {
+		IPv4Address addr = cache.get(value);
+		if(addr.intValue() != value || addr.isPrefixed() || addr.isMultiple()) {
+			synchronized(this) {
+				addFailure(new Failure("cached value " + value, addr));
+			}
+		}
+	}
+
+	void checkIPv6(IPAddressValueCache cache, long high, long low) {
+		IPv6Address addr = cache.get(high, low);
+		if(addr.getHighBits() != high || addr.getLowBits() != low || addr.isPrefixed() || addr.hasZone()) {
+			synchronized(this) {
+				addFailure(new Failure("cached value " + high + " " + low, addr));
+			}
+		}
+	}
+
+	void testValues() {
+		IPAddressValueCache cache = new IPAddressValueCache(100);
+		IPv4Address addr = cache.get(0x01020304);
+		IPAddress fromBytes = cache.get(new byte[] {1, 2, 3, 4});
+		IPAddressString str = cache.getAddressString(0x01020304);
+		if(addr != fromBytes || !addr.equals(createAddress("1.2.3.4").getAddress()) || str.getAddress() != addr || !str.toString().equals("1.2.3.4")) {
+			addFailure(new Failure("cached address " + fromBytes, addr));
+		}
+		IPv6Address addr6 = cache.get(0x0001000200030004L, 5);
+		IPAddress fromBytes6 = cache.get(ByteBuffer.allocate(IPv6Address.BYTE_COUNT).putLong(0x0001000200030004L).putLong(5).array());
+		if(addr6 != fromBytes6 || addr6 != cache.getAddressString(0x0001000200030004L, 5).getAddress() ||
+				!addr6.equals(createAddress("1:2:3:4::5").getAddress()) || cache.size() != 2) {
+			addFailure(new Failure("cached address " + fromBytes6, addr6));
+		}
+		try {
+			cache.get(new byte[5]);
+			addFailure(new Failure("cached 5 bytes"));
+		} catch(IllegalArgumentException e) {}
+		cache.clear();
+		if(cache.size() != 0 || cache.get(0x01020304) == addr) {
+			addFailure(new Failure("cleared cache " + cache.size()));
+		}
+		incrementTestCount();
+	}
+
+	void testBounded() {
+		IPAddressValueCache cache = new IPAddressValueCache(16, 1);
+		Random random = new Random(0);
+		for(int i = 0; i < 1000; i++) {
+			checkIPv4(cache, random.nextInt());
+			checkIPv6(cache, random.nextLong(), random.nextLong());
+			//values that differ only in the high bits
+			checkIPv6(cache, i, 0);
+		}
+		if(cache.size() != 32) {
+			addFailure(new Failure("cache size " + cache.size()));
+		}
+		incrementTestCount();
+	}
+
+	void testDenseIPv6() {
+		IPAddressValueCache cache = new IPAddressValueCache(256, 1);
+		IPv6Address addrs[] = new IPv6Address[64];
+		long high = 0x20010db800000000L, low = 0x1000;
+		//values that would collide if the two halves were combined linearly before mixing
+		for(int i = 0; i < addrs.length; i++) {
+			addrs[i] = cache.get(high + i, low - 31 * i);
+		}
+		for(int i = 0; i < addrs.length; i++) {
+			if(cache.get(high + i, low - 31 * i) != addrs[i]) {
+				addFailure(new Failure("dense value evicted", addrs[i]));
+				break;
+			}
+		}
+		incrementTestCount();
+	}
+
+	void testConcurrent() {
+		IPAddressValueCache cache = new IPAddressValueCache(64, 4);
+		HostAllTest.testCachesSync(new Runnable() {
+			@Override
+			public void run() {
+				Random random = new Random();
+				for(int i = 0; i < 2000; i++) {
+					int value = random.nextInt(100);
+					checkIPv4(cache, value);
+					checkIPv6(cache, value, -value);
+				}
+			}
+		});
+		incrementTestCount();
+	}
+
+	@Override
+	void runTest() {
+		testValues();
+		testBounded();
+		testDenseIPv6();
+		testConcurrent();
+	}
+}
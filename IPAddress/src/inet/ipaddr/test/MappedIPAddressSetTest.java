@@ -0,0 +1,141 @@
+/*
+ * Copyright 2017 Sean C Foley
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     or at
+ *     https://github.com/seancfoley/IPAddress/blob/master/LICENSE
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package inet.ipaddr.test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+
+import inet.ipaddr.AddressTypeException;
+import inet.ipaddr.IPAddress;
+import inet.ipaddr.format.util.MappedIPAddressSet;
+
+
+public class MappedIPAddressSetTest extends TestBase {
+
+	MappedIPAddressSetTest(AddressCreator creator) {
+		super(creator);
+	}
+
+	static List<IPAddress> toList(Iterator<IPAddress> iterator) {
+		List<IPAddress> result = new ArrayList<IPAddress>();
+		while(iterator.hasNext()) {
+			result.add(iterator.next());
+		}
+		return result;
+	}
+
+	static long countBetween(TreeSet<IPAddress> set, IPAddress lower, IPAddress upper) {
+		return set.subSet(lower.getLower().removePrefixLength(false), true, upper.getUpper().removePrefixLength(false), true).size();
+	}
+
+	void testSet(String addrs[], String subnets[], String nonMembers[]) {
+		Path file = null;
+		try {
+			file = Files.createTempFile("addresses", ".set");
+			MappedIPAddressSet.Builder builder = new MappedIPAddressSet.Builder();
+			//the expected set, where IPv4 sorts before IPv6 and each version sorts by value
+			TreeSet<IPAddress> expected = new TreeSet<IPAddress>((one, two) -> one.isIPv4() != two.isIPv4() ? (one.isIPv4() ? -1 : 1) : one.compareTo(two));
+			for(String str : addrs) {
+				IPAddress addr = createAddress(str).getAddress();
+				builder.add(addr);
+				expected.add(addr);
+			}
+			MappedIPAddressSet set = builder.build(file);
+			List<IPAddress> found = toList(set.iterator());
+			if(set.size() != expected.size() || !found.equals(new ArrayList<IPAddress>(expected))) {
+				addFailure(new Failure("set iteration " + found + " expected " + expected));
+			}
+			incrementTestCount();
+			for(IPAddress addr : expected) {
+				if(!set.contains(addr)) {
+					addFailure(new Failure("set does not contain", addr));
+				}
+				incrementTestCount();
+			}
+			for(String str : nonMembers) {
+				IPAddress addr = createAddress(str).getAddress();
+				if(set.contains(addr)) {
+					addFailure(new Failure("set contains", addr));
+				}
+				incrementTestCount();
+			}
+			for(String str : subnets) {
+				IPAddress subnet = createAddress(str, INET_ATON_WILDCARD_AND_RANGE_OPTIONS).getAddress();
+				long expectedCount = countBetween(expected, subnet, subnet);
+				List<IPAddress> within = toList(set.iterator(subnet));
+				if(set.count(subnet, subnet) != expectedCount || within.size() != expectedCount) {
+					addFailure(new Failure("set count " + set.count(subnet, subnet) + " expected " + expectedCount, subnet));
+				} else {
+					boolean allContained = true;
+					Iterator<? extends IPAddress> iterator = subnet.iterator();
+					while(iterator.hasNext()) {
+						if(!expected.contains(iterator.next().removePrefixLength(false))) {
+							allContained = false;
+							break;
+						}
+					}
+					if(set.contains(subnet) != allContained) {
+						addFailure(new Failure("set subnet containment " + set.contains(subnet) + " expected " + allContained, subnet));
+					}
+				}
+				incrementTestCount();
+			}
+			try {
+				builder.add(createAddress("1.2.3.0/24").getAddress());
+				addFailure(new Failure("set added a subnet"));
+			} catch(AddressTypeException e) {}
+			incrementTestCount();
+
+			//reopening the file gives the same set
+			found = toList(MappedIPAddressSet.open(file).iterator());
+			if(!found.equals(new ArrayList<IPAddress>(expected))) {
+				addFailure(new Failure("reopened set " + found + " expected " + expected));
+			}
+			incrementTestCount();
+		} catch(IOException e) {
+			addFailure(new Failure("set failed " + e));
+		} finally {
+			if(file != null) {
+				try {
+					Files.delete(file);
+				} catch(IOException e) {}
+			}
+		}
+	}
+
+	@Override
+	void runTest() {
+		testSet(new String[0], new String[] {"1.2.3.0/24", "::/0"}, new String[] {"1.2.3.4", "::1"});
+		testSet(new String[] {
+					"1.2.3.4", "1.2.3.5", "1.2.3.4", "255.255.255.255", "0.0.0.0", "128.0.0.1", "127.255.255.255", "1.2.3.6", "1.2.3.7",
+					"::", "::1", "ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff", "8000::", "7fff:ffff:ffff:ffff:ffff:ffff:ffff:ffff",
+					"1:2:3:4::", "1:2:3:4:8000::", "1:2:3:4:ffff:ffff:ffff:ffff", "1:2:3:5::", "::1"
+				},
+				new String[] {
+					"1.2.3.4/30", "1.2.3.4/31", "1.2.3.0/24", "0.0.0.0/0", "128.0.0.0/1", "0.0.0.0/1", "255.255.255.255/32", "1.2.3-6.4-7", "1.2.3.4-7",
+					"::/0", "::/127", "1:2:3:4::/64", "1:2:3:4::/65", "8000::/1", "::/1", "1:2:3::/48", "ffff:ffff:ffff:ffff:ffff:ffff:ffff:fffe/127"
+				},
+				new String[] {"1.2.3.3", "1.2.3.8", "255.255.255.254", "::2", "1:2:3:4::1", "1:2:3:4:ffff:ffff:ffff:fffe", "fe80::1"});
+	}
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2017 Sean C Foley
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     or at
+ *     https://github.com/seancfoley/IPAddress/blob/master/LICENSE
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package inet.ipaddr.test;
+
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import inet.ipaddr.IPAddressSegment;
+import inet.ipaddr.IPAddressString;
+import inet.ipaddr.ipv4.IPv4Address;
+import inet.ipaddr.ipv4.IPv4AddressNetwork.IPv4AddressCreator;
+import inet.ipaddr.ipv4.IPv4AddressSegment;
+import inet.ipaddr.ipv6.IPv6Address;
+import inet.ipaddr.ipv6.IPv6AddressNetwork.IPv6AddressCreator;
+import inet.ipaddr.ipv6.IPv6AddressSegment;
+
+
+public class SegmentCacheTest extends TestBase {
+
+	static final String THROUGHPUT_ADDRESSES[] = {
+		"1.2.3.4", "10.0.0.1/8", "192.168.255.254", "255.255.255.0", "172.16.32.64/27",
+		"1:2:3:4:5:6:7:8", "fe80::1:2", "2001:db8:85a3::8a2e:370:7334", "ffff:ffff:ffff:ffff::/64", "a:b:c:d:e:f:a:b/112"
+	};
+
+	SegmentCacheTest(AddressCreator creator) {
+		super(creator);
+	}
+
+	void checkSegment(IPAddressSegment segment, int value, Integer prefix, int bitCount) {
+		Integer expectedPrefix = (prefix == null) ? null : Math.min(prefix, bitCount);
+		int mask = (prefix == null) ? -1 : (-1 << (bitCount - expectedPrefix));
+		if(segment.getLowerSegmentValue() != (value & mask) || !Objects.equals(segment.getSegmentPrefixLength(), expectedPrefix)) {
+			synchronized(this) {
+				addFailure(new Failure("segment " + segment + " for value " + value + " prefix " + prefix));
+			}
+		}
+	}
+
+	void testConcurrentCreation() {
+		IPv4AddressCreator creator = IPv4Address.network().getAddressCreator();
+		IPv6AddressCreator creator6 = IPv6Address.network().getAddressCreator();
+		Random random = new Random();
+		int values[] = new int[500];
+		for(int i = 0; i < values.length; i++) {
+			values[i] = random.nextInt(IPv6Address.MAX_VALUE_PER_SEGMENT + 1);
+		}
+		ConcurrentLinkedQueue<IPAddressSegment[]> results = new ConcurrentLinkedQueue<IPAddressSegment[]>();
+		HostAllTest.testCachesSync(new Runnable() {
+			@Override
+			public void run() {
+				IPAddressSegment segments[] = new IPAddressSegment[values.length * 4];
+				for(int i = 0, j = 0; i < values.length; i++) {
+					int value = values[i];
+					int prefix = 1 + (i % IPv6Address.BITS_PER_SEGMENT);
+					segments[j++] = creator6.createSegment(value);
+					segments[j++] = creator6.createSegment(value, prefix);
+					segments[j++] = creator.createSegment(value & IPv4Address.MAX_VALUE_PER_SEGMENT);
+					segments[j++] = creator.createSegment(value & IPv4Address.MAX_VALUE_PER_SEGMENT, prefix);
+				}
+				results.add(segments);
+			}
+		});
+		IPAddressSegment first[] = results.peek();
+		for(int i = 0, j = 0; i < values.length; i++) {
+			int value = values[i];
+			int prefix = 1 + (i % IPv6Address.BITS_PER_SEGMENT);
+			checkSegment(first[j++], value, null, IPv6Address.BITS_PER_SEGMENT);
+			checkSegment(first[j++], value, prefix, IPv6Address.BITS_PER_SEGMENT);
+			checkSegment(first[j++], value & IPv4Address.MAX_VALUE_PER_SEGMENT, null, IPv4Address.BITS_PER_SEGMENT);
+			checkSegment(first[j++], value & IPv4Address.MAX_VALUE_PER_SEGMENT, prefix, IPv4Address.BITS_PER_SEGMENT);
+		}
+		//all threads must have been given the same instances
+		for(IPAddressSegment segments[] : results) {
+			for(int i = 0; i < segments.length; i++) {
+				if(segments[i] != first[i]) {
+					addFailure(new Failure("segment instance mismatch " + segments[i] + " and " + first[i]));
+					break;
+				}
+			}
+		}
+		incrementTestCount();
+	}
+
+	void testPreload() {
+		IPv4AddressCreator creator = IPv4Address.network().getAddressCreator();
+		IPv6AddressCreator creator6 = IPv6Address.network().getAddressCreator();
+		IPv4AddressSegment segment = creator.createSegment(123);
+		IPv4AddressSegment prefixedSegment = creator.createSegment(123, 4);
+		IPv6AddressSegment segment6 = creator6.createSegment(0xabcd);
+		IPv6AddressSegment prefixedSegment6 = creator6.createSegment(0xabcd, 9);
+		IPv4AddressCreator.preloadSegmentCaches(true);
+		IPv6AddressCreator.preloadSegmentCaches(true);
+		if(creator.createSegment(123) != segment || creator.createSegment(123, 4) != prefixedSegment ||
+				creator6.createSegment(0xabcd) != segment6 || creator6.createSegment(0xabcd, 9) != prefixedSegment6) {
+			addFailure(new Failure("preloading replaced cached segments"));
+		}
+		for(int prefix = 1; prefix <= IPv4Address.BITS_PER_SEGMENT; prefix++) {
+			for(int value = 0; value <= IPv4Address.MAX_VALUE_PER_SEGMENT; value++) {
+				checkSegment(creator.createSegment(value, prefix), value, prefix, IPv4Address.BITS_PER_SEGMENT);
+			}
+			int mask = IPv4Address.network().getSegmentNetworkMask(prefix);
+			IPv4AddressSegment all = creator.createSegment(0, mask, prefix);
+			if(all != creator.createSegment(0, mask, prefix) || all.getUpperSegmentValue() != IPv4Address.MAX_VALUE_PER_SEGMENT) {
+				addFailure(new Failure("prefixed range segment " + all));
+			}
+		}
+		for(int value = 0; value <= IPv6Address.MAX_VALUE_PER_SEGMENT; value += 0xff) {
+			checkSegment(creator6.createSegment(value), value, null, IPv6Address.BITS_PER_SEGMENT);
+			for(int prefix = 1; prefix <= IPv6Address.BITS_PER_SEGMENT; prefix++) {
+				checkSegment(creator6.createSegment(value, prefix), value, prefix, IPv6Address.BITS_PER_SEGMENT);
+			}
+		}
+		incrementTestCount();
+	}
+
+	/**
+	 * Reports the throughput of parsing addresses, with the segment caches populated lazily, and then pre-populated.
+	 */
+	static void runThroughput() {
+		Runnable parse = new Runnable() {
+			@Override
+			public void run() {
+				for(String str : THROUGHPUT_ADDRESSES) {
+					new IPAddressString(str).getAddress();
+				}
+			}
+		};
+		TestRunner.runThroughput("address parsing", 64, 20000, parse);
+		IPv4AddressCreator.preloadSegmentCaches(true);
+		IPv6AddressCreator.preloadSegmentCaches(true);
+		TestRunner.runThroughput("address parsing, preloaded segment caches", 64, 20000, parse);
+	}
+
+	@Override
+	void runTest() {
+		testConcurrentCreation();
+		testPreload();
+	}
+}
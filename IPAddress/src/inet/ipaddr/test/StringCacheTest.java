@@ -0,0 +1,181 @@
+/*
+ * Copyright 2017 Sean C Foley
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     or at
+ *     https://github.com/seancfoley/IPAddress/blob/master/LICENSE
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package inet.ipaddr.test;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import inet.ipaddr.HostName;
+import inet.ipaddr.IPAddress;
+import inet.ipaddr.IPAddressString;
+import inet.ipaddr.format.IPAddressDivisionGrouping.Range;
+import inet.ipaddr.format.IPAddressDivisionGrouping.RangeList;
+import inet.ipaddr.ipv4.IPv4Address;
+import inet.ipaddr.ipv6.IPv6Address;
+import inet.ipaddr.ipv6.IPv6AddressSection;
+
+
+public class StringCacheTest extends TestBase {
+
+	static final String SHARED_ADDRESSES[] = {
+		"1:2:3:4:5:6:7:8", "1:2::/64", "a:b:c:d:0-ff:*:*:*", "::ffff:1.2.3.4", "fe80::1%eth0", "::", "1.2.3.4", "1.2.0.0/16", "1.2.*.0-127"
+	};
+
+	StringCacheTest(AddressCreator creator) {
+		super(creator);
+	}
+
+	//the host address is set without synchronization, so threads may see different but equal addresses
+	static final int HOST_ADDRESS_INDEX = 0;
+
+	static Object[] getCachedValues(IPAddress addr, HostName host) {
+		Object values[] = new Object[16];
+		int i = 0;
+		values[i++] = host.isValid() ? host.asAddress() : null;
+		values[i++] = host.toNormalizedString();
+		values[i++] = addr.toCanonicalString();
+		values[i++] = addr.toCompressedString();
+		values[i++] = addr.toNormalizedWildcardString();
+		values[i++] = addr.toFullString();
+		values[i++] = addr.getSegment(addr.getSegmentCount() - 1).toString();
+		values[i++] = addr.getSegment(0).getWildcardString();
+		values[i++] = addr.getSection().getZeroSegments();
+		values[i++] = addr.getSection().getZeroRangeSegments();
+		values[i++] = addr.getNetwork().getNetworkMask(addr.getBitCount() - 1, true);
+		values[i++] = addr.getNetwork().getHostMask(1);
+		values[i++] = addr.getNetwork().getLoopback().toCanonicalString();
+		if(addr.isIPv6()) {
+			IPv6Address addr6 = (IPv6Address) addr;
+			IPv6AddressSection section = addr6.getSection();
+			values[i++] = addr6.toMixedString();
+			values[i++] = section.getEmbeddedIPv4AddressSection();
+			values[i++] = section.getMixedAddressSection();
+		}
+		return values;
+	}
+
+	//strings, addresses and zero ranges must match those obtained without concurrency, 
+	//while the other cached objects must be the same instances in all threads sharing an address.
+	//Zero range lists are computed without synchronization, so they are compared by their ranges.
+	static boolean matches(Object one[], Object two[], boolean checkIdentity) {
+		for(int i = 0; i < one.length; i++) {
+			Object oneValue = one[i], twoValue = two[i];
+			if(oneValue instanceof RangeList) {
+				if(!(twoValue instanceof RangeList) || !rangesMatch((RangeList) oneValue, (RangeList) twoValue)) {
+					return false;
+				}
+			} else if(oneValue instanceof String || ((!checkIdentity || i == HOST_ADDRESS_INDEX) && oneValue instanceof IPAddress)) {
+				if(!oneValue.equals(twoValue)) {
+					return false;
+				}
+			} else if(checkIdentity && oneValue != twoValue) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	static boolean rangesMatch(RangeList one, RangeList two) {
+		if(one.size() != two.size()) {
+			return false;
+		}
+		for(int i = 0; i < one.size(); i++) {
+			Range oneRange = one.getRange(i), twoRange = two.getRange(i);
+			if(oneRange.index != twoRange.index || oneRange.length != twoRange.length) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	void testConcurrentCaches(String str) {
+		IPAddress expectedAddr = new IPAddressString(str).getAddress();
+		Object expected[] = getCachedValues(expectedAddr, new HostName(str));
+		IPAddress shared = new IPAddressString(str).getAddress();
+		HostName sharedHost = new HostName(str);
+		ConcurrentLinkedQueue<Object[]> results = new ConcurrentLinkedQueue<Object[]>();
+		HostAllTest.testCachesSync(new Runnable() {
+			@Override
+			public void run() {
+				results.add(getCachedValues(shared, sharedHost));
+			}
+		});
+		Object first[] = results.peek();
+		if(!matches(expected, first, false)) {
+			addFailure(new Failure("cached values " + Arrays.asList(first) + " expected " + Arrays.asList(expected), shared));
+		}
+		for(Object next[] : results) {
+			if(!matches(first, next, true)) {
+				addFailure(new Failure("cached values " + Arrays.asList(next) + " differ from " + Arrays.asList(first), shared));
+				break;
+			}
+		}
+		incrementTestCount();
+	}
+
+	void testMasks() {
+		for(int i = 0; i <= IPv4Address.BIT_COUNT; i++) {
+			IPv4Address mask = IPv4Address.network().getNetworkMask(i, false);
+			if(!Integer.valueOf(i).equals(mask.getMaskPrefixLength(true)) || mask != IPv4Address.network().getNetworkMask(i, false)) {
+				addFailure(new Failure("network mask " + i, mask));
+			}
+		}
+		for(int i = 0; i <= IPv6Address.BIT_COUNT; i++) {
+			IPv6Address mask = IPv6Address.network().getHostMask(i);
+			if(!Integer.valueOf(i).equals(mask.getMaskPrefixLength(false)) || mask != IPv6Address.network().getHostMask(i)) {
+				addFailure(new Failure("host mask " + i, mask));
+			}
+		}
+		incrementTestCount();
+	}
+
+	/**
+	 * Reports the throughput of formatting addresses shared by all threads, along with parsing and formatting new addresses.
+	 */
+	static void runThroughput() {
+		IPAddress shared[] = new IPAddress[SHARED_ADDRESSES.length];
+		for(int i = 0; i < shared.length; i++) {
+			shared[i] = new IPAddressString(SHARED_ADDRESSES[i]).getAddress();
+		}
+		TestRunner.runThroughput("formatting shared addresses", 64, 20000, new Runnable() {
+			@Override
+			public void run() {
+				for(IPAddress addr : shared) {
+					getCachedValues(addr, new HostName(addr));
+				}
+			}
+		});
+		TestRunner.runThroughput("parsing and formatting", 64, 2000, new Runnable() {
+			@Override
+			public void run() {
+				for(String str : SHARED_ADDRESSES) {
+					getCachedValues(new IPAddressString(str).getAddress(), new HostName(str));
+				}
+			}
+		});
+	}
+
+	@Override
+	void runTest() {
+		for(String str : SHARED_ADDRESSES) {
+			testConcurrentCaches(str);
+		}
+		testMasks();
+	}
+}
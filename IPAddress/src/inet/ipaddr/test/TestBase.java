@@ -681,7 +681,7 @@ public abstract class TestBase {
 		return true;
 	}
 	
-	private static final IPAddressStringParameters DEFAULT_BASIC_VALIDATION_OPTIONS = new IPAddressStringParameters.Builder().toParams();
+	protected static final IPAddressStringParameters DEFAULT_BASIC_VALIDATION_OPTIONS = new IPAddressStringParameters.Builder().toParams();
 	
 	boolean confirmAddrStrings(IPAddress ipAddr, String ...strs) {
 		for(String str : strs) {
@@ -532,9 +532,55 @@ public class TestRunner extends TestBase implements AddressCreator {
 				perf.addTime(totalTime);
 				perfStartTime = endTime;
 			}
+			SegmentCacheTest.runThroughput();
+			StringCacheTest.runThroughput();
 		}
 	}
 	
+	/**
+	 * Runs the given runnable the given number of times in each of 1, 2, 4, and so on up to maxThreads threads, 
+	 * and reports the number of runs per second across all threads for each thread count.
+	 * The runnable is first run the given number of times to warm up.
+	 */
+	static void runThroughput(String name, int maxThreads, final int iterations, final Runnable runnable) {
+		for(int j = 0; j < iterations; j++) {
+			runnable.run();
+		}
+		String str = "";
+		for(int numThreads = 1; numThreads <= maxThreads; numThreads <<= 1) {
+			final CyclicBarrier barrier = new CyclicBarrier(numThreads + 1);
+			Thread threads[] = new Thread[numThreads];
+			for(int i = 0; i < numThreads; i++) {
+				threads[i] = new Thread() {
+					@Override
+					public void run() {
+						try {
+							barrier.await();
+							for(int j = 0; j < iterations; j++) {
+								runnable.run();
+							}
+						} catch (InterruptedException | BrokenBarrierException e) {
+							e.printStackTrace();
+						}
+					}
+				};
+				threads[i].start();
+			}
+			try {
+				barrier.await();
+				long startTime = System.nanoTime();
+				for(Thread thread : threads) {
+					thread.join();
+				}
+				long totalTime = System.nanoTime() - startTime;
+				str += numThreads + " threads: " + (numThreads * (long) iterations * 1000000000L / totalTime) + " per second" + System.lineSeparator();
+			} catch (InterruptedException | BrokenBarrierException e) {
+				e.printStackTrace();
+			}
+		}
+		showMessage(name + " throughput:" + System.lineSeparator() + str);
+	}
+	
 	Thread[] runInThreads(int numThreads, final Runnable runnable) {
 		Thread threads[] = new Thread[numThreads];
 		final CyclicBarrier barrier = new CyclicBarrier(numThreads);
@@ -568,7 +614,15 @@ public class TestRunner extends TestBase implements AddressCreator {
 					new HostAllTest(this),
 					new MACAddressTest(this),
 					new MACAddressRangeTest(this),
-					new AddressOrderTest(this)
+					new AddressOrderTest(this),
+					new IPAddressTrieTest(this),
+					new AddressScannerTest(this),
+					new MappedIPAddressSetTest(this),
+					new IPAddressRangeSetTest(this),
+					new BoundedCacheMapTest(this),
+					new IPAddressValueCacheTest(this),
+					new SegmentCacheTest(this),
+					new StringCacheTest(this)
 				};
 		for(TestBase test : tests) {
 			test.fullTest = fullTest;